@@ -0,0 +1,69 @@
+package nik.kalomiris.events.dtos;
+
+import java.time.Instant;
+import java.util.List;
+
+public class InventoryReleasedEvent {
+    /**
+     * Event published when the stock reserved for an order is given back
+     * because the order was not confirmed in time, or when a confirmation
+     * arrives after that. Contains a human-readable `reason` and the items
+     * released (empty if the reservation was already released earlier).
+     * Consumers use this to cancel the order.
+     */
+    private String orderNumber;
+    private String correlationId;
+    private Instant timestamp;
+    private String reason;
+    private List<OrderLineItem> releasedItems;
+
+    public InventoryReleasedEvent() {}
+
+    public InventoryReleasedEvent(String orderNumber, String correlationId, Instant timestamp, String reason, List<OrderLineItem> releasedItems) {
+        this.orderNumber = orderNumber;
+        this.correlationId = correlationId;
+        this.timestamp = timestamp;
+        this.reason = reason;
+        this.releasedItems = releasedItems;
+    }
+
+    public String getOrderNumber() {
+        return orderNumber;
+    }
+
+    public void setOrderNumber(String orderNumber) {
+        this.orderNumber = orderNumber;
+    }
+
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public void setCorrelationId(String correlationId) {
+        this.correlationId = correlationId;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Instant timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public List<OrderLineItem> getReleasedItems() {
+        return releasedItems;
+    }
+
+    public void setReleasedItems(List<OrderLineItem> releasedItems) {
+        this.releasedItems = releasedItems;
+    }
+}
@@ -5,11 +5,13 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.persistence.Column;
 
 @Entity
-@Table(name = "inventory")
+@Table(name = "inventory", uniqueConstraints = @UniqueConstraint(name = "uk_inventory_product_id", columnNames = "product_id"))
 /**
  * JPA entity storing inventory state for a product SKU.
  *
@@ -18,12 +20,16 @@ import jakarta.persistence.Column;
  * - `quantity` is the total available stock.
  * - `reservedQuantity` is the amount currently reserved (not yet committed).
  *
+ * At most one row exists per productId (unique constraint), which keeps
+ * record creation idempotent across service instances.
+ *
  * The model intentionally separates reserved vs available to support
  * eventual-consistency patterns when coordinating across services.
  */
 public class Inventory {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_seq")
+    @SequenceGenerator(name = "inventory_seq", sequenceName = "inventory_seq", allocationSize = 50)
     private Long id;
 
     private String sku;
@@ -7,10 +7,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.InputStream;
 import java.util.Optional;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import nik.kalomiris.inventory_service.bulk.BulkImportResult;
+import nik.kalomiris.inventory_service.bulk.BulkStockImportService;
+
 
 @RestController
 @RequestMapping("/api/inventory")
@@ -22,9 +26,11 @@ import org.springframework.web.bind.annotation.RequestBody;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final BulkStockImportService bulkStockImportService;
 
-    public InventoryController(InventoryService inventoryService) {
+    public InventoryController(InventoryService inventoryService, BulkStockImportService bulkStockImportService) {
         this.inventoryService = inventoryService;
+        this.bulkStockImportService = bulkStockImportService;
     }
 
     @GetMapping("/{sku}")
@@ -60,6 +66,18 @@ public class InventoryController {
         return ResponseEntity.ok().build();
     }
 
+    // Bulk quantity update streamed line by line: one {"productId","quantity"}
+    // JSON object per line, or productId,quantity CSV rows
+    @PostMapping(value = "/bulk/quantity", consumes = "application/x-ndjson")
+    public ResponseEntity<BulkImportResult> bulkSetQuantityNdjson(InputStream body) {
+        return ResponseEntity.ok(bulkStockImportService.importQuantities(body, BulkStockImportService.Format.NDJSON));
+    }
+
+    @PostMapping(value = "/bulk/quantity", consumes = "text/csv")
+    public ResponseEntity<BulkImportResult> bulkSetQuantityCsv(InputStream body) {
+        return ResponseEntity.ok(bulkStockImportService.importQuantities(body, BulkStockImportService.Format.CSV));
+    }
+
     // Test/admin helper: create inventory record if missing (idempotent)
     @PostMapping("/{productId}/create")
     public ResponseEntity<Void> createInventoryIfMissing(@PathVariable Long productId, @org.springframework.web.bind.annotation.RequestParam String sku) {
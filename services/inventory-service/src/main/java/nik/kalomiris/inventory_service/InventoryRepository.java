@@ -1,17 +1,26 @@
 
 package nik.kalomiris.inventory_service;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
 /**
  * Repository for Inventory entities.
  *
- * Provides simple finder methods used by the service and event listeners.
+ * Provides simple finder methods used by the service and event listeners,
+ * and guarded single-statement stock updates. Each guarded update checks its
+ * precondition in the WHERE clause and returns the number of updated rows, so
+ * concurrent updates of the same row can neither oversell nor overwrite each
+ * other; 0 means the product has no inventory row or the check failed.
  */
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     /** Find inventory by SKU (unique per product catalog). */
@@ -20,6 +29,63 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     /** Find inventory by productId (maps to product-service identifier). */
     Optional<Inventory> findByProductId(Long productId);
 
+    boolean existsByProductId(Long productId);
+
+    /**
+     * Load and lock (SELECT ... FOR UPDATE) the inventory rows of the given
+     * products. Rows are locked in productId order, so transactions locking
+     * overlapping sets of products cannot deadlock each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.productId IN :productIds ORDER BY i.productId")
+    List<Inventory> findAllByProductIdForUpdate(@Param("productIds") Collection<Long> productIds);
+
+    /** Reserve {@code amount} if at least that much stock is available. */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventory i SET i.reservedQuantity = i.reservedQuantity + :amount "
+            + "WHERE i.productId = :productId AND i.quantity - i.reservedQuantity >= :amount")
+    int reserve(@Param("productId") Long productId, @Param("amount") int amount);
+
+    /** Release {@code amount} of reserved stock if at least that much is reserved. */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventory i SET i.reservedQuantity = i.reservedQuantity - :amount "
+            + "WHERE i.productId = :productId AND i.reservedQuantity >= :amount")
+    int release(@Param("productId") Long productId, @Param("amount") int amount);
+
+    /**
+     * Remove {@code amount} of reserved stock from both the reserved and the
+     * total quantity if at least that much is reserved.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventory i SET i.reservedQuantity = i.reservedQuantity - :amount, "
+            + "i.quantity = i.quantity - :amount "
+            + "WHERE i.productId = :productId AND i.reservedQuantity >= :amount")
+    int commit(@Param("productId") Long productId, @Param("amount") int amount);
+
+    /**
+     * Set the total quantity, leaving the reserved quantity as concurrent
+     * reservations and commits left it.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventory i SET i.quantity = :quantity WHERE i.productId = :productId")
+    int setQuantity(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    /** Add deltas to the quantity and reserved quantity without any check. */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventory i SET i.quantity = i.quantity + :quantityDelta, "
+            + "i.reservedQuantity = i.reservedQuantity + :reservedDelta "
+            + "WHERE i.productId = :productId")
+    int applyDelta(@Param("productId") Long productId, @Param("quantityDelta") int quantityDelta,
+            @Param("reservedDelta") int reservedDelta);
+
+    @Query("SELECT i.quantity FROM Inventory i WHERE i.productId = :productId")
+    Optional<Integer> findQuantityByProductId(@Param("productId") Long productId);
+
     @Query("SELECT SUM(i.quantity) FROM Inventory i")
     Long sumTotalQuantity();
 
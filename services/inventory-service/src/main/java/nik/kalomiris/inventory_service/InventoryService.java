@@ -3,18 +3,35 @@ package nik.kalomiris.inventory_service;
 
 import nik.kalomiris.logging_client.LogPublisher;
 import nik.kalomiris.logging_client.LogMessage;
-import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import nik.kalomiris.inventory_service.exceptions.InsufficientStockException;
 import nik.kalomiris.inventory_service.exceptions.InventoryNotFoundException;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import nik.kalomiris.events.dtos.OrderLineItem;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import nik.kalomiris.inventory_service.metrics.InventoryMetrics;
+import nik.kalomiris.inventory_service.ledger.HotStockService;
+import nik.kalomiris.inventory_service.reservation.ReservationTracker;
+import nik.kalomiris.inventory_service.reservation.StockReservation;
+import nik.kalomiris.inventory_service.cache.AvailabilityCache;
+import org.springframework.beans.factory.annotation.Autowired;
 
 @Service
 /**
@@ -23,7 +40,12 @@ import nik.kalomiris.inventory_service.metrics.InventoryMetrics;
  * Responsibilities:
  * - read/update Inventory records
  * - provide idempotent creation for incoming ProductCreated events
- * - reserve / release / commit stock with simple validation and exceptions
+ * - reserve / release / commit stock with guarded single-statement updates
+ * - reserve all lines of an order at once, all or nothing
+ * - reserve a batch of orders with one write per product
+ * - record the stock reserved per order so unconfirmed orders expire
+ * - serve stock lookups from a local cache invalidated by every stock change
+ * - route stock operations on hot products to the in-memory ledger when enabled
  * - publish structured logs via the project's LogPublisher (best-effort)
  */
 public class InventoryService {
@@ -35,20 +57,74 @@ public class InventoryService {
     private static final String SERVICE_NAME = "inventory-service";
     private static final String LOGGER_NAME = "nik.kalomiris.inventory_service.InventoryService";
     private static final String PRODUCT_ID_KEY = "productId";
-    private final ConcurrentHashMap<String, Object> createLocks = new ConcurrentHashMap<>();
+    // Striped container-local locks for record creation, indexed by SKU hash.
+    // Fixed size, so memory does not grow with the number of SKUs seen.
+    private static final int CREATE_LOCK_STRIPES = 64;
+    private final Object[] createLocks = new Object[CREATE_LOCK_STRIPES];
     private final InventoryMetrics inventoryMetrics;
+    private final HotStockService hotStockService;
+    private final ReservationTracker reservationTracker;
+    private final AvailabilityCache availabilityCache;
 
     public InventoryService(InventoryRepository inventoryRepository, InventoryMapper inventoryMapper,
             LogPublisher logPublisher, InventoryMetrics inventoryMetrics) {
+        this(inventoryRepository, inventoryMapper, logPublisher, inventoryMetrics, null, null, null);
+    }
+
+    @Autowired
+    public InventoryService(InventoryRepository inventoryRepository, InventoryMapper inventoryMapper,
+            LogPublisher logPublisher, InventoryMetrics inventoryMetrics,
+            @Autowired(required = false) HotStockService hotStockService,
+            @Autowired(required = false) ReservationTracker reservationTracker,
+            @Autowired(required = false) AvailabilityCache availabilityCache) {
         this.inventoryRepository = inventoryRepository;
         this.inventoryMapper = inventoryMapper;
         this.logPublisher = logPublisher;
         this.inventoryMetrics = inventoryMetrics;
+        this.hotStockService = hotStockService;
+        this.reservationTracker = reservationTracker;
+        this.availabilityCache = availabilityCache;
+        for (int i = 0; i < createLocks.length; i++) {
+            createLocks[i] = new Object();
+        }
     }
 
     public Optional<InventoryDTO> getInventoryBySku(String sku) {
-        return inventoryRepository.findBySku(sku)
-                .map(inventoryMapper::toDto);
+        if (availabilityCache == null) {
+            return inventoryRepository.findBySku(sku)
+                    .map(inventory -> toDto(inventory.getProductId(), inventoryMapper.toDto(inventory)));
+        }
+        AvailabilityCache.Entry entry = availabilityCache.get(sku, key -> inventoryRepository.findBySku(key)
+                .map(inventory -> new AvailabilityCache.Entry(inventory.getProductId(), inventory.getSku(),
+                        inventory.getQuantity(), inventory.getReservedQuantity()))
+                .orElse(null));
+        if (entry == null) {
+            return Optional.empty();
+        }
+        Inventory snapshot = new Inventory(entry.getSku(), entry.getQuantity(), entry.getReservedQuantity());
+        return Optional.of(toDto(entry.getProductId(), inventoryMapper.toDto(snapshot)));
+    }
+
+    // The inventory row of a hot product lags behind its in-memory counters
+    private InventoryDTO toDto(Long productId, InventoryDTO dto) {
+        if (isHot(productId)) {
+            dto.setQuantity(Math.toIntExact(hotStockService.getQuantity(productId)));
+            dto.setReservedQuantity(Math.toIntExact(hotStockService.getReserved(productId)));
+            dto.setInStock(dto.getQuantity() > 0);
+        }
+        return dto;
+    }
+
+    private boolean isHot(Long productId) {
+        return hotStockService != null && hotStockService.isHot(productId);
+    }
+
+    /**
+     * @return true if the product's stock is kept in the in-memory ledger and
+     *         must only be changed through this service
+     */
+    public boolean isHotProduct(Long productId) {
+        return isHot(productId);
     }
 
     /**
@@ -57,9 +133,11 @@ public class InventoryService {
      * Notes:
      * - Designed to be safe when the same ProductCreatedEvent is processed
      * multiple times (checks by productId and sku).
-     * - Uses a lightweight in-process lock per SKU to reduce concurrent
-     * create races, and catches optimistic locking exceptions which are
-     * treated as benign (another transaction created the row).
+     * - Uses a fixed set of striped in-process locks to reduce concurrent
+     * create races within a container. Across containers the unique
+     * constraint on product_id rejects the second insert; that, like an
+     * optimistic locking exception, is treated as benign (another
+     * transaction created the row).
      */
     public void createInventoryRecord(Long productId, String sku) {
         // Idempotent creation: first check by productId, then by SKU. This reduces
@@ -68,8 +146,8 @@ public class InventoryService {
             return;
         }
 
-        // Lightweight container-local lock per SKU to reduce concurrent create races
-        Object lock = createLocks.computeIfAbsent(sku, k -> new Object());
+        // Lightweight container-local lock stripe to reduce concurrent create races
+        Object lock = createLocks[Math.floorMod(sku.hashCode(), CREATE_LOCK_STRIPES)];
         synchronized (lock) {
             if (inventoryRepository.findByProductId(productId).isPresent()
                     || inventoryRepository.findBySku(sku).isPresent()) {
@@ -84,7 +162,7 @@ public class InventoryService {
                 // persist via JPA and flush to ensure immediate visibility
                 inventoryRepository.saveAndFlush(newInventory);
                 logger.info("Inventory saveAndFlush completed for sku={} productId={}", sku, productId);
-                safeMarkUpdated();
+                safeMetrics(metrics -> metrics.recordCreated(0));
 
                 // publish informational logs without impacting business logic
                 // Publish a single informational log containing both sku and productId
@@ -95,7 +173,7 @@ public class InventoryService {
                         .logger(LOGGER_NAME)
                         .metadata(Map.of("sku", sku, PRODUCT_ID_KEY, String.valueOf(productId)))
                         .build());
-            } catch (ObjectOptimisticLockingFailureException e) {
+            } catch (ObjectOptimisticLockingFailureException | DataIntegrityViolationException e) {
                 // Another transaction created/updated the row concurrently. Treat
                 // this as a benign race and return; the inventory record exists now.
                 safePublish(new LogMessage.Builder()
@@ -124,117 +202,440 @@ public class InventoryService {
         }
     }
 
+    /**
+     * Reserve a quantity for a given productId.
+     *
+     * Check and update are a single guarded UPDATE, so concurrent reservations
+     * of the same product cannot oversell.
+     *
+     * Throws {@link InsufficientStockException} when available stock
+     * is insufficient, or {@link InventoryNotFoundException} when no
+     * inventory record exists for the product.
+     */
     public void reserveStock(Long productId, Integer amountToReserver) {
-        /**
-         * Reserve a quantity for a given productId.
-         *
-         * Throws {@link InsufficientStockException} when available stock
-         * is insufficient, or {@link InventoryNotFoundException} when no
-         * inventory record exists for the product.
-         */
-        Optional<Inventory> inventoryOpt = inventoryRepository.findByProductId(productId);
-        if (inventoryOpt.isPresent()) {
-            Inventory inventory = inventoryOpt.get();
-            if (inventory.getQuantity() - inventory.getReservedQuantity() >= amountToReserver) {
-                inventory.setReservedQuantity(inventory.getReservedQuantity() + amountToReserver);
-                inventoryRepository.save(inventory);
-                safeMarkUpdated();
-
-                // Publish a log event about the stock reservation. Ignore logging failures.
-                try {
-                    LogMessage logMessage = new LogMessage.Builder()
-                            .message("Stock reserved")
-                            .level("INFO")
-                            .service(SERVICE_NAME)
-                            .logger(LOGGER_NAME)
-                            .metadata(Map.of(PRODUCT_ID_KEY, productId.toString(), "amountReserved",
-                                    amountToReserver.toString()))
-                            .build();
-                    logPublisher.publish(logMessage);
-                } catch (Exception e) {
-                    // ignore logging failures
-                }
-            } else {
-                throw new InsufficientStockException("Not enough stock to reserve");
+        boolean reserved = isHot(productId)
+                ? hotStockService.reserve(productId, amountToReserver)
+                : inventoryRepository.reserve(productId, amountToReserver) > 0;
+        if (!reserved) {
+            throw updateRejected(productId, "Not enough stock to reserve");
+        }
+        invalidateCached(productId);
+        safeMetrics(metrics -> metrics.recordReservedChange(amountToReserver));
+
+        // Publish a log event about the stock reservation. Ignore logging failures.
+        try {
+            LogMessage logMessage = new LogMessage.Builder()
+                    .message("Stock reserved")
+                    .level("INFO")
+                    .service(SERVICE_NAME)
+                    .logger(LOGGER_NAME)
+                    .metadata(Map.of(PRODUCT_ID_KEY, productId.toString(), "amountReserved",
+                            amountToReserver.toString()))
+                    .build();
+            logPublisher.publish(logMessage);
+        } catch (Exception e) {
+            // ignore logging failures
+        }
+    }
+
+    /**
+     * Reserve the stock for all line items of an order, or none of it.
+     *
+     * Quantities of lines for the same product are added up. The inventory
+     * rows are loaded and locked in productId order with a single query, every
+     * line is checked against the locked rows, and only then are the reserved
+     * quantities updated; the updates are flushed together at commit (as one
+     * JDBC batch). Lines of hot products are reserved in memory after the
+     * checks, and undone if the transaction rolls back. If any product has no
+     * inventory record or not enough available stock, nothing is reserved.
+     *
+     * Throws {@link InsufficientStockException} or
+     * {@link InventoryNotFoundException} naming the first failing product.
+     */
+    @Transactional
+    public void reserveAll(List<OrderLineItem> lineItems) {
+        reserveAll(null, null, lineItems);
+    }
+
+    /**
+     * Reserve the stock for all line items of an order, or none of it, and
+     * record the reservation so that it is released if the order is not
+     * confirmed in time.
+     *
+     * @param orderNumber   order the stock is reserved for; null to reserve
+     *                      without expiry
+     * @param correlationId correlation id of the order, for the release event
+     */
+    @Transactional
+    public void reserveAll(String orderNumber, String correlationId, List<OrderLineItem> lineItems) {
+        SortedMap<Long, Integer> demand = new TreeMap<>();
+        SortedMap<Long, Integer> hotDemand = new TreeMap<>();
+        for (OrderLineItem item : lineItems) {
+            (isHot(item.getProductId()) ? hotDemand : demand)
+                    .merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        if (demand.isEmpty() && hotDemand.isEmpty()) {
+            return;
+        }
+
+        List<Inventory> locked = demand.isEmpty()
+                ? List.of()
+                : inventoryRepository.findAllByProductIdForUpdate(demand.keySet());
+        Map<Long, Inventory> byProductId = new TreeMap<>();
+        for (Inventory inventory : locked) {
+            byProductId.put(inventory.getProductId(), inventory);
+        }
+        for (Map.Entry<Long, Integer> entry : demand.entrySet()) {
+            Inventory inventory = byProductId.get(entry.getKey());
+            if (inventory == null) {
+                throw new InventoryNotFoundException("Inventory record not found for product ID: " + entry.getKey());
             }
-        } else {
-            throw new InventoryNotFoundException("Inventory record not found for product ID: " + productId);
+            if (inventory.getQuantity() - inventory.getReservedQuantity() < entry.getValue()) {
+                throw new InsufficientStockException("Not enough stock to reserve for product ID: " + entry.getKey());
+            }
+        }
+        // Hot products last: their in-memory reservations are undone when the
+        // transaction rolls back
+        for (Map.Entry<Long, Integer> entry : hotDemand.entrySet()) {
+            if (!hotStockService.reserve(entry.getKey(), entry.getValue())) {
+                throw new InsufficientStockException("Not enough stock to reserve for product ID: " + entry.getKey());
+            }
+        }
+        for (Map.Entry<Long, Integer> entry : demand.entrySet()) {
+            Inventory inventory = byProductId.get(entry.getKey());
+            inventory.setReservedQuantity(inventory.getReservedQuantity() + entry.getValue());
+        }
+        long totalReserved = sum(demand) + sum(hotDemand);
+        safeMetrics(metrics -> metrics.recordReservedChange(totalReserved));
+        SortedMap<Long, Integer> reservedAmounts = new TreeMap<>(demand);
+        reservedAmounts.putAll(hotDemand);
+        reservedAmounts.keySet().forEach(this::invalidateCached);
+        track(orderNumber, correlationId, reservedAmounts);
+
+        // Publish a log event about the stock reservation. Ignore logging failures.
+        try {
+            LogMessage logMessage = new LogMessage.Builder()
+                    .message("Stock reserved")
+                    .level("INFO")
+                    .service(SERVICE_NAME)
+                    .logger(LOGGER_NAME)
+                    .metadata(Map.of("amountsReservedByProductId", reservedAmounts.toString()))
+                    .build();
+            logPublisher.publish(logMessage);
+        } catch (Exception e) {
+            // ignore logging failures
         }
     }
 
-    public void releaseStock(Long productId, Integer amountToRelease) {
-        Optional<Inventory> inventoryOpt = inventoryRepository.findByProductId(productId);
-        if (inventoryOpt.isPresent()) {
-            Inventory inventory = inventoryOpt.get();
-            if (inventory.getReservedQuantity() >= amountToRelease) {
-                inventory.setReservedQuantity(inventory.getReservedQuantity() - amountToRelease);
-                inventoryRepository.save(inventory);
-                safeMarkUpdated();
-
-                // Publish a log event about the stock release. Ignore logging failures.
-                try {
-                    LogMessage logMessage = new LogMessage.Builder()
-                            .message("Stock released")
-                            .level("INFO")
-                            .service(SERVICE_NAME)
-                            .logger(LOGGER_NAME)
-                            .metadata(Map.of(PRODUCT_ID_KEY, productId.toString(), "amountReleased",
-                                    amountToRelease.toString()))
-                            .build();
-                    logPublisher.publish(logMessage);
-                } catch (Exception e) {
-                    // ignore logging failures
+    /**
+     * Reserve the stock for a batch of orders, each order all or nothing,
+     * with one write per product for the whole batch.
+     *
+     * The inventory rows of all products in the batch are loaded and locked
+     * once, in productId order. Orders are then admitted in the given order
+     * against the stock left by the orders admitted before them, and the
+     * reserved quantities of each product are added up and written together
+     * at commit. Lines of hot products are reserved in memory per order.
+     *
+     * @param orders line items of each order
+     * @return for each order, null if its stock was reserved, otherwise the
+     *         reason it was not
+     */
+    @Transactional
+    public List<String> reserveEach(List<List<OrderLineItem>> orders) {
+        return reserveEach(orders, null, null);
+    }
+
+    /**
+     * As {@link #reserveEach(List)}, recording the reservation of each
+     * admitted order for expiry.
+     *
+     * @param orderNumbers   order number of each order, or null
+     * @param correlationIds correlation id of each order, or null
+     */
+    @Transactional
+    public List<String> reserveEach(List<List<OrderLineItem>> orders, List<String> orderNumbers,
+            List<String> correlationIds) {
+        List<SortedMap<Long, Integer>> demands = new ArrayList<>(orders.size());
+        SortedSet<Long> productIds = new TreeSet<>();
+        for (List<OrderLineItem> lineItems : orders) {
+            SortedMap<Long, Integer> demand = new TreeMap<>();
+            for (OrderLineItem item : lineItems) {
+                demand.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            }
+            demands.add(demand);
+            for (Long productId : demand.keySet()) {
+                if (!isHot(productId)) {
+                    productIds.add(productId);
                 }
-            } else {
-                throw new InsufficientStockException("Not enough reserved stock to release");
             }
-        } else {
-            throw new InventoryNotFoundException("Inventory record not found for product ID: " + productId);
         }
+
+        Map<Long, Inventory> byProductId = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            for (Inventory inventory : inventoryRepository.findAllByProductIdForUpdate(productIds)) {
+                byProductId.put(inventory.getProductId(), inventory);
+            }
+        }
+
+        List<String> failures = new ArrayList<>(demands.size());
+        Map<Long, Integer> batchReserved = new TreeMap<>();
+        for (SortedMap<Long, Integer> demand : demands) {
+            failures.add(admit(demand, byProductId, batchReserved));
+        }
+        for (Map.Entry<Long, Integer> entry : batchReserved.entrySet()) {
+            Inventory inventory = byProductId.get(entry.getKey());
+            inventory.setReservedQuantity(inventory.getReservedQuantity() + entry.getValue());
+        }
+        long totalReserved = 0;
+        for (int i = 0; i < demands.size(); i++) {
+            if (failures.get(i) == null) {
+                totalReserved += sum(demands.get(i));
+                demands.get(i).keySet().forEach(this::invalidateCached);
+                if (orderNumbers != null) {
+                    track(orderNumbers.get(i), correlationIds != null ? correlationIds.get(i) : null, demands.get(i));
+                }
+            }
+        }
+        if (totalReserved > 0) {
+            long reservedChange = totalReserved;
+            safeMetrics(metrics -> metrics.recordReservedChange(reservedChange));
+        }
+
+        // Publish a log event about the batch reservation. Ignore logging failures.
+        try {
+            LogMessage logMessage = new LogMessage.Builder()
+                    .message("Stock reserved for order batch")
+                    .level("INFO")
+                    .service(SERVICE_NAME)
+                    .logger(LOGGER_NAME)
+                    .metadata(Map.of("orders", String.valueOf(orders.size()),
+                            "amountsReservedByProductId", batchReserved.toString()))
+                    .build();
+            logPublisher.publish(logMessage);
+        } catch (Exception e) {
+            // ignore logging failures
+        }
+        return failures;
     }
 
-    public void commitStock(Long productId, Integer amountToCommit) {
-        Optional<Inventory> inventoryOpt = inventoryRepository.findByProductId(productId);
-        if (inventoryOpt.isPresent()) {
-            Inventory inventory = inventoryOpt.get();
-            if (inventory.getReservedQuantity() >= amountToCommit) {
-                inventory.setReservedQuantity(inventory.getReservedQuantity() - amountToCommit);
-                inventory.setQuantity(inventory.getQuantity() - amountToCommit);
-                inventoryRepository.save(inventory);
-                safeMarkUpdated();
-
-                // Publish a log event about the stock commit. Ignore logging failures.
-                try {
-                    LogMessage logMessage = new LogMessage.Builder()
-                            .message("Stock committed")
-                            .level("INFO")
-                            .service(SERVICE_NAME)
-                            .logger(LOGGER_NAME)
-                            .metadata(Map.of(PRODUCT_ID_KEY, productId.toString(), "amountCommitted",
-                                    amountToCommit.toString()))
-                            .build();
-                    logPublisher.publish(logMessage);
-                } catch (Exception e) {
-                    // ignore logging failures
+    // Admit one order of a batch against the locked rows minus what the batch
+    // already reserved; returns the failure reason, or null once reserved
+    private String admit(SortedMap<Long, Integer> demand, Map<Long, Inventory> locked,
+            Map<Long, Integer> batchReserved) {
+        for (Map.Entry<Long, Integer> entry : demand.entrySet()) {
+            if (isHot(entry.getKey())) {
+                continue;
+            }
+            Inventory inventory = locked.get(entry.getKey());
+            if (inventory == null) {
+                return "Inventory record not found for product ID: " + entry.getKey();
+            }
+            int available = inventory.getQuantity() - inventory.getReservedQuantity()
+                    - batchReserved.getOrDefault(entry.getKey(), 0);
+            if (available < entry.getValue()) {
+                return "Not enough stock to reserve for product ID: " + entry.getKey();
+            }
+        }
+
+        List<Map.Entry<Long, Integer>> hotReserved = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : demand.entrySet()) {
+            if (!isHot(entry.getKey())) {
+                continue;
+            }
+            if (!hotStockService.reserve(entry.getKey(), entry.getValue())) {
+                for (Map.Entry<Long, Integer> reserved : hotReserved) {
+                    hotStockService.release(reserved.getKey(), reserved.getValue());
                 }
-            } else {
-                throw new InsufficientStockException("Not enough reserved stock to commit");
+                return "Not enough stock to reserve for product ID: " + entry.getKey();
+            }
+            hotReserved.add(entry);
+        }
+
+        for (Map.Entry<Long, Integer> entry : demand.entrySet()) {
+            if (!isHot(entry.getKey())) {
+                batchReserved.merge(entry.getKey(), entry.getValue(), Integer::sum);
             }
-        } else {
-            throw new InventoryNotFoundException("Inventory record not found for product ID: " + productId);
         }
+        return null;
     }
 
+    public void releaseStock(Long productId, Integer amountToRelease) {
+        boolean released = isHot(productId)
+                ? hotStockService.release(productId, amountToRelease)
+                : inventoryRepository.release(productId, amountToRelease) > 0;
+        if (!released) {
+            throw updateRejected(productId, "Not enough reserved stock to release");
+        }
+        invalidateCached(productId);
+        safeMetrics(metrics -> metrics.recordReservedChange(-amountToRelease));
+
+        // Publish a log event about the stock release. Ignore logging failures.
+        try {
+            LogMessage logMessage = new LogMessage.Builder()
+                    .message("Stock released")
+                    .level("INFO")
+                    .service(SERVICE_NAME)
+                    .logger(LOGGER_NAME)
+                    .metadata(Map.of(PRODUCT_ID_KEY, productId.toString(), "amountReleased",
+                            amountToRelease.toString()))
+                    .build();
+            logPublisher.publish(logMessage);
+        } catch (Exception e) {
+            // ignore logging failures
+        }
+    }
+
+    /**
+     * Remove committed stock from the inventory. The remaining quantity is
+     * read back in the same transaction, while the update still locks the row,
+     * so the stock level gauges follow the commit.
+     */
+    @Transactional
+    public void commitStock(Long productId, Integer amountToCommit) {
+        boolean hot = isHot(productId);
+        boolean committed = hot
+                ? hotStockService.commit(productId, amountToCommit)
+                : inventoryRepository.commit(productId, amountToCommit) > 0;
+        if (!committed) {
+            throw updateRejected(productId, "Not enough reserved stock to commit");
+        }
+        invalidateCached(productId);
+        long newQuantity = hot
+                ? hotStockService.getQuantity(productId)
+                : inventoryRepository.findQuantityByProductId(productId).orElse(0);
+        safeMetrics(metrics -> metrics.recordCommitted(amountToCommit, newQuantity));
+
+        // Publish a log event about the stock commit. Ignore logging failures.
+        try {
+            LogMessage logMessage = new LogMessage.Builder()
+                    .message("Stock committed")
+                    .level("INFO")
+                    .service(SERVICE_NAME)
+                    .logger(LOGGER_NAME)
+                    .metadata(Map.of(PRODUCT_ID_KEY, productId.toString(), "amountCommitted",
+                            amountToCommit.toString()))
+                    .build();
+            logPublisher.publish(logMessage);
+        } catch (Exception e) {
+            // ignore logging failures
+        }
+    }
+
+    /**
+     * Set the total quantity of a product.
+     *
+     * Only the quantity column is written, with a targeted UPDATE, so a
+     * reservation or commit running at the same time is never overwritten.
+     * The row is locked first so that the previous quantity reported to the
+     * metrics is the one the update replaced.
+     */
+    @Transactional
     public void setQuantity(Long productId, Integer newQuantity) {
-        Optional<Inventory> inventoryOpt = inventoryRepository.findByProductId(productId);
-        if (inventoryOpt.isPresent()) {
-            Inventory inventory = inventoryOpt.get();
-            inventory.setQuantity(newQuantity);
-            inventoryRepository.save(inventory);
-            safeMarkUpdated();
-        } else {
+        if (isHot(productId)) {
+            long previousQuantity = newQuantity - hotStockService.setQuantity(productId, newQuantity);
+            invalidateCached(productId);
+            safeMetrics(metrics -> metrics.recordQuantityChange(previousQuantity, newQuantity));
+            return;
+        }
+        List<Inventory> locked = inventoryRepository.findAllByProductIdForUpdate(List.of(productId));
+        if (locked.isEmpty()) {
             throw new InventoryNotFoundException("Inventory record not found for product ID: " + productId);
         }
+        long previousQuantity = locked.get(0).getQuantity();
+        inventoryRepository.setQuantity(productId, newQuantity);
+        invalidateCached(productId);
+        safeMetrics(metrics -> metrics.recordQuantityChange(previousQuantity, newQuantity));
+    }
+
+    /**
+     * Commit the stock of a confirmed order: forget its reservation and remove
+     * the stock of every line in one transaction, so that a line failing to
+     * commit leaves the reservation and all of the order's stock as it was.
+     *
+     * @return false if the reservation expired and its stock was released;
+     *         nothing is committed then
+     */
+    @Transactional
+    public boolean commitOrder(String orderNumber, List<OrderLineItem> lineItems) {
+        if (!completeReservations(orderNumber)) {
+            return false;
+        }
+        for (OrderLineItem item : lineItems) {
+            commitStock(item.getProductId(), item.getQuantity());
+        }
+        return true;
+    }
+
+    /**
+     * Release the stock still reserved for an order whose stock cannot be
+     * committed. With tracked reservations only what is still reserved for the
+     * order is released, otherwise the given line items.
+     *
+     * @return the released line items
+     */
+    @Transactional
+    public List<OrderLineItem> releaseOrder(String orderNumber, List<OrderLineItem> lineItems) {
+        SortedMap<Long, Integer> amounts = new TreeMap<>();
+        if (reservationTracker != null && orderNumber != null) {
+            for (StockReservation reservation : reservationTracker.remove(orderNumber)) {
+                amounts.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+            }
+        } else {
+            for (OrderLineItem item : lineItems) {
+                amounts.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            }
+        }
+        List<OrderLineItem> released = new ArrayList<>(amounts.size());
+        for (Map.Entry<Long, Integer> entry : amounts.entrySet()) {
+            try {
+                releaseStock(entry.getKey(), entry.getValue());
+                released.add(new OrderLineItem(entry.getKey(), entry.getValue()));
+            } catch (InsufficientStockException | InventoryNotFoundException e) {
+                logger.warn("Could not release {} units of product {} for orderNumber {}: {}", entry.getValue(),
+                        entry.getKey(), orderNumber, e.getMessage());
+            }
+        }
+        return released;
+    }
+
+    /**
+     * Forget the reservation of an order whose stock is about to be committed,
+     * so that it does not expire.
+     *
+     * @return false if reservations are tracked and the order has none left:
+     *         it expired and its stock was released, so the stock must not be
+     *         committed (it may be reserved by other orders by now)
+     */
+    public boolean completeReservations(String orderNumber) {
+        if (reservationTracker != null && orderNumber != null) {
+            return reservationTracker.complete(orderNumber);
+        }
+        return true;
+    }
+
+    private void invalidateCached(Long productId) {
+        if (availabilityCache != null) {
+            availabilityCache.invalidate(productId);
+        }
+    }
+
+    private void track(String orderNumber, String correlationId, Map<Long, Integer> amounts) {
+        if (reservationTracker != null && orderNumber != null && !amounts.isEmpty()) {
+            reservationTracker.track(orderNumber, correlationId, amounts);
+        }
+    }
+
+    /**
+     * A guarded update matched no row: tell a missing inventory record apart
+     * from a failed stock check. Only runs on the rejection path, so successful
+     * updates stay a single statement.
+     */
+    private RuntimeException updateRejected(Long productId, String insufficientStockMessage) {
+        if (!inventoryRepository.existsByProductId(productId)) {
+            return new InventoryNotFoundException("Inventory record not found for product ID: " + productId);
+        }
+        return new InsufficientStockException(insufficientStockMessage);
     }
 
     private void safePublish(LogMessage msg) {
@@ -246,16 +647,42 @@ public class InventoryService {
         }
     }
 
-    private void safeMarkUpdated() {
+    /**
+     * Apply a change to the gauges once the surrounding transaction, if any,
+     * has committed, so rolled back operations are not counted.
+     */
+    private void safeMetrics(Consumer<InventoryMetrics> update) {
+        if (inventoryMetrics == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyMetrics(update);
+                }
+            });
+        } else {
+            applyMetrics(update);
+        }
+    }
+
+    private void applyMetrics(Consumer<InventoryMetrics> update) {
         try {
-            if (inventoryMetrics != null) {
-                inventoryMetrics.markUpdated();
-            }
+            update.accept(inventoryMetrics);
         } catch (Exception e) {
             /* metrics update is best-effort and should not affect business flow */
         }
     }
 
+    private static long sum(Map<Long, Integer> amounts) {
+        long total = 0;
+        for (Integer amount : amounts.values()) {
+            total += amount;
+        }
+        return total;
+    }
+
     // Legacy fallback removed: callers must now supply productId. This keeps the
     // code focused and avoids ambiguity between entity id and product id.
 }
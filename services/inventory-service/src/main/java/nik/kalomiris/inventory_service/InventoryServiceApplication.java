@@ -2,8 +2,10 @@ package nik.kalomiris.inventory_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = "nik.kalomiris")
+@EnableScheduling
 /**
  * Main entry point for the Inventory Service application.
  *
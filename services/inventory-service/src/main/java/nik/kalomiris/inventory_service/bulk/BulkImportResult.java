@@ -0,0 +1,93 @@
+package nik.kalomiris.inventory_service.bulk;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk stock import: line counts and the failed lines.
+ */
+public class BulkImportResult {
+
+    private long linesRead;
+    private long applied;
+    private long failed;
+    private long durationMs;
+    private List<LineFailure> failures = new ArrayList<>();
+
+    public long getLinesRead() {
+        return linesRead;
+    }
+
+    public void setLinesRead(long linesRead) {
+        this.linesRead = linesRead;
+    }
+
+    public long getApplied() {
+        return applied;
+    }
+
+    public void setApplied(long applied) {
+        this.applied = applied;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    /**
+     * Failed lines, up to the configured maximum; {@link #getFailed()} counts
+     * all of them.
+     */
+    public List<LineFailure> getFailures() {
+        return failures;
+    }
+
+    public void setFailures(List<LineFailure> failures) {
+        this.failures = failures;
+    }
+
+    /**
+     * A line that could not be applied.
+     */
+    public static class LineFailure {
+
+        private long line;
+        private String reason;
+
+        public LineFailure() {
+        }
+
+        public LineFailure(long line, String reason) {
+            this.line = line;
+            this.reason = reason;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public void setLine(long line) {
+            this.line = line;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public void setReason(String reason) {
+            this.reason = reason;
+        }
+    }
+}
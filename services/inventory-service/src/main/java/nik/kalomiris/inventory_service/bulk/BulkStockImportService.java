@@ -0,0 +1,291 @@
+package nik.kalomiris.inventory_service.bulk;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import nik.kalomiris.inventory_service.InventoryService;
+import nik.kalomiris.inventory_service.cache.AvailabilityCache;
+import nik.kalomiris.inventory_service.config.BulkImportConfig;
+import nik.kalomiris.inventory_service.metrics.InventoryMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sets the stock quantity of many products from a streamed file.
+ *
+ * The request body is read line by line, so memory stays bounded by one chunk
+ * of parsed lines whatever the file size. Each line sets the quantity of one
+ * product, either as NDJSON ({@code {"productId": 1, "quantity": 50}}) or as
+ * CSV ({@code 1,50}, with an optional {@code productId,quantity} header).
+ *
+ * Lines are applied in chunks of {@code inventory.bulk-import.chunk-size}: one
+ * JDBC batch update per chunk, committed in its own transaction, so a failed
+ * import keeps the chunks applied before it. Products kept in the hot-stock
+ * ledger are set through {@link InventoryService} instead, as the ledger owns
+ * their quantity. Lines that cannot be parsed or do not match an inventory
+ * record are reported with their line number and skipped.
+ *
+ * The gauges are reconciled from the table once the import is done rather
+ * than per line, since the batch update does not return previous quantities.
+ */
+@Service
+public class BulkStockImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkStockImportService.class);
+
+    private static final String UPDATE_QUANTITY_SQL = "UPDATE inventory SET quantity = ? WHERE product_id = ?";
+
+    /**
+     * Accepted line formats.
+     */
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final InventoryService inventoryService;
+    private final InventoryMetrics inventoryMetrics;
+    private final BulkImportConfig config;
+    private final AvailabilityCache availabilityCache;
+
+    private final Counter appliedLines;
+    private final Counter failedLines;
+    private final Timer chunkTimer;
+    private final Timer importTimer;
+    // Lines read by the imports currently running
+    private final AtomicLong linesInProgress = new AtomicLong();
+
+    @Autowired
+    public BulkStockImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper, InventoryService inventoryService, InventoryMetrics inventoryMetrics,
+            BulkImportConfig config, MeterRegistry meterRegistry,
+            @Autowired(required = false) AvailabilityCache availabilityCache) {
+        if (config.getChunkSize() < 1)
+            throw new IllegalArgumentException("inventory.bulk-import.chunk-size must be at least 1");
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.inventoryService = inventoryService;
+        this.inventoryMetrics = inventoryMetrics;
+        this.config = config;
+        this.availabilityCache = availabilityCache;
+
+        this.appliedLines = Counter.builder("inventory.bulk_import.lines")
+                .description("Bulk import lines processed")
+                .tag("outcome", "applied")
+                .register(meterRegistry);
+        this.failedLines = Counter.builder("inventory.bulk_import.lines")
+                .description("Bulk import lines processed")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("inventory.bulk_import.chunk")
+                .description("Time to apply one chunk of bulk import lines")
+                .register(meterRegistry);
+        this.importTimer = Timer.builder("inventory.bulk_import.duration")
+                .description("Time to run a whole bulk import")
+                .register(meterRegistry);
+        meterRegistry.gauge("inventory.bulk_import.in_progress.lines", linesInProgress);
+    }
+
+    /**
+     * Apply every line of the stream.
+     *
+     * @param input  request body; read to the end but not closed
+     * @param format line format
+     * @return line counts and the failed lines
+     */
+    public BulkImportResult importQuantities(InputStream input, Format format) {
+        long start = System.nanoTime();
+        BulkImportResult result = new BulkImportResult();
+        List<Line> chunk = new ArrayList<>(config.getChunkSize());
+        long lineNumber = 0;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        try {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (text.isBlank() || (format == Format.CSV && lineNumber == 1 && isCsvHeader(text)))
+                    continue;
+                result.setLinesRead(result.getLinesRead() + 1);
+                linesInProgress.incrementAndGet();
+
+                Line line;
+                try {
+                    line = format == Format.CSV ? parseCsv(lineNumber, text) : parseJson(lineNumber, text);
+                } catch (IllegalArgumentException e) {
+                    fail(result, lineNumber, e.getMessage());
+                    continue;
+                }
+                chunk.add(line);
+                if (chunk.size() >= config.getChunkSize()) {
+                    applyChunk(chunk, result);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty())
+                applyChunk(chunk, result);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read bulk import at line " + (lineNumber + 1), e);
+        } finally {
+            linesInProgress.addAndGet(-result.getLinesRead());
+            long elapsed = System.nanoTime() - start;
+            importTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            result.setDurationMs(TimeUnit.NANOSECONDS.toMillis(elapsed));
+            if (result.getApplied() > 0) {
+                inventoryMetrics.reconcile();
+                inventoryMetrics.markUpdated();
+            }
+        }
+
+        logger.info("Bulk import: {} lines, {} applied, {} failed in {} ms", result.getLinesRead(),
+                result.getApplied(), result.getFailed(), result.getDurationMs());
+        return result;
+    }
+
+    private void applyChunk(List<Line> chunk, BulkImportResult result) {
+        long start = System.nanoTime();
+        List<Line> batch = new ArrayList<>(chunk.size());
+        for (Line line : chunk) {
+            if (!inventoryService.isHotProduct(line.productId)) {
+                batch.add(line);
+                continue;
+            }
+            try {
+                inventoryService.setQuantity(line.productId, line.quantity);
+                applied(result);
+            } catch (RuntimeException e) {
+                fail(result, line.number, e.getMessage());
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            int[] counts;
+            try {
+                counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(UPDATE_QUANTITY_SQL,
+                        new BatchPreparedStatementSetter() {
+                            @Override
+                            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                                ps.setInt(1, batch.get(i).quantity);
+                                ps.setLong(2, batch.get(i).productId);
+                            }
+
+                            @Override
+                            public int getBatchSize() {
+                                return batch.size();
+                            }
+                        }));
+            } catch (DataAccessException e) {
+                logger.warn("Bulk import chunk of {} lines failed: {}", batch.size(), e.getMessage());
+                for (Line line : batch)
+                    fail(result, line.number, "Chunk rolled back: " + e.getMostSpecificCause().getMessage());
+                chunkTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return;
+            }
+
+            for (int i = 0; i < batch.size(); i++) {
+                Line line = batch.get(i);
+                // Drivers may report SUCCESS_NO_INFO (-2) instead of a row count
+                if (counts[i] == 0) {
+                    fail(result, line.number, "Inventory record not found for product ID: " + line.productId);
+                } else {
+                    applied(result);
+                    if (availabilityCache != null)
+                        availabilityCache.invalidate(line.productId);
+                }
+            }
+        }
+        chunkTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void applied(BulkImportResult result) {
+        result.setApplied(result.getApplied() + 1);
+        appliedLines.increment();
+    }
+
+    private void fail(BulkImportResult result, long lineNumber, String reason) {
+        result.setFailed(result.getFailed() + 1);
+        failedLines.increment();
+        if (result.getFailures().size() < config.getMaxReportedFailures())
+            result.getFailures().add(new BulkImportResult.LineFailure(lineNumber, reason));
+    }
+
+    private Line parseJson(long number, String text) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed JSON");
+        }
+        JsonNode productId = node.get("productId");
+        JsonNode quantity = node.get("quantity");
+        if (productId == null || !productId.canConvertToLong())
+            throw new IllegalArgumentException("Missing or invalid productId");
+        if (quantity == null || !quantity.canConvertToInt())
+            throw new IllegalArgumentException("Missing or invalid quantity");
+        return line(number, productId.asLong(), quantity.asInt());
+    }
+
+    private Line parseCsv(long number, String text) {
+        String[] fields = text.split(",", -1);
+        if (fields.length != 2)
+            throw new IllegalArgumentException("Expected 2 fields: productId,quantity");
+        try {
+            return line(number, Long.parseLong(fields[0].trim()), Integer.parseInt(fields[1].trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + e.getMessage());
+        }
+    }
+
+    private static Line line(long number, long productId, int quantity) {
+        if (quantity < 0)
+            throw new IllegalArgumentException("Quantity must not be negative");
+        return new Line(number, productId, quantity);
+    }
+
+    // Only the expected column names; any other first line is parsed as data
+    // and reported if it is not
+    private static boolean isCsvHeader(String text) {
+        String[] fields = text.split(",", -1);
+        return fields.length == 2
+                && fields[0].trim().equalsIgnoreCase("productId")
+                && fields[1].trim().equalsIgnoreCase("quantity");
+    }
+
+    private static final class Line {
+
+        private final long number;
+        private final long productId;
+        private final int quantity;
+
+        Line(long number, long productId, int quantity) {
+            this.number = number;
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+    }
+}
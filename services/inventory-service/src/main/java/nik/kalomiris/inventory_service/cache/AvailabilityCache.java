@@ -0,0 +1,145 @@
+package nik.kalomiris.inventory_service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import nik.kalomiris.inventory_service.config.AvailabilityCacheConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of stock levels, looked up by SKU and invalidated by
+ * productId.
+ *
+ * Stock levels are keyed by productId, the key stock changes come in with, so
+ * an invalidation always reaches the cached entry. A second, equally bounded
+ * map resolves a SKU to its productId; losing that mapping only costs a
+ * reload, never a stale entry. A stock change drops the entry at once and,
+ * inside a transaction, again after commit. A stock level loaded while an
+ * invalidation ran is returned but not cached, so a lookup racing with a
+ * change cannot keep the pre-commit value cached.
+ *
+ * Metrics: Caffeine hit/miss/eviction counts under
+ * {@code cache.*{cache=inventory.availability}} and the age of served entries
+ * as {@code inventory.availability.cache.age} (seconds).
+ */
+@Component
+@ConditionalOnProperty(prefix = "inventory.availability-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AvailabilityCache {
+
+    private final Cache<Long, Entry> byProductId;
+    private final Cache<String, Long> productIdBySku;
+    // Incremented by every eviction, so a load can tell whether one ran
+    private final AtomicLong invalidations = new AtomicLong();
+    private final DistributionSummary age;
+
+    public AvailabilityCache(AvailabilityCacheConfig config, MeterRegistry meterRegistry) {
+        this.byProductId = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        this.productIdBySku = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(config.getTtl())
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byProductId, "inventory.availability");
+        this.age = DistributionSummary.builder("inventory.availability.cache.age")
+                .description("Age of stock levels served from the availability cache")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param loader loads the stock level of a SKU, or returns null if there is
+     *               none (absence is not cached)
+     * @return the cached or loaded stock level, or null
+     */
+    public Entry get(String sku, Function<String, Entry> loader) {
+        Long productId = productIdBySku.getIfPresent(sku);
+        Entry entry = productId != null ? byProductId.getIfPresent(productId) : null;
+        if (entry != null && sku.equals(entry.getSku())) {
+            age.record((System.nanoTime() - entry.loadedAt) / 1e9);
+            return entry;
+        }
+
+        long invalidationsBefore = invalidations.get();
+        Entry loaded = loader.apply(sku);
+        if (loaded != null && loaded.getProductId() != null) {
+            productIdBySku.put(sku, loaded.getProductId());
+            // Atomic with evict() on the same key: an invalidation either
+            // happened before, and the value is not cached, or removes it after
+            byProductId.asMap().compute(loaded.getProductId(),
+                    (id, current) -> invalidations.get() == invalidationsBefore ? loaded : current);
+        }
+        return loaded;
+    }
+
+    /**
+     * Drop the cached stock level of a product whose stock changes.
+     */
+    public void invalidate(Long productId) {
+        evict(productId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(productId);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        byProductId.invalidateAll();
+        productIdBySku.invalidateAll();
+    }
+
+    private void evict(Long productId) {
+        invalidations.incrementAndGet();
+        byProductId.invalidate(productId);
+    }
+
+    /**
+     * Stock level of a SKU as loaded from the inventory table.
+     */
+    public static final class Entry {
+
+        private final Long productId;
+        private final String sku;
+        private final Integer quantity;
+        private final Integer reservedQuantity;
+        private final long loadedAt = System.nanoTime();
+
+        public Entry(Long productId, String sku, Integer quantity, Integer reservedQuantity) {
+            this.productId = productId;
+            this.sku = sku;
+            this.quantity = quantity;
+            this.reservedQuantity = reservedQuantity;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public String getSku() {
+            return sku;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public Integer getReservedQuantity() {
+            return reservedQuantity;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package nik.kalomiris.inventory_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the local stock availability cache used by
+ * the inventory lookup endpoint.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "inventory.availability-cache")
+public class AvailabilityCacheConfig {
+
+    /**
+     * Feature flag for the cache. When disabled every lookup reads the
+     * database.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of cached SKUs.
+     */
+    private long maxSize = 10000;
+
+    /**
+     * How long an entry is served after it was loaded. Entries are invalidated
+     * by every stock change made through this instance; the time-to-live only
+     * bounds staleness from changes made elsewhere.
+     */
+    private Duration ttl = Duration.ofSeconds(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    @Override
+    public String toString() {
+        return "AvailabilityCacheConfig{" +
+                "enabled=" + enabled +
+                ", maxSize=" + maxSize +
+                ", ttl=" + ttl +
+                '}';
+    }
+}
@@ -0,0 +1,47 @@
+package nik.kalomiris.inventory_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the bulk stock import endpoint.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "inventory.bulk-import")
+public class BulkImportConfig {
+
+    /**
+     * Number of lines applied per JDBC batch and transaction.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Maximum number of failed lines listed in the response; further failures
+     * are only counted.
+     */
+    private int maxReportedFailures = 1000;
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getMaxReportedFailures() {
+        return maxReportedFailures;
+    }
+
+    public void setMaxReportedFailures(int maxReportedFailures) {
+        this.maxReportedFailures = maxReportedFailures;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkImportConfig{" +
+                "chunkSize=" + chunkSize +
+                ", maxReportedFailures=" + maxReportedFailures +
+                '}';
+    }
+}
@@ -0,0 +1,96 @@
+package nik.kalomiris.inventory_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for the in-memory stock ledger of hot products.
+ *
+ * When enabled, stock operations on the listed products are admitted against
+ * in-memory counters and written to the inventory table in the background
+ * (see {@link nik.kalomiris.inventory_service.ledger.HotStockService}).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "inventory.hot-stock")
+public class HotStockConfig {
+
+    /**
+     * Feature flag for the hot stock ledger. When disabled every product is
+     * updated directly in the database.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Products whose stock is kept in memory.
+     */
+    private List<Long> productIds = new ArrayList<>();
+
+    /**
+     * Number of counters the available stock of a hot product is split across.
+     */
+    private int shards = 16;
+
+    /**
+     * Delay between two flushes of the journal to the inventory table.
+     */
+    private long flushIntervalMs = 500;
+
+    /**
+     * Maximum number of journal entries of one product applied per flush.
+     */
+    private int flushBatchSize = 10000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+
+    public void setProductIds(List<Long> productIds) {
+        this.productIds = productIds;
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    public void setShards(int shards) {
+        this.shards = shards;
+    }
+
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+
+    public void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    public int getFlushBatchSize() {
+        return flushBatchSize;
+    }
+
+    public void setFlushBatchSize(int flushBatchSize) {
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    @Override
+    public String toString() {
+        return "HotStockConfig{" +
+                "enabled=" + enabled +
+                ", productIds=" + productIds +
+                ", shards=" + shards +
+                ", flushIntervalMs=" + flushIntervalMs +
+                ", flushBatchSize=" + flushBatchSize +
+                '}';
+    }
+}
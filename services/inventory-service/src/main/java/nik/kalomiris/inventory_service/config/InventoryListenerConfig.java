@@ -0,0 +1,196 @@
+package nik.kalomiris.inventory_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the RabbitMQ listener containers, one set per
+ * consumed queue.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "inventory.listener")
+public class InventoryListenerConfig {
+
+    /**
+     * Settings for {@link RabbitMQConfig#ORDER_CREATED_QUEUE_NAME}.
+     */
+    private Container orderCreated = new Container();
+
+    /**
+     * Settings for {@link RabbitMQConfig#ORDER_CONFIRMED_QUEUE_NAME}.
+     */
+    private Container orderConfirmed = new Container();
+
+    /**
+     * Settings for {@link RabbitMQConfig#PRODUCT_CREATED_QUEUE_NAME}.
+     */
+    private Container productCreated = new Container();
+
+    public Container getOrderCreated() {
+        return orderCreated;
+    }
+
+    public void setOrderCreated(Container orderCreated) {
+        this.orderCreated = orderCreated;
+    }
+
+    public Container getOrderConfirmed() {
+        return orderConfirmed;
+    }
+
+    public void setOrderConfirmed(Container orderConfirmed) {
+        this.orderConfirmed = orderConfirmed;
+    }
+
+    public Container getProductCreated() {
+        return productCreated;
+    }
+
+    public void setProductCreated(Container productCreated) {
+        this.productCreated = productCreated;
+    }
+
+    /**
+     * Listener container settings of one queue.
+     */
+    public static class Container {
+
+        /**
+         * Number of consumers started with the container.
+         */
+        private int concurrency = 1;
+
+        /**
+         * Number of consumers the container may scale up to under load.
+         */
+        private int maxConcurrency = 1;
+
+        /**
+         * Number of unacknowledged messages the broker sends to each consumer.
+         */
+        private int prefetch = 250;
+
+        /**
+         * Number of messages a consumer processes before acknowledging them
+         * together; with {@code batchEnabled}, the maximum number of messages
+         * handed to the listener at once.
+         */
+        private int batchSize = 1;
+
+        /**
+         * Deliver messages to the listener in batches of up to
+         * {@code batchSize} messages, waiting at most {@code receiveTimeoutMs}
+         * for a batch to fill. Only supported for the order created queue.
+         */
+        private boolean batchEnabled = false;
+
+        /**
+         * Maximum time to wait for a batch to fill.
+         */
+        private long receiveTimeoutMs = 100;
+
+        /**
+         * Number of in-process ordering lanes; 0 disables them. Only supported
+         * for the order queues; the product created queue needs no ordering
+         * and ignores it. When set, a single consumer hands each message to
+         * the lanes of its products, so messages for the same product are
+         * processed in delivery order while different products are processed
+         * in parallel. Concurrency and batch size are then ignored and the
+         * prefetch bounds the number of messages in the lanes. A concurrency
+         * above 1 without lanes is turned into as many lanes; see
+         * {@link #getOrderedLanes()}.
+         */
+        private int lanes = 0;
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public int getPrefetch() {
+            return prefetch;
+        }
+
+        public void setPrefetch(int prefetch) {
+            this.prefetch = prefetch;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public boolean isBatchEnabled() {
+            return batchEnabled;
+        }
+
+        public void setBatchEnabled(boolean batchEnabled) {
+            this.batchEnabled = batchEnabled;
+        }
+
+        public long getReceiveTimeoutMs() {
+            return receiveTimeoutMs;
+        }
+
+        public void setReceiveTimeoutMs(long receiveTimeoutMs) {
+            this.receiveTimeoutMs = receiveTimeoutMs;
+        }
+
+        public int getLanes() {
+            return lanes;
+        }
+
+        public void setLanes(int lanes) {
+            this.lanes = lanes;
+        }
+
+        /**
+         * @return the number of ordering lanes for a queue whose messages must
+         *         keep per-product order: {@code lanes} if set, otherwise the
+         *         maximum concurrency if above 1 (concurrent consumers would
+         *         not keep that order), otherwise 0 for a single consumer
+         */
+        public int getOrderedLanes() {
+            if (lanes > 0)
+                return lanes;
+            int consumers = Math.max(concurrency, maxConcurrency);
+            return consumers > 1 ? consumers : 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Container{" +
+                    "concurrency=" + concurrency +
+                    ", maxConcurrency=" + maxConcurrency +
+                    ", prefetch=" + prefetch +
+                    ", batchSize=" + batchSize +
+                    ", batchEnabled=" + batchEnabled +
+                    ", receiveTimeoutMs=" + receiveTimeoutMs +
+                    ", lanes=" + lanes +
+                    '}';
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "InventoryListenerConfig{" +
+                "orderCreated=" + orderCreated +
+                ", orderConfirmed=" + orderConfirmed +
+                ", productCreated=" + productCreated +
+                '}';
+    }
+}
@@ -3,6 +3,7 @@ package nik.kalomiris.inventory_service.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
@@ -13,6 +14,10 @@ import org.springframework.messaging.handler.annotation.support.DefaultMessageHa
 import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
 import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
 
+/**
+ * RabbitMQ listener setup: JSON conversion of event payloads and one listener
+ * container factory per consumed queue, tuned by {@link InventoryListenerConfig}.
+ */
 @Configuration
 public class RabbitListenerConfig implements RabbitListenerConfigurer {
 
@@ -39,6 +44,75 @@ public class RabbitListenerConfig implements RabbitListenerConfigurer {
         return factory;
     }
 
+    @Bean
+    public SimpleRabbitListenerContainerFactory orderCreatedContainerFactory(ConnectionFactory connectionFactory,
+                                                                             Jackson2JsonMessageConverter messageConverter,
+                                                                             InventoryListenerConfig listenerConfig) {
+        return containerFactory(connectionFactory, messageConverter, listenerConfig.getOrderCreated(),
+                listenerConfig.getOrderCreated().getOrderedLanes());
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory orderCreatedBatchContainerFactory(ConnectionFactory connectionFactory,
+                                                                                  Jackson2JsonMessageConverter messageConverter,
+                                                                                  InventoryListenerConfig listenerConfig) {
+        InventoryListenerConfig.Container settings = listenerConfig.getOrderCreated();
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setPrefetchCount(Math.max(settings.getPrefetch(), settings.getBatchSize()));
+        // One consumer, so that batches, and the orders in them, are reserved
+        // in delivery order
+        factory.setConcurrentConsumers(1);
+        factory.setMaxConcurrentConsumers(1);
+        // Hand the listener up to batchSize messages at once, or whatever
+        // arrived within the receive timeout
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(settings.getBatchSize());
+        factory.setReceiveTimeout(settings.getReceiveTimeoutMs());
+        return factory;
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory orderConfirmedContainerFactory(ConnectionFactory connectionFactory,
+                                                                               Jackson2JsonMessageConverter messageConverter,
+                                                                               InventoryListenerConfig listenerConfig) {
+        return containerFactory(connectionFactory, messageConverter, listenerConfig.getOrderConfirmed(),
+                listenerConfig.getOrderConfirmed().getOrderedLanes());
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory productCreatedContainerFactory(ConnectionFactory connectionFactory,
+                                                                               Jackson2JsonMessageConverter messageConverter,
+                                                                               InventoryListenerConfig listenerConfig) {
+        // Creates are idempotent and need no ordering; the listener does not
+        // go through lanes, so the container must acknowledge by itself
+        return containerFactory(connectionFactory, messageConverter, listenerConfig.getProductCreated(), 0);
+    }
+
+    private static SimpleRabbitListenerContainerFactory containerFactory(ConnectionFactory connectionFactory,
+                                                                         Jackson2JsonMessageConverter messageConverter,
+                                                                         InventoryListenerConfig.Container settings,
+                                                                         int lanes) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setPrefetchCount(settings.getPrefetch());
+        if (lanes > 0) {
+            // A single consumer keeps the delivery order; the ordering lanes
+            // process the messages and acknowledge them
+            factory.setConcurrentConsumers(1);
+            factory.setMaxConcurrentConsumers(1);
+            factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        } else {
+            factory.setConcurrentConsumers(settings.getConcurrency());
+            factory.setMaxConcurrentConsumers(Math.max(settings.getConcurrency(), settings.getMaxConcurrency()));
+            factory.setBatchSize(settings.getBatchSize());
+        }
+        return factory;
+    }
+
     @Bean
     public DefaultMessageHandlerMethodFactory messageHandlerMethodFactory(ObjectMapper rabbitObjectMapper) {
         DefaultMessageHandlerMethodFactory factory = new DefaultMessageHandlerMethodFactory();
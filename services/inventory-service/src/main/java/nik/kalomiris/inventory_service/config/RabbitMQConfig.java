@@ -25,6 +25,7 @@ public class RabbitMQConfig {
     public static final String ROUTING_KEY_ORDER_INVENTORY_RESERVED = "order.inventory.reserved";
     public static final String ROUTING_KEY_ORDER_INVENTORY_RESERVATION_FAILED = "order.inventory.reservation_failed";
     public static final String ROUTING_KEY_ORDER_INVENTORY_COMMITTED = "order.inventory.committed";
+    public static final String ROUTING_KEY_ORDER_INVENTORY_RELEASED = "order.inventory.released";
 
     @Bean
     public TopicExchange productExchange() {
@@ -0,0 +1,82 @@
+package nik.kalomiris.inventory_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for reservation expiry.
+ *
+ * Stock reserved for an order is released again if the order is not confirmed
+ * within the time-to-live (see
+ * {@link nik.kalomiris.inventory_service.reservation.ReservationExpirySweeper}).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "inventory.reservation")
+public class ReservationConfig {
+
+    /**
+     * Feature flag for tracking and expiring reservations. When disabled,
+     * reserved stock is only released explicitly.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long reserved stock is held for an unconfirmed order.
+     */
+    private Duration ttl = Duration.ofMinutes(30);
+
+    /**
+     * Delay between two sweeps for expired reservations.
+     */
+    private long sweepIntervalMs = 10000;
+
+    /**
+     * Maximum number of orders whose expired reservations are released per
+     * transaction.
+     */
+    private int sweepBatchSize = 500;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public long getSweepIntervalMs() {
+        return sweepIntervalMs;
+    }
+
+    public void setSweepIntervalMs(long sweepIntervalMs) {
+        this.sweepIntervalMs = sweepIntervalMs;
+    }
+
+    public int getSweepBatchSize() {
+        return sweepBatchSize;
+    }
+
+    public void setSweepBatchSize(int sweepBatchSize) {
+        this.sweepBatchSize = sweepBatchSize;
+    }
+
+    @Override
+    public String toString() {
+        return "ReservationConfig{" +
+                "enabled=" + enabled +
+                ", ttl=" + ttl +
+                ", sweepIntervalMs=" + sweepIntervalMs +
+                ", sweepBatchSize=" + sweepBatchSize +
+                '}';
+    }
+}
@@ -0,0 +1,215 @@
+package nik.kalomiris.inventory_service.ledger;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory stock counters for hot products.
+ *
+ * The available stock (quantity minus reserved) of a product is split across a
+ * fixed number of shards. A reservation starts at a shard picked from the
+ * calling thread and takes the amount from the first shard that covers it with
+ * a compare-and-set, so concurrent reservations of one product mostly update
+ * different counters and never block. Only when no single shard covers the
+ * amount are the shards pooled, under the product's lock.
+ *
+ * Stock is returned (releases, quantity changes) under the same lock. A
+ * decrease drains every shard first and leaves what remains on one shard, so
+ * stock taken away can no longer be reserved from the other shards. If it
+ * takes more than is available (the quantity was set below what is reserved),
+ * the shortfall is kept apart and covered before any stock reaches a shard
+ * again.
+ *
+ * Every operation is a pair of deltas on (quantity, reserved), which is also
+ * what the journal records: reserve (0, +n), release (0, -n), commit (-n, -n)
+ * and a quantity change (d, 0).
+ */
+public class HotStockLedger {
+
+    private final int shards;
+    private final ConcurrentMap<Long, ProductStock> products = new ConcurrentHashMap<>();
+
+    /**
+     * @param shards number of counters per product
+     */
+    public HotStockLedger(int shards) {
+        if (shards < 1)
+            throw new IllegalArgumentException("shards must be at least 1");
+        this.shards = shards;
+    }
+
+    /**
+     * Start keeping the stock of a product in memory.
+     */
+    public void load(Long productId, long quantity, long reserved) {
+        products.put(productId, new ProductStock(shards, quantity, reserved));
+    }
+
+    public boolean isHot(Long productId) {
+        return productId != null && products.containsKey(productId);
+    }
+
+    public Set<Long> getProductIds() {
+        return products.keySet();
+    }
+
+    /**
+     * @return true if {@code amount} was available and is now reserved
+     */
+    public boolean reserve(Long productId, long amount) {
+        return stock(productId).reserve(amount);
+    }
+
+    /**
+     * @return true if {@code amount} was reserved and is now available again
+     */
+    public boolean release(Long productId, long amount) {
+        ProductStock stock = stock(productId);
+        if (!takeAtLeast(stock.reserved, amount))
+            return false;
+        stock.addAvailable(amount);
+        return true;
+    }
+
+    /**
+     * @return true if {@code amount} was reserved and is now removed from stock
+     */
+    public boolean commit(Long productId, long amount) {
+        ProductStock stock = stock(productId);
+        if (!takeAtLeast(stock.reserved, amount))
+            return false;
+        stock.quantity.addAndGet(-amount);
+        return true;
+    }
+
+    /**
+     * Set the total quantity.
+     *
+     * @return the change of the quantity
+     */
+    public long setQuantity(Long productId, long quantity) {
+        ProductStock stock = stock(productId);
+        long delta = quantity - stock.quantity.getAndSet(quantity);
+        stock.addAvailable(delta);
+        return delta;
+    }
+
+    /**
+     * Apply deltas unconditionally; used to undo an operation whose journal
+     * entry could not be written.
+     */
+    public void adjust(Long productId, long quantityDelta, long reservedDelta) {
+        ProductStock stock = stock(productId);
+        stock.quantity.addAndGet(quantityDelta);
+        stock.reserved.addAndGet(reservedDelta);
+        stock.addAvailable(quantityDelta - reservedDelta);
+    }
+
+    public long getQuantity(Long productId) {
+        return stock(productId).quantity.get();
+    }
+
+    public long getReserved(Long productId) {
+        return stock(productId).reserved.get();
+    }
+
+    public long getAvailable(Long productId) {
+        ProductStock stock = stock(productId);
+        long available = -stock.shortfall;
+        for (AtomicLong shard : stock.available) {
+            available += shard.get();
+        }
+        return available;
+    }
+
+    private ProductStock stock(Long productId) {
+        ProductStock stock = products.get(productId);
+        if (stock == null)
+            throw new IllegalArgumentException("Product " + productId + " is not kept in memory");
+        return stock;
+    }
+
+    // Subtract amount if the counter holds at least that much
+    private static boolean takeAtLeast(AtomicLong counter, long amount) {
+        while (true) {
+            long current = counter.get();
+            if (current < amount)
+                return false;
+            if (counter.compareAndSet(current, current - amount))
+                return true;
+        }
+    }
+
+    private static final class ProductStock {
+
+        private final AtomicLong[] available;
+        private final AtomicLong reserved;
+        private final AtomicLong quantity;
+        // Stock taken away beyond what was available; all shards are empty
+        // while it is positive. Written under the lock only.
+        private volatile long shortfall;
+
+        ProductStock(int shards, long quantity, long reserved) {
+            this.available = new AtomicLong[shards];
+            long free = Math.max(quantity - reserved, 0);
+            this.shortfall = Math.max(reserved - quantity, 0);
+            for (int i = 0; i < shards; i++) {
+                // Spread the available stock evenly, remainder on the first shards
+                long share = free / shards + (i < free % shards ? 1 : 0);
+                available[i] = new AtomicLong(share);
+            }
+            this.reserved = new AtomicLong(reserved);
+            this.quantity = new AtomicLong(quantity);
+        }
+
+        private int homeIndex() {
+            return (int) Math.floorMod(Thread.currentThread().threadId(), (long) available.length);
+        }
+
+        boolean reserve(long amount) {
+            int home = homeIndex();
+            for (int i = 0; i < available.length; i++) {
+                if (takeAtLeast(available[(home + i) % available.length], amount)) {
+                    reserved.addAndGet(amount);
+                    return true;
+                }
+            }
+            return reservePooled(home, amount);
+        }
+
+        // No single shard covers the amount: move all available stock to one
+        // shard and take it from there. Reservations racing with the pooling
+        // may fail on the fast path and then wait here.
+        private synchronized boolean reservePooled(int home, long amount) {
+            long pooled = 0;
+            for (AtomicLong shard : available) {
+                pooled += shard.getAndSet(0);
+            }
+            boolean reservable = pooled >= amount;
+            if (reservable) {
+                pooled -= amount;
+                reserved.addAndGet(amount);
+            }
+            available[home].addAndGet(pooled);
+            return reservable;
+        }
+
+        // Return stock to the shards, or take it away from all of them
+        synchronized void addAvailable(long delta) {
+            long balance = delta - shortfall;
+            if (delta < 0) {
+                for (AtomicLong shard : available) {
+                    balance += shard.getAndSet(0);
+                }
+            }
+            if (balance >= 0) {
+                shortfall = 0;
+                available[homeIndex()].addAndGet(balance);
+            } else {
+                shortfall = -balance;
+            }
+        }
+    }
+}
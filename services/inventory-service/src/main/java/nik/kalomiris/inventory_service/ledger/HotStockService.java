@@ -0,0 +1,187 @@
+package nik.kalomiris.inventory_service.ledger;
+
+import jakarta.annotation.PostConstruct;
+import nik.kalomiris.inventory_service.Inventory;
+import nik.kalomiris.inventory_service.InventoryRepository;
+import nik.kalomiris.inventory_service.config.HotStockConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Stock operations on hot products, admitted in memory and written behind.
+ *
+ * Every admitted change is first applied to the {@link HotStockLedger} and then
+ * recorded as a {@link StockJournalEntry}. Journal inserts do not contend on
+ * the product's inventory row, which is only updated by the periodic flush
+ * that adds up the journal entries and deletes them in the same transaction.
+ * If the journal entry cannot be written, or the surrounding transaction rolls
+ * back, the in-memory change is undone.
+ *
+ * On startup the ledger of each configured product is loaded from its
+ * inventory row plus the journal entries not flushed yet, so no admitted
+ * change is lost by a restart.
+ *
+ * The in-memory counters are authoritative for hot products, so their stock
+ * must only be changed through one service instance.
+ */
+@Service
+@ConditionalOnProperty(prefix = "inventory.hot-stock", name = "enabled", havingValue = "true")
+public class HotStockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotStockService.class);
+
+    private final HotStockConfig config;
+    private final InventoryRepository inventoryRepository;
+    private final StockJournalRepository journalRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final HotStockLedger ledger;
+
+    public HotStockService(HotStockConfig config, InventoryRepository inventoryRepository,
+            StockJournalRepository journalRepository, PlatformTransactionManager transactionManager) {
+        this.config = config;
+        this.inventoryRepository = inventoryRepository;
+        this.journalRepository = journalRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ledger = new HotStockLedger(config.getShards());
+    }
+
+    /**
+     * Load the configured products into memory, replaying their unflushed
+     * journal entries. Runs before the message listeners start.
+     */
+    @PostConstruct
+    public void recover() {
+        for (Long productId : config.getProductIds()) {
+            Optional<Inventory> inventory = inventoryRepository.findByProductId(productId);
+            if (inventory.isEmpty()) {
+                logger.warn("No inventory record for hot product {}; its stock stays in the database", productId);
+                continue;
+            }
+            long quantity = inventory.get().getQuantity();
+            long reserved = inventory.get().getReservedQuantity();
+            List<StockJournalEntry> entries = journalRepository.findByProductIdOrderByIdAsc(productId);
+            for (StockJournalEntry entry : entries) {
+                quantity += entry.getQuantityDelta();
+                reserved += entry.getReservedDelta();
+            }
+            ledger.load(productId, quantity, reserved);
+            logger.info("Loaded hot product {} (quantity={}, reserved={}, replayed {} journal entries)",
+                    productId, quantity, reserved, entries.size());
+        }
+    }
+
+    public boolean isHot(Long productId) {
+        return ledger.isHot(productId);
+    }
+
+    /**
+     * @return false if not enough stock is available
+     */
+    public boolean reserve(Long productId, int amount) {
+        if (!ledger.reserve(productId, amount))
+            return false;
+        journal(productId, 0, amount);
+        return true;
+    }
+
+    /**
+     * @return false if not enough stock is reserved
+     */
+    public boolean release(Long productId, int amount) {
+        if (!ledger.release(productId, amount))
+            return false;
+        journal(productId, 0, -amount);
+        return true;
+    }
+
+    /**
+     * @return false if not enough stock is reserved
+     */
+    public boolean commit(Long productId, int amount) {
+        if (!ledger.commit(productId, amount))
+            return false;
+        journal(productId, -amount, -amount);
+        return true;
+    }
+
+    /**
+     * @return the change of the quantity
+     */
+    public long setQuantity(Long productId, int quantity) {
+        long delta = ledger.setQuantity(productId, quantity);
+        journal(productId, delta, 0);
+        return delta;
+    }
+
+    public long getQuantity(Long productId) {
+        return ledger.getQuantity(productId);
+    }
+
+    public long getReserved(Long productId) {
+        return ledger.getReserved(productId);
+    }
+
+    /**
+     * Write the journal of every hot product to the inventory table.
+     */
+    @Scheduled(fixedDelayString = "${inventory.hot-stock.flush-interval-ms:500}")
+    public void flush() {
+        for (Long productId : ledger.getProductIds()) {
+            try {
+                Integer flushed = transactionTemplate.execute(status -> flush(productId));
+                if (flushed != null && flushed > 0)
+                    logger.debug("Flushed {} journal entries of hot product {}", flushed, productId);
+            } catch (RuntimeException e) {
+                // Entries stay in the journal and are retried on the next flush
+                logger.warn("Failed to flush journal of hot product {}: {}", productId, e.getMessage());
+            }
+        }
+    }
+
+    private int flush(Long productId) {
+        List<StockJournalEntry> entries = journalRepository.findForFlushByProductIdOrderByIdAsc(productId,
+                PageRequest.of(0, config.getFlushBatchSize()));
+        if (entries.isEmpty())
+            return 0;
+
+        long quantityDelta = 0;
+        long reservedDelta = 0;
+        for (StockJournalEntry entry : entries) {
+            quantityDelta += entry.getQuantityDelta();
+            reservedDelta += entry.getReservedDelta();
+        }
+        inventoryRepository.applyDelta(productId, Math.toIntExact(quantityDelta), Math.toIntExact(reservedDelta));
+        journalRepository.deleteAllInBatch(entries);
+        return entries.size();
+    }
+
+    private void journal(Long productId, long quantityDelta, long reservedDelta) {
+        try {
+            journalRepository.save(new StockJournalEntry(productId, quantityDelta, reservedDelta));
+        } catch (RuntimeException e) {
+            ledger.adjust(productId, -quantityDelta, -reservedDelta);
+            throw e;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // The entry is only durable once the caller's transaction commits
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED)
+                        ledger.adjust(productId, -quantityDelta, -reservedDelta);
+                }
+            });
+        }
+    }
+}
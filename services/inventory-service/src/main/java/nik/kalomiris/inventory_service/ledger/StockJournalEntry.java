@@ -0,0 +1,70 @@
+package nik.kalomiris.inventory_service.ledger;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * A stock change of a hot product that is applied in memory but not yet to
+ * the inventory table. Entries are deleted once the flusher has added them to
+ * the inventory row; the entries left after a restart are replayed on top of
+ * the inventory row.
+ */
+@Entity
+@Table(name = "stock_journal", indexes = @Index(name = "idx_stock_journal_product", columnList = "product_id, id"))
+public class StockJournalEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_journal_seq")
+    @SequenceGenerator(name = "stock_journal_seq", sequenceName = "stock_journal_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "quantity_delta", nullable = false)
+    private long quantityDelta;
+
+    @Column(name = "reserved_delta", nullable = false)
+    private long reservedDelta;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public StockJournalEntry() {
+    }
+
+    public StockJournalEntry(Long productId, long quantityDelta, long reservedDelta) {
+        this.productId = productId;
+        this.quantityDelta = quantityDelta;
+        this.reservedDelta = reservedDelta;
+        this.createdAt = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public long getQuantityDelta() {
+        return quantityDelta;
+    }
+
+    public long getReservedDelta() {
+        return reservedDelta;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
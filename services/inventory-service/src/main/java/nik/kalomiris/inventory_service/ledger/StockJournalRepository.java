@@ -0,0 +1,24 @@
+package nik.kalomiris.inventory_service.ledger;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+
+import java.util.List;
+
+/**
+ * Repository for the journal of in-memory stock changes.
+ */
+public interface StockJournalRepository extends JpaRepository<StockJournalEntry, Long> {
+
+    /** All entries of a product, oldest first. */
+    List<StockJournalEntry> findByProductIdOrderByIdAsc(Long productId);
+
+    /**
+     * Oldest entries of a product, locked so that two flushers cannot apply
+     * the same entries.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<StockJournalEntry> findForFlushByProductIdOrderByIdAsc(Long productId, Pageable pageable);
+}
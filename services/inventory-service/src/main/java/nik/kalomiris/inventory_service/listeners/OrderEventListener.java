@@ -1,7 +1,13 @@
 package nik.kalomiris.inventory_service.listeners;
 
+import com.rabbitmq.client.Channel;
+import jakarta.annotation.PreDestroy;
 import nik.kalomiris.inventory_service.InventoryService;
+import nik.kalomiris.inventory_service.config.InventoryListenerConfig;
 import nik.kalomiris.inventory_service.config.RabbitMQConfig;
+import nik.kalomiris.inventory_service.exceptions.InsufficientStockException;
+import nik.kalomiris.inventory_service.exceptions.InventoryNotFoundException;
+import nik.kalomiris.events.dtos.InventoryReleasedEvent;
 import nik.kalomiris.events.dtos.InventoryReservationFailedEvent;
 import nik.kalomiris.events.dtos.InventorySuccessEvent;
 import nik.kalomiris.events.dtos.OrderEvent;
@@ -15,96 +21,227 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
 @Component
 public class OrderEventListener {
 
     /**
-     * Listens for OrderCreated events and attempts to reserve stock for each
-     * ordered line item. On partial or full failure an InventoryReservationFailedEvent
-     * is published so the originating service can react.
+     * Listens for OrderCreated events and reserves stock for all ordered line
+     * items at once. If any line cannot be reserved nothing is reserved and an
+     * InventoryReservationFailedEvent is published so the originating service
+     * can react.
      *
      * This listener keeps processing simple and emits events for downstream
      * coordination via RabbitMQ.
+     *
+     * The order queues are consumed either by a single consumer or through
+     * ordering lanes, so events touching the same product are always handled
+     * in delivery order. An event occupies the lanes of all products of its
+     * order; orders for disjoint sets of products are handled in parallel.
      */
 
     private static final Logger logger = LoggerFactory.getLogger(OrderEventListener.class);
     private final InventoryService inventoryService;
     private final RabbitTemplate rabbitTemplate;
+    private final OrderingLanes orderCreatedLanes;
+    private final OrderingLanes orderConfirmedLanes;
 
     public OrderEventListener(InventoryService inventoryService, RabbitTemplate rabbitTemplate) {
+        this(inventoryService, rabbitTemplate, new InventoryListenerConfig());
+    }
+
+    @Autowired
+    public OrderEventListener(InventoryService inventoryService, RabbitTemplate rabbitTemplate,
+            InventoryListenerConfig listenerConfig) {
         this.inventoryService = inventoryService;
         this.rabbitTemplate = rabbitTemplate;
+        this.orderCreatedLanes = lanes(listenerConfig.getOrderCreated(), "order-created");
+        this.orderConfirmedLanes = lanes(listenerConfig.getOrderConfirmed(), "order-confirmed");
+    }
+
+    @RabbitListener(queues = RabbitMQConfig.ORDER_CREATED_QUEUE_NAME, containerFactory = "orderCreatedContainerFactory",
+            autoStartup = "#{!${inventory.listener.order-created.batch-enabled:false}}")
+    public void onOrderCreated(OrderEvent orderEvent, Channel channel,
+            @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) {
+        if (orderCreatedLanes != null) {
+            orderCreatedLanes.execute(laneKeys(orderEvent), channel, deliveryTag, () -> handleOrderCreatedEvent(orderEvent));
+        } else {
+            handleOrderCreatedEvent(orderEvent);
+        }
+    }
+
+    @RabbitListener(queues = RabbitMQConfig.ORDER_CREATED_QUEUE_NAME, containerFactory = "orderCreatedBatchContainerFactory",
+            autoStartup = "${inventory.listener.order-created.batch-enabled:false}")
+    public void onOrderCreatedBatch(List<OrderEvent> orderEvents) {
+        handleOrderCreatedEvents(orderEvents);
+    }
+
+    @RabbitListener(queues = RabbitMQConfig.ORDER_CONFIRMED_QUEUE_NAME, containerFactory = "orderConfirmedContainerFactory")
+    public void onOrderConfirmed(OrderEvent orderEvent, Channel channel,
+            @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) {
+        if (orderConfirmedLanes != null) {
+            orderConfirmedLanes.execute(laneKeys(orderEvent), channel, deliveryTag, () -> handleOrderConfirmedEvent(orderEvent));
+        } else {
+            handleOrderConfirmedEvent(orderEvent);
+        }
+    }
+
+    @PreDestroy
+    public void shutdownLanes() {
+        if (orderCreatedLanes != null)
+            orderCreatedLanes.shutdown();
+        if (orderConfirmedLanes != null)
+            orderConfirmedLanes.shutdown();
     }
 
-    @RabbitListener(queues = RabbitMQConfig.ORDER_CREATED_QUEUE_NAME)
     public void handleOrderCreatedEvent(OrderEvent orderEvent) {
         logger.info("Received order created event for orderNumber: {}", orderEvent.getOrderNumber());
-        List<OrderLineItem> reservedItems = new ArrayList<>();
-            try {
-                for (OrderLineItem item : orderEvent.getLineItems()) {
-                    try {
-                        inventoryService.reserveStock(item.getProductId(), item.getQuantity());
-                        reservedItems.add(new OrderLineItem(item.getProductId(), item.getQuantity()));
-                        logger.info("Reserved stock for product ID: {} quantity: {}", item.getProductId(), item.getQuantity());
-                    } catch (Exception e) {
-                        logger.error("Failed to reserve stock for product ID: {}. Reason: {}", item.getProductId(), e.getMessage());
-                        // Publish a failure event with reason and attempted items
-                        InventoryReservationFailedEvent failedEvent = new InventoryReservationFailedEvent(
-                            orderEvent.getOrderNumber(),
-                            orderEvent.getCorrelationId(),
-                            Instant.now(),
-                            "Failed to reserve productId " + item.getProductId() + ": " + e.getMessage(),
-                            reservedItems
-                        );
-                        rabbitTemplate.convertAndSend(RabbitMQConfig.ORDER_EXCHANGE_NAME, RabbitMQConfig.ROUTING_KEY_ORDER_INVENTORY_RESERVATION_FAILED, failedEvent);
-                        return; // stop processing further items
-                    }
-                }
-
-                // If we get here, all items were reserved
-                InventorySuccessEvent successEvent = new InventorySuccessEvent(
-                        orderEvent.getOrderNumber(),
-                        orderEvent.getCorrelationId(),
-                        Instant.now(),
-                        reservedItems
-                    );
-                    rabbitTemplate.convertAndSend(RabbitMQConfig.ORDER_EXCHANGE_NAME, RabbitMQConfig.ROUTING_KEY_ORDER_INVENTORY_RESERVED, successEvent);
-            
-            } catch (Exception e) {
-                logger.error("Unexpected error while processing orderNumber {}: {}", orderEvent.getOrderNumber(), e.getMessage());
-                InventoryReservationFailedEvent failedEvent = new InventoryReservationFailedEvent(
-                    orderEvent.getOrderNumber(),
-                    orderEvent.getCorrelationId(),
-                    Instant.now(),
-                    "Unexpected error: " + e.getMessage(),
-                    reservedItems
-                );
-                rabbitTemplate.convertAndSend(RabbitMQConfig.ORDER_EXCHANGE_NAME, RabbitMQConfig.ROUTING_KEY_ORDER_INVENTORY_RESERVATION_FAILED, failedEvent);
-            }
+        // All lines are reserved in one transaction, or none of them: a failure
+        // never leaves earlier lines reserved.
+        try {
+            inventoryService.reserveAll(orderEvent.getOrderNumber(), orderEvent.getCorrelationId(),
+                    orderEvent.getLineItems());
+        } catch (Exception e) {
+            publishReservationFailed(orderEvent, e.getMessage());
+            return;
+        }
+        publishReserved(orderEvent);
     }
 
-    @RabbitListener(queues = RabbitMQConfig.ORDER_CONFIRMED_QUEUE_NAME)
-    public void handleOrderConfirmedEvent(OrderEvent orderEvent) {
-        logger.info("Received order confirmed event for orderNumber: {}", orderEvent.getOrderNumber());
-        // Try to commit the reserved stock. If commit fails, log error. If commit succeeds, send message to confirm.
-        List<OrderLineItem> committedItems = new ArrayList<>();
+    /**
+     * Reserve stock for a batch of OrderCreated events with one write per
+     * product, then publish the outcome of each order individually. If the
+     * batch as a whole fails, the orders are retried one by one.
+     */
+    public void handleOrderCreatedEvents(List<OrderEvent> orderEvents) {
+        logger.info("Received batch of {} order created events", orderEvents.size());
+        List<List<OrderLineItem>> orders = new ArrayList<>(orderEvents.size());
+        List<String> orderNumbers = new ArrayList<>(orderEvents.size());
+        List<String> correlationIds = new ArrayList<>(orderEvents.size());
+        for (OrderEvent orderEvent : orderEvents) {
+            orders.add(orderEvent.getLineItems() != null ? orderEvent.getLineItems() : List.of());
+            orderNumbers.add(orderEvent.getOrderNumber());
+            correlationIds.add(orderEvent.getCorrelationId());
+        }
+
+        List<String> failures;
         try {
-            for (OrderLineItem item : orderEvent.getLineItems()) {
-                inventoryService.commitStock(item.getProductId(), item.getQuantity());
-                logger.info("Committed stock for product ID: {} quantity: {}", item.getProductId(), item.getQuantity());
-                committedItems.add(item);
+            failures = inventoryService.reserveEach(orders, orderNumbers, correlationIds);
+        } catch (Exception e) {
+            logger.error("Failed to reserve stock for a batch of {} orders, retrying them one by one. Reason: {}",
+                    orderEvents.size(), e.getMessage());
+            orderEvents.forEach(this::handleOrderCreatedEvent);
+            return;
+        }
+
+        for (int i = 0; i < orderEvents.size(); i++) {
+            if (failures.get(i) == null) {
+                publishReserved(orderEvents.get(i));
+            } else {
+                publishReservationFailed(orderEvents.get(i), failures.get(i));
             }
-            InventorySuccessEvent committedEvent = new InventorySuccessEvent(
+        }
+    }
+
+    private void publishReservationFailed(OrderEvent orderEvent, String reason) {
+        logger.error("Failed to reserve stock for orderNumber {}. Reason: {}", orderEvent.getOrderNumber(), reason);
+        InventoryReservationFailedEvent failedEvent = new InventoryReservationFailedEvent(
+            orderEvent.getOrderNumber(),
+            orderEvent.getCorrelationId(),
+            Instant.now(),
+            "Failed to reserve stock: " + reason,
+            new ArrayList<>()
+        );
+        rabbitTemplate.convertAndSend(RabbitMQConfig.ORDER_EXCHANGE_NAME, RabbitMQConfig.ROUTING_KEY_ORDER_INVENTORY_RESERVATION_FAILED, failedEvent);
+    }
+
+    private void publishReserved(OrderEvent orderEvent) {
+        List<OrderLineItem> reservedItems = new ArrayList<>();
+        for (OrderLineItem item : orderEvent.getLineItems()) {
+            reservedItems.add(new OrderLineItem(item.getProductId(), item.getQuantity()));
+        }
+        logger.info("Reserved stock for {} line items of orderNumber: {}", reservedItems.size(), orderEvent.getOrderNumber());
+        InventorySuccessEvent successEvent = new InventorySuccessEvent(
                 orderEvent.getOrderNumber(),
                 orderEvent.getCorrelationId(),
                 Instant.now(),
-                committedItems
+                reservedItems
             );
-            rabbitTemplate.convertAndSend(RabbitMQConfig.ORDER_EXCHANGE_NAME, RabbitMQConfig.ROUTING_KEY_ORDER_INVENTORY_COMMITTED, committedEvent);
-        } catch (Exception e) {
+        rabbitTemplate.convertAndSend(RabbitMQConfig.ORDER_EXCHANGE_NAME, RabbitMQConfig.ROUTING_KEY_ORDER_INVENTORY_RESERVED, successEvent);
+    }
+
+    /**
+     * Commit the reserved stock of a confirmed order, all lines in one
+     * transaction. If the reservation expired, or the stock cannot be
+     * committed, the order's stock is released and an InventoryReleasedEvent
+     * published instead. Other failures, e.g. the database being unavailable,
+     * leave the reservation untouched and are rethrown so that the event is
+     * redelivered.
+     */
+    public void handleOrderConfirmedEvent(OrderEvent orderEvent) {
+        logger.info("Received order confirmed event for orderNumber: {}", orderEvent.getOrderNumber());
+        try {
+            // The order is confirmed: its reservation must no longer expire. If it
+            // already expired, the released stock may belong to other orders now
+            if (!inventoryService.commitOrder(orderEvent.getOrderNumber(), orderEvent.getLineItems())) {
+                logger.warn("Reservation of orderNumber {} expired before its confirmation, not committing stock",
+                        orderEvent.getOrderNumber());
+                publishReleased(orderEvent, "Reservation expired before the order was confirmed", new ArrayList<>());
+                return;
+            }
+        } catch (InsufficientStockException | InventoryNotFoundException e) {
+            // Redelivery cannot succeed: give the stock back to other orders
             logger.error("Failed to commit stock for orderNumber {}: {}", orderEvent.getOrderNumber(), e.getMessage());
+            List<OrderLineItem> releasedItems = inventoryService.releaseOrder(orderEvent.getOrderNumber(),
+                    orderEvent.getLineItems());
+            publishReleased(orderEvent, "Failed to commit stock: " + e.getMessage(), releasedItems);
+            return;
+        }
+        List<OrderLineItem> committedItems = new ArrayList<>();
+        for (OrderLineItem item : orderEvent.getLineItems()) {
+            logger.info("Committed stock for product ID: {} quantity: {}", item.getProductId(), item.getQuantity());
+            committedItems.add(item);
+        }
+        InventorySuccessEvent committedEvent = new InventorySuccessEvent(
+            orderEvent.getOrderNumber(),
+            orderEvent.getCorrelationId(),
+            Instant.now(),
+            committedItems
+        );
+        rabbitTemplate.convertAndSend(RabbitMQConfig.ORDER_EXCHANGE_NAME, RabbitMQConfig.ROUTING_KEY_ORDER_INVENTORY_COMMITTED, committedEvent);
+    }
+
+    private void publishReleased(OrderEvent orderEvent, String reason, List<OrderLineItem> releasedItems) {
+        InventoryReleasedEvent releasedEvent = new InventoryReleasedEvent(
+            orderEvent.getOrderNumber(),
+            orderEvent.getCorrelationId(),
+            Instant.now(),
+            reason,
+            releasedItems
+        );
+        rabbitTemplate.convertAndSend(RabbitMQConfig.ORDER_EXCHANGE_NAME, RabbitMQConfig.ROUTING_KEY_ORDER_INVENTORY_RELEASED, releasedEvent);
+    }
+
+    private static OrderingLanes lanes(InventoryListenerConfig.Container settings, String name) {
+        int count = settings.getOrderedLanes();
+        return count > 0 ? new OrderingLanes(count, name) : null;
+    }
+
+    // Every productId of the order, or the order number for an order without lines
+    private static List<Object> laneKeys(OrderEvent orderEvent) {
+        List<Object> keys = new ArrayList<>();
+        if (orderEvent.getLineItems() != null) {
+            for (OrderLineItem item : orderEvent.getLineItems()) {
+                if (item.getProductId() != null)
+                    keys.add(item.getProductId());
+            }
         }
+        if (keys.isEmpty())
+            keys.add(orderEvent.getOrderNumber());
+        return keys;
     }
 }
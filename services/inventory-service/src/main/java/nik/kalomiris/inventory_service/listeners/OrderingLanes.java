@@ -0,0 +1,159 @@
+package nik.kalomiris.inventory_service.listeners;
+
+import com.rabbitmq.client.Channel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed set of single-threaded lanes that process messages in parallel while
+ * keeping the order of messages with the same key.
+ *
+ * A key is hashed to one lane, and each lane runs its tasks one at a time in
+ * submission order. Used with a single consumer in manual acknowledge mode:
+ * the consumer submits each message and returns, and the lane acknowledges the
+ * message once it is processed, or rejects it for redelivery if processing
+ * throws. A rejected message is redelivered behind later ones.
+ *
+ * A message with several keys (an order for several products) occupies the
+ * lanes of all its keys: it runs once every one of those lanes has finished
+ * the messages submitted before it, and holds them until it is done. Messages
+ * are submitted to all their lanes under one lock, so every lane sees them in
+ * the same order and two multi-lane messages cannot wait for each other.
+ */
+public class OrderingLanes {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderingLanes.class);
+
+    private final ExecutorService[] lanes;
+
+    /**
+     * @param count number of lanes
+     * @param name  thread name prefix
+     */
+    public OrderingLanes(int count, String name) {
+        if (count < 1)
+            throw new IllegalArgumentException("count must be at least 1");
+        this.lanes = new ExecutorService[count];
+        for (int i = 0; i < count; i++) {
+            String threadName = name + "-lane-" + i;
+            lanes[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * @return index of the lane messages with the given key are processed on
+     */
+    public int laneOf(Object key) {
+        int hash = key == null ? 0 : key.hashCode();
+        // Spread the high bits, as keys are often small sequential ids
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+    }
+
+    /**
+     * Process a message on its key's lane and acknowledge it afterwards.
+     */
+    public synchronized void execute(Object key, Channel channel, long deliveryTag, Runnable task) {
+        lanes[laneOf(key)].execute(() -> runAndAcknowledge(channel, deliveryTag, task));
+    }
+
+    /**
+     * Process a message once the lanes of all its keys have processed the
+     * messages submitted before it, and acknowledge it afterwards. Later
+     * messages on any of those lanes wait for it.
+     */
+    public synchronized void execute(Collection<?> keys, Channel channel, long deliveryTag, Runnable task) {
+        SortedSet<Integer> indexes = new TreeSet<>();
+        for (Object key : keys) {
+            indexes.add(laneOf(key));
+        }
+        if (indexes.size() <= 1) {
+            execute(keys.isEmpty() ? null : keys.iterator().next(), channel, deliveryTag, task);
+            return;
+        }
+
+        // The lowest lane runs the message once the others have reached it;
+        // the others stay blocked until it is done
+        int runner = indexes.first();
+        CountDownLatch arrived = new CountDownLatch(indexes.size() - 1);
+        CountDownLatch done = new CountDownLatch(1);
+        for (int index : indexes.tailSet(runner + 1)) {
+            lanes[index].execute(() -> {
+                arrived.countDown();
+                awaitUninterruptibly(done);
+            });
+        }
+        try {
+            lanes[runner].execute(() -> {
+                try {
+                    awaitUninterruptibly(arrived);
+                    runAndAcknowledge(channel, deliveryTag, task);
+                } finally {
+                    done.countDown();
+                }
+            });
+        } catch (RuntimeException e) {
+            // Shutting down: release the lanes already holding for it
+            done.countDown();
+            throw e;
+        }
+    }
+
+    private static void runAndAcknowledge(Channel channel, long deliveryTag, Runnable task) {
+        try {
+            task.run();
+            channel.basicAck(deliveryTag, false);
+        } catch (Exception e) {
+            logger.error("Failed to process message {} on its ordering lane: {}", deliveryTag, e.getMessage());
+            try {
+                channel.basicNack(deliveryTag, false, true);
+            } catch (IOException nackFailure) {
+                // The channel is gone; the broker redelivers unacknowledged messages
+                logger.warn("Failed to reject message {}: {}", deliveryTag, nackFailure.getMessage());
+            }
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Stop the lanes, letting queued tasks finish for a short while. Messages
+     * not acknowledged by then are redelivered by the broker.
+     */
+    public void shutdown() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        try {
+            for (ExecutorService lane : lanes) {
+                lane.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -23,7 +23,7 @@ public class ProductEventListener {
         this.inventoryService = inventoryService;
     }
 
-    @RabbitListener(queues = RabbitMQConfig.PRODUCT_CREATED_QUEUE_NAME)
+    @RabbitListener(queues = RabbitMQConfig.PRODUCT_CREATED_QUEUE_NAME, containerFactory = "productCreatedContainerFactory")
     public void handleProductCreatedEvent(ProductCreatedEvent productEvent) {
         logger.info("Received product created event for SKU: {}", productEvent.getSku());
         // Create inventory record with the same ID as the product so order-service productId maps to inventory id.
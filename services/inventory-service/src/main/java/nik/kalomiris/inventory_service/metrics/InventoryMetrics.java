@@ -6,15 +6,37 @@ import jakarta.annotation.PostConstruct;
 import java.time.Instant;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import nik.kalomiris.inventory_service.InventoryRepository;
 
+/**
+ * Inventory gauges.
+ *
+ * The aggregates are kept in memory and updated by
+ * {@link nik.kalomiris.inventory_service.InventoryService}
+ * from the change of each stock operation once its transaction has
+ * committed, so a scrape does not query the database and rolled back
+ * operations are never counted. A low-frequency reconciliation job
+ * recomputes them from the inventory table to correct any drift, e.g. from
+ * changes made outside this instance.
+ */
 @Component
 public class InventoryMetrics {
 
+    private static final Logger logger = LoggerFactory.getLogger(InventoryMetrics.class);
+
     private final MeterRegistry meterRegistry;
     private final InventoryRepository inventoryRepository;
     private final AtomicLong lastUpdateEpoch = new AtomicLong(0);
+    private final AtomicLong productCount = new AtomicLong();
+    private final AtomicLong totalQuantity = new AtomicLong();
+    private final AtomicLong reservedQuantity = new AtomicLong();
+    private final AtomicLong lowStockCount = new AtomicLong();
+    private final AtomicLong outOfStockCount = new AtomicLong();
     private static final int LOW_STOCK_THRESHOLD = 10;
 
     public InventoryMetrics(MeterRegistry meterRegistry, InventoryRepository inventoryRepository) {
@@ -24,23 +46,74 @@ public class InventoryMetrics {
 
     @PostConstruct
     public void register() {
-        meterRegistry.gauge("inventory.product.count",
-                inventoryRepository, repo -> repo.count());
+        meterRegistry.gauge("inventory.product.count", productCount);
         meterRegistry.gauge("inventory.last_update.timestamp",
                 lastUpdateEpoch);
-        meterRegistry.gauge("inventory.total_quantity",
-                inventoryRepository, repo -> Optional
-                        .ofNullable(repo.sumTotalQuantity()).orElse(0L).doubleValue());
-        meterRegistry.gauge("inventory.reserved_quantity",
-                inventoryRepository, repo -> Optional
-                        .ofNullable(repo.sumReservedQuantity()).orElse(0L).doubleValue());
-        meterRegistry.gauge("inventory.low_stock.count",
-                inventoryRepository, repo -> repo.countLowStock(LOW_STOCK_THRESHOLD));
-        meterRegistry.gauge("inventory.out_of_stock.count",
-                inventoryRepository, repo -> repo.countOutOfStock());
+        meterRegistry.gauge("inventory.total_quantity", totalQuantity);
+        meterRegistry.gauge("inventory.reserved_quantity", reservedQuantity);
+        meterRegistry.gauge("inventory.low_stock.count", lowStockCount);
+        meterRegistry.gauge("inventory.out_of_stock.count", outOfStockCount);
+    }
+
+    /**
+     * Recompute the aggregates from the inventory table. Runs at startup and
+     * then every {@code inventory.metrics.reconcile-interval-ms}.
+     */
+    @Scheduled(fixedDelayString = "${inventory.metrics.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        try {
+            productCount.set(inventoryRepository.count());
+            totalQuantity.set(Optional.ofNullable(inventoryRepository.sumTotalQuantity()).orElse(0L));
+            reservedQuantity.set(Optional.ofNullable(inventoryRepository.sumReservedQuantity()).orElse(0L));
+            lowStockCount.set(inventoryRepository.countLowStock(LOW_STOCK_THRESHOLD));
+            outOfStockCount.set(inventoryRepository.countOutOfStock());
+        } catch (Exception e) {
+            // Keep the incremental values until the next reconciliation
+            logger.warn("Failed to reconcile inventory metrics: {}", e.getMessage());
+        }
     }
 
     public void markUpdated() {
         lastUpdateEpoch.set(Instant.now().getEpochSecond());
     }
+
+    /** A new inventory record with the given quantity. */
+    public void recordCreated(long quantity) {
+        productCount.incrementAndGet();
+        totalQuantity.addAndGet(quantity);
+        stockLevelCount(quantity, 1);
+        markUpdated();
+    }
+
+    /** Stock was reserved (positive) or released (negative). */
+    public void recordReservedChange(long delta) {
+        reservedQuantity.addAndGet(delta);
+        markUpdated();
+    }
+
+    /** Reserved stock was removed from the inventory, leaving newQuantity. */
+    public void recordCommitted(long amount, long newQuantity) {
+        reservedQuantity.addAndGet(-amount);
+        totalQuantity.addAndGet(-amount);
+        stockLevelCount(newQuantity + amount, -1);
+        stockLevelCount(newQuantity, 1);
+        markUpdated();
+    }
+
+    /** The quantity of a record was set. */
+    public void recordQuantityChange(long previousQuantity, long newQuantity) {
+        totalQuantity.addAndGet(newQuantity - previousQuantity);
+        stockLevelCount(previousQuantity, -1);
+        stockLevelCount(newQuantity, 1);
+        markUpdated();
+    }
+
+    // Same classification as InventoryRepository.countLowStock/countOutOfStock
+    private void stockLevelCount(long quantity, int delta) {
+        if (quantity == 0) {
+            outOfStockCount.addAndGet(delta);
+        } else if (quantity > 0 && quantity < LOW_STOCK_THRESHOLD) {
+            lowStockCount.addAndGet(delta);
+        }
+    }
 }
@@ -0,0 +1,128 @@
+package nik.kalomiris.inventory_service.reservation;
+
+import nik.kalomiris.events.dtos.InventoryReleasedEvent;
+import nik.kalomiris.events.dtos.OrderLineItem;
+import nik.kalomiris.inventory_service.InventoryService;
+import nik.kalomiris.inventory_service.config.RabbitMQConfig;
+import nik.kalomiris.inventory_service.config.ReservationConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Releases the stock of reservations whose order was not confirmed in time.
+ *
+ * Each sweep takes the orders with expired reservations in batches from the
+ * expiry index, oldest first, and locks all reservations of those orders, so
+ * an order is always released as a whole: a confirmation either commits all
+ * of its stock first or finds no reservation left. Per batch, the total
+ * expired amount of each product is released with one guarded update, the
+ * reservations are deleted and, once that transaction has committed, one
+ * release event per order is published.
+ */
+@Component
+@ConditionalOnProperty(prefix = "inventory.reservation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ReservationExpirySweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationExpirySweeper.class);
+    private static final String EXPIRED_REASON = "Reservation expired before the order was confirmed";
+
+    private final StockReservationRepository reservationRepository;
+    private final InventoryService inventoryService;
+    private final RabbitTemplate rabbitTemplate;
+    private final ReservationConfig config;
+    private final TransactionTemplate transactionTemplate;
+
+    public ReservationExpirySweeper(StockReservationRepository reservationRepository,
+            InventoryService inventoryService, RabbitTemplate rabbitTemplate, ReservationConfig config,
+            PlatformTransactionManager transactionManager) {
+        this.reservationRepository = reservationRepository;
+        this.inventoryService = inventoryService;
+        this.rabbitTemplate = rabbitTemplate;
+        this.config = config;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Release all reservations expired by now.
+     *
+     * @return number of reservations released
+     */
+    @Scheduled(fixedDelayString = "${inventory.reservation.sweep-interval-ms:10000}")
+    public int sweep() {
+        Instant now = Instant.now();
+        int released = 0;
+        while (true) {
+            List<InventoryReleasedEvent> events;
+            try {
+                events = transactionTemplate.execute(status -> sweepBatch(now));
+            } catch (RuntimeException e) {
+                logger.warn("Failed to release expired reservations: {}", e.getMessage());
+                break;
+            }
+            if (events == null || events.isEmpty())
+                break;
+            for (InventoryReleasedEvent event : events) {
+                released += event.getReleasedItems().size();
+                publish(event);
+            }
+        }
+        if (released > 0)
+            logger.info("Released {} expired stock reservations", released);
+        return released;
+    }
+
+    private List<InventoryReleasedEvent> sweepBatch(Instant now) {
+        List<String> orderNumbers = reservationRepository.findExpiredOrderNumbers(now,
+                PageRequest.of(0, config.getSweepBatchSize()));
+        if (orderNumbers.isEmpty())
+            return List.of();
+        // Orders confirmed or swept elsewhere in the meantime have no rows left
+        List<StockReservation> expired = reservationRepository.findForUpdateByOrderNumberInOrderByIdAsc(orderNumbers);
+        if (expired.isEmpty())
+            return List.of();
+
+        Map<Long, Integer> amounts = new TreeMap<>();
+        Map<String, InventoryReleasedEvent> events = new LinkedHashMap<>();
+        for (StockReservation reservation : expired) {
+            amounts.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+            events.computeIfAbsent(reservation.getOrderNumber(), orderNumber -> new InventoryReleasedEvent(
+                    orderNumber, reservation.getCorrelationId(), now, EXPIRED_REASON, new ArrayList<>()))
+                    .getReleasedItems().add(new OrderLineItem(reservation.getProductId(), reservation.getQuantity()));
+        }
+        for (Map.Entry<Long, Integer> entry : amounts.entrySet()) {
+            try {
+                inventoryService.releaseStock(entry.getKey(), entry.getValue());
+            } catch (RuntimeException e) {
+                // Released or committed by other means; drop the reservations anyway
+                logger.warn("Could not release {} expired units of product {}: {}", entry.getValue(), entry.getKey(),
+                        e.getMessage());
+            }
+        }
+        reservationRepository.deleteAllInBatch(expired);
+        return new ArrayList<>(events.values());
+    }
+
+    private void publish(InventoryReleasedEvent event) {
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.ORDER_EXCHANGE_NAME,
+                    RabbitMQConfig.ROUTING_KEY_ORDER_INVENTORY_RELEASED, event);
+        } catch (Exception e) {
+            logger.warn("Failed to publish release event for orderNumber {}: {}", event.getOrderNumber(),
+                    e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package nik.kalomiris.inventory_service.reservation;
+
+import nik.kalomiris.inventory_service.config.ReservationConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the stock reserved for each order, with its expiry, and forgets it
+ * once the order's stock is committed.
+ */
+@Component
+@ConditionalOnProperty(prefix = "inventory.reservation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ReservationTracker {
+
+    private final StockReservationRepository reservationRepository;
+    private final ReservationConfig config;
+
+    public ReservationTracker(StockReservationRepository reservationRepository, ReservationConfig config) {
+        this.reservationRepository = reservationRepository;
+        this.config = config;
+    }
+
+    /**
+     * Record reserved amounts per product for an order; joins the caller's
+     * transaction, so the records exist exactly if the reservation does.
+     */
+    public void track(String orderNumber, String correlationId, Map<Long, Integer> amounts) {
+        Instant expiresAt = Instant.now().plus(config.getTtl());
+        List<StockReservation> reservations = new ArrayList<>(amounts.size());
+        for (Map.Entry<Long, Integer> entry : amounts.entrySet()) {
+            reservations.add(new StockReservation(orderNumber, correlationId, entry.getKey(), entry.getValue(),
+                    expiresAt));
+        }
+        reservationRepository.saveAll(reservations);
+    }
+
+    /**
+     * Forget the reservations of an order, e.g. once its stock is committed.
+     *
+     * @return false if the order had no reservation left, i.e. it expired and
+     *         its stock was released
+     */
+    @Transactional
+    public boolean complete(String orderNumber) {
+        return !remove(orderNumber).isEmpty();
+    }
+
+    /**
+     * Remove the reservations of an order; joins the caller's transaction and
+     * keeps them locked until it ends.
+     *
+     * @return the removed reservations, empty if the order had none left
+     */
+    @Transactional
+    public List<StockReservation> remove(String orderNumber) {
+        List<StockReservation> reservations = reservationRepository.findForUpdateByOrderNumberInOrderByIdAsc(
+                List.of(orderNumber));
+        reservationRepository.deleteAllInBatch(reservations);
+        return reservations;
+    }
+}
@@ -0,0 +1,35 @@
+package nik.kalomiris.inventory_service.reservation;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for outstanding stock reservations.
+ */
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    List<StockReservation> findByOrderNumber(String orderNumber);
+
+    /**
+     * Orders with expired reservations at {@code now}, oldest first. All
+     * reservations of an order share one expiry.
+     */
+    @Query("SELECT r.orderNumber FROM StockReservation r WHERE r.expiresAt <= :now "
+            + "GROUP BY r.orderNumber ORDER BY MIN(r.expiresAt)")
+    List<String> findExpiredOrderNumbers(@Param("now") Instant now, Pageable pageable);
+
+    /**
+     * All reservations of the given orders, locked in id order so that a
+     * sweeper and a confirmation never hold part of one order each.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<StockReservation> findForUpdateByOrderNumberInOrderByIdAsc(Collection<String> orderNumbers);
+}
@@ -6,10 +6,27 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
 import nik.kalomiris.inventory_service.exceptions.InsufficientStockException;
+import nik.kalomiris.inventory_service.exceptions.InventoryNotFoundException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import java.time.Instant;
+
+import nik.kalomiris.events.dtos.OrderLineItem;
+import nik.kalomiris.inventory_service.bulk.BulkImportResult;
+import nik.kalomiris.inventory_service.bulk.BulkStockImportService;
+import nik.kalomiris.inventory_service.cache.AvailabilityCache;
+import nik.kalomiris.inventory_service.config.ReservationConfig;
+import nik.kalomiris.inventory_service.reservation.ReservationExpirySweeper;
+import nik.kalomiris.inventory_service.reservation.StockReservation;
+import nik.kalomiris.inventory_service.reservation.StockReservationRepository;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -26,10 +43,30 @@ public class InventoryServiceTests {
     @Autowired
     private InventoryRepository inventoryRepository;
 
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private ReservationExpirySweeper reservationExpirySweeper;
+
+    @Autowired
+    private ReservationConfig reservationConfig;
+
+    @Autowired
+    private AvailabilityCache availabilityCache;
+
+    @Autowired
+    private BulkStockImportService bulkStockImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private Inventory inventory;
 
     @BeforeEach
     void setUp() {
+        // Cached stock levels would outlive each test's rolled back transaction
+        availabilityCache.invalidateAll();
         inventoryRepository.deleteAll();
         inventory = new Inventory("TEST-SKU", 100, 10);
         inventory = inventoryRepository.save(inventory);
@@ -58,6 +95,175 @@ public class InventoryServiceTests {
         });
     }
 
+    @Test
+    void reserveStock_shouldThrowNotFound_whenNoInventoryRecordExists() {
+        assertThrows(InventoryNotFoundException.class, () -> {
+            inventoryService.reserveStock(inventory.getProductId() + 1000, 1);
+        });
+    }
+
+    @Test
+    void reserveStock_shouldReserveUpToAvailableStock() {
+        // Act: 90 available, reserved in two steps
+        inventoryService.reserveStock(inventory.getProductId(), 60);
+        inventoryService.reserveStock(inventory.getProductId(), 30);
+
+        // Assert: nothing left to reserve
+        assertThrows(InsufficientStockException.class,
+                () -> inventoryService.reserveStock(inventory.getProductId(), 1));
+        Inventory updatedInventory = inventoryRepository.findById(inventory.getId()).get();
+        assertThat(updatedInventory.getReservedQuantity()).isEqualTo(100);
+    }
+
+    @Test
+    void reserveAll_shouldReserveEveryLine_whenStockIsAvailable() {
+        Inventory other = saveInventory("OTHER-SKU", 5, 0);
+
+        inventoryService.reserveAll(List.of(
+                new OrderLineItem(other.getProductId(), 5),
+                new OrderLineItem(inventory.getProductId(), 20),
+                new OrderLineItem(inventory.getProductId(), 10)));
+
+        assertThat(inventoryRepository.findById(inventory.getId()).get().getReservedQuantity()).isEqualTo(40);
+        assertThat(inventoryRepository.findById(other.getId()).get().getReservedQuantity()).isEqualTo(5);
+    }
+
+    @Test
+    void reserveAll_shouldReserveNothing_whenAnyLineIsNotAvailable() {
+        Inventory other = saveInventory("OTHER-SKU", 5, 0);
+
+        assertThrows(InsufficientStockException.class, () -> inventoryService.reserveAll(List.of(
+                new OrderLineItem(inventory.getProductId(), 20),
+                new OrderLineItem(other.getProductId(), 6))));
+
+        assertThat(inventoryRepository.findById(inventory.getId()).get().getReservedQuantity()).isEqualTo(10);
+        assertThat(inventoryRepository.findById(other.getId()).get().getReservedQuantity()).isEqualTo(0);
+    }
+
+    @Test
+    void reserveEach_shouldAdmitOrdersInTurnAgainstTheRemainingStock() {
+        Long productId = inventory.getProductId();
+
+        // 90 available: the second order no longer fits after the first one
+        List<String> failures = inventoryService.reserveEach(List.of(
+                List.of(new OrderLineItem(productId, 60)),
+                List.of(new OrderLineItem(productId, 40)),
+                List.of(new OrderLineItem(productId, 30)),
+                List.of(new OrderLineItem(productId + 1000, 1))));
+
+        assertThat(failures.get(0)).isNull();
+        assertThat(failures.get(1)).contains("Not enough stock");
+        assertThat(failures.get(2)).isNull();
+        assertThat(failures.get(3)).contains("not found");
+        assertThat(inventoryRepository.findById(inventory.getId()).get().getReservedQuantity()).isEqualTo(100);
+    }
+
+    @Test
+    void sweep_shouldReleaseExpiredReservations() {
+        inventoryService.reserveAll("ORD-1", "corr-1", List.of(new OrderLineItem(inventory.getProductId(), 20)));
+        List<StockReservation> reservations = reservationRepository.findByOrderNumber("ORD-1");
+        assertThat(reservations).hasSize(1);
+
+        reservations.get(0).setExpiresAt(Instant.now().minusSeconds(1));
+        reservationRepository.save(reservations.get(0));
+        int released = reservationExpirySweeper.sweep();
+
+        assertThat(released).isEqualTo(1);
+        assertThat(reservationRepository.findByOrderNumber("ORD-1")).isEmpty();
+        assertThat(inventoryRepository.findById(inventory.getId()).get().getReservedQuantity()).isEqualTo(10);
+        // A late confirmation must not commit the released stock
+        assertThat(inventoryService.completeReservations("ORD-1")).isFalse();
+    }
+
+    @Test
+    void completeReservations_shouldKeepConfirmedOrdersFromExpiring() {
+        inventoryService.reserveAll("ORD-2", "corr-2", List.of(new OrderLineItem(inventory.getProductId(), 20)));
+
+        assertThat(inventoryService.completeReservations("ORD-2")).isTrue();
+
+        assertThat(reservationRepository.findByOrderNumber("ORD-2")).isEmpty();
+        assertThat(inventoryRepository.findById(inventory.getId()).get().getReservedQuantity()).isEqualTo(30);
+    }
+
+    @Test
+    void sweep_shouldReleaseWholeOrdersPerBatch() {
+        Inventory other = saveInventory("OTHER-SKU", 50, 0);
+        for (String orderNumber : List.of("ORD-5", "ORD-6")) {
+            inventoryService.reserveAll(orderNumber, "corr", List.of(
+                    new OrderLineItem(inventory.getProductId(), 5),
+                    new OrderLineItem(other.getProductId(), 5)));
+            for (StockReservation reservation : reservationRepository.findByOrderNumber(orderNumber)) {
+                reservation.setExpiresAt(Instant.now().minusSeconds(1));
+                reservationRepository.save(reservation);
+            }
+        }
+
+        // One order per batch: both reservations of an order go together
+        int batchSize = reservationConfig.getSweepBatchSize();
+        reservationConfig.setSweepBatchSize(1);
+        try {
+            assertThat(reservationExpirySweeper.sweep()).isEqualTo(4);
+        } finally {
+            reservationConfig.setSweepBatchSize(batchSize);
+        }
+
+        assertThat(reservationRepository.findByOrderNumber("ORD-5")).isEmpty();
+        assertThat(reservationRepository.findByOrderNumber("ORD-6")).isEmpty();
+        assertThat(inventoryRepository.findById(inventory.getId()).get().getReservedQuantity()).isEqualTo(10);
+        assertThat(inventoryRepository.findById(other.getId()).get().getReservedQuantity()).isEqualTo(0);
+    }
+
+    @Test
+    void commitOrder_shouldCommitEveryLineOfTheOrder() {
+        Inventory other = saveInventory("OTHER-SKU", 5, 0);
+        List<OrderLineItem> lineItems = List.of(
+                new OrderLineItem(inventory.getProductId(), 20),
+                new OrderLineItem(other.getProductId(), 5));
+        inventoryService.reserveAll("ORD-3", "corr-3", lineItems);
+
+        assertThat(inventoryService.commitOrder("ORD-3", lineItems)).isTrue();
+
+        assertThat(reservationRepository.findByOrderNumber("ORD-3")).isEmpty();
+        Inventory updated = inventoryRepository.findById(inventory.getId()).get();
+        assertThat(updated.getQuantity()).isEqualTo(80);
+        assertThat(updated.getReservedQuantity()).isEqualTo(10);
+        assertThat(inventoryRepository.findById(other.getId()).get().getQuantity()).isEqualTo(0);
+        // A redelivered confirmation commits nothing twice
+        assertThat(inventoryService.commitOrder("ORD-3", lineItems)).isFalse();
+    }
+
+    @Test
+    void releaseOrder_shouldReleaseTheStockStillReservedForTheOrder() {
+        inventoryService.reserveAll("ORD-4", "corr-4", List.of(new OrderLineItem(inventory.getProductId(), 20)));
+
+        List<OrderLineItem> released = inventoryService.releaseOrder("ORD-4",
+                List.of(new OrderLineItem(inventory.getProductId(), 25)));
+
+        assertThat(released).hasSize(1);
+        assertThat(released.get(0).getQuantity()).isEqualTo(20);
+        assertThat(reservationRepository.findByOrderNumber("ORD-4")).isEmpty();
+        assertThat(inventoryRepository.findById(inventory.getId()).get().getReservedQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    void setQuantity_shouldOnlyChangeTheQuantity() {
+        // Load the row first, as the entity-based update used to
+        inventoryRepository.findByProductId(inventory.getProductId()).get();
+        inventoryService.reserveStock(inventory.getProductId(), 20);
+
+        inventoryService.setQuantity(inventory.getProductId(), 50);
+
+        Inventory updatedInventory = inventoryRepository.findById(inventory.getId()).get();
+        assertThat(updatedInventory.getQuantity()).isEqualTo(50);
+        assertThat(updatedInventory.getReservedQuantity()).isEqualTo(30);
+    }
+
+    @Test
+    void setQuantity_shouldThrowNotFound_whenNoInventoryRecordExists() {
+        assertThrows(InventoryNotFoundException.class,
+                () -> inventoryService.setQuantity(inventory.getProductId() + 1000, 5));
+    }
+
     @Test
     void releaseStock_shouldDecreaseReservedQuantity() {
         // Act
@@ -97,6 +303,17 @@ public class InventoryServiceTests {
         });
     }
 
+    @Test
+    void createInventoryRecord_shouldBeIdempotent() {
+        Long productId = inventory.getProductId() + 1000;
+
+        inventoryService.createInventoryRecord(productId, "NEW-SKU");
+        inventoryService.createInventoryRecord(productId, "NEW-SKU");
+
+        assertThat(inventoryRepository.findByProductId(productId)).isPresent();
+        assertThat(inventoryRepository.count()).isEqualTo(2);
+    }
+
     @Test
     void getInventoryBySku_shouldReturnDto_whenInventoryExists() {
         // Act
@@ -109,4 +326,78 @@ public class InventoryServiceTests {
         assertThat(result.get().getReservedQuantity()).isEqualTo(10);
         assertThat(result.get().isInStock()).isTrue();
     }
-}
\ No newline at end of file
+
+    @Test
+    void getInventoryBySku_shouldReflectStockChanges_whenServedFromCache() {
+        assertThat(inventoryService.getInventoryBySku("TEST-SKU").get().getReservedQuantity()).isEqualTo(10);
+
+        inventoryService.reserveStock(inventory.getProductId(), 20);
+
+        assertThat(inventoryService.getInventoryBySku("TEST-SKU").get().getReservedQuantity()).isEqualTo(30);
+    }
+
+    @Test
+    void importQuantities_shouldApplyValidLinesAndReportFailedOnes() {
+        Inventory other = saveInventory("OTHER-SKU", 5, 0);
+        // The import writes through JDBC, so the rows must be in the database
+        inventoryRepository.flush();
+        String csv = "productId,quantity\n"
+                + inventory.getProductId() + ",250\n"
+                + "not-a-number,1\n"
+                + "999999,10\n"
+                + other.getProductId() + ",-1\n"
+                + other.getProductId() + ",42\n";
+
+        BulkImportResult result = bulkStockImportService.importQuantities(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), BulkStockImportService.Format.CSV);
+
+        assertThat(result.getLinesRead()).isEqualTo(5);
+        assertThat(result.getApplied()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getFailures()).extracting(BulkImportResult.LineFailure::getLine)
+                .containsExactlyInAnyOrder(3L, 4L, 5L);
+        assertThat(quantityOf(inventory.getProductId())).isEqualTo(250);
+        assertThat(quantityOf(other.getProductId())).isEqualTo(42);
+    }
+
+    @Test
+    void importQuantities_shouldReportAFirstLineThatIsNotTheHeader() {
+        inventoryRepository.flush();
+        String csv = "product,qty\n"
+                + inventory.getProductId() + ",250\n";
+
+        BulkImportResult result = bulkStockImportService.importQuantities(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), BulkStockImportService.Format.CSV);
+
+        assertThat(result.getLinesRead()).isEqualTo(2);
+        assertThat(result.getApplied()).isEqualTo(1);
+        assertThat(result.getFailures()).extracting(BulkImportResult.LineFailure::getLine).containsExactly(1L);
+        assertThat(quantityOf(inventory.getProductId())).isEqualTo(250);
+    }
+
+    @Test
+    void importQuantities_shouldReadNdjsonLines() {
+        inventoryRepository.flush();
+        String ndjson = "{\"productId\": " + inventory.getProductId() + ", \"quantity\": 7}\n"
+                + "\n"
+                + "{\"productId\": " + inventory.getProductId() + "}\n";
+
+        BulkImportResult result = bulkStockImportService.importQuantities(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), BulkStockImportService.Format.NDJSON);
+
+        assertThat(result.getApplied()).isEqualTo(1);
+        assertThat(result.getFailures()).extracting(BulkImportResult.LineFailure::getLine).containsExactly(3L);
+        assertThat(quantityOf(inventory.getProductId())).isEqualTo(7);
+    }
+
+    private Integer quantityOf(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM inventory WHERE product_id = ?", Integer.class,
+                productId);
+    }
+
+    private Inventory saveInventory(String sku, int quantity, int reservedQuantity) {
+        Inventory saved = inventoryRepository.save(new Inventory(sku, quantity, reservedQuantity));
+        saved.setProductId(saved.getId());
+        return inventoryRepository.save(saved);
+    }
+}
@@ -0,0 +1,52 @@
+package nik.kalomiris.inventory_service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nik.kalomiris.inventory_service.config.AvailabilityCacheConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the stock level cache.
+ */
+class AvailabilityCacheTests {
+
+    private AvailabilityCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new AvailabilityCache(new AvailabilityCacheConfig(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void invalidatingAProductDropsTheStockLevelOfItsSku() {
+        cache.get("SKU-1", sku -> load(sku, 10));
+        assertThat(cache.get("SKU-1", sku -> load(sku, 99)).getQuantity()).isEqualTo(10);
+
+        cache.invalidate(1L);
+
+        assertThat(cache.get("SKU-1", sku -> load(sku, 20)).getQuantity()).isEqualTo(20);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void aStockLevelLoadedWhileTheProductChangesIsNotCached() {
+        AvailabilityCache.Entry stale = cache.get("SKU-1", sku -> {
+            AvailabilityCache.Entry loaded = load(sku, 10);
+            cache.invalidate(1L); // The stock changes after the read
+            return loaded;
+        });
+        assertThat(stale.getQuantity()).isEqualTo(10);
+
+        assertThat(cache.get("SKU-1", sku -> load(sku, 20)).getQuantity()).isEqualTo(20);
+    }
+
+    private AvailabilityCache.Entry load(String sku, int quantity) {
+        loads.incrementAndGet();
+        return new AvailabilityCache.Entry(1L, sku, quantity, 0);
+    }
+}
@@ -0,0 +1,133 @@
+package nik.kalomiris.inventory_service.ledger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the in-memory stock counters of hot products.
+ */
+class HotStockLedgerTests {
+
+    @Test
+    void reservationsNeverExceedAvailableStockUnderContention() throws Exception {
+        HotStockLedger ledger = new HotStockLedger(4);
+        ledger.load(1L, 1000, 0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                tasks.add(() -> {
+                    int reserved = 0;
+                    for (int i = 0; i < 500; i++) {
+                        if (ledger.reserve(1L, 1))
+                            reserved++;
+                    }
+                    return reserved;
+                });
+            }
+            int total = 0;
+            for (Future<Integer> result : executor.invokeAll(tasks)) {
+                total += result.get();
+            }
+
+            assertThat(total).isEqualTo(1000);
+            assertThat(ledger.getReserved(1L)).isEqualTo(1000);
+            assertThat(ledger.getAvailable(1L)).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void reservationLargerThanAnyShardIsServedFromThePooledShards() {
+        HotStockLedger ledger = new HotStockLedger(4);
+        ledger.load(1L, 10, 2);
+
+        assertThat(ledger.reserve(1L, 7)).isTrue();
+        assertThat(ledger.reserve(1L, 2)).isFalse();
+        assertThat(ledger.getAvailable(1L)).isEqualTo(1);
+        assertThat(ledger.getReserved(1L)).isEqualTo(9);
+    }
+
+    @Test
+    void releaseAndCommitRequireReservedStock() {
+        HotStockLedger ledger = new HotStockLedger(2);
+        ledger.load(1L, 10, 4);
+
+        assertThat(ledger.commit(1L, 3)).isTrue();
+        assertThat(ledger.release(1L, 2)).isFalse();
+        assertThat(ledger.release(1L, 1)).isTrue();
+
+        assertThat(ledger.getQuantity(1L)).isEqualTo(7);
+        assertThat(ledger.getReserved(1L)).isZero();
+        assertThat(ledger.getAvailable(1L)).isEqualTo(7);
+    }
+
+    @Test
+    void adjustUndoesAnOperation() {
+        HotStockLedger ledger = new HotStockLedger(2);
+        ledger.load(1L, 10, 0);
+
+        assertThat(ledger.reserve(1L, 4)).isTrue();
+        ledger.adjust(1L, 0, -4);
+
+        assertThat(ledger.getReserved(1L)).isZero();
+        assertThat(ledger.getAvailable(1L)).isEqualTo(10);
+    }
+
+    @Test
+    void loweringTheQuantityTakesStockFromEveryShard() {
+        // Given: 160 units spread over 16 shards
+        HotStockLedger ledger = new HotStockLedger(16);
+        ledger.load(1L, 160, 0);
+
+        // When: the quantity is set to zero
+        assertThat(ledger.setQuantity(1L, 0)).isEqualTo(-160);
+
+        // Then: no shard has stock left to reserve
+        for (int i = 0; i < 16; i++) {
+            assertThat(ledger.reserve(1L, 10)).isFalse();
+        }
+        assertThat(ledger.reserve(1L, 1)).isFalse();
+        assertThat(ledger.getAvailable(1L)).isZero();
+        assertThat(ledger.getReserved(1L)).isZero();
+    }
+
+    @Test
+    void stockReturnedBelowReservedFirstCoversTheShortfall() {
+        // Given: the quantity set below what is reserved
+        HotStockLedger ledger = new HotStockLedger(4);
+        ledger.load(1L, 20, 0);
+        assertThat(ledger.reserve(1L, 12)).isTrue();
+        ledger.setQuantity(1L, 10);
+        assertThat(ledger.getAvailable(1L)).isEqualTo(-2);
+
+        // When: part of the reservation is released
+        assertThat(ledger.release(1L, 3)).isTrue();
+
+        // Then: only what exceeds the shortfall can be reserved
+        assertThat(ledger.getAvailable(1L)).isEqualTo(1);
+        assertThat(ledger.reserve(1L, 2)).isFalse();
+        assertThat(ledger.reserve(1L, 1)).isTrue();
+    }
+
+    @Test
+    void undoingAQuantityIncreaseTakesStockFromEveryShard() {
+        HotStockLedger ledger = new HotStockLedger(4);
+        ledger.load(1L, 8, 0);
+
+        ledger.adjust(1L, -8, 0);
+
+        assertThat(ledger.reserve(1L, 2)).isFalse();
+        assertThat(ledger.getAvailable(1L)).isZero();
+    }
+}
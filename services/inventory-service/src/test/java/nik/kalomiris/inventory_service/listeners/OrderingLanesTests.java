@@ -0,0 +1,93 @@
+package nik.kalomiris.inventory_service.listeners;
+
+import com.rabbitmq.client.Channel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for the in-process ordering lanes.
+ */
+class OrderingLanesTests {
+
+    private final OrderingLanes lanes = new OrderingLanes(4, "test");
+
+    @AfterEach
+    void tearDown() {
+        lanes.shutdown();
+    }
+
+    @Test
+    void messagesWithTheSameKeyAreProcessedInSubmissionOrderAndAcknowledged() throws Exception {
+        Channel channel = mock(Channel.class);
+        List<Integer> processed = Collections.synchronizedList(new ArrayList<>());
+
+        for (int i = 1; i <= 50; i++) {
+            int message = i;
+            lanes.execute(42L, channel, i, () -> processed.add(message));
+        }
+
+        verify(channel, timeout(5000)).basicAck(50L, false);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            expected.add(i);
+        }
+        assertThat(processed).isEqualTo(expected);
+    }
+
+    @Test
+    void aMessageWithSeveralKeysKeepsTheOrderOfEachKey() throws Exception {
+        Channel channel = mock(Channel.class);
+        List<String> processed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch release = new CountDownLatch(1);
+        assertThat(lanes.laneOf(1L)).isNotEqualTo(lanes.laneOf(2L));
+
+        // An order for products 1 and 2, then orders for 2 alone, 1 alone, and 2 and 1
+        lanes.execute(List.of(1L, 2L), channel, 1L, () -> {
+            awaitQuietly(release);
+            processed.add("1+2");
+        });
+        lanes.execute(List.of(2L), channel, 2L, () -> processed.add("2"));
+        lanes.execute(List.of(1L), channel, 3L, () -> processed.add("1"));
+        lanes.execute(List.of(2L, 1L), channel, 4L, () -> processed.add("2+1"));
+
+        // Nothing on either product overtakes the first order
+        Thread.sleep(100);
+        assertThat(processed).isEmpty();
+        release.countDown();
+
+        verify(channel, timeout(5000)).basicAck(4L, false);
+        assertThat(processed.get(0)).isEqualTo("1+2");
+        assertThat(processed.get(3)).isEqualTo("2+1");
+        assertThat(processed).containsExactlyInAnyOrder("1+2", "2", "1", "2+1");
+    }
+
+    @Test
+    void failedMessagesAreRejectedForRedelivery() throws Exception {
+        Channel channel = mock(Channel.class);
+
+        lanes.execute(7L, channel, 1L, () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        verify(channel, timeout(5000)).basicNack(1L, false, true);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package nik.kalomiris.inventory_service.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nik.kalomiris.inventory_service.InventoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the incrementally maintained inventory gauges.
+ */
+class InventoryMetricsTests {
+
+    private SimpleMeterRegistry registry;
+    private InventoryRepository repository;
+    private InventoryMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        repository = mock(InventoryRepository.class);
+        metrics = new InventoryMetrics(registry, repository);
+        metrics.register();
+    }
+
+    @Test
+    void gaugesFollowRecordedChangesWithoutQueryingTheDatabase() {
+        metrics.recordCreated(0);
+        metrics.recordQuantityChange(0, 5);
+        metrics.recordReservedChange(3);
+        metrics.recordCommitted(2, 3);
+
+        assertThat(gauge("inventory.product.count")).isEqualTo(1);
+        assertThat(gauge("inventory.total_quantity")).isEqualTo(3);
+        assertThat(gauge("inventory.reserved_quantity")).isEqualTo(1);
+        assertThat(gauge("inventory.low_stock.count")).isEqualTo(1);
+        assertThat(gauge("inventory.out_of_stock.count")).isZero();
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void commitsMoveRecordsBetweenStockLevels() {
+        metrics.recordCreated(12);
+        metrics.recordReservedChange(12);
+
+        metrics.recordCommitted(4, 8);
+        assertThat(gauge("inventory.low_stock.count")).isEqualTo(1);
+
+        metrics.recordCommitted(8, 0);
+        assertThat(gauge("inventory.low_stock.count")).isZero();
+        assertThat(gauge("inventory.out_of_stock.count")).isEqualTo(1);
+        assertThat(gauge("inventory.total_quantity")).isZero();
+        assertThat(gauge("inventory.reserved_quantity")).isZero();
+    }
+
+    @Test
+    void reconcileResetsGaugesToTheDatabaseAggregates() {
+        metrics.recordCreated(0);
+        when(repository.count()).thenReturn(4L);
+        when(repository.sumTotalQuantity()).thenReturn(120L);
+        when(repository.sumReservedQuantity()).thenReturn(null);
+        when(repository.countLowStock(10)).thenReturn(2L);
+        when(repository.countOutOfStock()).thenReturn(1L);
+
+        metrics.reconcile();
+
+        assertThat(gauge("inventory.product.count")).isEqualTo(4);
+        assertThat(gauge("inventory.total_quantity")).isEqualTo(120);
+        assertThat(gauge("inventory.reserved_quantity")).isZero();
+        assertThat(gauge("inventory.low_stock.count")).isEqualTo(2);
+        assertThat(gauge("inventory.out_of_stock.count")).isEqualTo(1);
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+}
@@ -0,0 +1,32 @@
+package nik.kalomiris.order_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for batch order creation.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "order.batch")
+public class OrderBatchConfig {
+
+    /**
+     * Maximum number of orders accepted by one batch request.
+     */
+    private int maxSize = 500;
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderBatchConfig{" +
+                "maxSize=" + maxSize +
+                '}';
+    }
+}
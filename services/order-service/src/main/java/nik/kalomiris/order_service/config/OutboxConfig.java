@@ -0,0 +1,74 @@
+package nik.kalomiris.order_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the transactional outbox relay.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "order.outbox")
+public class OutboxConfig {
+
+    /**
+     * Whether this instance relays outbox rows to the broker.
+     */
+    private boolean relayEnabled = true;
+
+    /**
+     * Delay between relay runs when the outbox has been drained.
+     */
+    private long pollIntervalMs = 200;
+
+    /**
+     * Maximum number of events published per batch and confirm round trip.
+     */
+    private int batchSize = 100;
+
+    /**
+     * How long to wait for the broker to confirm a batch.
+     */
+    private long confirmTimeoutMs = 5000;
+
+    public boolean isRelayEnabled() {
+        return relayEnabled;
+    }
+
+    public void setRelayEnabled(boolean relayEnabled) {
+        this.relayEnabled = relayEnabled;
+    }
+
+    public long getPollIntervalMs() {
+        return pollIntervalMs;
+    }
+
+    public void setPollIntervalMs(long pollIntervalMs) {
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getConfirmTimeoutMs() {
+        return confirmTimeoutMs;
+    }
+
+    public void setConfirmTimeoutMs(long confirmTimeoutMs) {
+        this.confirmTimeoutMs = confirmTimeoutMs;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxConfig{" +
+                "relayEnabled=" + relayEnabled +
+                ", pollIntervalMs=" + pollIntervalMs +
+                ", batchSize=" + batchSize +
+                ", confirmTimeoutMs=" + confirmTimeoutMs +
+                '}';
+    }
+}
@@ -22,9 +22,11 @@ public class RabbitMQConfig {
     public static final String ORDER_INVENTORY_RESERVED_QUEUE = "order.inventory.reserved.queue";
     public static final String ORDER_INVENTORY_RESERVATION_FAILED_QUEUE = "order.inventory.reservation_failed.queue";
     public static final String ORDER_INVENTORY_COMMITTED_QUEUE = "order.inventory.committed.queue";
+    public static final String ORDER_INVENTORY_RELEASED_QUEUE = "order.inventory.released.queue";
     public static final String ROUTING_KEY_ORDER_INVENTORY_RESERVED = "order.inventory.reserved";
     public static final String ROUTING_KEY_ORDER_INVENTORY_RESERVATION_FAILED = "order.inventory.reservation_failed";
     public static final String ROUTING_KEY_ORDER_INVENTORY_COMMITTED = "order.inventory.committed";
+    public static final String ROUTING_KEY_ORDER_INVENTORY_RELEASED = "order.inventory.released";
 
     @Bean
     public Queue orderInventoryReservedQueue() {
@@ -62,6 +64,18 @@ public class RabbitMQConfig {
                 .with(ROUTING_KEY_ORDER_INVENTORY_COMMITTED);
     }
 
+    @Bean
+    public Queue orderInventoryReleasedQueue() {
+        return new Queue(ORDER_INVENTORY_RELEASED_QUEUE, true);
+    }
+
+    @Bean
+    public Binding releasedBinding(Queue orderInventoryReleasedQueue, TopicExchange exchange) {
+        return BindingBuilder.bind(orderInventoryReleasedQueue)
+                .to(exchange)
+                .with(ROUTING_KEY_ORDER_INVENTORY_RELEASED);
+    }
+
     @Bean
     public TopicExchange exchange() {
         return new TopicExchange(EXCHANGE_NAME);
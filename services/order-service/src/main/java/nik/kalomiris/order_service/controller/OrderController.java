@@ -1,12 +1,24 @@
 package nik.kalomiris.order_service.controller;
 
-import nik.kalomiris.order_service.domain.Order;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nik.kalomiris.order_service.config.OrderBatchConfig;
+import nik.kalomiris.order_service.domain.OrderStatus;
+import nik.kalomiris.order_service.dto.OrderBatchResult;
 import nik.kalomiris.order_service.dto.OrderRequest;
-import nik.kalomiris.order_service.repository.OrderRepository;
+import nik.kalomiris.order_service.service.OrderQueryService;
 import nik.kalomiris.order_service.service.OrderService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.util.List;
 
 @RestController
@@ -14,18 +26,23 @@ import java.util.List;
 /**
  * REST controller exposing order-related endpoints.
  *
- * Currently exposes a single POST endpoint to create orders. The controller
- * delegates business logic to {@code OrderService} and returns a simple
- * confirmation message. Keep controllers thin — no business logic here.
+ * Exposes endpoints to create and confirm orders, delegating business logic
+ * to {@code OrderService}, and a paginated order listing served by
+ * {@code OrderQueryService}. Keep controllers thin — no business logic here.
  */
 public class OrderController {
 
     private final OrderService orderService;
-    private final OrderRepository orderRepository;
+    private final OrderQueryService orderQueryService;
+    private final ObjectMapper objectMapper;
+    private final OrderBatchConfig orderBatchConfig;
 
-    public OrderController(OrderService orderService, OrderRepository orderRepository) {
+    public OrderController(OrderService orderService, OrderQueryService orderQueryService, ObjectMapper objectMapper,
+            OrderBatchConfig orderBatchConfig) {
         this.orderService = orderService;
-        this.orderRepository = orderRepository;
+        this.orderQueryService = orderQueryService;
+        this.objectMapper = objectMapper;
+        this.orderBatchConfig = orderBatchConfig;
     }
 
     @PostMapping
@@ -36,6 +53,18 @@ public class OrderController {
         return "Order Created Successfully";
     }
 
+    // Create up to order.batch.max-size orders at once; each order is reported
+    // as created (with its order number) or rejected (with the reason)
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public List<OrderBatchResult> createOrders(@RequestBody List<OrderRequest> orderRequests) {
+        if (orderRequests.size() > orderBatchConfig.getMaxSize()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + orderBatchConfig.getMaxSize() + " orders per batch");
+        }
+        return orderService.createOrders(orderRequests);
+    }
+
     @PostMapping("/confirm/{orderNumber}")
     @ResponseStatus(HttpStatus.OK)
     public String confirmOrder(@PathVariable String orderNumber) {
@@ -43,9 +72,34 @@ public class OrderController {
         return "Order Confirmed Successfully";
     }
 
+    /**
+     * One page of orders, oldest first: {@code {"orders": [...], "nextAfter": id}}.
+     * Pass {@code nextAfter} as {@code after} to get the next page; it is null
+     * on the last page. Orders are written to the response as they are read.
+     */
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    public ResponseEntity<StreamingResponseBody> getOrders(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + OrderQueryService.DEFAULT_LIMIT) int limit,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.writeStartObject();
+                json.writeArrayFieldStart("orders");
+                Long nextAfter = orderQueryService.forEachOrder(after, limit, status, from, to, order -> {
+                    try {
+                        objectMapper.writeValue(json, order);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                json.writeEndArray();
+                json.writeObjectField("nextAfter", nextAfter);
+                json.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 }
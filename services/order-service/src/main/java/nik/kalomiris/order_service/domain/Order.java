@@ -1,25 +1,37 @@
 package nik.kalomiris.order_service.domain;
 
 import jakarta.persistence.*;
+import java.time.Instant;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders",
+        uniqueConstraints = @UniqueConstraint(name = "uk_orders_order_number", columnNames = "order_number"),
+        indexes = {
+                @Index(name = "idx_orders_status_id", columnList = "status, id"),
+                @Index(name = "idx_orders_created_at", columnList = "created_at")
+        })
 /**
  * Domain entity representing a customer's order.
  *
- * - `orderNumber` is an externally visible identifier (UUID string).
+ * - `orderNumber` is an externally visible identifier (UUID string), unique
+ *   and indexed, as inventory callbacks look orders up by it.
  * - `orderLineItems` holds the item rows. Cascade ALL is used so items are
  *   persisted with the owning Order.
  * - `status` tracks the order state using {@link OrderStatus}.
  * - `version` is used for optimistic locking to avoid concurrent write conflicts.
+ * - `createdAt` is set when the order is first persisted (null for orders
+ *   created before the column existed).
  */
 public class Order {
 
+    // Sequence ids (pooled, 50 per round trip) keep Hibernate insert batching on
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
+    @Column(name = "order_number")
     private String orderNumber;
 
     @OneToMany(cascade = CascadeType.ALL)
@@ -31,6 +43,9 @@ public class Order {
     @Version
     private Long version;
 
+    @Column(name = "created_at", updatable = false)
+    private Instant createdAt;
+
     public Order() {}
 
     public Order(
@@ -75,6 +90,13 @@ public class Order {
         this.status = status;
     }
 
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+
     public Long getVersion() {
         return version;
     }
@@ -82,4 +104,12 @@ public class Order {
     public void setVersion(Long version) {
         this.version = version;
     }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
 }
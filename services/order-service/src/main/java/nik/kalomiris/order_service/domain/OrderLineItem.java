@@ -17,7 +17,8 @@ import java.math.BigDecimal;
 public class OrderLineItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_line_items_seq")
+    @SequenceGenerator(name = "order_line_items_seq", sequenceName = "order_line_items_seq", allocationSize = 50)
     private Long id;
 
     private String sku;
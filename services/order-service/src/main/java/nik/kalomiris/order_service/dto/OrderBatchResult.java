@@ -0,0 +1,62 @@
+package nik.kalomiris.order_service.dto;
+
+/**
+ * Outcome of one order of a batch creation request.
+ */
+public class OrderBatchResult {
+    private int index;
+    private boolean created;
+    private String orderNumber;
+    private String error;
+
+    public OrderBatchResult() {
+    }
+
+    public OrderBatchResult(int index, boolean created, String orderNumber, String error) {
+        this.index = index;
+        this.created = created;
+        this.orderNumber = orderNumber;
+        this.error = error;
+    }
+
+    public static OrderBatchResult created(int index, String orderNumber) {
+        return new OrderBatchResult(index, true, orderNumber, null);
+    }
+
+    public static OrderBatchResult rejected(int index, String error) {
+        return new OrderBatchResult(index, false, null, error);
+    }
+
+    // Position of the order in the request
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public boolean isCreated() {
+        return created;
+    }
+
+    public void setCreated(boolean created) {
+        this.created = created;
+    }
+
+    public String getOrderNumber() {
+        return orderNumber;
+    }
+
+    public void setOrderNumber(String orderNumber) {
+        this.orderNumber = orderNumber;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,69 @@
+package nik.kalomiris.order_service.dto;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import nik.kalomiris.order_service.domain.OrderStatus;
+
+/**
+ * Read model of an order returned by the order listing.
+ */
+public class OrderSummaryDto {
+    private Long id;
+    private String orderNumber;
+    private OrderStatus status;
+    private Instant createdAt;
+    private List<OrderLineItemsDto> orderLineItems = new ArrayList<>();
+
+    public OrderSummaryDto() {
+    }
+
+    // Used by the JPQL constructor projection; line items are added afterwards
+    public OrderSummaryDto(Long id, String orderNumber, OrderStatus status, Instant createdAt) {
+        this.id = id;
+        this.orderNumber = orderNumber;
+        this.status = status;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getOrderNumber() {
+        return orderNumber;
+    }
+
+    public void setOrderNumber(String orderNumber) {
+        this.orderNumber = orderNumber;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public List<OrderLineItemsDto> getOrderLineItems() {
+        return orderLineItems;
+    }
+
+    public void setOrderLineItems(List<OrderLineItemsDto> orderLineItems) {
+        this.orderLineItems = orderLineItems;
+    }
+}
@@ -9,12 +9,11 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import nik.kalomiris.order_service.config.RabbitMQConfig;
-import nik.kalomiris.order_service.domain.Order;
 import nik.kalomiris.order_service.domain.OrderStatus;
+import nik.kalomiris.events.dtos.InventoryReleasedEvent;
 import nik.kalomiris.events.dtos.InventoryReservationFailedEvent;
 import nik.kalomiris.events.dtos.InventorySuccessEvent;
 import nik.kalomiris.order_service.repository.OrderRepository;
-import nik.kalomiris.order_service.util.RetryUtils;
 import nik.kalomiris.order_service.util.OrderStatusTransitions;
 
 @Component
@@ -23,9 +22,12 @@ public class InventoryEventListener {
     /**
      * Component listening to inventory-related integration events from RabbitMQ.
      *
-     * It updates local Order state based on inventory outcomes. The listener
-     * methods are transactional and use optimistic-lock retry helper when
-     * updating the order to avoid lost updates under concurrent processing.
+     * It updates local Order state based on inventory outcomes. Each event is
+     * applied with one guarded UPDATE on the (unique, indexed) order number that
+     * only matches orders in a status allowed to move to the target status, per
+     * {@link OrderStatusTransitions}. The check and the update are atomic, so
+     * redelivered events are no-ops and no optimistic-lock retry is needed. The
+     * order is only read when the update matched nothing, to log why.
      */
 
     private static final Logger logger = LoggerFactory.getLogger(InventoryEventListener.class);
@@ -39,89 +41,57 @@ public class InventoryEventListener {
     @Transactional
     public void handleInventoryReserved(InventorySuccessEvent event) {
         logger.info("Received InventoryReservedEvent for order {}", event.getOrderNumber());
-        Optional<Order> orderOpt = orderRepository.findByOrderNumber(event.getOrderNumber());
-        if (orderOpt.isEmpty()) {
-            logger.warn("Order not found: {}", event.getOrderNumber());
-            return;
-        }
-        Order order = orderOpt.get();
-        // Idempotency: if already RESERVED or beyond, ignore
-        if (order.getStatus() == OrderStatus.RESERVED || order.getStatus() == OrderStatus.SHIPPED || order.getStatus() == OrderStatus.COMPLETED) {
-            logger.info("Order {} already in status {}, ignoring event", order.getOrderNumber(), order.getStatus());
-            return;
-        }
-        // Only allow CREATED -> RESERVED
-        if (OrderStatusTransitions.canTransitionTo(order.getStatus(), OrderStatus.RESERVED)) {
-            RetryUtils.retryOnOptimisticLock(() -> {
-                Order toUpdate = orderRepository.findById(order.getId()).orElseThrow();
-                toUpdate.setStatus(OrderStatus.RESERVED);
-                orderRepository.save(toUpdate);
-                return null;
-            }, 3, 100);
-            logger.info("Order {} status updated to RESERVED", order.getOrderNumber());
-        } else {
-            logger.warn("Unexpected state transition for order {}: {} - RESERVED", order.getOrderNumber(), order.getStatus());
-        }
+        // Only CREATED/PARTIALLY_RESERVED -> RESERVED; RESERVED or beyond is a duplicate
+        transition(event.getOrderNumber(), OrderStatus.RESERVED);
     }
 
     @RabbitListener(queues = RabbitMQConfig.ORDER_INVENTORY_RESERVATION_FAILED_QUEUE)
     @Transactional
     public void handleInventoryReservationFailed(InventoryReservationFailedEvent event) {
         logger.info("Received InventoryReservationFailedEvent for order {} reason: {}", event.getOrderNumber(), event.getReason());
-        Optional<Order> orderOpt = orderRepository.findByOrderNumber(event.getOrderNumber());
-        if (orderOpt.isEmpty()) {
-            logger.warn("Order not found: {}", event.getOrderNumber());
-            return;
-        }
-        Order order = orderOpt.get();
-        // Idempotency: if already failed, ignore
-        if (order.getStatus() == OrderStatus.RESERVATION_FAILED) {
-            logger.info("Order {} already in status RESERVATION_FAILED, ignoring event", order.getOrderNumber());
-            return;
-        }
-        // Only allow CREATED -> RESERVATION_FAILED (or PARTIALLY_RESERVED -> RESERVATION_FAILED)
-        if (OrderStatusTransitions.canTransitionTo(order.getStatus(), OrderStatus.RESERVATION_FAILED)) {
-            RetryUtils.retryOnOptimisticLock(() -> {
-                Order toUpdate = orderRepository.findById(order.getId()).orElseThrow();
-                toUpdate.setStatus(OrderStatus.RESERVATION_FAILED);
-                orderRepository.save(toUpdate);
-                return null;
-            }, 3, 100);
-            logger.info("Order {} status updated to RESERVATION_FAILED", order.getOrderNumber());
-        } else {
-            logger.warn("Unexpected state transition for order {}: {} - RESERVATION_FAILED", order.getOrderNumber(), order.getStatus());
-        }
+        // Only CREATED/PARTIALLY_RESERVED -> RESERVATION_FAILED
+        transition(event.getOrderNumber(), OrderStatus.RESERVATION_FAILED);
     }
 
     @RabbitListener(queues = RabbitMQConfig.ORDER_INVENTORY_COMMITTED_QUEUE)
     @Transactional
     public void handleInventoryCommitted(InventorySuccessEvent event) {
         logger.info("Received InventoryCommittedEvent for order {}", event.getOrderNumber());
-        Optional<Order> orderOpt = orderRepository.findByOrderNumber(event.getOrderNumber());
-        if (orderOpt.isEmpty()) {
-            logger.warn("Order not found: {}", event.getOrderNumber());
-            return;
-        }
-        Order order = orderOpt.get();
-        // Idempotency: if already CONFIRMED, SHIPPED or COMPLETED, ignore
-        if (order.getStatus() == OrderStatus.COMMITTED
-            || order.getStatus() == OrderStatus.SHIPPED 
-            || order.getStatus() == OrderStatus.COMPLETED) {
-            logger.info("Order {} already in status {}, ignoring event", order.getOrderNumber(), order.getStatus());
+        // Only CONFIRMED -> COMMITTED; COMMITTED, SHIPPED or COMPLETED is a duplicate
+        transition(event.getOrderNumber(), OrderStatus.COMMITTED);
+    }
+
+    @RabbitListener(queues = RabbitMQConfig.ORDER_INVENTORY_RELEASED_QUEUE)
+    @Transactional
+    public void handleInventoryReleased(InventoryReleasedEvent event) {
+        logger.info("Received InventoryReleasedEvent for order {} reason: {}", event.getOrderNumber(), event.getReason());
+        // Only RESERVED/CONFIRMED -> CANCELLED: the stock is no longer held for the order
+        transition(event.getOrderNumber(), OrderStatus.CANCELLED);
+    }
+
+    private void transition(String orderNumber, OrderStatus target) {
+        int updated = orderRepository.transitionStatus(orderNumber, target,
+                OrderStatusTransitions.allowedSourcesOf(target));
+        if (updated > 0) {
+            logger.info("Order {} status updated to {}", orderNumber, target);
             return;
         }
-        // Only allow CONFIRMED -> COMMITTED or RESERVED -> COMMITTED
-        if (OrderStatusTransitions.canTransitionTo(order.getStatus(), OrderStatus.COMMITTED)) {
-            RetryUtils.retryOnOptimisticLock(() -> {
-                Order toUpdate = orderRepository.findById(order.getId()).orElseThrow();
-                toUpdate.setStatus(OrderStatus.COMMITTED);
-                orderRepository.save(toUpdate);
-                return null;
-            }, 3, 100);
-            logger.info("Order {} status updated to COMMITTED", order.getOrderNumber());
+
+        Optional<OrderStatus> current = orderRepository.findStatusByOrderNumber(orderNumber);
+        if (current.isEmpty()) {
+            logger.warn("Order not found: {}", orderNumber);
+        } else if (current.get() == target || isBeyond(current.get(), target)) {
+            logger.info("Order {} already in status {}, ignoring event", orderNumber, current.get());
         } else {
-            logger.warn("Unexpected state transition for order {}: {} - COMMITTED", order.getOrderNumber(), order.getStatus());
+            logger.warn("Unexpected state transition for order {}: {} - {}", orderNumber, current.get(), target);
         }
     }
-    
+
+    // Statuses an order reaches after the target, where the event is stale
+    private static boolean isBeyond(OrderStatus current, OrderStatus target) {
+        return switch (target) {
+            case RESERVED, COMMITTED -> current == OrderStatus.SHIPPED || current == OrderStatus.COMPLETED;
+            default -> false;
+        };
+    }
 }
@@ -0,0 +1,37 @@
+package nik.kalomiris.order_service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records integration events in the outbox table.
+ *
+ * Must be called within the transaction that changes the order, so the event
+ * is committed or rolled back together with it; {@link OutboxRelay} publishes
+ * it afterwards. Request threads therefore never wait on the broker.
+ */
+@Component
+public class OrderOutbox {
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public OrderOutbox(OutboxRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String exchange, String routingKey, String aggregateId, Object event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + event.getClass().getSimpleName(), e);
+        }
+        outboxRepository.save(new OutboxEvent(exchange, routingKey, aggregateId, event.getClass().getName(), payload));
+    }
+}
@@ -0,0 +1,112 @@
+package nik.kalomiris.order_service.outbox;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import org.hibernate.Length;
+
+@Entity
+@Table(name = "outbox")
+/**
+ * Integration event waiting to be published to the broker.
+ *
+ * Rows are written in the same transaction as the order change they describe
+ * and deleted by {@link OutboxRelay} once the broker has confirmed them, so an
+ * event is published at least once if and only if its transaction commits.
+ *
+ * - `payload` is the JSON serialization of the event and `payloadType` its
+ *   class, used to rebuild the message with the template's converter.
+ * - `aggregateId` is the order number, for diagnostics.
+ */
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String exchange;
+
+    @Column(name = "routing_key", nullable = false)
+    private String routingKey;
+
+    @Column(name = "aggregate_id")
+    private String aggregateId;
+
+    @Column(name = "payload_type", nullable = false)
+    private String payloadType;
+
+    // Unbounded text column (text on PostgreSQL)
+    @Column(nullable = false, length = Length.LONG32)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public OutboxEvent() {}
+
+    public OutboxEvent(String exchange, String routingKey, String aggregateId, String payloadType, String payload) {
+        this.exchange = exchange;
+        this.routingKey = routingKey;
+        this.aggregateId = aggregateId;
+        this.payloadType = payloadType;
+        this.payload = payload;
+        this.createdAt = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getExchange() {
+        return exchange;
+    }
+
+    public void setExchange(String exchange) {
+        this.exchange = exchange;
+    }
+
+    public String getRoutingKey() {
+        return routingKey;
+    }
+
+    public void setRoutingKey(String routingKey) {
+        this.routingKey = routingKey;
+    }
+
+    public String getAggregateId() {
+        return aggregateId;
+    }
+
+    public void setAggregateId(String aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public String getPayloadType() {
+        return payloadType;
+    }
+
+    public void setPayloadType(String payloadType) {
+        this.payloadType = payloadType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
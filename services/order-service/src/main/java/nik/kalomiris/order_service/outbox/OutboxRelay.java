@@ -0,0 +1,127 @@
+package nik.kalomiris.order_service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import nik.kalomiris.order_service.config.OutboxConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publishes outbox rows to the broker in batches.
+ *
+ * Each run locks up to {@code order.outbox.batch-size} of the oldest rows,
+ * publishes them on one channel, waits once for the broker to confirm the whole
+ * batch and deletes the rows in the same transaction. If the broker rejects or
+ * does not confirm the batch in time, the transaction rolls back and the rows
+ * are published again on the next run, so consumers must tolerate duplicates
+ * (the message id is the outbox row id).
+ *
+ * Rows locked by another instance are skipped, so several instances can relay
+ * concurrently; events of one order are then only ordered within an instance.
+ * Requires {@code spring.rabbitmq.publisher-confirm-type=simple}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "order.outbox", name = "relay-enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxRepository outboxRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxConfig config;
+    private final Counter publishedEvents;
+
+    public OutboxRelay(OutboxRepository outboxRepository, RabbitTemplate rabbitTemplate, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager, OutboxConfig config, MeterRegistry meterRegistry) {
+        if (config.getBatchSize() < 1)
+            throw new IllegalArgumentException("order.outbox.batch-size must be at least 1");
+        this.outboxRepository = outboxRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.config = config;
+        this.publishedEvents = meterRegistry.counter("order.outbox.published");
+        meterRegistry.gauge("order.outbox.pending", outboxRepository, repo -> repo.count());
+    }
+
+    /**
+     * Drain the outbox: publish batches until one comes back short. Runs every
+     * {@code order.outbox.poll-interval-ms} after the previous run ended.
+     */
+    @Scheduled(fixedDelayString = "${order.outbox.poll-interval-ms:200}")
+    public void relay() {
+        try {
+            int published;
+            do {
+                published = relayBatch();
+            } while (published >= config.getBatchSize());
+        } catch (RuntimeException e) {
+            // Rows stay in the outbox and are retried on the next run
+            logger.warn("Outbox relay failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Publish and delete one batch of outbox rows.
+     *
+     * @return number of rows taken from the outbox
+     */
+    public int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            List<OutboxEvent> batch = outboxRepository
+                    .findForRelayByOrderByIdAsc(PageRequest.of(0, config.getBatchSize()));
+            if (batch.isEmpty())
+                return 0;
+
+            List<Object> payloads = new ArrayList<>(batch.size());
+            for (OutboxEvent event : batch)
+                payloads.add(deserialize(event));
+
+            rabbitTemplate.invoke(operations -> {
+                for (int i = 0; i < batch.size(); i++) {
+                    OutboxEvent event = batch.get(i);
+                    if (payloads.get(i) == null)
+                        continue;
+                    String messageId = String.valueOf(event.getId());
+                    operations.convertAndSend(event.getExchange(), event.getRoutingKey(), payloads.get(i), message -> {
+                        message.getMessageProperties().setMessageId(messageId);
+                        return message;
+                    });
+                }
+                operations.waitForConfirmsOrDie(config.getConfirmTimeoutMs());
+                return null;
+            });
+
+            outboxRepository.deleteAllInBatch(batch);
+            return batch.size();
+        });
+        int count = relayed != null ? relayed : 0;
+        if (count > 0)
+            publishedEvents.increment(count);
+        return count;
+    }
+
+    private Object deserialize(OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), Class.forName(event.getPayloadType()));
+        } catch (Exception e) {
+            // Cannot ever be published; drop it rather than block the outbox
+            logger.error("Dropping unreadable outbox event {} ({} for {}): {}", event.getId(),
+                    event.getRoutingKey(), event.getAggregateId(), e.getMessage());
+            return null;
+        }
+    }
+}
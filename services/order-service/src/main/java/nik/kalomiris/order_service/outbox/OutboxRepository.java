@@ -0,0 +1,21 @@
+package nik.kalomiris.order_service.outbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+
+public interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
+	/**
+	 * Lock the oldest pending events, skipping rows locked by another relay
+	 * (lock timeout -2 is SKIP LOCKED; databases without it fall back to a
+	 * plain FOR UPDATE). Must be called within a transaction.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+	List<OutboxEvent> findForRelayByOrderByIdAsc(Pageable pageable);
+}
@@ -1,7 +1,13 @@
 package nik.kalomiris.order_service.repository;
 
 import nik.kalomiris.order_service.domain.Order;
+import nik.kalomiris.order_service.domain.OrderStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -10,4 +16,26 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 	 * Returns an empty Optional when no matching order is found.
 	 */
 	Optional<Order> findByOrderNumber(String orderNumber);
+
+	/**
+	 * Current status of an order, without loading it.
+	 */
+	@Query("select o.status from Order o where o.orderNumber = :orderNumber")
+	Optional<OrderStatus> findStatusByOrderNumber(@Param("orderNumber") String orderNumber);
+
+	/**
+	 * Move an order to {@code to} if its current status is one of {@code from},
+	 * bumping the version so concurrent entity updates fail their optimistic
+	 * check. A single indexed statement: the status check and the update are
+	 * atomic, so no retry is needed.
+	 *
+	 * @return 1 if the order was updated, 0 if it does not exist or is in
+	 *         another status
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Transactional
+	@Query("update Order o set o.status = :to, o.version = o.version + 1"
+			+ " where o.orderNumber = :orderNumber and o.status in :from")
+	int transitionStatus(@Param("orderNumber") String orderNumber, @Param("to") OrderStatus to,
+			@Param("from") Collection<OrderStatus> from);
 }
@@ -0,0 +1,113 @@
+package nik.kalomiris.order_service.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import nik.kalomiris.order_service.domain.OrderStatus;
+import nik.kalomiris.order_service.dto.OrderLineItemsDto;
+import nik.kalomiris.order_service.dto.OrderSummaryDto;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Transactional(readOnly = true)
+public class OrderQueryService {
+
+    /**
+     * Read-side queries over orders.
+     *
+     * The listing is keyset-paginated on the order id: a page is the first
+     * {@code limit} orders with an id above the cursor, so every page costs the
+     * same whatever its position, and orders created while paging do not shift
+     * later pages. Orders are read as DTO projections (no managed entities) with
+     * two queries per page: one for the order rows and one for the line items of
+     * all of them, which is consumed as a stream.
+     */
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private final EntityManager entityManager;
+
+    public OrderQueryService(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Hand one page of orders, oldest first, to the consumer.
+     *
+     * @param after    cursor: only orders with a greater id, or null for the
+     *                 first page
+     * @param limit    page size, clamped to 1..{@link #MAX_LIMIT}
+     * @param status   only orders in this status, or null
+     * @param from     only orders created at or after this instant, or null
+     * @param to       only orders created before this instant, or null
+     * @param consumer receives each order with its line items
+     * @return cursor of the next page, or null if this was the last one
+     */
+    public Long forEachOrder(Long after, int limit, OrderStatus status, Instant from, Instant to,
+            Consumer<OrderSummaryDto> consumer) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        // Only the filters that are set end up in the query, so each
+        // combination gets a plan that can use the status/created_at indexes
+        StringBuilder jpql = new StringBuilder(
+                "select new nik.kalomiris.order_service.dto.OrderSummaryDto(o.id, o.orderNumber, o.status, o.createdAt)"
+                        + " from Order o where 1 = 1");
+        if (after != null)
+            jpql.append(" and o.id > :after");
+        if (status != null)
+            jpql.append(" and o.status = :status");
+        if (from != null)
+            jpql.append(" and o.createdAt >= :from");
+        if (to != null)
+            jpql.append(" and o.createdAt < :to");
+        jpql.append(" order by o.id asc");
+
+        TypedQuery<OrderSummaryDto> query = entityManager.createQuery(jpql.toString(), OrderSummaryDto.class);
+        if (after != null)
+            query.setParameter("after", after);
+        if (status != null)
+            query.setParameter("status", status);
+        if (from != null)
+            query.setParameter("from", from);
+        if (to != null)
+            query.setParameter("to", to);
+        List<OrderSummaryDto> orders = query.setMaxResults(pageSize).getResultList();
+        if (orders.isEmpty())
+            return null;
+
+        List<Long> ids = new ArrayList<>(orders.size());
+        for (OrderSummaryDto order : orders)
+            ids.add(order.getId());
+
+        // Line items of the whole page, in the same order as the orders
+        try (Stream<Object[]> items = entityManager.createQuery(
+                "select o.id, li.id, li.sku, li.price, li.quantity, li.productId"
+                        + " from Order o join o.orderLineItems li where o.id in :ids order by o.id asc, li.id asc",
+                Object[].class)
+                .setParameter("ids", ids)
+                .getResultStream()) {
+            Iterator<Object[]> rows = items.iterator();
+            Object[] row = rows.hasNext() ? rows.next() : null;
+            for (OrderSummaryDto order : orders) {
+                while (row != null && order.getId().equals(row[0])) {
+                    order.getOrderLineItems().add(new OrderLineItemsDto((Long) row[1], (String) row[2],
+                            (BigDecimal) row[3], (Integer) row[4], (Long) row[5]));
+                    row = rows.hasNext() ? rows.next() : null;
+                }
+                consumer.accept(order);
+            }
+        }
+
+        return orders.size() == pageSize ? orders.get(orders.size() - 1).getId() : null;
+    }
+}
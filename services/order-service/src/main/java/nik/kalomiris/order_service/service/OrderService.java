@@ -1,6 +1,7 @@
 package nik.kalomiris.order_service.service;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -11,8 +12,11 @@ import nik.kalomiris.order_service.domain.Order;
 import nik.kalomiris.order_service.domain.OrderLineItem;
 import nik.kalomiris.order_service.domain.OrderStatus;
 import nik.kalomiris.events.dtos.OrderEvent;
+import nik.kalomiris.order_service.dto.OrderBatchResult;
+import nik.kalomiris.order_service.dto.OrderLineItemsDto;
 import nik.kalomiris.order_service.dto.OrderRequest;
 import nik.kalomiris.order_service.mapper.OrderMapper;
+import nik.kalomiris.order_service.outbox.OrderOutbox;
 import nik.kalomiris.order_service.repository.OrderRepository;
 import nik.kalomiris.order_service.util.OrderStatusTransitions;
 
@@ -37,8 +41,10 @@ public class OrderService {
      *
      * Design notes:
      * - Persists the Order entity within a transaction.
-     * - Registers a transaction synchronization to publish the order-created
-     * RabbitMQ event only after the DB transaction commits (avoids races).
+     * - Records the order-created/confirmed events in the outbox within the
+     * same transaction; the outbox relay publishes them after commit, so an
+     * event is neither lost nor sent for a rolled back change, and request
+     * threads do no broker I/O.
      * - Emits a structured log event using the project's logging client.
      */
 
@@ -48,6 +54,7 @@ public class OrderService {
     private final LogPublisher logPublisher;
     private final Tracer tracer;
     private final OrderMetrics orderMetrics;
+    private final OrderOutbox orderOutbox;
 
     @Autowired
     public OrderService(
@@ -56,13 +63,27 @@ public class OrderService {
             RabbitTemplate rabbitTemplate,
             LogPublisher logPublisher,
             @Autowired(required = false) Tracer tracer,
-            OrderMetrics orderMetrics) {
+            OrderMetrics orderMetrics,
+            OrderOutbox orderOutbox) {
         this.orderRepository = orderRepository;
         this.orderMapper = orderMapper;
         this.rabbitTemplate = rabbitTemplate;
         this.logPublisher = logPublisher;
         this.tracer = tracer;
         this.orderMetrics = orderMetrics;
+        this.orderOutbox = orderOutbox;
+    }
+
+    // Constructor without an outbox: events are sent directly (after commit
+    // when a transaction is active)
+    public OrderService(
+            OrderRepository orderRepository,
+            OrderMapper orderMapper,
+            RabbitTemplate rabbitTemplate,
+            LogPublisher logPublisher,
+            Tracer tracer,
+            OrderMetrics orderMetrics) {
+        this(orderRepository, orderMapper, rabbitTemplate, logPublisher, tracer, orderMetrics, null);
     }
 
     // Backward-compatible constructor for tests that don't provide metrics
@@ -82,7 +103,7 @@ public class OrderService {
          * Responsibilities:
          * - validate required fields (productId present on line items)
          * - persist the Order and its line items
-         * - publish an OrderEvent to RabbitMQ after successful commit
+         * - record an OrderEvent in the outbox, published after commit
          * - publish a log event (best-effort)
          */
         Span span = tracer != null ? tracer.currentSpan() : null;
@@ -122,30 +143,7 @@ public class OrderService {
             throw e;
         }
 
-        OrderEvent event = new OrderEvent(
-                order.getOrderNumber(),
-                order.getOrderNumber(),
-                Instant.now(),
-                order.getOrderLineItems()
-                        .stream()
-                        .map(li -> new nik.kalomiris.events.dtos.OrderLineItem(li.getProductId(), li.getQuantity()))
-                        .toList());
-
-        // Ensure we publish the event only after the database transaction commits so
-        // consumers won't receive the event before the order is visible in the DB.
-        if (TransactionSynchronizationManager.isSynchronizationActive()) {
-            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-                @Override
-                public void afterCommit() {
-                    rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE_NAME,
-                            RabbitMQConfig.ROUTING_KEY_ORDER_CREATED, event);
-                }
-            });
-        } else {
-            // No transaction active (e.g., tests or manual call) — send immediately.
-            rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE_NAME, RabbitMQConfig.ROUTING_KEY_ORDER_CREATED,
-                    event);
-        }
+        publish(RabbitMQConfig.ROUTING_KEY_ORDER_CREATED, order.getOrderNumber(), toEvent(order));
 
         // Publish a log event about the order creation. Ignore logging failures.
         try {
@@ -176,6 +174,86 @@ public class OrderService {
         }
     }
 
+    /**
+     * Create several orders in one transaction.
+     *
+     * Invalid requests are rejected individually and the others are created.
+     * All orders, their line items and their outbox events are flushed
+     * together, so Hibernate writes them as JDBC batches (ids come from pooled
+     * sequences) and the outbox relay publishes the events in batches.
+     *
+     * @return one result per request, in request order
+     */
+    public List<OrderBatchResult> createOrders(List<OrderRequest> orderRequests) {
+        Span span = tracer != null ? tracer.currentSpan() : null;
+        if (span != null) {
+            span.tag("order.batch.size", String.valueOf(orderRequests.size()));
+        }
+
+        List<OrderBatchResult> results = new ArrayList<>(orderRequests.size());
+        List<Order> orders = new ArrayList<>(orderRequests.size());
+        for (int i = 0; i < orderRequests.size(); i++) {
+            OrderRequest orderRequest = orderRequests.get(i);
+            if (orderRequest == null || orderRequest.getOrderLineItemsDtoList() == null) {
+                results.add(OrderBatchResult.rejected(i, "Order line items are required."));
+                continue;
+            }
+            try {
+                validateLineItems(orderRequest);
+            } catch (IllegalArgumentException e) {
+                results.add(OrderBatchResult.rejected(i, e.getMessage()));
+                continue;
+            }
+
+            Order order = new Order();
+            order.setOrderNumber(UUID.randomUUID().toString());
+            order.setOrderLineItems(orderRequest
+                    .getOrderLineItemsDtoList()
+                    .stream()
+                    .map(orderMapper::mapToOrderLineItem)
+                    .toList());
+            orders.add(order);
+            results.add(OrderBatchResult.created(i, order.getOrderNumber()));
+        }
+
+        try {
+            orderRepository.saveAll(orders);
+        } catch (Exception e) {
+            if (span != null) {
+                span.tag(FAILED_OPERATION_TAG, "save");
+                span.error(e);
+            }
+            throw e;
+        }
+
+        for (Order order : orders) {
+            publish(RabbitMQConfig.ROUTING_KEY_ORDER_CREATED, order.getOrderNumber(), toEvent(order));
+        }
+
+        try {
+            LogMessage logMessage = new LogMessage.Builder()
+                    .message("Order batch created")
+                    .level("INFO")
+                    .service("order-service")
+                    .logger("nik.kalomiris.order_service.service.OrderService")
+                    .metadata(Map.of("requested", String.valueOf(orderRequests.size()), "created",
+                            String.valueOf(orders.size())))
+                    .build();
+            logPublisher.publish(logMessage);
+        } catch (Exception e) {
+            // ignore logging failures
+        }
+
+        try {
+            if (orderMetrics != null) {
+                orders.forEach(order -> orderMetrics.markOrderCreated());
+            }
+        } catch (Exception ignored) {
+            /* metrics update is best-effort and should not affect business flow */
+        }
+        return results;
+    }
+
     public void confirmOrder(String orderNumber) {
 
         Span span = tracer != null ? tracer.currentSpan() : null;
@@ -204,16 +282,7 @@ public class OrderService {
             throw e;
         }
 
-        OrderEvent event = new OrderEvent(
-                order.getOrderNumber(),
-                order.getOrderNumber(),
-                Instant.now(),
-                order.getOrderLineItems()
-                        .stream()
-                        .map(li -> new nik.kalomiris.events.dtos.OrderLineItem(li.getProductId(), li.getQuantity()))
-                        .toList());
-
-        rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE_NAME, RabbitMQConfig.ROUTING_KEY_ORDER_CONFIRMED, event);
+        publish(RabbitMQConfig.ROUTING_KEY_ORDER_CONFIRMED, order.getOrderNumber(), toEvent(order));
 
         try {
             LogMessage logMessage = new LogMessage.Builder()
@@ -234,11 +303,44 @@ public class OrderService {
         }
     }
 
+    private OrderEvent toEvent(Order order) {
+        return new OrderEvent(
+                order.getOrderNumber(),
+                order.getOrderNumber(),
+                Instant.now(),
+                order.getOrderLineItems()
+                        .stream()
+                        .map(li -> new nik.kalomiris.events.dtos.OrderLineItem(li.getProductId(), li.getQuantity()))
+                        .toList());
+    }
+
+    /**
+     * Hand an event to the outbox, or without one send it once the current
+     * transaction commits (immediately when no transaction is active).
+     */
+    private void publish(String routingKey, String orderNumber, OrderEvent event) {
+        if (orderOutbox != null) {
+            orderOutbox.enqueue(RabbitMQConfig.EXCHANGE_NAME, routingKey, orderNumber, event);
+        } else if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE_NAME, routingKey, event);
+                }
+            });
+        } else {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE_NAME, routingKey, event);
+        }
+    }
+
     private void validateLineItems(OrderRequest orderRequest) {
-        orderRequest.getOrderLineItemsDtoList().forEach(itemDto -> {
+        for (OrderLineItemsDto itemDto : orderRequest.getOrderLineItemsDtoList()) {
+            if (itemDto == null) {
+                throw new IllegalArgumentException("Order line items must not be null.");
+            }
             if (itemDto.getProductId() == null) {
                 throw new IllegalArgumentException("Product ID is required for all order line items.");
             }
-        });
+        }
     }
 }
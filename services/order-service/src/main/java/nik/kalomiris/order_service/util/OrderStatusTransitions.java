@@ -1,9 +1,30 @@
 package nik.kalomiris.order_service.util;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 import nik.kalomiris.order_service.domain.OrderStatus;
 
 public class OrderStatusTransitions {
 
+    // Statuses each status can be reached from, derived from canTransitionTo
+    private static final Map<OrderStatus, Set<OrderStatus>> SOURCES = new EnumMap<>(OrderStatus.class);
+
+    static {
+        for (OrderStatus target : OrderStatus.values()) {
+            EnumSet<OrderStatus> sources = EnumSet.noneOf(OrderStatus.class);
+            for (OrderStatus current : OrderStatus.values()) {
+                if (canTransitionTo(current, target)) {
+                    sources.add(current);
+                }
+            }
+            SOURCES.put(target, Collections.unmodifiableSet(sources));
+        }
+    }
+
     public static boolean canTransitionTo(OrderStatus current, OrderStatus target) {
         // Helper that encodes valid state transitions for the Order state machine.
         return switch (current) {
@@ -12,12 +33,21 @@ public class OrderStatusTransitions {
             // After items are reserved we can confirm the order (customer/payment) or cancel it
             case RESERVED -> target == OrderStatus.CONFIRMED || target == OrderStatus.CANCELLED;
             // Once confirmed, inventory should be committed (by inventory service) -> COMMITTED
-            // Confirmed orders may also progress to shipment/completion in corner cases
-            case CONFIRMED -> target == OrderStatus.COMMITTED || target == OrderStatus.SHIPPED || target == OrderStatus.COMPLETED;
+            // Confirmed orders may also progress to shipment/completion in corner cases,
+            // or be cancelled when their reservation expired before the confirmation
+            case CONFIRMED -> target == OrderStatus.COMMITTED || target == OrderStatus.SHIPPED || target == OrderStatus.COMPLETED
+                    || target == OrderStatus.CANCELLED;
             // After commit, the order can move to shipped or completed
             case COMMITTED -> target == OrderStatus.SHIPPED || target == OrderStatus.COMPLETED;
             default -> false;
         };
     }
 
+    /**
+     * @return the statuses from which an order may move to {@code target};
+     *         empty if no transition leads there
+     */
+    public static Set<OrderStatus> allowedSourcesOf(OrderStatus target) {
+        return SOURCES.get(target);
+    }
 }
@@ -1,15 +1,30 @@
 package nik.kalomiris.order_service.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import nik.kalomiris.order_service.domain.Order;
+import nik.kalomiris.order_service.domain.OrderLineItem;
+import nik.kalomiris.order_service.domain.OrderStatus;
+import nik.kalomiris.order_service.config.RabbitMQConfig;
 import nik.kalomiris.order_service.dto.OrderLineItemsDto;
 import nik.kalomiris.order_service.dto.OrderRequest;
+import nik.kalomiris.order_service.outbox.OutboxEvent;
+import nik.kalomiris.order_service.outbox.OutboxRepository;
 import nik.kalomiris.order_service.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import nik.kalomiris.logging_client.LogPublisher;
@@ -20,6 +35,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -35,6 +51,9 @@ public class OrderControllerTests {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OutboxRepository outboxRepository;
+
     @SuppressWarnings("removal")
     @MockBean
     private RabbitTemplate rabbitTemplate;
@@ -43,6 +62,12 @@ public class OrderControllerTests {
     @MockBean
     private LogPublisher logPublisher;
 
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        outboxRepository.deleteAll();
+    }
+
     @Test
     void shouldCreateOrder() throws Exception {
         OrderRequest orderRequest = getOrderRequest();
@@ -59,6 +84,102 @@ public class OrderControllerTests {
             .andExpect(status().isCreated());
 
         assertEquals(1, orderRepository.findAll().size());
+
+        // The event waits in the outbox instead of being sent by the request
+        List<OutboxEvent> outbox = outboxRepository.findAll();
+        assertEquals(1, outbox.size());
+        assertEquals(RabbitMQConfig.ROUTING_KEY_ORDER_CREATED, outbox.get(0).getRoutingKey());
+        assertEquals(orderRepository.findAll().get(0).getOrderNumber(), outbox.get(0).getAggregateId());
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    void shouldCreateValidOrdersOfABatchAndRejectTheOthers() throws Exception {
+        OrderRequest invalid = getOrderRequest();
+        invalid.getOrderLineItemsDtoList().get(0).setProductId(null);
+        List<OrderRequest> batch = List.of(getOrderRequest(), invalid, getOrderRequest());
+
+        mockMvc
+            .perform(
+                post("/api/orders/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(batch))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(3))
+            .andExpect(jsonPath("$[0].created").value(true))
+            .andExpect(jsonPath("$[1].created").value(false))
+            .andExpect(jsonPath("$[1].error").value("Product ID is required for all order line items."))
+            .andExpect(jsonPath("$[2].created").value(true))
+            .andExpect(jsonPath("$[2].index").value(2));
+
+        assertEquals(2, orderRepository.findAll().size());
+        assertEquals(2, outboxRepository.findAll().size());
+    }
+
+    @Test
+    void shouldRejectOrdersOfABatchWithNullLineItems() throws Exception {
+        OrderRequest invalid = getOrderRequest();
+        List<OrderLineItemsDto> lineItems = new ArrayList<>(invalid.getOrderLineItemsDtoList());
+        lineItems.add(null);
+        invalid.setOrderLineItemsDtoList(lineItems);
+        List<OrderRequest> batch = List.of(invalid, getOrderRequest());
+
+        mockMvc
+            .perform(
+                post("/api/orders/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(batch))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].created").value(false))
+            .andExpect(jsonPath("$[0].error").value("Order line items must not be null."))
+            .andExpect(jsonPath("$[1].created").value(true));
+
+        assertEquals(1, orderRepository.findAll().size());
+    }
+
+    @Test
+    void shouldListOrdersPageByPage() throws Exception {
+        Order first = saveOrder(OrderStatus.CREATED, 2);
+        Order second = saveOrder(OrderStatus.RESERVED, 1);
+        Order third = saveOrder(OrderStatus.CREATED, 3);
+
+        mockMvc.perform(asyncDispatch(listOrders("/api/orders?limit=2")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.orders.length()").value(2))
+            .andExpect(jsonPath("$.orders[0].orderNumber").value(first.getOrderNumber()))
+            .andExpect(jsonPath("$.orders[0].orderLineItems.length()").value(2))
+            .andExpect(jsonPath("$.orders[1].orderNumber").value(second.getOrderNumber()))
+            .andExpect(jsonPath("$.nextAfter").value(second.getId()));
+
+        mockMvc.perform(asyncDispatch(listOrders("/api/orders?limit=2&after=" + second.getId())))
+            .andExpect(jsonPath("$.orders.length()").value(1))
+            .andExpect(jsonPath("$.orders[0].orderNumber").value(third.getOrderNumber()))
+            .andExpect(jsonPath("$.orders[0].orderLineItems.length()").value(3))
+            .andExpect(jsonPath("$.nextAfter").value(nullValue()));
+
+        mockMvc.perform(asyncDispatch(listOrders("/api/orders?status=RESERVED")))
+            .andExpect(jsonPath("$.orders.length()").value(1))
+            .andExpect(jsonPath("$.orders[0].status").value("RESERVED"))
+            .andExpect(jsonPath("$.orders[0].orderLineItems[0].sku").value("sku-0"));
+    }
+
+    private MvcResult listOrders(String url) throws Exception {
+        return mockMvc.perform(get(url))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    }
+
+    private Order saveOrder(OrderStatus status, int itemCount) {
+        List<OrderLineItem> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            items.add(new OrderLineItem(null, "sku-" + i, BigDecimal.ONE, 1, (long) i));
+        }
+        Order order = new Order(null, UUID.randomUUID().toString(), items);
+        order.setStatus(status);
+        return orderRepository.save(order);
     }
 
     private OrderRequest getOrderRequest() {
@@ -1,13 +1,17 @@
 package nik.kalomiris.order_service.listeners;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.EnumSet;
 import java.util.Optional;
-import nik.kalomiris.order_service.domain.Order;
 import nik.kalomiris.order_service.domain.OrderStatus;
+import nik.kalomiris.events.dtos.InventoryReleasedEvent;
 import nik.kalomiris.events.dtos.InventorySuccessEvent;
 import nik.kalomiris.events.dtos.InventoryReservationFailedEvent;
 import nik.kalomiris.order_service.repository.OrderRepository;
@@ -20,21 +24,18 @@ class InventoryEventListenerTest {
         OrderRepository repo = mock(OrderRepository.class);
         InventoryEventListener listener = new InventoryEventListener(repo);
 
-        Order order = new Order();
-        order.setId(1L);
-        order.setOrderNumber("order-1");
-        order.setStatus(OrderStatus.CREATED);
-
-        when(repo.findByOrderNumber("order-1")).thenReturn(Optional.of(order));
-        when(repo.findById(1L)).thenReturn(Optional.of(order));
+        when(repo.transitionStatus("order-1", OrderStatus.RESERVED,
+                EnumSet.of(OrderStatus.CREATED, OrderStatus.PARTIALLY_RESERVED))).thenReturn(1);
 
         InventorySuccessEvent event = new InventorySuccessEvent();
         event.setOrderNumber("order-1");
 
         listener.handleInventoryReserved(event);
 
-        // saved once with updated status
-        verify(repo, times(1)).save(order);
+        // one guarded update, no reads
+        verify(repo, times(1)).transitionStatus(eq("order-1"), eq(OrderStatus.RESERVED), any());
+        verify(repo, never()).findByOrderNumber(any());
+        verify(repo, never()).findStatusByOrderNumber(any());
     }
 
     @Test
@@ -42,13 +43,8 @@ class InventoryEventListenerTest {
         OrderRepository repo = mock(OrderRepository.class);
         InventoryEventListener listener = new InventoryEventListener(repo);
 
-        Order order = new Order();
-        order.setId(2L);
-        order.setOrderNumber("order-2");
-        order.setStatus(OrderStatus.CREATED);
-
-        when(repo.findByOrderNumber("order-2")).thenReturn(Optional.of(order));
-        when(repo.findById(2L)).thenReturn(Optional.of(order));
+        when(repo.transitionStatus("order-2", OrderStatus.RESERVATION_FAILED,
+                EnumSet.of(OrderStatus.CREATED, OrderStatus.PARTIALLY_RESERVED))).thenReturn(1);
 
         InventoryReservationFailedEvent event = new InventoryReservationFailedEvent();
         event.setOrderNumber("order-2");
@@ -56,6 +52,44 @@ class InventoryEventListenerTest {
 
         listener.handleInventoryReservationFailed(event);
 
-        verify(repo, times(1)).save(order);
+        verify(repo, times(1)).transitionStatus(eq("order-2"), eq(OrderStatus.RESERVATION_FAILED), any());
+    }
+
+    @Test
+    void handleInventoryCommitted_onlyMovesConfirmedOrders() {
+        OrderRepository repo = mock(OrderRepository.class);
+        InventoryEventListener listener = new InventoryEventListener(repo);
+
+        // Redelivered event: the order is already COMMITTED, nothing matches
+        when(repo.transitionStatus("order-3", OrderStatus.COMMITTED, EnumSet.of(OrderStatus.CONFIRMED)))
+                .thenReturn(0);
+        when(repo.findStatusByOrderNumber("order-3")).thenReturn(Optional.of(OrderStatus.COMMITTED));
+
+        InventorySuccessEvent event = new InventorySuccessEvent();
+        event.setOrderNumber("order-3");
+
+        listener.handleInventoryCommitted(event);
+
+        verify(repo, times(1)).transitionStatus("order-3", OrderStatus.COMMITTED, EnumSet.of(OrderStatus.CONFIRMED));
+        verify(repo, never()).save(any());
+    }
+
+    @Test
+    void handleInventoryReleased_cancelsReservedAndConfirmedOrders() {
+        OrderRepository repo = mock(OrderRepository.class);
+        InventoryEventListener listener = new InventoryEventListener(repo);
+
+        when(repo.transitionStatus("order-4", OrderStatus.CANCELLED,
+                EnumSet.of(OrderStatus.RESERVED, OrderStatus.CONFIRMED))).thenReturn(1);
+
+        InventoryReleasedEvent event = new InventoryReleasedEvent();
+        event.setOrderNumber("order-4");
+        event.setReason("Reservation expired before the order was confirmed");
+
+        listener.handleInventoryReleased(event);
+
+        verify(repo, times(1)).transitionStatus("order-4", OrderStatus.CANCELLED,
+                EnumSet.of(OrderStatus.RESERVED, OrderStatus.CONFIRMED));
+        verify(repo, never()).findStatusByOrderNumber(any());
     }
 }
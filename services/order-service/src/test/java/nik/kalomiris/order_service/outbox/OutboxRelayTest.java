@@ -0,0 +1,99 @@
+package nik.kalomiris.order_service.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import nik.kalomiris.events.dtos.OrderEvent;
+import nik.kalomiris.events.dtos.OrderLineItem;
+import nik.kalomiris.order_service.config.OutboxConfig;
+import nik.kalomiris.order_service.config.RabbitMQConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class OutboxRelayTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private OutboxRepository outboxRepository;
+    private RabbitTemplate rabbitTemplate;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        outboxRepository = mock(OutboxRepository.class);
+        rabbitTemplate = mock(RabbitTemplate.class);
+        // Run the publishing callback against the mock itself
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation -> ((RabbitOperations.OperationsCallback<Object>) invocation
+                .getArgument(0)).doInRabbit(rabbitTemplate));
+
+        OutboxConfig config = new OutboxConfig();
+        config.setBatchSize(2);
+        relay = new OutboxRelay(outboxRepository, rabbitTemplate, objectMapper,
+                mock(PlatformTransactionManager.class), config, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void relayBatch_publishesInOrderWaitsForConfirmsThenDeletes() throws Exception {
+        List<OutboxEvent> batch = List.of(outboxEvent(1L, "order-1"), outboxEvent(2L, "order-2"));
+        when(outboxRepository.findForRelayByOrderByIdAsc(any(Pageable.class))).thenReturn(batch);
+
+        assertEquals(2, relay.relayBatch());
+
+        InOrder inOrder = inOrder(rabbitTemplate, outboxRepository);
+        inOrder.verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.EXCHANGE_NAME),
+                eq(RabbitMQConfig.ROUTING_KEY_ORDER_CREATED), any(OrderEvent.class), any(MessagePostProcessor.class));
+        inOrder.verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.EXCHANGE_NAME),
+                eq(RabbitMQConfig.ROUTING_KEY_ORDER_CREATED), any(OrderEvent.class), any(MessagePostProcessor.class));
+        inOrder.verify(rabbitTemplate).waitForConfirmsOrDie(anyLong());
+        inOrder.verify(outboxRepository).deleteAllInBatch(batch);
+    }
+
+    @Test
+    void relay_keepsRowsWhenTheBrokerDoesNotConfirm() throws Exception {
+        List<OutboxEvent> batch = List.of(outboxEvent(1L, "order-1"));
+        when(outboxRepository.findForRelayByOrderByIdAsc(any(Pageable.class))).thenReturn(batch);
+        doThrow(new AmqpException("nack")).when(rabbitTemplate).waitForConfirmsOrDie(anyLong());
+
+        relay.relay();
+
+        verify(outboxRepository, never()).deleteAllInBatch(any());
+    }
+
+    @Test
+    void relayBatch_returnsZeroWhenTheOutboxIsEmpty() {
+        when(outboxRepository.findForRelayByOrderByIdAsc(any(Pageable.class))).thenReturn(List.of());
+
+        assertEquals(0, relay.relayBatch());
+
+        verify(rabbitTemplate, never()).invoke(any());
+    }
+
+    private OutboxEvent outboxEvent(Long id, String orderNumber) throws Exception {
+        OrderEvent event = new OrderEvent(orderNumber, orderNumber, Instant.now(), List.of(new OrderLineItem(1L, 1)));
+        OutboxEvent outboxEvent = new OutboxEvent(RabbitMQConfig.EXCHANGE_NAME, RabbitMQConfig.ROUTING_KEY_ORDER_CREATED,
+                orderNumber, OrderEvent.class.getName(), objectMapper.writeValueAsString(event));
+        outboxEvent.setId(id);
+        return outboxEvent;
+    }
+}
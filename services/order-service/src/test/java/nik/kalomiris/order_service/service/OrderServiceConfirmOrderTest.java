@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
@@ -17,6 +18,7 @@ import nik.kalomiris.order_service.config.RabbitMQConfig;
 import nik.kalomiris.order_service.domain.Order;
 import nik.kalomiris.order_service.domain.OrderLineItem;
 import nik.kalomiris.order_service.domain.OrderStatus;
+import nik.kalomiris.order_service.outbox.OrderOutbox;
 import nik.kalomiris.order_service.repository.OrderRepository;
 import nik.kalomiris.events.dtos.OrderEvent;
 
@@ -48,6 +50,9 @@ class OrderServiceConfirmOrderTest {
     @Mock
     private Tracer tracer;
 
+    @Mock
+    private OrderOutbox orderOutbox;
+
     private OrderService orderService;
 
     @BeforeEach
@@ -85,6 +90,27 @@ class OrderServiceConfirmOrderTest {
         verify(logPublisher).publish(any(LogMessage.class));
     }
 
+    @Test
+    void confirmOrder_withOutbox_recordsEventInsteadOfSendingIt() {
+        OrderService outboxService = new OrderService(orderRepository, orderMapper, rabbitTemplate, logPublisher,
+                tracer, null, orderOutbox);
+        Order order = new Order();
+        order.setId(3L);
+        order.setOrderNumber("order-outbox-1");
+        order.setOrderLineItems(List.of(new OrderLineItem(3L, "sku-3", BigDecimal.ONE, 1, 7L)));
+        order.setStatus(OrderStatus.RESERVED);
+
+        when(orderRepository.findByOrderNumber(order.getOrderNumber())).thenReturn(Optional.of(order));
+
+        outboxService.confirmOrder(order.getOrderNumber());
+
+        ArgumentCaptor<OrderEvent> eventCaptor = ArgumentCaptor.forClass(OrderEvent.class);
+        verify(orderOutbox).enqueue(eq(RabbitMQConfig.EXCHANGE_NAME), eq(RabbitMQConfig.ROUTING_KEY_ORDER_CONFIRMED),
+                eq(order.getOrderNumber()), eventCaptor.capture());
+        assertEquals(Long.valueOf(7L), eventCaptor.getValue().getLineItems().get(0).getProductId());
+        verifyNoInteractions(rabbitTemplate);
+    }
+
     @Test
     void confirmOrder_whenOrderNotFound_throwsIllegalArgumentException() {
         when(orderRepository.findByOrderNumber("missing-order")).thenReturn(Optional.empty());
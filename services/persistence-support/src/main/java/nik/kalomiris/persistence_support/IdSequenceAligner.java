@@ -0,0 +1,91 @@
+package nik.kalomiris.persistence_support;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Moves id sequences past the ids already in their tables.
+ *
+ * This is the migration path from identity columns: existing rows keep their
+ * ids, while {@code ddl-auto=update} creates the new sequences starting at 1.
+ * Before the application serves any request, the sequence of every entity is
+ * advanced so that the next block it hands out lies above the table's highest
+ * id; sequences already past it are left alone. The check consumes one
+ * sequence value, which only leaves a gap. The identity columns themselves
+ * stay in place (Hibernate now supplies the ids) and need no change.
+ *
+ * Run the first start after a switch with a single instance: two instances
+ * aligning the same sequence concurrently could hand out a block twice.
+ * Disable with {@code persistence.id-sequences.align-on-startup=false}.
+ * Registered by {@link PersistenceSupportAutoConfiguration}.
+ */
+public class IdSequenceAligner {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceAligner.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceAligner(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void align() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+        sessionFactory.getMappingMetamodel().forEachEntityDescriptor(persister -> {
+            if (!(persister.getGenerator() instanceof SequenceStyleGenerator generator)
+                    || !(persister instanceof AbstractEntityPersister entityPersister)
+                    || !persister.getEntityName().equals(persister.getRootEntityName())) {
+                return;
+            }
+            String sequence = sessionFactory.getJdbcServices().getJdbcEnvironment().getQualifiedObjectNameFormatter()
+                    .format(generator.getDatabaseStructure().getPhysicalName(), dialect);
+            int incrementSize = generator.getDatabaseStructure().getIncrementSize();
+            try {
+                align(dialect, sequence, incrementSize, entityPersister.getTableName(),
+                        entityPersister.getIdentifierColumnNames()[0]);
+            } catch (RuntimeException e) {
+                // Leave it to the inserts to fail rather than block startup
+                logger.warn("Could not align sequence {}: {}", sequence, e.getMessage());
+            }
+        });
+    }
+
+    private void align(Dialect dialect, String sequence, int incrementSize, String table, String idColumn) {
+        Long maxId = jdbcTemplate.queryForObject("select max(" + idColumn + ") from " + table, Long.class);
+        if (maxId == null)
+            return;
+        Long next = jdbcTemplate.queryForObject(dialect.getSequenceSupport().getSequenceNextValString(sequence),
+                Long.class);
+        long restart = restartValue(maxId, next, incrementSize);
+        if (restart < 0)
+            return;
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + restart);
+        logger.info("Restarted sequence {} at {} (max {}.{} is {})", sequence, restart, table, idColumn, maxId);
+    }
+
+    /**
+     * @param maxId         highest id in the table
+     * @param next          value just read from the sequence
+     * @param incrementSize the sequence's increment (allocation size)
+     * @return the value to restart the sequence with, or -1 if every block it
+     *         can still hand out lies above {@code maxId}
+     */
+    static long restartValue(long maxId, Long next, int incrementSize) {
+        // The pooled optimizers use a block of incrementSize values ending
+        // (pooled) or starting (pooled-lo) at the value read; a value of at
+        // least maxId + incrementSize keeps both above the existing ids
+        long restart = maxId + Math.max(incrementSize, 1);
+        return next != null && next >= restart ? -1 : restart;
+    }
+}
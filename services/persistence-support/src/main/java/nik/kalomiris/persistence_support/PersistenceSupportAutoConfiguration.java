@@ -0,0 +1,53 @@
+package nik.kalomiris.persistence_support;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Shared id generation settings for the services' JPA entities.
+ *
+ * Entities declare their ids as
+ * {@code @GeneratedValue(strategy = SEQUENCE, generator = "<table>_seq")} with
+ * {@code @SequenceGenerator(sequenceName = "<table>_seq", allocationSize = 50)}.
+ * Unlike identity columns, sequence ids are known before the insert, so
+ * Hibernate can batch inserts ({@code hibernate.jdbc.batch_size}, set per
+ * service), and one sequence call covers 50 ids.
+ *
+ * This makes Hibernate use the pooled-lo optimizer for such generators: the
+ * value read from the sequence is the first id of the block, so a script or
+ * another client that takes {@code nextval} as its row id never collides with
+ * a block handed to the service. A service can still choose otherwise by
+ * setting {@code spring.jpa.properties.hibernate.id.optimizer.pooled.preferred}.
+ * It also registers the {@link IdSequenceAligner} that migrates databases
+ * created with identity columns.
+ *
+ * Registered as an auto-configuration (see
+ * {@code META-INF/spring/org.springframework.boot.autoconfigure.AutoConfiguration.imports}),
+ * so every service with this module on its classpath gets it whatever its
+ * component scan covers.
+ */
+@AutoConfiguration(after = { HibernateJpaAutoConfiguration.class, JdbcTemplateAutoConfiguration.class })
+@ConditionalOnClass({ EntityManagerFactory.class, JdbcTemplate.class })
+public class PersistenceSupportAutoConfiguration {
+
+    @Bean
+    public HibernatePropertiesCustomizer pooledLoOptimizerCustomizer() {
+        return properties -> properties.putIfAbsent(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "pooled-lo");
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "persistence.id-sequences", name = "align-on-startup", havingValue = "true", matchIfMissing = true)
+    public IdSequenceAligner idSequenceAligner(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        return new IdSequenceAligner(entityManagerFactory, jdbcTemplate);
+    }
+}
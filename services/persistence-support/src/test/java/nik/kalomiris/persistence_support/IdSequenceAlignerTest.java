@@ -0,0 +1,32 @@
+package nik.kalomiris.persistence_support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class IdSequenceAlignerTest {
+
+    @Test
+    void restartsASequenceBehindTheTable() {
+        // Fresh sequence created next to 1234 identity-assigned rows
+        assertEquals(1284L, IdSequenceAligner.restartValue(1234L, 1L, 50));
+    }
+
+    @Test
+    void restartsWhenTheNextBlockWouldOverlapExistingIds() {
+        // A pooled block ending at 1250 would start at 1201
+        assertEquals(1284L, IdSequenceAligner.restartValue(1234L, 1250L, 50));
+    }
+
+    @Test
+    void leavesASequenceAheadOfTheTableAlone() {
+        assertEquals(-1L, IdSequenceAligner.restartValue(1234L, 1284L, 50));
+        assertEquals(-1L, IdSequenceAligner.restartValue(1234L, 5000L, 50));
+    }
+
+    @Test
+    void treatsAnUnpooledSequenceAsAllocationSizeOne() {
+        assertEquals(11L, IdSequenceAligner.restartValue(10L, 3L, 1));
+        assertEquals(-1L, IdSequenceAligner.restartValue(10L, 11L, 1));
+    }
+}
@@ -0,0 +1,72 @@
+package nik.kalomiris.persistence_support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Runs {@link PersistenceSupportAutoConfiguration} against an H2 database, the
+ * way every service picks it up from its classpath.
+ */
+class PersistenceSupportAutoConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class,
+                    HibernateJpaAutoConfiguration.class, JdbcTemplateAutoConfiguration.class,
+                    PersistenceSupportAutoConfiguration.class))
+            .withUserConfiguration(EntityConfiguration.class);
+
+    @Test
+    void registersTheAlignerAndThePooledLoOptimizer() {
+        contextRunner.run(context -> {
+            assertThat(context).hasSingleBean(IdSequenceAligner.class);
+            assertThat(context.getBean(EntityManagerFactory.class).getProperties())
+                    .containsEntry(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "pooled-lo");
+        });
+    }
+
+    @Test
+    void alignerCanBeDisabled() {
+        contextRunner.withPropertyValues("persistence.id-sequences.align-on-startup=false")
+                .run(context -> assertThat(context).doesNotHaveBean(IdSequenceAligner.class));
+    }
+
+    @Test
+    void alignedSequenceHandsOutIdsAboveTheExistingRows() {
+        contextRunner.run(context -> {
+            // Rows inserted with identity-assigned ids next to a fresh sequence
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            jdbcTemplate.update("insert into sequenced_entity (id, name) values (?, ?)", 1L, "first");
+            jdbcTemplate.update("insert into sequenced_entity (id, name) values (?, ?)", 1234L, "last");
+
+            context.getBean(IdSequenceAligner.class).align();
+
+            EntityManager entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+            try {
+                entityManager.getTransaction().begin();
+                SequencedEntity entity = new SequencedEntity("new");
+                entityManager.persist(entity);
+                entityManager.getTransaction().commit();
+                assertThat(entity.getId()).isGreaterThan(1234L);
+            } finally {
+                entityManager.close();
+            }
+        });
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EntityScan(basePackageClasses = SequencedEntity.class)
+    static class EntityConfiguration {
+    }
+}
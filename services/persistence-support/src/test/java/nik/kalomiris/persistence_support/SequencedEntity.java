@@ -0,0 +1,39 @@
+package nik.kalomiris.persistence_support;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+/**
+ * Entity with a pooled sequence id, declared the way the services declare
+ * theirs.
+ */
+@Entity
+@Table(name = "sequenced_entity")
+public class SequencedEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenced_entity_seq")
+    @SequenceGenerator(name = "sequenced_entity_seq", sequenceName = "sequenced_entity_seq", allocationSize = 50)
+    private Long id;
+
+    private String name;
+
+    public SequencedEntity() {
+    }
+
+    public SequencedEntity(String name) {
+        this.name = name;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
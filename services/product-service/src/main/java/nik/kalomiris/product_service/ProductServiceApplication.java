@@ -2,10 +2,8 @@ package nik.kalomiris.product_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.ComponentScan;
 
-@SpringBootApplication
-@ComponentScan(basePackages = {"nik.kalomiris"})
+@SpringBootApplication(scanBasePackages = "nik.kalomiris")
 	/**
 	 * Main entry point for the Product Service.
 	 *
@@ -1,6 +1,7 @@
 package nik.kalomiris.product_service.image;
 
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -16,7 +17,8 @@ public class Image {
      */
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "image_seq")
+    @SequenceGenerator(name = "image_seq", sequenceName = "image_seq", allocationSize = 50)
     private Long id;
     private String url; // URL or path to the image file
 
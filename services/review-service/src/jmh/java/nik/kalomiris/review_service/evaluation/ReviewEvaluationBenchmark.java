@@ -0,0 +1,145 @@
+package nik.kalomiris.review_service.evaluation;
+
+import nik.kalomiris.logging_client.LogMessage;
+import nik.kalomiris.logging_client.LogPublisher;
+import nik.kalomiris.review_service.config.ReviewEvaluationConfig;
+import nik.kalomiris.review_service.review.Review;
+import nik.kalomiris.review_service.similarity.CompositeSimilarityCalculator;
+import nik.kalomiris.review_service.similarity.LevenshteinSimilarityCalculator;
+import nik.kalomiris.review_service.similarity.ProductCorpus;
+import nik.kalomiris.review_service.similarity.SyntheticReviews;
+import nik.kalomiris.review_service.similarity.TfidfCosineSimilarityCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of evaluating one new review against a product's reviews,
+ * with the production composite calculator and default thresholds.
+ *
+ * - evaluateCorpus: {@link ReviewEvaluationService#evaluate(Review, ProductCorpus)}
+ * against an already indexed corpus (the production path)
+ * - evaluateReviewList: {@link ReviewEvaluationService#evaluate(Review, List)},
+ * which tokenizes the existing reviews on every call
+ *
+ * Modes: serial (no pool, no cache), parallel (every comparison set split
+ * across an {@link EvaluationPool}) and cached (with an
+ * {@link EvaluationCache}; after the first round every evaluation is a
+ * re-evaluation of an unchanged corpus).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReviewEvaluationBenchmark {
+
+    static final int QUERIES = 16;
+
+    @Param({ "100", "1000", "10000" })
+    private int reviews;
+
+    @Param({ "12", "60" })
+    private int words;
+
+    @Param({ "serial", "parallel", "cached" })
+    private String mode;
+
+    private ReviewEvaluationService service;
+    private EvaluationPool pool;
+    private ProductCorpus corpus;
+    private List<Review> existingReviews;
+    private Review[] queries;
+
+    @Setup
+    public void setUp() {
+        ReviewEvaluationConfig config = new ReviewEvaluationConfig();
+        config.setMaxComparisons(reviews);
+
+        pool = "parallel".equals(mode)
+                ? new EvaluationPool(Runtime.getRuntime().availableProcessors(), 1)
+                : null;
+        EvaluationCache cache = "cached".equals(mode)
+                ? new EvaluationCache(Duration.ofHours(1), 10_000)
+                : null;
+        CompositeSimilarityCalculator calculator = new CompositeSimilarityCalculator(
+                new TfidfCosineSimilarityCalculator(), new LevenshteinSimilarityCalculator(), 0.7, 0.3);
+        service = new ReviewEvaluationService(calculator, config, new NoOpLogPublisher(), pool, cache);
+
+        corpus = new ProductCorpus(1L);
+        existingReviews = new ArrayList<>(reviews);
+        List<String> texts = SyntheticReviews.texts(42L, reviews, words);
+        for (int i = 0; i < reviews; i++) {
+            long id = i + 1;
+            corpus.put(id, texts.get(i));
+            existingReviews.add(review(id, texts.get(i)));
+        }
+
+        List<String> queryTexts = SyntheticReviews.texts(7L, QUERIES, words);
+        queries = new Review[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = review(1_000_000L + i, queryTexts.get(i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null)
+            pool.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void evaluateCorpus(Blackhole blackhole) {
+        for (Review query : queries) {
+            blackhole.consume(service.evaluate(query, corpus));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void evaluateReviewList(Blackhole blackhole) {
+        for (Review query : queries) {
+            blackhole.consume(service.evaluate(query, existingReviews));
+        }
+    }
+
+    private static Review review(Long id, String comment) {
+        Review review = new Review();
+        review.setId(id);
+        review.setProductId(1L);
+        review.setComment(comment);
+        review.setRating(5);
+        return review;
+    }
+
+    // Keeps Kafka out of the measurement
+    private static final class NoOpLogPublisher extends LogPublisher {
+
+        NoOpLogPublisher() {
+            super(null, "benchmark", null);
+        }
+
+        @Override
+        public void publish(LogMessage logMessage) {
+            // discard
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package nik.kalomiris.review_service.similarity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scoring one new review against a product's reviews with TF-IDF cosine:
+ * N pairwise calls versus the corpus-level batch modes.
+ *
+ * - pairwise: {@link TfidfCosineSimilarityCalculator#similarity(String, String)}
+ * per review, re-tokenizing both texts each time
+ * - scoreAgainst: {@link TfidfCosineSimilarityCalculator#scoreAgainst(String, List)}
+ * over the raw texts
+ * - preparedCorpus: the evaluation path, scoring a query prepared once against
+ * an already indexed {@link ProductCorpus}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CorpusIdfBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    private int reviews;
+
+    private final TfidfCosineSimilarityCalculator calculator = new TfidfCosineSimilarityCalculator();
+    private List<String> texts;
+    private ProductCorpus corpus;
+    private String query;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        texts = new ArrayList<>(reviews);
+        corpus = new ProductCorpus(1L);
+        for (int i = 0; i < reviews; i++) {
+            String text = SyntheticReviews.text(random, 6 + random.nextInt(15));
+            texts.add(text);
+            corpus.put((long) i, text);
+        }
+        query = SyntheticReviews.text(random, 12);
+    }
+
+    @Benchmark
+    public void pairwise(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(calculator.similarity(query, text));
+        }
+    }
+
+    @Benchmark
+    public double[] scoreAgainst() {
+        return calculator.scoreAgainst(query, texts);
+    }
+
+    @Benchmark
+    public void preparedCorpus(Blackhole blackhole) {
+        QueryScorer scorer = calculator.prepare(corpus.query(query));
+        for (CorpusDocument document : corpus.documents()) {
+            blackhole.consume(scorer.score(document));
+        }
+    }
+}
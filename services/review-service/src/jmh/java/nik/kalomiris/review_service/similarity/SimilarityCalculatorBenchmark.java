@@ -0,0 +1,109 @@
+package nik.kalomiris.review_service.similarity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one comparison for each calculator, by text length.
+ *
+ * Each invocation scores a fixed set of {@value #PAIRS} distinct pairs, so
+ * results are per pair and not skewed by repeatedly comparing the same two
+ * strings.
+ *
+ * - pairwise: {@link SimilarityCalculator#similarity(String, String)}
+ * - thresholdAware: {@link SimilarityCalculator#similarity(String, String, double)}
+ * with the default approved threshold, where calculators may abandon pairs
+ * that cannot reach it
+ * - preparedScore: scoring an indexed document with a query prepared once
+ * against a corpus of the same texts (the evaluation path)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimilarityCalculatorBenchmark {
+
+    static final int PAIRS = 64;
+    private static final double APPROVED_THRESHOLD = 0.60;
+
+    @Param({ "tfidf", "levenshtein", "composite" })
+    private String calculator;
+
+    @Param({ "10", "50", "200" })
+    private int words;
+
+    private SimilarityCalculator similarityCalculator;
+    private List<String> left;
+    private List<String> right;
+    private QueryScorer[] scorers;
+    private CorpusDocument[] documents;
+
+    @Setup
+    public void setUp() {
+        similarityCalculator = create(calculator);
+        left = SyntheticReviews.texts(1L, PAIRS, words);
+        right = SyntheticReviews.texts(2L, PAIRS, words);
+
+        ProductCorpus corpus = new ProductCorpus(1L);
+        for (int i = 0; i < PAIRS; i++) {
+            corpus.put((long) i, right.get(i));
+        }
+        scorers = new QueryScorer[PAIRS];
+        documents = new CorpusDocument[PAIRS];
+        List<CorpusDocument> indexed = corpus.documents();
+        for (int i = 0; i < PAIRS; i++) {
+            scorers[i] = similarityCalculator.prepare(corpus.query(left.get(i)));
+            documents[i] = indexed.get(i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void pairwise(Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(similarityCalculator.similarity(left.get(i), right.get(i)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void thresholdAware(Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(similarityCalculator.similarity(left.get(i), right.get(i), APPROVED_THRESHOLD));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void preparedScore(Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(scorers[i].score(documents[i]));
+        }
+    }
+
+    static SimilarityCalculator create(String name) {
+        return switch (name) {
+            case "tfidf" -> new TfidfCosineSimilarityCalculator();
+            case "levenshtein" -> new LevenshteinSimilarityCalculator();
+            case "composite" -> new CompositeSimilarityCalculator(
+                    new TfidfCosineSimilarityCalculator(), new LevenshteinSimilarityCalculator(), 0.7, 0.3);
+            default -> throw new IllegalArgumentException("Unknown calculator: " + name);
+        };
+    }
+}
@@ -0,0 +1,61 @@
+package nik.kalomiris.review_service.similarity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic review texts for benchmarks.
+ *
+ * Words are drawn from a small product-review vocabulary with a skewed
+ * distribution (a few words are very common, most are rare), so corpora have
+ * realistic document frequencies and shared vocabulary without being
+ * duplicates of each other.
+ */
+public final class SyntheticReviews {
+
+    private static final String[] VOCABULARY = {
+            "great", "product", "quality", "battery", "screen", "shipping", "fast", "slow", "price",
+            "value", "recommend", "highly", "love", "broke", "after", "week", "works", "perfectly",
+            "sound", "comfortable", "cheap", "sturdy", "color", "size", "fits", "returned", "excellent",
+            "terrible", "service", "packaging", "arrived", "damaged", "easy", "setup", "instructions",
+            "charger", "cable", "warranty", "refund", "seller", "delivery", "box", "manual", "button",
+            "display", "bright", "heavy", "light", "durable", "flimsy", "noisy", "quiet", "smell",
+            "material", "design", "stylish", "daily", "month", "year", "kids", "gift", "office",
+            "kitchen", "travel", "outdoor", "waterproof", "leaked", "cracked", "replacement", "support" };
+
+    private SyntheticReviews() {
+    }
+
+    /**
+     * @param seed  random seed, for reproducible corpora
+     * @param count number of texts
+     * @param words number of words per text
+     * @return generated texts
+     */
+    public static List<String> texts(long seed, int count, int words) {
+        Random random = new Random(seed);
+        List<String> texts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            texts.add(text(random, words));
+        }
+        return texts;
+    }
+
+    /**
+     * @param random source of randomness
+     * @param words  number of words
+     * @return one generated text
+     */
+    public static String text(Random random, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0)
+                sb.append(i % 9 == 0 ? ". " : " ");
+            // Squaring skews the draw towards the start of the vocabulary
+            double u = random.nextDouble();
+            sb.append(VOCABULARY[(int) (u * u * VOCABULARY.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -48,6 +48,21 @@ public class ReviewEvaluationConfig {
      */
     private Cache cache = new Cache();
 
+    /**
+     * Settings for the in-memory per-product review corpus index.
+     */
+    private Index index = new Index();
+
+    /**
+     * Settings for scoring large comparison sets in parallel.
+     */
+    private Parallel parallel = new Parallel();
+
+    /**
+     * Settings for asynchronous evaluation of submitted reviews.
+     */
+    private Async async = new Async();
+
     // Getters and Setters
 
     public boolean isEnabled() {
@@ -90,6 +105,30 @@ public class ReviewEvaluationConfig {
         this.cache = cache;
     }
 
+    public Index getIndex() {
+        return index;
+    }
+
+    public void setIndex(Index index) {
+        this.index = index;
+    }
+
+    public Parallel getParallel() {
+        return parallel;
+    }
+
+    public void setParallel(Parallel parallel) {
+        this.parallel = parallel;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public void setAsync(Async async) {
+        this.async = async;
+    }
+
     /**
      * Threshold configuration for similarity score classification.
      * 
@@ -203,6 +242,13 @@ public class ReviewEvaluationConfig {
         @Min(value = 1, message = "Cache TTL must be at least 1 second")
         private int ttl = 3600;
 
+        /**
+         * Maximum number of cached evaluation results.
+         * Default: 10000
+         */
+        @Min(value = 1, message = "Cache max size must be at least 1")
+        private int maxSize = 10000;
+
         public boolean isEnabled() {
             return enabled;
         }
@@ -218,13 +264,190 @@ public class ReviewEvaluationConfig {
         public void setTtl(int ttl) {
             this.ttl = ttl;
         }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    /**
+     * Configuration for the per-product review corpus index used to avoid
+     * re-tokenizing existing reviews on every submission.
+     */
+    public static class Index {
+        /**
+         * Maximum number of product corpora kept in memory. The least recently
+         * used product is evicted and reloaded on demand.
+         * Default: 1000
+         */
+        @Min(value = 1, message = "Index max products must be at least 1")
+        private int maxProducts = 1000;
+
+        /**
+         * Seconds a loaded product corpus is used before it is reloaded, so
+         * reviews written by other instances are picked up.
+         * Default: 300 (5 minutes)
+         */
+        @Min(value = 1, message = "Index TTL must be at least 1 second")
+        private int ttl = 300;
+
+        public int getMaxProducts() {
+            return maxProducts;
+        }
+
+        public void setMaxProducts(int maxProducts) {
+            this.maxProducts = maxProducts;
+        }
+
+        public int getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(int ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    /**
+     * Configuration for parallel evaluation on a dedicated fork-join pool.
+     */
+    public static class Parallel {
+        /**
+         * Minimum number of reviews to compare before the comparison set is
+         * split across the pool. Smaller sets are scored on the request thread.
+         * At most maxComparisons reviews are compared, so a larger threshold
+         * would never be reached.
+         * Default: 500
+         */
+        @Min(value = 1, message = "Parallel threshold must be at least 1")
+        private int threshold = 500;
+
+        /**
+         * Number of worker threads in the evaluation pool.
+         * Default: number of available processors
+         */
+        @Min(value = 1, message = "Parallelism must be at least 1")
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        public int getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(int threshold) {
+            this.threshold = threshold;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    /**
+     * Configuration for asynchronous evaluation. When enabled, submitted
+     * reviews are stored as PENDING and evaluated in the background by a
+     * bounded worker pool, which evaluates queued reviews of the same product
+     * together.
+     */
+    public static class Async {
+        /**
+         * Enable/disable asynchronous evaluation.
+         * Default: false (reviews are evaluated during the request)
+         */
+        private boolean enabled = false;
+
+        /**
+         * Number of background evaluation threads.
+         * Default: 2
+         */
+        @Min(value = 1, message = "Async workers must be at least 1")
+        private int workers = 2;
+
+        /**
+         * Maximum number of reviews waiting for evaluation. When the queue is
+         * full, new reviews are evaluated during the request instead.
+         * Default: 10000
+         */
+        @Min(value = 1, message = "Async queue capacity must be at least 1")
+        private int queueCapacity = 10000;
+
+        /**
+         * Maximum number of queued reviews of one product evaluated together.
+         * Default: 50
+         */
+        @Min(value = 1, message = "Async batch size must be at least 1")
+        private int batchSize = 50;
+
+        /**
+         * Time after which the claim of an instance on a PENDING review is
+         * considered abandoned (the instance stopped while evaluating it), so
+         * another instance may evaluate the review.
+         * Default: 600 (10 minutes)
+         */
+        @Min(value = 1, message = "Async claim timeout must be at least 1 second")
+        private int claimTimeout = 600;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getClaimTimeout() {
+            return claimTimeout;
+        }
+
+        public void setClaimTimeout(int claimTimeout) {
+            this.claimTimeout = claimTimeout;
+        }
     }
 
     /**
      * Validates the entire configuration for logical consistency.
      */
     public boolean isValid() {
-        return threshold.isValid() && weight.isValid();
+        return threshold.isValid() && weight.isValid() && isParallelThresholdValid();
+    }
+
+    /**
+     * Validates that the parallel threshold can be reached, i.e. that it is
+     * not above the maximum number of reviews compared.
+     */
+    public boolean isParallelThresholdValid() {
+        return parallel.threshold <= maxComparisons;
     }
 
     @Override
@@ -238,6 +461,11 @@ public class ReviewEvaluationConfig {
                 ", maxComparisons=" + maxComparisons +
                 ", cache.enabled=" + cache.enabled +
                 ", cache.ttl=" + cache.ttl +
+                ", cache.maxSize=" + cache.maxSize +
+                ", index.maxProducts=" + index.maxProducts +
+                ", parallel.threshold=" + parallel.threshold +
+                ", parallel.parallelism=" + parallel.parallelism +
+                ", async.enabled=" + async.enabled +
                 '}';
     }
 }
@@ -1,12 +1,19 @@
 package nik.kalomiris.review_service.config;
 
+import nik.kalomiris.review_service.evaluation.EvaluationCache;
+import nik.kalomiris.review_service.evaluation.EvaluationPool;
+import nik.kalomiris.review_service.evaluation.ReviewEvaluationQueue;
 import nik.kalomiris.review_service.similarity.CompositeSimilarityCalculator;
 import nik.kalomiris.review_service.similarity.LevenshteinSimilarityCalculator;
+import nik.kalomiris.review_service.similarity.ReviewCorpusIndex;
 import nik.kalomiris.review_service.similarity.SimilarityCalculator;
 import nik.kalomiris.review_service.similarity.TfidfCosineSimilarityCalculator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 /**
  * Spring configuration for similarity calculation components.
  * 
@@ -14,6 +21,10 @@ import org.springframework.context.annotation.Configuration;
  * - TF-IDF Cosine Similarity (primary algorithm)
  * - Levenshtein Distance (secondary algorithm)
  * - Composite calculator (weighted combination of both)
+ * - Review corpus index (cached, pre-tokenized reviews per product)
+ * - Evaluation pool (bounded fork-join pool for large comparison sets)
+ * - Evaluation cache (reusable results for resubmitted texts)
+ * - Evaluation queue (background evaluation, only when async is enabled)
  * 
  * Weights are configured via ReviewEvaluationConfig and externalized
  * to application.properties for easy tuning.
@@ -60,4 +71,73 @@ public class SimilarityConfig {
                 cosineWeight,
                 levenshteinWeight);
     }
+
+    /**
+     * Create the per-product review corpus index.
+     *
+     * Keeps pre-tokenized review vectors in memory so that evaluating a new
+     * review only tokenizes the new text. The number of cached products is
+     * bounded by {@code review.evaluation.index.max-products}, and a corpus is
+     * reloaded after {@code review.evaluation.index.ttl} seconds to pick up
+     * reviews written by other instances.
+     *
+     * @param config evaluation configuration with index settings
+     * @return empty corpus index
+     */
+    @Bean
+    public ReviewCorpusIndex reviewCorpusIndex(ReviewEvaluationConfig config) {
+        return new ReviewCorpusIndex(config.getIndex().getMaxProducts(),
+                Duration.ofSeconds(config.getIndex().getTtl()));
+    }
+
+    /**
+     * Create the dedicated pool used to score large comparison sets in
+     * parallel. Shut down with the application context.
+     *
+     * @param config evaluation configuration with parallelism settings
+     * @return bounded evaluation pool
+     */
+    @Bean
+    public EvaluationPool evaluationPool(ReviewEvaluationConfig config) {
+        if (!config.isParallelThresholdValid()) {
+            throw new IllegalStateException(
+                    "Invalid parallel threshold: " + config.getParallel().getThreshold() +
+                            " (should not exceed max comparisons " + config.getMaxComparisons() + ")");
+        }
+        return new EvaluationPool(
+                config.getParallel().getParallelism(),
+                config.getParallel().getThreshold());
+    }
+
+    /**
+     * Create the cache of evaluation results reused when the same text is
+     * evaluated again for a product. Enabled by default; disable with
+     * {@code review.evaluation.cache.enabled=false}.
+     *
+     * @param config evaluation configuration with cache settings
+     * @return empty evaluation cache
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "review.evaluation.cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public EvaluationCache evaluationCache(ReviewEvaluationConfig config) {
+        return new EvaluationCache(
+                Duration.ofSeconds(config.getCache().getTtl()),
+                config.getCache().getMaxSize());
+    }
+
+    /**
+     * Create the queue used to evaluate submitted reviews in the background.
+     * Only created when {@code review.evaluation.async.enabled=true}; without
+     * it reviews are evaluated during the request. Shut down with the
+     * application context.
+     *
+     * @param config evaluation configuration with async settings
+     * @return bounded evaluation queue
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "review.evaluation.async", name = "enabled", havingValue = "true")
+    public ReviewEvaluationQueue reviewEvaluationQueue(ReviewEvaluationConfig config) {
+        ReviewEvaluationConfig.Async async = config.getAsync();
+        return new ReviewEvaluationQueue(async.getWorkers(), async.getQueueCapacity(), async.getBatchSize());
+    }
 }
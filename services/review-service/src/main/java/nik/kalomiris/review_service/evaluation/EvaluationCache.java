@@ -0,0 +1,141 @@
+package nik.kalomiris.review_service.evaluation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Cache of review-versus-product evaluation results, keyed by product, corpus
+ * generation and the review text.
+ *
+ * An entry records the best match found among the product's reviews up to an
+ * append mark of the corpus. A later evaluation of the same text (a
+ * resubmission, a flood of identical reviews, a re-evaluation) only has to
+ * score the reviews added since that mark, plus the review the entry was
+ * computed for. Replacing or removing a review changes the corpus generation,
+ * so entries computed before it are never reused.
+ *
+ * Scores against previously compared reviews are not re-weighted as the corpus
+ * statistics (e.g. IDF) drift with new reviews; the time-to-live bounds how
+ * long such a score is reused. Bounded in size with Caffeine's W-TinyLFU
+ * eviction; hit, miss and eviction counts are recorded for metrics.
+ */
+public class EvaluationCache {
+
+    private final Cache<Key, Entry> cache;
+
+    /**
+     * @param ttl         how long an entry is reused after it was written
+     * @param maximumSize maximum number of entries
+     */
+    public EvaluationCache(Duration ttl, long maximumSize) {
+        if (maximumSize < 1)
+            throw new IllegalArgumentException("maximumSize must be at least 1");
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @return the cached result for the text against the given corpus
+     *         generation, or null
+     */
+    Entry get(Long productId, long generation, String text) {
+        return cache.getIfPresent(new Key(productId, generation, text));
+    }
+
+    void put(Long productId, long generation, String text, Entry entry) {
+        cache.put(new Key(productId, generation, text), entry);
+    }
+
+    /**
+     * Drop all entries.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return the underlying Caffeine cache, for metrics binding
+     */
+    public Cache<?, ?> getNativeCache() {
+        return cache;
+    }
+
+    /**
+     * Outcome of an evaluation: the best match among the documents compared,
+     * all of which were added before {@code appendMark}.
+     */
+    static final class Entry {
+
+        private final long appendMark;
+        private final Long reviewId;
+        private final double similarity;
+        private final Long mostSimilarReviewId;
+        private final int comparedCount;
+
+        Entry(long appendMark, Long reviewId, double similarity, Long mostSimilarReviewId, int comparedCount) {
+            this.appendMark = appendMark;
+            this.reviewId = reviewId;
+            this.similarity = similarity;
+            this.mostSimilarReviewId = mostSimilarReviewId;
+            this.comparedCount = comparedCount;
+        }
+
+        long getAppendMark() {
+            return appendMark;
+        }
+
+        // Review the evaluation was for; it was not compared against itself
+        Long getReviewId() {
+            return reviewId;
+        }
+
+        double getSimilarity() {
+            return similarity;
+        }
+
+        Long getMostSimilarReviewId() {
+            return mostSimilarReviewId;
+        }
+
+        int getComparedCount() {
+            return comparedCount;
+        }
+    }
+
+    // Holds the text itself, so texts with equal hashes never share an entry
+    private static final class Key {
+
+        private final Long productId;
+        private final long generation;
+        private final String text;
+
+        Key(Long productId, long generation, String text) {
+            this.productId = productId;
+            this.generation = generation;
+            this.text = text;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+            Key other = (Key) o;
+            return generation == other.generation
+                    && Objects.equals(productId, other.productId)
+                    && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return text.hashCode() * 31 + Long.hashCode(generation);
+        }
+    }
+}
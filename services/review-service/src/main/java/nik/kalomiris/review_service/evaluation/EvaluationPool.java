@@ -0,0 +1,60 @@
+package nik.kalomiris.review_service.evaluation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated, bounded fork-join pool used by {@link ReviewEvaluationService} to
+ * score large comparison sets in parallel.
+ *
+ * Kept separate from the common pool so that evaluation bursts can neither
+ * starve nor be starved by other users of it. Comparison sets smaller than the
+ * parallelism threshold are scored on the calling thread, where splitting
+ * would cost more than it saves.
+ */
+public class EvaluationPool {
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    /**
+     * @param parallelism number of worker threads
+     * @param threshold   minimum number of documents to score in parallel
+     */
+    public EvaluationPool(int parallelism, int threshold) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        this.threshold = threshold;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("review-evaluation-" + threadCount.incrementAndGet());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * @param documentCount size of a comparison set
+     * @return true if the set is large enough to be scored in parallel
+     */
+    public boolean shouldParallelize(int documentCount) {
+        return documentCount >= threshold;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    <T> T invoke(ForkJoinTask<T> task) {
+        return pool.invoke(task);
+    }
+
+    /**
+     * Stop the worker threads; called by Spring when the context closes.
+     */
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
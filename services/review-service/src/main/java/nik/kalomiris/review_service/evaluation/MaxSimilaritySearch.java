@@ -0,0 +1,156 @@
+package nik.kalomiris.review_service.evaluation;
+
+import nik.kalomiris.review_service.similarity.CorpusDocument;
+import nik.kalomiris.review_service.similarity.QueryScorer;
+
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds the document most similar to a prepared query among a list of
+ * candidates, either serially or split across an {@link EvaluationPool}.
+ *
+ * Documents whose upper bound cannot reach the approved threshold, or cannot
+ * beat the best score found so far, are not fully scored. In parallel mode the
+ * chunks share their best score so each one can prune against the others, and
+ * all chunks stop as soon as one of them finds a score at or above the stop
+ * threshold (the moderation threshold): the review is then rejected whatever
+ * the remaining documents score, and the reported score is the highest one
+ * found before stopping.
+ *
+ * Unless the search stops early, both modes return the same score and ties
+ * are resolved in favour of the earliest document.
+ */
+final class MaxSimilaritySearch {
+
+    // Documents scored per fork-join leaf task
+    static final int LEAF_SIZE = 256;
+
+    private final QueryScorer scorer;
+    private final List<CorpusDocument> documents;
+    private final double approvedThreshold;
+    private final double stopThreshold;
+
+    // Best score of any chunk, as raw long bits (ordering is preserved for
+    // non-negative doubles)
+    private final AtomicLong sharedBest = new AtomicLong(Double.doubleToRawLongBits(0.0));
+    private volatile boolean stopped;
+
+    MaxSimilaritySearch(QueryScorer scorer, List<CorpusDocument> documents,
+            double approvedThreshold, double stopThreshold) {
+        this.scorer = scorer;
+        this.documents = documents;
+        this.approvedThreshold = approvedThreshold;
+        this.stopThreshold = stopThreshold;
+    }
+
+    /**
+     * Score the documents on the calling thread. The result is the exact
+     * maximum over the documents that can reach the approved threshold.
+     */
+    Result serial() {
+        return scan(0, documents.size(), false);
+    }
+
+    /**
+     * Score the documents in chunks on the given pool and reduce to the
+     * maximum, stopping early once a chunk reaches the stop threshold.
+     */
+    Result parallel(EvaluationPool pool) {
+        return pool.invoke(new ChunkTask(0, documents.size()));
+    }
+
+    private Result scan(int from, int to, boolean concurrent) {
+        double best = 0.0;
+        CorpusDocument bestDocument = null;
+
+        for (int i = from; i < to; i++) {
+            if (concurrent && stopped)
+                break;
+
+            CorpusDocument existing = documents.get(i);
+            double floor = concurrent ? sharedBest() : 0.0;
+            double upperBound = scorer.upperBound(existing);
+            if (upperBound < approvedThreshold || upperBound <= best || upperBound < floor) {
+                continue; // Cannot reach the approved threshold or beat the best score
+            }
+
+            // Only a score above the current best matters; the scorer may
+            // abandon the comparison as soon as it proves it cannot get there.
+            // Another chunk's best is only a floor, so ties with it stay exact.
+            double similarity = scorer.score(existing, Math.max(best, floor));
+
+            if (similarity > best) {
+                best = similarity;
+                bestDocument = existing;
+                if (concurrent) {
+                    publish(similarity);
+                    if (similarity >= stopThreshold)
+                        stopped = true;
+                }
+            }
+        }
+        return new Result(best, bestDocument);
+    }
+
+    private double sharedBest() {
+        return Double.longBitsToDouble(sharedBest.get());
+    }
+
+    private void publish(double similarity) {
+        long bits = Double.doubleToRawLongBits(similarity);
+        sharedBest.accumulateAndGet(bits, Math::max);
+    }
+
+    /**
+     * Highest score found and the document it belongs to (null if no document
+     * was scored above zero).
+     */
+    static final class Result {
+
+        private final double similarity;
+        private final CorpusDocument document;
+
+        Result(double similarity, CorpusDocument document) {
+            this.similarity = similarity;
+            this.document = document;
+        }
+
+        double getSimilarity() {
+            return similarity;
+        }
+
+        CorpusDocument getDocument() {
+            return document;
+        }
+
+        // Left operand covers the earlier documents and wins ties
+        static Result max(Result left, Result right) {
+            return right.similarity > left.similarity ? right : left;
+        }
+    }
+
+    private final class ChunkTask extends RecursiveTask<Result> {
+
+        private final int from;
+        private final int to;
+
+        ChunkTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Result compute() {
+            if (to - from <= LEAF_SIZE || stopped)
+                return scan(from, to, true);
+
+            int middle = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(from, middle);
+            left.fork();
+            Result right = new ChunkTask(middle, to).compute();
+            return Result.max(left.join(), right);
+        }
+    }
+}
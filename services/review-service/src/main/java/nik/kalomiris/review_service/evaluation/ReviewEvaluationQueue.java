@@ -0,0 +1,172 @@
+package nik.kalomiris.review_service.evaluation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded queue of reviews waiting for asynchronous evaluation.
+ *
+ * Review ids are queued per product and drained by a fixed pool of worker
+ * threads. At most one worker drains a given product at a time, taking up to
+ * {@code batchSize} queued reviews at once, so the reviews of a product are
+ * evaluated in submission order against a corpus that is loaded once per batch.
+ * A product with more queued reviews than one batch is re-scheduled behind the
+ * other products, so a burst on one product cannot hold a worker indefinitely.
+ *
+ * The total number of queued reviews is capped; {@link #submit(Long, Long)}
+ * returns false once the cap is reached and the caller is expected to evaluate
+ * the review itself.
+ */
+public class ReviewEvaluationQueue {
+
+    /**
+     * Evaluates a batch of queued reviews of one product.
+     */
+    @FunctionalInterface
+    public interface BatchHandler {
+        void evaluate(Long productId, List<Long> reviewIds);
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final int capacity;
+    private final int batchSize;
+
+    // Queued review ids per product; a product has an entry while a drain task
+    // for it is scheduled or running
+    private final Map<Long, Deque<Long>> pending = new HashMap<>();
+    private int pendingCount;
+    private volatile BatchHandler handler;
+
+    /**
+     * @param workers   number of worker threads
+     * @param capacity  maximum number of queued reviews
+     * @param batchSize maximum number of reviews of one product per batch
+     */
+    public ReviewEvaluationQueue(int workers, int capacity, int batchSize) {
+        if (workers < 1)
+            throw new IllegalArgumentException("workers must be at least 1");
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be at least 1");
+        if (batchSize < 1)
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        AtomicInteger threadCount = new AtomicInteger();
+        // At most one task per product with queued reviews, so the work queue
+        // is bounded by the capacity as well
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "review-evaluation-async-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Set the handler evaluating drained batches. Must be set before the first
+     * submission.
+     */
+    public void setHandler(BatchHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Queue a review for evaluation.
+     *
+     * @param productId product of the review
+     * @param reviewId  id of the stored review
+     * @return true if the review was queued, false if the queue is full or shut
+     *         down
+     */
+    public boolean submit(Long productId, Long reviewId) {
+        if (handler == null)
+            throw new IllegalStateException("No batch handler set");
+
+        boolean schedule;
+        synchronized (pending) {
+            if (pendingCount >= capacity)
+                return false;
+            Deque<Long> queued = pending.get(productId);
+            schedule = queued == null;
+            if (schedule) {
+                queued = new ArrayDeque<>();
+                pending.put(productId, queued);
+            }
+            queued.add(reviewId);
+            pendingCount++;
+        }
+
+        if (schedule && !schedule(productId)) {
+            synchronized (pending) {
+                Deque<Long> queued = pending.remove(productId);
+                if (queued != null)
+                    pendingCount -= queued.size();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return number of reviews queued and not yet handed to the handler
+     */
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pendingCount;
+        }
+    }
+
+    /**
+     * Stop the worker threads; called by Spring when the context closes.
+     * Reviews still queued stay PENDING in the database.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private boolean schedule(Long productId) {
+        try {
+            executor.execute(() -> drain(productId));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void drain(Long productId) {
+        List<Long> batch = new ArrayList<>(batchSize);
+        synchronized (pending) {
+            Deque<Long> queued = pending.get(productId);
+            while (!queued.isEmpty() && batch.size() < batchSize)
+                batch.add(queued.poll());
+            pendingCount -= batch.size();
+        }
+
+        try {
+            handler.evaluate(productId, batch);
+        } catch (RuntimeException e) {
+            // The handler reports its own failures; keep draining the queue
+        } finally {
+            boolean more;
+            synchronized (pending) {
+                more = !pending.get(productId).isEmpty();
+                if (!more)
+                    pending.remove(productId);
+            }
+            if (more && !schedule(productId)) {
+                synchronized (pending) {
+                    pendingCount -= pending.remove(productId).size();
+                }
+            }
+        }
+    }
+}
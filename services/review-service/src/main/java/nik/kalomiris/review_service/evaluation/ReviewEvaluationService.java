@@ -5,13 +5,21 @@ import nik.kalomiris.logging_client.LogPublisher;
 import nik.kalomiris.review_service.config.ReviewEvaluationConfig;
 import nik.kalomiris.review_service.review.Review;
 import nik.kalomiris.review_service.review.ReviewStatus;
+import nik.kalomiris.review_service.similarity.ContentFingerprint;
+import nik.kalomiris.review_service.similarity.CorpusDocument;
+import nik.kalomiris.review_service.similarity.CorpusQuery;
 import nik.kalomiris.review_service.similarity.EvaluationResult;
+import nik.kalomiris.review_service.similarity.ProductCorpus;
+import nik.kalomiris.review_service.similarity.QueryScorer;
 import nik.kalomiris.review_service.similarity.SimilarityCalculator;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Service responsible for evaluating new reviews for similarity against
@@ -32,17 +40,44 @@ public class ReviewEvaluationService {
     private static final String LOGGER_NAME = "nik.kalomiris.review_service.evaluation.ReviewEvaluationService";
     private static final String PRODUCT_ID = "productId";
 
+    // SimHash distance (in bits) within which reviews are scored first as
+    // likely near-copies. Short texts move several bits per changed word; a
+    // false match only costs scoring that review earlier.
+    static final int NEAR_DUPLICATE_DISTANCE = 10;
+
     private final SimilarityCalculator similarityCalculator;
     private final ReviewEvaluationConfig config;
     private final LogPublisher logPublisher;
+    private final EvaluationPool evaluationPool;
+    private final EvaluationCache evaluationCache;
 
     public ReviewEvaluationService(
             SimilarityCalculator similarityCalculator,
             ReviewEvaluationConfig config,
             LogPublisher logPublisher) {
+        this(similarityCalculator, config, logPublisher, null, null);
+    }
+
+    public ReviewEvaluationService(
+            SimilarityCalculator similarityCalculator,
+            ReviewEvaluationConfig config,
+            LogPublisher logPublisher,
+            EvaluationPool evaluationPool) {
+        this(similarityCalculator, config, logPublisher, evaluationPool, null);
+    }
+
+    @Autowired
+    public ReviewEvaluationService(
+            SimilarityCalculator similarityCalculator,
+            ReviewEvaluationConfig config,
+            LogPublisher logPublisher,
+            EvaluationPool evaluationPool,
+            @Autowired(required = false) EvaluationCache evaluationCache) {
         this.similarityCalculator = similarityCalculator;
         this.config = config;
         this.logPublisher = logPublisher;
+        this.evaluationPool = evaluationPool;
+        this.evaluationCache = evaluationCache;
     }
 
     /**
@@ -56,11 +91,70 @@ public class ReviewEvaluationService {
      * 5. Determine status based on thresholds
      * 6. Build and return evaluation result
      * 
+     * The existing reviews are tokenized once into a transient
+     * {@link ProductCorpus}; callers that keep a corpus around should use
+     * {@link #evaluate(Review, ProductCorpus)} directly.
+     * 
      * @param newReview       the review to evaluate (not yet persisted)
      * @param existingReviews existing reviews for the same product
      * @return evaluation result with status, score, and metadata
      */
     public EvaluationResult evaluate(Review newReview, List<Review> existingReviews) {
+        ProductCorpus corpus = new ProductCorpus(newReview.getProductId());
+        if (config.isEnabled() && existingReviews != null) {
+            // Limit comparisons to configured maximum
+            int comparisonLimit = Math.min(existingReviews.size(), config.getMaxComparisons());
+            for (Review existing : existingReviews.subList(0, comparisonLimit)) {
+                corpus.put(existing.getId(), existing.getComment());
+            }
+        }
+        // A transient corpus has nothing worth caching against
+        return evaluate(newReview, corpus, null);
+    }
+
+    /**
+     * Evaluate a new review against an indexed corpus of the product's reviews.
+     * 
+     * The new review is tokenized once and the calculator prepares it once
+     * against the corpus statistics (e.g. corpus-level IDF), after which every
+     * document is scored from its cached vector in a single pass. A document
+     * with the new review's own id (already indexed after it was saved) is
+     * skipped.
+     * 
+     * Duplicate fast paths: a review whose normalized text is identical to an
+     * indexed review ({@link ContentFingerprint}) is scored against that review
+     * alone and rejected if the score reaches the moderation threshold.
+     * Reviews whose SimHash is within {@value #NEAR_DUPLICATE_DISTANCE} bits are
+     * scored next, and if one reaches the moderation threshold the others are
+     * not scored. Reviews scored by the fast paths count towards
+     * maxComparisons and are not scored again.
+     * 
+     * Candidate pruning: when the calculator guarantees that texts sharing no
+     * term score below the approved threshold, only the reviews returned by the
+     * corpus' inverted index are considered. Candidates whose cheap upper bound
+     * is below the approved threshold are not fully scored either. Pruned
+     * reviews can only ever lead to APPROVED, so the status is unaffected; the
+     * reported score is the highest among the fully scored reviews.
+     * 
+     * Comparison sets of at least the configured parallelism threshold are
+     * split across the dedicated {@link EvaluationPool}; all chunks stop as
+     * soon as one finds a score at or above the moderation threshold, in which
+     * case the reported score is the highest found up to that point.
+     * 
+     * When an {@link EvaluationCache} is configured and the same text was
+     * evaluated against the current corpus generation, only the reviews added
+     * since that evaluation (and the review it was for) are scored; the cached
+     * best match covers the others.
+     * 
+     * @param newReview the review to evaluate
+     * @param corpus    indexed reviews of the same product
+     * @return evaluation result with status, score, and metadata
+     */
+    public EvaluationResult evaluate(Review newReview, ProductCorpus corpus) {
+        return evaluate(newReview, corpus, evaluationCache);
+    }
+
+    private EvaluationResult evaluate(Review newReview, ProductCorpus corpus, EvaluationCache cache) {
         try {
             // Feature flag check - if disabled, auto-approve
             if (!config.isEnabled()) {
@@ -70,38 +164,135 @@ public class ReviewEvaluationService {
             }
 
             // If no existing reviews, auto-approve (first review for product)
-            if (existingReviews == null || existingReviews.isEmpty()) {
+            int ownDocuments = corpus.contains(newReview.getId()) ? 1 : 0;
+            if (corpus.size() <= ownDocuments) {
                 logEvaluationComplete(newReview.getProductId(), ReviewStatus.APPROVED, 0.0);
                 return buildResult(newReview, ReviewStatus.APPROVED, 0.0, null,
                         "First review for product");
             }
 
-            // Limit comparisons to configured maximum
-            int comparisonLimit = Math.min(existingReviews.size(), config.getMaxComparisons());
-            List<Review> reviewsToCompare = existingReviews.subList(0, comparisonLimit);
+            String text = newReview.getComment() == null ? "" : newReview.getComment();
 
-            // Find highest similarity score
-            double maxSimilarity = 0.0;
-            Review mostSimilarReview = null;
+            double approvedThreshold = config.getThreshold().getApproved();
+            double moderationThreshold = config.getThreshold().getModeration();
+            // Read before the documents are snapshot: whatever is added meanwhile
+            // is scored again on a cache hit, which is harmless
+            long generation = corpus.getGeneration();
+            long appendMark = corpus.getAppendMark();
+            CorpusQuery query = corpus.query(newReview.getId(), text);
+            boolean candidatesOnly = query.hasTerms()
+                    && similarityCalculator.disjointUpperBound() < approvedThreshold;
+            QueryScorer scorer = similarityCalculator.prepare(query);
 
-            for (Review existing : reviewsToCompare) {
-                if (existing.getComment() == null || existing.getComment().isEmpty()) {
-                    continue; // Skip reviews without comments
-                }
+            // Reviews scored by the fast paths below are not scored again by the
+            // full pass; their best match competes with the full pass' one
+            Set<Long> fastScored = new HashSet<>();
+            double fastSimilarity = 0.0;
+            Long fastMatchReviewId = null;
 
-                double similarity = similarityCalculator.similarity(
-                        newReview.getComment(),
-                        existing.getComment());
+            // A copy of an indexed review (same normalized text) is scored alone
+            // first and rejected without scoring anything else
+            Long duplicateReviewId = corpus.findExactDuplicate(newReview.getId(), ContentFingerprint.fingerprint(text));
+            CorpusDocument duplicate = duplicateReviewId != null ? corpus.document(duplicateReviewId) : null;
+            if (duplicate != null) {
+                double similarity = scorer.score(duplicate);
+                if (similarity >= moderationThreshold)
+                    return duplicateResult(newReview, duplicateReviewId, similarity);
+                fastScored.add(duplicateReviewId);
+                fastSimilarity = similarity;
+                fastMatchReviewId = duplicateReviewId;
+            }
 
-                if (similarity > maxSimilarity) {
-                    maxSimilarity = similarity;
-                    mostSimilarReview = existing;
+            // Likely near-copies are scored next; if one of them reaches the
+            // moderation threshold the review is rejected without scoring the
+            // rest. Together with the full pass, at most maxComparisons are
+            // scored.
+            List<CorpusDocument> nearDuplicates = corpus.findNearDuplicates(newReview.getId(),
+                    ContentFingerprint.simHash(text), NEAR_DUPLICATE_DISTANCE);
+            nearDuplicates.removeIf(document -> fastScored.contains(document.getReviewId()));
+            int nearLimit = Math.max(0, config.getMaxComparisons() - fastScored.size());
+            if (nearDuplicates.size() > nearLimit) {
+                nearDuplicates = nearDuplicates.subList(0, nearLimit);
+            }
+            if (!nearDuplicates.isEmpty()) {
+                MaxSimilaritySearch.Result nearest = new MaxSimilaritySearch(scorer, nearDuplicates,
+                        approvedThreshold, moderationThreshold).serial();
+                if (nearest.getSimilarity() >= moderationThreshold) {
+                    logEvaluationComplete(newReview.getProductId(), ReviewStatus.REJECTED, nearest.getSimilarity());
+                    return buildResult(newReview, ReviewStatus.REJECTED, nearest.getSimilarity(),
+                            nearest.getDocument().getReviewId(),
+                            buildEvaluationReason(ReviewStatus.REJECTED, nearest.getSimilarity(),
+                                    fastScored.size() + nearDuplicates.size()));
+                }
+                for (CorpusDocument document : nearDuplicates) {
+                    fastScored.add(document.getReviewId());
+                }
+                if (nearest.getDocument() != null && nearest.getSimilarity() > fastSimilarity) {
+                    fastSimilarity = nearest.getSimilarity();
+                    fastMatchReviewId = nearest.getDocument().getReviewId();
                 }
             }
 
+            EvaluationCache.Entry cached = cache != null ? cache.get(newReview.getProductId(), generation, text) : null;
+            if (cached != null && newReview.getId() != null
+                    && newReview.getId().equals(cached.getMostSimilarReviewId())) {
+                cached = null; // Cached best match is this very review
+            }
+
+            List<CorpusDocument> documents;
+            int previouslyCompared;
+            if (cached == null) {
+                documents = candidatesOnly ? corpus.candidates(query) : corpus.documents();
+                previouslyCompared = 0;
+            } else {
+                // The cached result covers everything up to its append mark except
+                // the review it was computed for
+                documents = corpus.documentsAddedSince(cached.getAppendMark());
+                CorpusDocument evaluated = cached.getReviewId() != null ? corpus.document(cached.getReviewId()) : null;
+                if (evaluated != null && !documents.contains(evaluated))
+                    documents.add(0, evaluated);
+                previouslyCompared = cached.getComparedCount();
+            }
+            documents.removeIf(document -> document.getReviewId().equals(newReview.getId())
+                    || fastScored.contains(document.getReviewId()));
+
+            // Limit comparisons to configured maximum
+            int comparisonLimit = Math.max(0, Math.min(documents.size(),
+                    config.getMaxComparisons() - previouslyCompared - fastScored.size()));
+            List<CorpusDocument> documentsToCompare = documents.subList(0, comparisonLimit);
+
+            // Find highest similarity score
+            MaxSimilaritySearch search = new MaxSimilaritySearch(scorer, documentsToCompare,
+                    approvedThreshold, moderationThreshold);
+            MaxSimilaritySearch.Result best = evaluationPool != null
+                    && evaluationPool.shouldParallelize(documentsToCompare.size())
+                            ? search.parallel(evaluationPool)
+                            : search.serial();
+            double maxSimilarity = best.getSimilarity();
+            Long mostSimilarReviewId = best.getDocument() != null ? best.getDocument().getReviewId() : null;
+            if (fastMatchReviewId != null && fastSimilarity >= maxSimilarity) {
+                // Scored first, so they win ties
+                maxSimilarity = fastSimilarity;
+                mostSimilarReviewId = fastMatchReviewId;
+            }
+            if (cached != null && cached.getSimilarity() >= maxSimilarity) {
+                // Previously compared reviews come first and win ties
+                maxSimilarity = cached.getSimilarity();
+                mostSimilarReviewId = cached.getMostSimilarReviewId();
+            }
+            // On a cache hit the fast paths rescored reviews the cached result
+            // already counts
+            int comparedCount = previouslyCompared + documentsToCompare.size()
+                    + (cached == null ? fastScored.size() : 0);
+
+            if (cache != null) {
+                cache.put(newReview.getProductId(), generation, text, new EvaluationCache.Entry(
+                        appendMark, newReview.getId(), maxSimilarity, mostSimilarReviewId, comparedCount));
+            }
+
             // Determine status based on thresholds
             ReviewStatus status = determineStatus(maxSimilarity);
-            String reason = buildEvaluationReason(status, maxSimilarity, reviewsToCompare.size());
+            String reason = buildEvaluationReason(status, maxSimilarity, comparedCount);
 
             logEvaluationComplete(newReview.getProductId(), status, maxSimilarity);
 
@@ -109,7 +300,7 @@ public class ReviewEvaluationService {
                     newReview,
                     status,
                     maxSimilarity,
-                    mostSimilarReview != null ? mostSimilarReview.getId() : null,
+                    mostSimilarReviewId,
                     reason);
 
         } catch (Exception e) {
@@ -120,6 +311,44 @@ public class ReviewEvaluationService {
         }
     }
 
+    /**
+     * Reject a review whose normalized text is identical to an existing review
+     * of the same product, scoring it against that review only. Callers find
+     * the copy through {@link ContentFingerprint#fingerprint(String)}, e.g. with
+     * an indexed lookup, before loading anything else to compare against.
+     * 
+     * Texts with the same fingerprint may still differ in case and punctuation,
+     * so the copy is only rejected if the configured calculator scores it at
+     * or above the moderation threshold.
+     * 
+     * @param newReview         the review to evaluate
+     * @param duplicateReviewId id of the existing review with the same
+     *                          normalized text
+     * @param duplicateText     comment of that review
+     * @return REJECTED evaluation result (APPROVED if evaluation is disabled),
+     *         or null if the texts score below the moderation threshold and
+     *         the review must be evaluated as usual
+     */
+    public EvaluationResult evaluateExactDuplicate(Review newReview, Long duplicateReviewId, String duplicateText) {
+        if (!config.isEnabled()) {
+            logEvaluationSkipped(newReview.getProductId(), "evaluation disabled");
+            return buildResult(newReview, ReviewStatus.APPROVED, 0.0, null,
+                    "Evaluation disabled via feature flag");
+        }
+        double similarity = similarityCalculator.similarity(
+                newReview.getComment() == null ? "" : newReview.getComment(), duplicateText);
+        if (similarity < config.getThreshold().getModeration())
+            return null;
+        return duplicateResult(newReview, duplicateReviewId, similarity);
+    }
+
+    private EvaluationResult duplicateResult(Review newReview, Long duplicateReviewId, double similarity) {
+        logEvaluationComplete(newReview.getProductId(), ReviewStatus.REJECTED, similarity);
+        return buildResult(newReview, ReviewStatus.REJECTED, similarity, duplicateReviewId,
+                String.format("Duplicate detected (copy of review %d, similarity: %.2f)", duplicateReviewId,
+                        similarity));
+    }
+
     /**
      * Determine review status based on similarity score and configured thresholds.
      * 
@@ -156,6 +385,7 @@ public class ReviewEvaluationService {
                     scoreFormatted, comparedCount);
             case REJECTED -> String.format("Duplicate detected (similarity: %s, compared: %d)",
                     scoreFormatted, comparedCount);
+            case PENDING -> "Evaluation pending";
         };
     }
 
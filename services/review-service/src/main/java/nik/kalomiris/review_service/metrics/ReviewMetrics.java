@@ -1,9 +1,13 @@
 package nik.kalomiris.review_service.metrics;
 
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.annotation.PostConstruct;
 import java.time.Instant;
 import java.util.concurrent.atomic.AtomicLong;
+import nik.kalomiris.review_service.evaluation.EvaluationCache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import nik.kalomiris.review_service.review.ReviewRepository;
 import nik.kalomiris.review_service.review.ReviewStatus;
@@ -13,11 +17,19 @@ public class ReviewMetrics {
 
     private final MeterRegistry meterRegistry;
     private final ReviewRepository reviewRepository;
+    private final ObjectProvider<EvaluationCache> evaluationCache;
     private final AtomicLong lastReviewAddedEpoch = new AtomicLong(0);
 
-    public ReviewMetrics(MeterRegistry meterRegistry, ReviewRepository reviewRepository) {
+    @Autowired
+    public ReviewMetrics(MeterRegistry meterRegistry, ReviewRepository reviewRepository,
+            ObjectProvider<EvaluationCache> evaluationCache) {
         this.meterRegistry = meterRegistry;
         this.reviewRepository = reviewRepository;
+        this.evaluationCache = evaluationCache;
+    }
+
+    public ReviewMetrics(MeterRegistry meterRegistry, ReviewRepository reviewRepository) {
+        this(meterRegistry, reviewRepository, null);
     }
 
     @PostConstruct
@@ -27,7 +39,16 @@ public class ReviewMetrics {
                 repo -> repo.findByStatus(ReviewStatus.APPROVED).size());
         meterRegistry.gauge("review.status.for_moderation", reviewRepository,
                 repo -> repo.findByStatus(ReviewStatus.FOR_MODERATION).size());
+        meterRegistry.gauge("review.status.pending", reviewRepository,
+                repo -> repo.findByStatus(ReviewStatus.PENDING).size());
         meterRegistry.gauge("review.last_added.timestamp", lastReviewAddedEpoch);
+
+        // Evaluation cache: cache.gets{result=hit|miss}, cache.evictions, cache.size
+        // tagged cache=review.evaluation
+        EvaluationCache cache = evaluationCache != null ? evaluationCache.getIfAvailable() : null;
+        if (cache != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache.getNativeCache(), "review.evaluation");
+        }
     }
 
     public void markReviewAdded() {
@@ -0,0 +1,95 @@
+package nik.kalomiris.review_service.review;
+
+import java.time.Instant;
+
+/**
+ * Response DTO for the evaluation status endpoint. Lets clients poll a review
+ * submitted for asynchronous evaluation until it leaves PENDING.
+ */
+public class EvaluationStatusResponse {
+    private Long reviewId;
+    private ReviewStatus status;
+    private boolean pending;
+    private Double similarityScore;
+    private Long mostSimilarReviewId;
+    private String evaluationReason;
+    private Instant evaluatedAt;
+
+    /**
+     * Default constructor required for JSON deserialization.
+     */
+    public EvaluationStatusResponse() {
+        // Required by Jackson for JSON deserialization
+    }
+
+    /**
+     * Build the evaluation status of a stored review.
+     */
+    public static EvaluationStatusResponse from(Review review) {
+        EvaluationStatusResponse response = new EvaluationStatusResponse();
+        response.setReviewId(review.getId());
+        response.setStatus(review.getStatus());
+        response.setPending(review.getStatus() == ReviewStatus.PENDING);
+        response.setSimilarityScore(review.getSimilarityScore());
+        response.setMostSimilarReviewId(review.getMostSimilarReviewId());
+        response.setEvaluationReason(review.getEvaluationReason());
+        response.setEvaluatedAt(review.getEvaluatedAt());
+        return response;
+    }
+
+    public Long getReviewId() {
+        return reviewId;
+    }
+
+    public void setReviewId(Long reviewId) {
+        this.reviewId = reviewId;
+    }
+
+    public ReviewStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReviewStatus status) {
+        this.status = status;
+    }
+
+    public boolean isPending() {
+        return pending;
+    }
+
+    public void setPending(boolean pending) {
+        this.pending = pending;
+    }
+
+    public Double getSimilarityScore() {
+        return similarityScore;
+    }
+
+    public void setSimilarityScore(Double similarityScore) {
+        this.similarityScore = similarityScore;
+    }
+
+    public Long getMostSimilarReviewId() {
+        return mostSimilarReviewId;
+    }
+
+    public void setMostSimilarReviewId(Long mostSimilarReviewId) {
+        this.mostSimilarReviewId = mostSimilarReviewId;
+    }
+
+    public String getEvaluationReason() {
+        return evaluationReason;
+    }
+
+    public void setEvaluationReason(String evaluationReason) {
+        this.evaluationReason = evaluationReason;
+    }
+
+    public Instant getEvaluatedAt() {
+        return evaluatedAt;
+    }
+
+    public void setEvaluatedAt(Instant evaluatedAt) {
+        this.evaluatedAt = evaluatedAt;
+    }
+}
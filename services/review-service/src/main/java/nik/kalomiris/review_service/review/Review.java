@@ -1,14 +1,23 @@
 package nik.kalomiris.review_service.review;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.EnumType;
+import nik.kalomiris.review_service.similarity.ContentFingerprint;
 
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+        @Index(name = "idx_reviews_product_fingerprint", columnList = "product_id, content_fingerprint")
+})
+@EntityListeners(ReviewCorpusListener.class)
 public class Review {
     /**
      * Entity representing a product review. Includes rating, text comment
@@ -16,7 +25,8 @@ public class Review {
      */
 
     @Id
-    @GeneratedValue(strategy = jakarta.persistence.GenerationType.IDENTITY)
+    @GeneratedValue(strategy = jakarta.persistence.GenerationType.SEQUENCE, generator = "reviews_seq")
+    @jakarta.persistence.SequenceGenerator(name = "reviews_seq", sequenceName = "reviews_seq", allocationSize = 50)
     private Long id;
 
     private Long productId;
@@ -33,10 +43,19 @@ public class Review {
     private String evaluationReason;
     private java.time.Instant evaluatedAt;
 
+    // Normalized-text fingerprint (see ContentFingerprint), derived from the
+    // comment on every write; null if the comment has no words
+    private Long contentFingerprint;
+
     // Moderation audit fields
     private String moderatedBy;
     private java.time.Instant moderatedAt;
 
+    // Instance evaluating a PENDING review, and since when (asynchronous
+    // evaluation); a claim older than the claim timeout may be taken over
+    private String evaluationClaimedBy;
+    private java.time.Instant evaluationClaimedAt;
+
     public Review() {
         // Default constructor required by JPA
     }
@@ -144,4 +163,25 @@ public class Review {
     public void setModeratedAt(java.time.Instant moderatedAt) {
         this.moderatedAt = moderatedAt;
     }
+
+    @JsonIgnore
+    public String getEvaluationClaimedBy() {
+        return evaluationClaimedBy;
+    }
+
+    @JsonIgnore
+    public java.time.Instant getEvaluationClaimedAt() {
+        return evaluationClaimedAt;
+    }
+
+    @JsonIgnore
+    public Long getContentFingerprint() {
+        return contentFingerprint;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateContentFingerprint() {
+        contentFingerprint = ContentFingerprint.fingerprint(comment);
+    }
 }
@@ -25,7 +25,19 @@ public class ReviewController {
     @PostMapping
     public ResponseEntity<Review> createReview(@RequestBody Review review) {
         Review createdReview = reviewService.createReview(review);
-        return new ResponseEntity<>(createdReview, HttpStatus.CREATED);
+        // Asynchronously evaluated reviews are accepted but not yet final;
+        // clients poll /{id}/evaluation for the outcome
+        HttpStatus status = createdReview.getStatus() == ReviewStatus.PENDING
+                ? HttpStatus.ACCEPTED
+                : HttpStatus.CREATED;
+        return new ResponseEntity<>(createdReview, status);
+    }
+
+    @GetMapping("/{id}/evaluation")
+    public ResponseEntity<EvaluationStatusResponse> getEvaluationStatus(@PathVariable Long id) {
+        return reviewService.getReviewById(id)
+                .map(review -> new ResponseEntity<>(EvaluationStatusResponse.from(review), HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @GetMapping
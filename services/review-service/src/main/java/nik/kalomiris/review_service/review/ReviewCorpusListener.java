@@ -0,0 +1,66 @@
+package nik.kalomiris.review_service.review;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import java.util.function.Consumer;
+import nik.kalomiris.review_service.similarity.ReviewCorpusIndex;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that keeps the {@link ReviewCorpusIndex} in sync with the
+ * reviews table.
+ *
+ * Hooking the entity lifecycle (rather than {@link ReviewService}) means every
+ * write path - creation, moderation, direct repository saves and deletes -
+ * updates the index. Changes are applied after the surrounding transaction
+ * commits so a rolled-back write never reaches the index.
+ *
+ * Instantiated by Hibernate through Spring's bean container; the index is
+ * looked up lazily so the listener also works in slices without it (e.g.
+ * {@code @DataJpaTest}).
+ */
+public class ReviewCorpusListener {
+
+    private final ObjectProvider<ReviewCorpusIndex> corpusIndex;
+
+    public ReviewCorpusListener(ObjectProvider<ReviewCorpusIndex> corpusIndex) {
+        this.corpusIndex = corpusIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void onSaved(Review review) {
+        Long productId = review.getProductId();
+        Long reviewId = review.getId();
+        String comment = review.getComment();
+        afterCommit(index -> index.put(productId, reviewId, comment));
+    }
+
+    @PostRemove
+    void onRemoved(Review review) {
+        Long productId = review.getProductId();
+        Long reviewId = review.getId();
+        afterCommit(index -> index.remove(productId, reviewId));
+    }
+
+    private void afterCommit(Consumer<ReviewCorpusIndex> update) {
+        ReviewCorpusIndex index = corpusIndex.getIfAvailable();
+        if (index == null)
+            return;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.accept(index);
+                }
+            });
+        } else {
+            // No transaction active - apply immediately.
+            update.accept(index);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package nik.kalomiris.review_service.review;
+
+import nik.kalomiris.review_service.similarity.ContentFingerprint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Fingerprints the reviews stored before content fingerprints existed.
+ *
+ * {@link Review} derives its fingerprint when it is saved, so older rows
+ * have none and the indexed copy lookup of {@link ReviewService} cannot find
+ * them. Once the application is ready, such reviews are read in id order, in
+ * batches of {@link #BATCH_SIZE}, and their fingerprint column filled in one
+ * transaction per batch. Only rows that still have no fingerprint are
+ * written, so running on several instances at once is harmless.
+ */
+@Component
+public class ReviewFingerprintBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewFingerprintBackfill.class);
+
+    static final int BATCH_SIZE = 500;
+
+    private final ReviewRepository reviewRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public ReviewFingerprintBackfill(ReviewRepository reviewRepository, PlatformTransactionManager transactionManager) {
+        this.reviewRepository = reviewRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @return number of reviews fingerprinted
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int backfill() {
+        int filled = 0;
+        try {
+            Long afterId = 0L;
+            List<Review> batch;
+            do {
+                batch = reviewRepository.findByIdGreaterThanAndContentFingerprintIsNullAndCommentIsNotNullOrderByIdAsc(
+                        afterId, PageRequest.of(0, BATCH_SIZE));
+                List<Review> reviews = batch;
+                filled += transactionTemplate.execute(status -> fill(reviews));
+                if (!batch.isEmpty())
+                    afterId = batch.get(batch.size() - 1).getId();
+            } while (batch.size() == BATCH_SIZE);
+            if (filled > 0)
+                logger.info("Fingerprinted {} existing reviews", filled);
+        } catch (RuntimeException e) {
+            // Copies of unfingerprinted reviews are still found by scoring
+            logger.warn("Could not fingerprint existing reviews: {}", e.getMessage());
+        }
+        return filled;
+    }
+
+    private int fill(List<Review> reviews) {
+        int filled = 0;
+        for (Review review : reviews) {
+            // Comments without any word have no fingerprint and are skipped
+            Long fingerprint = ContentFingerprint.fingerprint(review.getComment());
+            if (fingerprint != null)
+                filled += reviewRepository.fillContentFingerprint(review.getId(), fingerprint);
+        }
+        return filled;
+    }
+}
@@ -1,7 +1,15 @@
 package nik.kalomiris.review_service.review;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     /**
@@ -35,4 +43,112 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
      * @return list of reviews for the product excluding the specified one
      */
     List<Review> findByProductIdAndIdNot(Long productId, Long id);
+
+    /**
+     * Find the earliest other review of a product with the same normalized
+     * text, using the (productId, contentFingerprint) index.
+     * 
+     * @param productId          the product ID
+     * @param contentFingerprint the fingerprint to match
+     * @param id                 the review ID to exclude
+     * @return the earliest matching review, if any
+     */
+    Optional<Review> findFirstByProductIdAndContentFingerprintAndIdNotOrderByIdAsc(
+            Long productId, Long contentFingerprint, Long id);
+
+    /**
+     * Find reviews with a comment but no content fingerprint (stored before
+     * fingerprints were introduced), in id order for keyset paging.
+     *
+     * @param id       only reviews with a greater id are returned
+     * @param pageable batch size (the first page is always used)
+     * @return the next batch of reviews to fingerprint
+     */
+    List<Review> findByIdGreaterThanAndContentFingerprintIsNullAndCommentIsNotNullOrderByIdAsc(Long id,
+            Pageable pageable);
+
+    /**
+     * Store the fingerprint of a review that has none. Only this column is
+     * written, and a review fingerprinted meanwhile (e.g. edited) is left as
+     * it is.
+     *
+     * @param id                 the review ID
+     * @param contentFingerprint fingerprint of the comment
+     * @return 1 if updated, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE Review r SET r.contentFingerprint = :contentFingerprint "
+            + "WHERE r.id = :id AND r.contentFingerprint IS NULL")
+    int fillContentFingerprint(@Param("id") Long id, @Param("contentFingerprint") Long contentFingerprint);
+
+    /**
+     * Find PENDING reviews no instance is evaluating: never claimed, or
+     * claimed before {@code staleBefore} by an instance that did not finish.
+     *
+     * @param staleBefore claims older than this are abandoned
+     * @return the reviews, oldest first
+     */
+    @Query("SELECT r FROM Review r WHERE r.status = nik.kalomiris.review_service.review.ReviewStatus.PENDING "
+            + "AND (r.evaluationClaimedAt IS NULL OR r.evaluationClaimedAt < :staleBefore) ORDER BY r.id")
+    List<Review> findUnclaimedPending(@Param("staleBefore") Instant staleBefore);
+
+    /**
+     * Claim a PENDING review for evaluation by one instance. The check and the
+     * claim are one guarded UPDATE, so when several instances queue the same
+     * review only one of them evaluates it. The claimant may renew its own
+     * claim, e.g. to retry a failed evaluation.
+     *
+     * @param id          the review ID
+     * @param claimant    id of the claiming instance
+     * @param now         claim time
+     * @param staleBefore claims older than this may be taken over
+     * @return 1 if claimed, 0 if the review is no longer PENDING or is being
+     *         evaluated elsewhere
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Review r SET r.evaluationClaimedBy = :claimant, r.evaluationClaimedAt = :now "
+            + "WHERE r.id = :id AND r.status = nik.kalomiris.review_service.review.ReviewStatus.PENDING "
+            + "AND (r.evaluationClaimedAt IS NULL OR r.evaluationClaimedAt < :staleBefore "
+            + "OR r.evaluationClaimedBy = :claimant)")
+    int claimForEvaluation(@Param("id") Long id, @Param("claimant") String claimant, @Param("now") Instant now,
+            @Param("staleBefore") Instant staleBefore);
+
+    /**
+     * Store the evaluation of a claimed review. Only the evaluation columns
+     * are written, and only while the review is still PENDING and claimed by
+     * the claimant, so a moderation or deletion made during the evaluation is
+     * never overwritten.
+     *
+     * @param id       the review ID
+     * @param claimant id of the instance that evaluated the review
+     * @return 1 if stored, 0 if the review is gone, no longer PENDING or
+     *         claimed by another instance
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Review r SET r.status = :status, r.similarityScore = :similarityScore, "
+            + "r.mostSimilarReviewId = :mostSimilarReviewId, r.evaluationReason = :evaluationReason, "
+            + "r.evaluatedAt = :evaluatedAt "
+            + "WHERE r.id = :id AND r.status = nik.kalomiris.review_service.review.ReviewStatus.PENDING "
+            + "AND r.evaluationClaimedBy = :claimant")
+    int completeEvaluation(@Param("id") Long id, @Param("claimant") String claimant,
+            @Param("status") ReviewStatus status, @Param("similarityScore") Double similarityScore,
+            @Param("mostSimilarReviewId") Long mostSimilarReviewId,
+            @Param("evaluationReason") String evaluationReason, @Param("evaluatedAt") Instant evaluatedAt);
+
+    /**
+     * Give up the claim on a PENDING review, so that any instance may
+     * evaluate it again without waiting for the claim timeout.
+     *
+     * @param id       the review ID
+     * @param claimant id of the claiming instance
+     * @return 1 if released, 0 if the review is not claimed by the claimant
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Review r SET r.evaluationClaimedBy = NULL, r.evaluationClaimedAt = NULL "
+            + "WHERE r.id = :id AND r.status = nik.kalomiris.review_service.review.ReviewStatus.PENDING "
+            + "AND r.evaluationClaimedBy = :claimant")
+    int releaseEvaluationClaim(@Param("id") Long id, @Param("claimant") String claimant);
 }
@@ -2,13 +2,28 @@ package nik.kalomiris.review_service.review;
 
 import nik.kalomiris.logging_client.LogPublisher;
 import nik.kalomiris.logging_client.LogMessage;
+import nik.kalomiris.review_service.config.ReviewEvaluationConfig;
+import nik.kalomiris.review_service.evaluation.ReviewEvaluationQueue;
 import nik.kalomiris.review_service.evaluation.ReviewEvaluationService;
 import nik.kalomiris.review_service.similarity.EvaluationResult;
+import nik.kalomiris.review_service.similarity.ProductCorpus;
+import nik.kalomiris.review_service.similarity.ReviewCorpusIndex;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.beans.factory.annotation.Autowired;
 
 @Service
@@ -25,79 +40,299 @@ public class ReviewService {
     private static final String REVIEW_ID = "reviewId";
     private static final String PRODUCT_ID = "productId";
     private static final String REVIEW_NOT_FOUND = "Review not found with id: ";
+    private static final int MAX_EVALUATION_ATTEMPTS = 3;
 
     private final ReviewRepository reviewRepository;
     private final LogPublisher logPublisher;
     private final ReviewEvaluationService evaluationService;
     private final nik.kalomiris.review_service.metrics.ReviewMetrics reviewMetrics;
+    private final ReviewCorpusIndex corpusIndex;
+    private final ReviewEvaluationQueue evaluationQueue;
+    // Identifies this instance in the claims on PENDING reviews
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Duration claimTimeout;
+    // Failed evaluation attempts of reviews queued again for a retry
+    private final Map<Long, Integer> failedEvaluations = new ConcurrentHashMap<>();
 
     @Autowired
     public ReviewService(ReviewRepository reviewRepository, LogPublisher logPublisher,
             ReviewEvaluationService evaluationService,
-            nik.kalomiris.review_service.metrics.ReviewMetrics reviewMetrics) {
+            nik.kalomiris.review_service.metrics.ReviewMetrics reviewMetrics,
+            ReviewCorpusIndex corpusIndex,
+            @Autowired(required = false) ReviewEvaluationQueue evaluationQueue,
+            ReviewEvaluationConfig evaluationConfig) {
         this.reviewRepository = reviewRepository;
         this.logPublisher = logPublisher;
         this.evaluationService = evaluationService;
         this.reviewMetrics = reviewMetrics;
+        this.corpusIndex = corpusIndex;
+        this.evaluationQueue = evaluationQueue;
+        this.claimTimeout = Duration.ofSeconds(evaluationConfig != null
+                ? evaluationConfig.getAsync().getClaimTimeout()
+                : new ReviewEvaluationConfig.Async().getClaimTimeout());
+        if (evaluationQueue != null) {
+            evaluationQueue.setHandler(this::evaluatePendingReviews);
+        }
+    }
+
+    // Backward-compatible constructor with the default claim timeout
+    public ReviewService(ReviewRepository reviewRepository, LogPublisher logPublisher,
+            ReviewEvaluationService evaluationService,
+            nik.kalomiris.review_service.metrics.ReviewMetrics reviewMetrics,
+            ReviewCorpusIndex corpusIndex,
+            ReviewEvaluationQueue evaluationQueue) {
+        this(reviewRepository, logPublisher, evaluationService, reviewMetrics, corpusIndex, evaluationQueue, null);
+    }
+
+    // Backward-compatible constructor for synchronous evaluation
+    public ReviewService(ReviewRepository reviewRepository, LogPublisher logPublisher,
+            ReviewEvaluationService evaluationService,
+            nik.kalomiris.review_service.metrics.ReviewMetrics reviewMetrics,
+            ReviewCorpusIndex corpusIndex) {
+        this(reviewRepository, logPublisher, evaluationService, reviewMetrics, corpusIndex, null, null);
     }
 
-    // Backward-compatible constructor for tests without metrics
+    // Backward-compatible constructor for tests without metrics or corpus index
     public ReviewService(ReviewRepository reviewRepository, LogPublisher logPublisher,
             ReviewEvaluationService evaluationService) {
-        this(reviewRepository, logPublisher, evaluationService, null);
+        this(reviewRepository, logPublisher, evaluationService, null, null, null, null);
     }
 
     public Review createReview(Review review) {
-        // Save review first to get ID (required for evaluation result)
-        Review savedReview = reviewRepository.save(review);
+        Review savedReview;
+        if (evaluationQueue != null) {
+            // Store the review as PENDING and evaluate it in the background
+            review.setStatus(ReviewStatus.PENDING);
+            savedReview = reviewRepository.save(review);
+            if (enqueueEvaluation(savedReview)) {
+                publishReviewEvent("Review created", savedReview, null);
+                markReviewAdded();
+                return savedReview;
+            }
+            // Queue full: evaluate on the request thread instead
+        } else {
+            // Save review first to get ID (required for evaluation result)
+            savedReview = reviewRepository.save(review);
+        }
+
+        EvaluationResult evaluationResult = evaluate(savedReview);
+
+        // Apply evaluation result to review entity and update
+        applyEvaluation(savedReview, evaluationResult);
+
+        Review finalReview = reviewRepository.save(savedReview);
+
+        // Publish a log event about the review creation. Ignore logging failures.
+        publishReviewEvent("Review created", finalReview, evaluationResult.getSimilarityScore());
+
+        // Metrics: mark review creation
+        markReviewAdded();
+        return finalReview;
+    }
+
+    /**
+     * Evaluate queued PENDING reviews of one product. Each review is claimed
+     * for this instance and only then loaded; reviews that are gone, no longer
+     * PENDING or being evaluated by another instance are skipped. The result
+     * is stored with a guarded update, so a moderation or deletion made while
+     * the review was being evaluated wins. A review whose evaluation fails is
+     * queued again, up to {@value #MAX_EVALUATION_ATTEMPTS} attempts, after
+     * which its claim is released for a later run.
+     *
+     * @param productId product of the reviews
+     * @param reviewIds ids of the reviews in submission order
+     */
+    public void evaluatePendingReviews(Long productId, List<Long> reviewIds) {
+        List<Long> sortedIds = new ArrayList<>(reviewIds);
+        sortedIds.sort(Comparator.naturalOrder());
+
+        for (Long reviewId : sortedIds) {
+            if (!claim(reviewId)) {
+                continue;
+            }
+            try {
+                Optional<Review> claimed = reviewRepository.findById(reviewId);
+                if (claimed.isEmpty()) {
+                    continue;
+                }
+                Review review = claimed.get();
+                EvaluationResult evaluationResult = evaluate(review);
+                failedEvaluations.remove(reviewId);
+                if (reviewRepository.completeEvaluation(reviewId, instanceId, evaluationResult.getStatus(),
+                        evaluationResult.getSimilarityScore(), evaluationResult.getMostSimilarReviewId(),
+                        evaluationResult.getEvaluationReason(), evaluationResult.getEvaluatedAt()) == 0) {
+                    // Moderated, deleted or taken over in the meantime
+                    continue;
+                }
+                applyEvaluation(review, evaluationResult);
+                publishReviewEvent("Review evaluated", review, evaluationResult.getSimilarityScore());
+            } catch (Exception e) {
+                try {
+                    LogMessage logMessage = new LogMessage.Builder()
+                            .message("Review evaluation failed")
+                            .level("ERROR")
+                            .service(SERVICE_NAME)
+                            .logger(REVIEW_SERVICE_LOGGER)
+                            .metadata(Map.of(
+                                    REVIEW_ID, reviewId.toString(),
+                                    PRODUCT_ID, productId.toString(),
+                                    "error", String.valueOf(e.getMessage())))
+                            .build();
+                    logPublisher.publish(logMessage);
+                } catch (Exception ignored) {
+                    // ignore logging failures
+                }
+                retryEvaluation(productId, reviewId);
+            }
+        }
+    }
+
+    /**
+     * Queue a review whose evaluation failed once more; this instance still
+     * holds its claim and renews it. Once the attempts are used up, or the
+     * queue is full, the claim is released instead.
+     */
+    private void retryEvaluation(Long productId, Long reviewId) {
+        int attempts = failedEvaluations.merge(reviewId, 1, Integer::sum);
+        if (attempts < MAX_EVALUATION_ATTEMPTS && evaluationQueue != null
+                && evaluationQueue.submit(productId, reviewId)) {
+            return;
+        }
+        failedEvaluations.remove(reviewId);
+        try {
+            reviewRepository.releaseEvaluationClaim(reviewId, instanceId);
+        } catch (Exception ignored) {
+            // the claim times out instead
+        }
+    }
+
+    /**
+     * Re-queue reviews left PENDING by a previous run (e.g. queued when the
+     * application stopped). Reviews claimed by an instance within the claim
+     * timeout are left to it, and the claim taken before evaluating keeps
+     * instances starting together from evaluating a review twice. No-op when
+     * evaluation is synchronous.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingEvaluations() {
+        if (evaluationQueue == null) {
+            return;
+        }
+        Map<Long, List<Long>> pendingByProduct = new LinkedHashMap<>();
+        for (Review review : reviewRepository.findUnclaimedPending(Instant.now().minus(claimTimeout))) {
+            if (!evaluationQueue.submit(review.getProductId(), review.getId())) {
+                pendingByProduct.computeIfAbsent(review.getProductId(), id -> new ArrayList<>()).add(review.getId());
+            }
+        }
+        // Whatever did not fit in the queue is evaluated on this thread
+        pendingByProduct.forEach(this::evaluatePendingReviews);
+    }
+
+    private boolean claim(Long reviewId) {
+        Instant now = Instant.now();
+        return reviewRepository.claimForEvaluation(reviewId, instanceId, now, now.minus(claimTimeout)) > 0;
+    }
+
+    private EvaluationResult evaluate(Review savedReview) {
+        // Copies of an existing review are found through the (productId,
+        // fingerprint) index, without loading the product's reviews. A loaded
+        // corpus answers the same question in memory.
+        Long fingerprint = savedReview.getContentFingerprint();
+        if (fingerprint != null && (corpusIndex == null || !corpusIndex.contains(savedReview.getProductId()))) {
+            Optional<Review> copy = reviewRepository.findFirstByProductIdAndContentFingerprintAndIdNotOrderByIdAsc(
+                    savedReview.getProductId(), fingerprint, savedReview.getId());
+            EvaluationResult duplicate = copy.isPresent()
+                    ? evaluationService.evaluateExactDuplicate(savedReview, copy.get().getId(), copy.get().getComment())
+                    : null;
+            if (duplicate != null) {
+                return duplicate;
+            }
+        }
+
+        if (corpusIndex != null) {
+            // Evaluate against the product's cached corpus; reviews are loaded and
+            // tokenized only on the first submission for the product
+            ProductCorpus corpus = corpusIndex.corpusFor(savedReview.getProductId(), this::loadCorpus);
+            return evaluationService.evaluate(savedReview, corpus);
+        }
 
-        // Fetch existing reviews for the same product to compare against (excluding
-        // this one)
+        // Fetch existing reviews for the same product to compare against
+        // (excluding this one)
         List<Review> existingReviews = reviewRepository.findByProductIdAndIdNot(
                 savedReview.getProductId(),
                 savedReview.getId());
 
         // Evaluate the saved review against existing ones
-        EvaluationResult evaluationResult = evaluationService.evaluate(savedReview, existingReviews);
+        return evaluationService.evaluate(savedReview, existingReviews);
+    }
 
-        // Apply evaluation result to review entity and update
-        savedReview.setStatus(evaluationResult.getStatus());
-        savedReview.setSimilarityScore(evaluationResult.getSimilarityScore());
-        savedReview.setMostSimilarReviewId(evaluationResult.getMostSimilarReviewId());
-        savedReview.setEvaluationReason(evaluationResult.getEvaluationReason());
-        savedReview.setEvaluatedAt(evaluationResult.getEvaluatedAt());
+    private static void applyEvaluation(Review review, EvaluationResult evaluationResult) {
+        review.setStatus(evaluationResult.getStatus());
+        review.setSimilarityScore(evaluationResult.getSimilarityScore());
+        review.setMostSimilarReviewId(evaluationResult.getMostSimilarReviewId());
+        review.setEvaluationReason(evaluationResult.getEvaluationReason());
+        review.setEvaluatedAt(evaluationResult.getEvaluatedAt());
+    }
 
-        Review finalReview = reviewRepository.save(savedReview);
+    /**
+     * Queue a stored review for evaluation once its insert is committed, so a
+     * worker never looks it up before it is visible.
+     *
+     * @return false if the queue is full and the review must be evaluated now
+     */
+    private boolean enqueueEvaluation(Review review) {
+        Long productId = review.getProductId();
+        Long reviewId = review.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    if (!evaluationQueue.submit(productId, reviewId)) {
+                        evaluatePendingReviews(productId, List.of(reviewId));
+                    }
+                }
+            });
+            return true;
+        }
+        // No transaction active - the review is already committed.
+        return evaluationQueue.submit(productId, reviewId);
+    }
 
-        // Publish a log event about the review creation. Ignore logging failures.
+    private void publishReviewEvent(String message, Review review, Double similarityScore) {
         try {
             LogMessage logMessage = new LogMessage.Builder()
-                    .message("Review created")
+                    .message(message)
                     .level("INFO")
                     .service(SERVICE_NAME)
                     .logger(REVIEW_SERVICE_LOGGER)
                     .metadata(Map.of(
-                            REVIEW_ID, finalReview.getId().toString(),
-                            PRODUCT_ID, finalReview.getProductId().toString(),
-                            "status", finalReview.getStatus().toString(),
+                            REVIEW_ID, review.getId().toString(),
+                            PRODUCT_ID, review.getProductId().toString(),
+                            "status", review.getStatus().toString(),
                             "similarityScore",
-                            evaluationResult.getSimilarityScore() != null
-                                    ? evaluationResult.getSimilarityScore().toString()
+                            similarityScore != null
+                                    ? similarityScore.toString()
                                     : "null"))
                     .build();
             logPublisher.publish(logMessage);
         } catch (Exception e) {
             // ignore logging failures
         }
+    }
 
-        // Metrics: mark review creation
+    private void markReviewAdded() {
         try {
             if (reviewMetrics != null) {
                 reviewMetrics.markReviewAdded();
             }
         } catch (Exception ignored) {
             /* best-effort */ }
-        return finalReview;
+    }
+
+    private void loadCorpus(ProductCorpus corpus) {
+        for (Review existing : reviewRepository.findByProductId(corpus.getProductId())) {
+            corpus.put(existing.getId(), existing.getComment());
+        }
     }
 
     public List<Review> getAllReviews() {
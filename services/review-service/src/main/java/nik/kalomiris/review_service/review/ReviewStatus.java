@@ -2,6 +2,8 @@ package nik.kalomiris.review_service.review;
 
 public enum ReviewStatus {
 
+    // Stored but not evaluated yet (asynchronous evaluation)
+    PENDING,
     APPROVED,
     FOR_MODERATION,
     REJECTED
@@ -0,0 +1,94 @@
+package nik.kalomiris.review_service.review;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Brings the check constraint on {@code reviews.status} in line with
+ * {@link ReviewStatus}.
+ *
+ * Hibernate creates {@code check (status in (...))} for the enum column with
+ * the values known when the table was created, and {@code ddl-auto=update}
+ * never changes it afterwards, so a database created before a value was added
+ * (e.g. PENDING) rejects reviews with that value. Before the application
+ * serves any request, every check constraint of the table that lists status
+ * values but not all current ones is dropped and replaced by one listing them
+ * all. The constraints are found through the standard information schema, so
+ * this works on PostgreSQL and on the H2 test database alike.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class ReviewStatusCheckMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewStatusCheckMigration.class);
+
+    static final String CONSTRAINT_NAME = "reviews_status_check";
+
+    static final String FIND_CHECKS_SQL = "SELECT tc.constraint_name, cc.check_clause "
+            + "FROM information_schema.table_constraints tc "
+            + "JOIN information_schema.check_constraints cc "
+            + "ON cc.constraint_schema = tc.constraint_schema AND cc.constraint_name = tc.constraint_name "
+            + "WHERE lower(tc.table_name) = 'reviews' AND tc.table_schema = current_schema "
+            + "AND tc.constraint_type = 'CHECK'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReviewStatusCheckMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        try {
+            List<String> stale = new ArrayList<>();
+            for (Map<String, Object> check : jdbcTemplate.queryForList(FIND_CHECKS_SQL)) {
+                if (isStale(String.valueOf(check.get("check_clause"))))
+                    stale.add(String.valueOf(check.get("constraint_name")));
+            }
+            if (stale.isEmpty())
+                return;
+            for (String name : stale) {
+                jdbcTemplate.execute("ALTER TABLE reviews DROP CONSTRAINT \"" + name + "\"");
+            }
+            jdbcTemplate.execute("ALTER TABLE reviews ADD CONSTRAINT " + CONSTRAINT_NAME + " CHECK " + checkClause());
+            logger.info("Replaced review status check constraint(s) {} with {}", stale, checkClause());
+        } catch (RuntimeException e) {
+            // Leave it to the inserts of new statuses to fail rather than block startup
+            logger.warn("Could not migrate the review status check constraint: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @param checkClause condition of a check constraint on the reviews table
+     * @return true if it restricts the status to a set of values that misses
+     *         some {@link ReviewStatus}
+     */
+    static boolean isStale(String checkClause) {
+        boolean listsStatuses = false;
+        boolean listsAll = true;
+        for (ReviewStatus status : ReviewStatus.values()) {
+            if (checkClause.contains("'" + status.name() + "'"))
+                listsStatuses = true;
+            else
+                listsAll = false;
+        }
+        return listsStatuses && !listsAll;
+    }
+
+    static String checkClause() {
+        StringJoiner values = new StringJoiner(", ", "(status IN (", "))");
+        for (ReviewStatus status : ReviewStatus.values()) {
+            values.add("'" + status.name() + "'");
+        }
+        return values.toString();
+    }
+}
@@ -49,4 +49,63 @@ public class CompositeSimilarityCalculator implements SimilarityCalculator {
         double raw = (primaryWeight * s1) + (secondaryWeight * s2);
         return SimilarityCalculator.clamp(raw);
     }
+
+    @Override
+    public double similarity(String a, String b, double minUseful) {
+        double s1 = primary.similarity(a, b, floor(minUseful, secondaryWeight, primaryWeight));
+        double secondaryFloor = floor(minUseful, primaryWeight * s1, secondaryWeight);
+        if (secondaryFloor > 1.0)
+            return SimilarityCalculator.clamp(primaryWeight * s1);
+        double s2 = secondary.similarity(a, b, secondaryFloor);
+        double raw = (primaryWeight * s1) + (secondaryWeight * s2);
+        return SimilarityCalculator.clamp(raw);
+    }
+
+    @Override
+    public QueryScorer prepare(CorpusQuery query) {
+        QueryScorer primaryScorer = primary.prepare(query);
+        QueryScorer secondaryScorer = secondary.prepare(query);
+        return new QueryScorer() {
+            @Override
+            public double score(CorpusDocument document) {
+                return SimilarityCalculator.clamp(
+                        (primaryWeight * primaryScorer.score(document))
+                                + (secondaryWeight * secondaryScorer.score(document)));
+            }
+
+            @Override
+            public double score(CorpusDocument document, double minUseful) {
+                double s1 = primaryScorer.score(document, floor(minUseful, secondaryWeight, primaryWeight));
+                double secondaryFloor = floor(minUseful, primaryWeight * s1, secondaryWeight);
+                if (secondaryFloor > 1.0)
+                    return SimilarityCalculator.clamp(primaryWeight * s1);
+                return SimilarityCalculator.clamp(
+                        (primaryWeight * s1) + (secondaryWeight * secondaryScorer.score(document, secondaryFloor)));
+            }
+
+            @Override
+            public double upperBound(CorpusDocument document) {
+                return (primaryWeight * primaryScorer.upperBound(document))
+                        + (secondaryWeight * secondaryScorer.upperBound(document));
+            }
+        };
+    }
+
+    @Override
+    public double disjointUpperBound() {
+        return (primaryWeight * primary.disjointUpperBound())
+                + (secondaryWeight * secondary.disjointUpperBound());
+    }
+
+    /**
+     * Smallest score one component must reach for the weighted sum to reach
+     * {@code minUseful}, given the most the other component can contribute.
+     * A value above 1.0 means the sum cannot get there; when the component
+     * has no weight there is nothing to gain from bounding it.
+     */
+    private static double floor(double minUseful, double otherContribution, double weight) {
+        if (weight <= 0.0)
+            return 0.0;
+        return (minUseful - otherContribution) / weight;
+    }
 }
@@ -0,0 +1,102 @@
+package nik.kalomiris.review_service.similarity;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 64-bit fingerprints of review text.
+ *
+ * - {@link #fingerprint(String)}: hash of the sequence of all words (lower-cased
+ * letter/digit runs, stop words and short words included). Texts that differ
+ * only in case, punctuation or whitespace share a fingerprint, so verbatim
+ * copies are found by an exact lookup. A shared fingerprint is a candidate
+ * only; the scorer still decides whether the texts are duplicates.
+ * - {@link #simHash(String)}: SimHash of the frequencies of the terms produced
+ * by the TF-IDF tokenizer (short tokens and stop words dropped). Texts with
+ * mostly the same terms get hashes within a small Hamming distance.
+ *
+ * Both return null for texts without any word or term, which are never
+ * treated as copies of each other.
+ */
+public final class ContentFingerprint {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ContentFingerprint() {
+    }
+
+    /**
+     * @param text review text, may be null
+     * @return hash of the normalized word sequence, or null if the text has no
+     *         words
+     */
+    public static Long fingerprint(String text) {
+        TermScanner scanner = new TermScanner(text, true);
+        long hash = FNV_OFFSET_BASIS;
+        boolean empty = true;
+        for (String term = scanner.next(); term != null; term = scanner.next()) {
+            if (!empty) {
+                // Separator, so that "ab cd" and "abc d" differ
+                hash *= FNV_PRIME;
+            }
+            hash = fnv1a(hash, term);
+            empty = false;
+        }
+        return empty ? null : mix(hash);
+    }
+
+    /**
+     * @param text review text, may be null
+     * @return SimHash of the term frequencies, or null if the text has no terms
+     */
+    public static Long simHash(String text) {
+        TermScanner scanner = new TermScanner(text);
+        Map<String, Integer> counts = new HashMap<>();
+        for (String term = scanner.next(); term != null; term = scanner.next()) {
+            counts.merge(term, 1, Integer::sum);
+        }
+        if (counts.isEmpty())
+            return null;
+
+        int[] votes = new int[Long.SIZE];
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            long termHash = mix(fnv1a(FNV_OFFSET_BASIS, entry.getKey()));
+            int weight = entry.getValue();
+            for (int bit = 0; bit < Long.SIZE; bit++) {
+                votes[bit] += ((termHash >>> bit) & 1L) != 0 ? weight : -weight;
+            }
+        }
+        long simHash = 0L;
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            if (votes[bit] > 0)
+                simHash |= 1L << bit;
+        }
+        return simHash;
+    }
+
+    /**
+     * @return number of differing bits between two hashes
+     */
+    public static int hammingDistance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    private static long fnv1a(long hash, String term) {
+        for (int i = 0; i < term.length(); i++) {
+            hash ^= term.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    // MurmurHash3 finalizer: spreads FNV's weak high bits over the whole word
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
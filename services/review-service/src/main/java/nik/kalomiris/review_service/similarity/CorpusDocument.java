@@ -0,0 +1,62 @@
+package nik.kalomiris.review_service.similarity;
+
+import java.util.Objects;
+
+/**
+ * A review held in a {@link ProductCorpus}: its id, raw comment text, the
+ * pre-tokenized {@link TermVector} of that text and its
+ * {@link ContentFingerprint}s.
+ *
+ * Instances are immutable; updating a review replaces its document.
+ */
+public final class CorpusDocument {
+
+    private final Long reviewId;
+    private final String text;
+    private final TermVector vector;
+    private final long sequence;
+    private final Long fingerprint;
+    private final Long simHash;
+
+    CorpusDocument(Long reviewId, String text, TermVector vector, long sequence, Long fingerprint, Long simHash) {
+        this.reviewId = Objects.requireNonNull(reviewId, "reviewId");
+        this.text = Objects.requireNonNull(text, "text");
+        this.vector = Objects.requireNonNull(vector, "vector");
+        this.sequence = sequence;
+        this.fingerprint = fingerprint;
+        this.simHash = simHash;
+    }
+
+    public Long getReviewId() {
+        return reviewId;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public TermVector getVector() {
+        return vector;
+    }
+
+    /**
+     * @return normalized text fingerprint, or null if the text has no words
+     */
+    public Long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return SimHash of the text, or null if the text has no terms
+     */
+    public Long getSimHash() {
+        return simHash;
+    }
+
+    /**
+     * Position of the review in its corpus' insertion order.
+     */
+    long getSequence() {
+        return sequence;
+    }
+}
@@ -0,0 +1,48 @@
+package nik.kalomiris.review_service.similarity;
+
+/**
+ * A text that is about to be compared against a {@link ProductCorpus},
+ * tokenized once by {@link ProductCorpus#query(String)}.
+ *
+ * The same instance is used to look up candidates in the corpus and to
+ * prepare the {@link QueryScorer}, so the query is never tokenized twice. It
+ * also carries the corpus' {@link CorpusStatistics} so calculators can weight
+ * terms by how common they are across the whole product.
+ */
+public final class CorpusQuery {
+
+    private final String text;
+    private final TermVector vector;
+    private final CorpusStatistics statistics;
+
+    CorpusQuery(String text, TermVector vector, CorpusStatistics statistics) {
+        this.text = text;
+        this.vector = vector;
+        this.statistics = statistics;
+    }
+
+    /**
+     * @return the raw query text (never null)
+     */
+    public String getText() {
+        return text;
+    }
+
+    public TermVector getVector() {
+        return vector;
+    }
+
+    /**
+     * @return document frequencies of the corpus the query was created for
+     */
+    public CorpusStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return true if the query has at least one indexable term
+     */
+    public boolean hasTerms() {
+        return !vector.isEmpty();
+    }
+}
@@ -0,0 +1,92 @@
+package nik.kalomiris.review_service.similarity;
+
+import java.util.Arrays;
+
+/**
+ * Snapshot of the document frequencies of a {@link ProductCorpus}, taken when
+ * a {@link CorpusQuery} is created.
+ *
+ * The query itself is counted as one of the documents, so every query term
+ * has a document frequency of at least one and a corpus holding a single
+ * other review yields the same statistics as a pairwise comparison.
+ *
+ * Frequencies are indexed by the term ids of the corpus' {@link TermDictionary}
+ * and stored in blocks of {@link #BLOCK_SIZE} ids. The corpus copies a block
+ * before writing it if a snapshot may share it, so a snapshot only copies the
+ * table of blocks, not every frequency. Query terms unknown to the dictionary
+ * (negative ids) have no block; their frequency is the query's own.
+ *
+ * Instances are immutable and safe to share between threads.
+ */
+public final class CorpusStatistics {
+
+    static final int BLOCK_SHIFT = 8;
+    static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+    private final int documentCount;
+    private final int[][] frequencyBlocks;
+    private final int[] queryTermIds;
+    private final boolean countsQuery;
+
+    /**
+     * @param documentCount   number of documents, including the query if it is
+     *                        counted
+     * @param frequencyBlocks blocks of the indexed documents' frequencies,
+     *                        never written after the snapshot (not copied)
+     * @param queryTermIds    term ids of the query, in ascending order
+     * @param countsQuery     true if the query is not one of the indexed
+     *                        documents and is counted on top of them
+     */
+    CorpusStatistics(int documentCount, int[][] frequencyBlocks, int[] queryTermIds, boolean countsQuery) {
+        this.documentCount = documentCount;
+        this.frequencyBlocks = frequencyBlocks;
+        this.queryTermIds = queryTermIds;
+        this.countsQuery = countsQuery;
+    }
+
+    /**
+     * @param documentCount     number of documents, including the query
+     * @param documentFrequency term id -> frequency among the other documents
+     * @param queryTermIds      term ids of the query, in ascending order
+     * @return statistics counting the query on top of the given frequencies
+     */
+    static CorpusStatistics of(int documentCount, int[] documentFrequency, int[] queryTermIds) {
+        int[][] blocks = new int[(documentFrequency.length + BLOCK_MASK) >>> BLOCK_SHIFT][];
+        for (int block = 0; block < blocks.length; block++) {
+            int from = block << BLOCK_SHIFT;
+            blocks[block] = Arrays.copyOfRange(documentFrequency, from, from + BLOCK_SIZE);
+        }
+        return new CorpusStatistics(documentCount, blocks, queryTermIds, true);
+    }
+
+    /**
+     * @return number of documents, including the query
+     */
+    public int getDocumentCount() {
+        return documentCount;
+    }
+
+    /**
+     * @param termId id of a term
+     * @return number of documents containing the term
+     */
+    public int documentFrequency(int termId) {
+        int frequency = indexedFrequency(termId);
+        if (countsQuery && Arrays.binarySearch(queryTermIds, termId) >= 0)
+            frequency++;
+        return frequency;
+    }
+
+    /**
+     * @param termId id of a term
+     * @return number of indexed documents containing the term, leaving the
+     *         query out
+     */
+    int indexedFrequency(int termId) {
+        if (termId < 0)
+            return 0;
+        int block = termId >>> BLOCK_SHIFT;
+        return block < frequencyBlocks.length ? frequencyBlocks[block][termId & BLOCK_MASK] : 0;
+    }
+}
@@ -6,9 +6,21 @@ package nik.kalomiris.review_service.similarity;
  * Implements a normalized similarity based on the Levenshtein edit distance:
  * similarity = 1 - (distance / maxLen) where maxLen is the length of the
  * longer string. Returns 1.0 for two empty strings.
+ *
+ * The distance is computed with Ukkonen's banded DP: when a minimum useful
+ * similarity is known, only the diagonal band of cells that can still stay
+ * within the corresponding edit budget is filled, and the computation stops as
+ * soon as a whole row exceeds the budget. DP rows are kept in per-thread
+ * scratch buffers so repeated comparisons do not allocate.
  */
 public class LevenshteinSimilarityCalculator implements SimilarityCalculator {
 
+    // Two DP rows per thread, grown on demand and reused across calls.
+    private static final ThreadLocal<int[][]> SCRATCH = ThreadLocal.withInitial(() -> new int[2][64]);
+
+    // Absorbs rounding when turning a similarity floor into an edit budget.
+    private static final double BUDGET_EPSILON = 1e-9;
+
     public LevenshteinSimilarityCalculator() {
         // Stateless calculator - constructor intentionally empty to allow
         // simple DI and unit testing.
@@ -21,6 +33,11 @@ public class LevenshteinSimilarityCalculator implements SimilarityCalculator {
 
     @Override
     public double similarity(String a, String b) {
+        return similarity(a, b, 0.0);
+    }
+
+    @Override
+    public double similarity(String a, String b, double minUseful) {
         if (a == null)
             a = "";
         if (b == null)
@@ -29,38 +46,118 @@ public class LevenshteinSimilarityCalculator implements SimilarityCalculator {
         if (a.equals(b))
             return 1.0;
 
-        int dist = levenshteinDistance(a, b);
         int maxLen = Math.max(a.length(), b.length());
-        double raw = (maxLen == 0) ? 1.0 : 1.0 - ((double) dist / (double) maxLen);
+        int budget = maxLen;
+        if (minUseful > 0.0) {
+            budget = (int) Math.floor((1.0 - minUseful) * maxLen + BUDGET_EPSILON);
+            if (budget < 0)
+                return 0.0;
+        }
+
+        int dist = boundedDistance(a, b, budget);
+        if (dist > budget)
+            return 0.0;
+        double raw = 1.0 - ((double) dist / (double) maxLen);
         return SimilarityCalculator.clamp(raw);
     }
 
-    // Classic iterative DP Levenshtein distance. Suitable for small strings.
-    private int levenshteinDistance(String s, String t) {
+    @Override
+    public QueryScorer prepare(CorpusQuery query) {
+        String queryText = query.getText();
+        return new QueryScorer() {
+            @Override
+            public double score(CorpusDocument document) {
+                return similarity(queryText, document.getText());
+            }
+
+            @Override
+            public double score(CorpusDocument document, double minUseful) {
+                return similarity(queryText, document.getText(), minUseful);
+            }
+
+            @Override
+            public double upperBound(CorpusDocument document) {
+                // At least |n - m| insertions or deletions are always needed
+                return lengthUpperBound(queryText, document.getText());
+            }
+        };
+    }
+
+    /**
+     * @return the similarity reached if the shorter text were a prefix of the
+     *         longer one; no pair of these lengths can score higher
+     */
+    static double lengthUpperBound(String a, String b) {
+        int maxLen = Math.max(a.length(), b.length());
+        if (maxLen == 0)
+            return 1.0;
+        return 1.0 - ((double) Math.abs(a.length() - b.length()) / (double) maxLen);
+    }
+
+    /**
+     * Banded Levenshtein distance.
+     *
+     * @param budget maximum distance of interest
+     * @return the exact distance if it is at most {@code budget}, otherwise
+     *         {@code budget + 1}
+     */
+    int boundedDistance(String s, String t, int budget) {
         int n = s.length();
         int m = t.length();
+        int exceeded = budget + 1;
+        if (Math.abs(n - m) > budget)
+            return exceeded;
         if (n == 0)
             return m;
         if (m == 0)
             return n;
 
-        int[] prev = new int[m + 1];
-        int[] curr = new int[m + 1];
+        int[][] rows = scratch(m + 1);
+        int[] prev = rows[0];
+        int[] curr = rows[1];
 
-        for (int j = 0; j <= m; j++)
+        int firstRowEnd = Math.min(m, budget);
+        for (int j = 0; j <= firstRowEnd; j++)
             prev[j] = j;
+        if (firstRowEnd < m)
+            prev[firstRowEnd + 1] = exceeded;
 
         for (int i = 1; i <= n; i++) {
-            curr[0] = i;
+            // Only cells with |i - j| <= budget can lie on a path within budget
+            int from = Math.max(1, i - budget);
+            int to = Math.min(m, i + budget);
+            curr[from - 1] = (from == 1) ? Math.min(i, exceeded) : exceeded;
+            int rowMin = curr[from - 1];
             char si = s.charAt(i - 1);
-            for (int j = 1; j <= m; j++) {
+            for (int j = from; j <= to; j++) {
                 int cost = (si == t.charAt(j - 1)) ? 0 : 1;
-                curr[j] = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                int value = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                if (value > exceeded)
+                    value = exceeded;
+                curr[j] = value;
+                if (value < rowMin)
+                    rowMin = value;
             }
+            if (to < m)
+                curr[to + 1] = exceeded;
+            // Distances never decrease along a path, so the final cell cannot
+            // beat the best cell of any row.
+            if (rowMin > budget)
+                return exceeded;
             int[] tmp = prev;
             prev = curr;
             curr = tmp;
         }
         return prev[m];
     }
+
+    private static int[][] scratch(int size) {
+        int[][] rows = SCRATCH.get();
+        if (rows[0].length < size) {
+            int capacity = Math.max(size, rows[0].length * 2);
+            rows = new int[][] { new int[capacity], new int[capacity] };
+            SCRATCH.set(rows);
+        }
+        return rows;
+    }
 }
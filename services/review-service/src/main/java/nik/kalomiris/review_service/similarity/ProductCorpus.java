@@ -0,0 +1,522 @@
+package nik.kalomiris.review_service.similarity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory index of the reviews of a single product.
+ *
+ * Each review comment is tokenized once when it is added and kept as a
+ * {@link CorpusDocument} holding its {@link TermVector}. Terms are interned in
+ * a {@link TermDictionary} owned by the corpus, so vectors, document
+ * frequencies and postings are all keyed by int term ids. The corpus keeps
+ * document frequencies for every term so corpus-level statistics are available
+ * without another pass over the documents, and an inverted index (term to
+ * review ids) so {@link #candidates(CorpusQuery)} can return the reviews that
+ * share vocabulary with a query without visiting the others.
+ *
+ * Queries created by {@link #query(Long, String)} carry a snapshot of these
+ * frequencies, so calculators can compute corpus-level IDF once per query.
+ * Queries only look their terms up in the dictionary, so their vocabulary is
+ * not retained, and the frequencies are kept in copy-on-write blocks (see
+ * {@link CorpusStatistics}), so a snapshot does not copy all of them.
+ * Documents are also indexed by {@link ContentFingerprint} so copies of a text
+ * are found without scoring.
+ *
+ * The index is updated incrementally through {@link #put(Long, String)} and
+ * {@link #remove(Long)}; documents are kept in insertion order so evaluation
+ * results are deterministic. Reviews without a comment are not indexed, as they
+ * are never compared. Results computed against the corpus can be reused by
+ * comparing {@link #getGeneration()}, which changes whenever a document is
+ * replaced or removed, and scoring only the documents added after
+ * {@link #getAppendMark()}.
+ *
+ * Thread-safe: readers take a snapshot via {@link #documents()} while writers
+ * hold an exclusive lock only for the map updates (tokenization happens
+ * outside the lock). Reviews put or removed by other threads while the corpus
+ * is being loaded are not overwritten by the loader, which may have read them
+ * before the change.
+ */
+public final class ProductCorpus {
+
+    // Tokenization rules are owned by the TF-IDF calculator; it is stateless.
+    private static final TfidfCosineSimilarityCalculator VECTORIZER = new TfidfCosineSimilarityCalculator();
+
+    // Shared so that generations never repeat across corpus instances (e.g. a
+    // product evicted from the index and loaded again)
+    private static final AtomicLong GENERATIONS = new AtomicLong();
+
+    private final Long productId;
+    private final TermDictionary dictionary = new TermDictionary();
+    private final Map<Long, CorpusDocument> documents = new LinkedHashMap<>();
+    // Document frequencies in blocks of CorpusStatistics.BLOCK_SIZE term ids,
+    // with the snapshot epoch in which each block was last copied: a block
+    // copied before the latest snapshot may be shared and is copied on write
+    private int[][] frequencyBlocks = new int[0][];
+    private long[] blockEpochs = new long[0];
+    private final AtomicLong snapshotEpoch = new AtomicLong();
+    // Indexed by term id
+    private final List<Set<Long>> postings = new ArrayList<>();
+    // Fingerprint to review ids, in insertion order
+    private final Map<Long, Set<Long>> fingerprints = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long nextSequence;
+    private long generation = GENERATIONS.incrementAndGet();
+    private volatile boolean loaded;
+    private volatile long loadedAt;
+    // While loading: the loading thread and the reviews changed by others
+    private Thread loadingThread;
+    private final Set<Long> changedWhileLoading = new HashSet<>();
+
+    public ProductCorpus(Long productId) {
+        this.productId = productId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    /**
+     * Add or replace the document for a review. A null or empty text removes
+     * the review from the corpus. Re-putting unchanged text is a no-op.
+     *
+     * @param reviewId id of the review
+     * @param text     review comment
+     */
+    public void put(Long reviewId, String text) {
+        if (reviewId == null)
+            return;
+        if (text == null || text.isEmpty()) {
+            remove(reviewId);
+            return;
+        }
+
+        lock.readLock().lock();
+        try {
+            CorpusDocument current = documents.get(reviewId);
+            if (current != null && current.getText().equals(text))
+                return;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        TermVector vector = VECTORIZER.vectorize(text, dictionary);
+        Long fingerprint = ContentFingerprint.fingerprint(text);
+        Long simHash = ContentFingerprint.simHash(text);
+
+        lock.writeLock().lock();
+        try {
+            if (!recordChange(reviewId))
+                return;
+            CorpusDocument previous = documents.get(reviewId);
+            // An updated review keeps its position, like the backing LinkedHashMap
+            long sequence = previous != null ? previous.getSequence() : nextSequence++;
+            if (previous != null) {
+                unindex(previous);
+                generation = GENERATIONS.incrementAndGet();
+            }
+            CorpusDocument document = new CorpusDocument(reviewId, text, vector, sequence, fingerprint, simHash);
+            documents.put(reviewId, document);
+            int[] termIds = vector.termIds();
+            ensureCapacity(termIds);
+            for (int termId : termIds) {
+                addFrequency(termId, 1);
+                Set<Long> reviewIds = postings.get(termId);
+                if (reviewIds == null) {
+                    reviewIds = new HashSet<>();
+                    postings.set(termId, reviewIds);
+                }
+                reviewIds.add(reviewId);
+            }
+            if (fingerprint != null)
+                fingerprints.computeIfAbsent(fingerprint, f -> new LinkedHashSet<>()).add(reviewId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a review from the corpus.
+     *
+     * @param reviewId id of the review
+     * @return true if the review was indexed
+     */
+    public boolean remove(Long reviewId) {
+        if (reviewId == null)
+            return false;
+        lock.writeLock().lock();
+        try {
+            if (!recordChange(reviewId))
+                return false;
+            CorpusDocument previous = documents.remove(reviewId);
+            if (previous == null)
+                return false;
+            unindex(previous);
+            generation = GENERATIONS.incrementAndGet();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return snapshot of the indexed documents in insertion order
+     */
+    public List<CorpusDocument> documents() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(documents.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param reviewId id of a review
+     * @return the review's document, or null if it is not indexed
+     */
+    public CorpusDocument document(Long reviewId) {
+        lock.readLock().lock();
+        try {
+            return documents.get(reviewId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Look up an indexed review whose normalized text is identical, in
+     * constant time.
+     *
+     * @param reviewId    review to exclude (the queried review itself), may be
+     *                    null
+     * @param fingerprint {@link ContentFingerprint#fingerprint(String)} of the
+     *                    queried text
+     * @return id of the earliest such review, or null
+     */
+    public Long findExactDuplicate(Long reviewId, Long fingerprint) {
+        if (fingerprint == null)
+            return null;
+        lock.readLock().lock();
+        try {
+            Set<Long> reviewIds = fingerprints.get(fingerprint);
+            if (reviewIds == null)
+                return null;
+            for (Long candidate : reviewIds) {
+                if (!candidate.equals(reviewId))
+                    return candidate;
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the indexed reviews whose SimHash is within a Hamming distance of
+     * the queried one. Cost is one XOR and bit count per document.
+     *
+     * @param reviewId    review to exclude (the queried review itself), may be
+     *                    null
+     * @param simHash     {@link ContentFingerprint#simHash(String)} of the
+     *                    queried text
+     * @param maxDistance maximum number of differing bits
+     * @return matching documents in insertion order
+     */
+    public List<CorpusDocument> findNearDuplicates(Long reviewId, Long simHash, int maxDistance) {
+        List<CorpusDocument> matches = new ArrayList<>();
+        if (simHash == null)
+            return matches;
+        lock.readLock().lock();
+        try {
+            for (CorpusDocument document : documents.values()) {
+                Long other = document.getSimHash();
+                if (other != null && !document.getReviewId().equals(reviewId)
+                        && ContentFingerprint.hammingDistance(simHash, other) <= maxDistance)
+                    matches.add(document);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches;
+    }
+
+    /**
+     * @param mark value of {@link #getAppendMark()} taken earlier
+     * @return snapshot of the documents added since the mark, in insertion
+     *         order
+     */
+    public List<CorpusDocument> documentsAddedSince(long mark) {
+        List<CorpusDocument> added = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (CorpusDocument document : documents.values()) {
+                if (document.getSequence() >= mark)
+                    added.add(document);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return added;
+    }
+
+    /**
+     * Position the next added document will take; documents added later are
+     * returned by {@link #documentsAddedSince(long)}.
+     */
+    public long getAppendMark() {
+        lock.readLock().lock();
+        try {
+            return nextSequence;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Identifies the current set of indexed documents, ignoring additions: it
+     * changes whenever a document is replaced or removed, and is never shared
+     * with another corpus instance.
+     */
+    public long getGeneration() {
+        lock.readLock().lock();
+        try {
+            return generation;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tokenize a text for comparison against this corpus.
+     *
+     * @param text query text (null is treated as "")
+     * @return the tokenized query
+     */
+    public CorpusQuery query(String text) {
+        return query(null, text);
+    }
+
+    /**
+     * Tokenize a review's text for comparison against this corpus and snapshot
+     * the corpus statistics with the query counted as a document.
+     *
+     * @param reviewId id of the queried review, may be null; if the review is
+     *                 already indexed it is not counted twice
+     * @param text     query text (null is treated as "")
+     * @return the tokenized query
+     */
+    public CorpusQuery query(Long reviewId, String text) {
+        String queryText = text == null ? "" : text;
+        TermVector vector = VECTORIZER.vectorizeQuery(queryText, dictionary);
+        CorpusStatistics statistics;
+        lock.readLock().lock();
+        try {
+            boolean countsQuery = reviewId == null || !documents.containsKey(reviewId);
+            // Blocks written from now on are copied first
+            snapshotEpoch.incrementAndGet();
+            statistics = new CorpusStatistics(documents.size() + (countsQuery ? 1 : 0),
+                    frequencyBlocks.clone(), vector.termIds(), countsQuery);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new CorpusQuery(queryText, vector, statistics);
+    }
+
+    /**
+     * Look up the documents sharing at least one term with the query through
+     * the inverted index. Cost is proportional to the posting lists of the
+     * query terms, not to the size of the corpus.
+     *
+     * @param query tokenized query
+     * @return matching documents in insertion order
+     */
+    public List<CorpusDocument> candidates(CorpusQuery query) {
+        Map<Long, CorpusDocument> matches = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (int termId : query.getVector().termIds()) {
+                // Terms new to the corpus have negative ids and no postings
+                Set<Long> reviewIds = termId >= 0 && termId < postings.size() ? postings.get(termId) : null;
+                if (reviewIds == null)
+                    continue;
+                for (Long reviewId : reviewIds) {
+                    matches.computeIfAbsent(reviewId, documents::get);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<CorpusDocument> result = new ArrayList<>(matches.values());
+        result.sort(Comparator.comparingLong(CorpusDocument::getSequence));
+        return result;
+    }
+
+    /**
+     * @param reviewId id of a review
+     * @return true if the review is indexed
+     */
+    public boolean contains(Long reviewId) {
+        lock.readLock().lock();
+        try {
+            return documents.containsKey(reviewId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param term a term
+     * @return number of indexed documents containing the term
+     */
+    public int documentFrequency(String term) {
+        int termId = dictionary.find(term);
+        if (termId < 0)
+            return 0;
+        lock.readLock().lock();
+        try {
+            int block = termId >>> CorpusStatistics.BLOCK_SHIFT;
+            return block < frequencyBlocks.length ? frequencyBlocks[block][termId & CorpusStatistics.BLOCK_MASK] : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of indexed documents
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Populate the corpus once using the given loader. Concurrent callers wait
+     * for the first load to finish; a failed load is retried on the next call.
+     *
+     * @param loader populates the corpus through {@link #put(Long, String)}
+     * @param now    current time in nanoseconds, recorded as the load time
+     */
+    void loadIfNecessary(Consumer<ProductCorpus> loader, long now) {
+        if (loaded)
+            return;
+        synchronized (this) {
+            if (loaded)
+                return;
+            lock.writeLock().lock();
+            try {
+                loadingThread = Thread.currentThread();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                loader.accept(this);
+                loadedAt = now;
+                loaded = true;
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    loadingThread = null;
+                    changedWhileLoading.clear();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return time in nanoseconds at which the load started, meaningful once
+     *         loaded
+     */
+    long getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * @return true once the corpus has been loaded
+     */
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    // Called with the write lock held. While loading, changes made by other
+    // threads are recorded and win over what the loader read.
+    private boolean recordChange(Long reviewId) {
+        if (loadingThread == null)
+            return true;
+        if (loadingThread != Thread.currentThread()) {
+            changedWhileLoading.add(reviewId);
+            return true;
+        }
+        return !changedWhileLoading.contains(reviewId);
+    }
+
+    private void unindex(CorpusDocument document) {
+        Long reviewId = document.getReviewId();
+        for (int termId : document.getVector().termIds()) {
+            addFrequency(termId, -1);
+            Set<Long> reviewIds = postings.get(termId);
+            if (reviewIds != null) {
+                reviewIds.remove(reviewId);
+                if (reviewIds.isEmpty())
+                    postings.set(termId, null);
+            }
+        }
+        Long fingerprint = document.getFingerprint();
+        if (fingerprint != null) {
+            Set<Long> reviewIds = fingerprints.get(fingerprint);
+            if (reviewIds != null) {
+                reviewIds.remove(reviewId);
+                if (reviewIds.isEmpty())
+                    fingerprints.remove(fingerprint);
+            }
+        }
+    }
+
+    // Called with the write lock held, so no snapshot is taken meanwhile.
+    private void addFrequency(int termId, int delta) {
+        int block = termId >>> CorpusStatistics.BLOCK_SHIFT;
+        long epoch = snapshotEpoch.get();
+        if (blockEpochs[block] != epoch) {
+            frequencyBlocks[block] = frequencyBlocks[block].clone();
+            blockEpochs[block] = epoch;
+        }
+        frequencyBlocks[block][termId & CorpusStatistics.BLOCK_MASK] += delta;
+    }
+
+    // Grow the per-term structures to cover the given (ascending) term ids.
+    private void ensureCapacity(int[] termIds) {
+        if (termIds.length == 0)
+            return;
+        int required = termIds[termIds.length - 1] + 1;
+        int blocks = (required + CorpusStatistics.BLOCK_MASK) >>> CorpusStatistics.BLOCK_SHIFT;
+        if (blocks > frequencyBlocks.length) {
+            int previous = frequencyBlocks.length;
+            frequencyBlocks = Arrays.copyOf(frequencyBlocks, blocks);
+            blockEpochs = Arrays.copyOf(blockEpochs, blocks);
+            for (int block = previous; block < blocks; block++) {
+                frequencyBlocks[block] = new int[CorpusStatistics.BLOCK_SIZE];
+                blockEpochs[block] = snapshotEpoch.get();
+            }
+        }
+        while (postings.size() < required)
+            postings.add(null);
+    }
+}
@@ -0,0 +1,45 @@
+package nik.kalomiris.review_service.similarity;
+
+/**
+ * Scores one prepared query text against documents of a {@link ProductCorpus}.
+ *
+ * Obtained from {@link SimilarityCalculator#prepare(CorpusQuery)} so that any
+ * per-query work happens once, no matter how many documents the query is
+ * compared with. Implementations must be thread-safe.
+ */
+@FunctionalInterface
+public interface QueryScorer {
+
+    /**
+     * @param document an indexed document
+     * @return similarity between the prepared query and the document, in
+     *         [0.0, 1.0]
+     */
+    double score(CorpusDocument document);
+
+    /**
+     * Threshold-aware variant of {@link #score(CorpusDocument)} with the same
+     * contract as {@link SimilarityCalculator#similarity(String, String, double)}:
+     * the exact score if it is at least {@code minUseful}, otherwise any value
+     * below it.
+     *
+     * @param document  an indexed document
+     * @param minUseful lowest score the caller is interested in
+     * @return the exact score, or a value below {@code minUseful}
+     */
+    default double score(CorpusDocument document, double minUseful) {
+        return score(document);
+    }
+
+    /**
+     * Cheap upper bound on {@link #score(CorpusDocument)}, used to skip the full
+     * score for documents that cannot reach a threshold. The default gives no
+     * bound.
+     *
+     * @param document an indexed document
+     * @return value greater than or equal to the document's score
+     */
+    default double upperBound(CorpusDocument document) {
+        return 1.0;
+    }
+}
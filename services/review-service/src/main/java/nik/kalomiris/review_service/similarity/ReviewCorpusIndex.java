@@ -0,0 +1,140 @@
+package nik.kalomiris.review_service.similarity;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of per-product {@link ProductCorpus} indexes.
+ *
+ * A product's corpus is loaded lazily the first time a review for it is
+ * evaluated and is then kept up to date incrementally via
+ * {@link #put(Long, Long, String)} and {@link #remove(Long, Long)}. Updates for
+ * products that are not loaded are ignored, so only products that actually
+ * receive submissions occupy memory.
+ *
+ * The number of cached products is bounded; the least recently used corpus is
+ * dropped when the bound is exceeded and simply reloaded on its next use.
+ *
+ * Incremental updates only come from writes made by this instance. Reviews
+ * written by other instances reach a corpus when it is reloaded, so a corpus
+ * is reloaded once it is older than the time-to-live; that bounds how long such
+ * a review can be missed.
+ */
+public class ReviewCorpusIndex {
+
+    private final Map<Long, ProductCorpus> corpora;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    /**
+     * @param maxProducts maximum number of product corpora kept in memory
+     */
+    public ReviewCorpusIndex(int maxProducts) {
+        this(maxProducts, null);
+    }
+
+    /**
+     * @param maxProducts maximum number of product corpora kept in memory
+     * @param ttl         how long a loaded corpus is used before it is
+     *                    reloaded, or null to keep it until it is evicted
+     */
+    public ReviewCorpusIndex(int maxProducts, Duration ttl) {
+        this(maxProducts, ttl, System::nanoTime);
+    }
+
+    ReviewCorpusIndex(int maxProducts, Duration ttl, LongSupplier nanoClock) {
+        if (maxProducts < 1)
+            throw new IllegalArgumentException("maxProducts must be at least 1");
+        if (ttl != null && (ttl.isNegative() || ttl.isZero()))
+            throw new IllegalArgumentException("ttl must be positive");
+        this.ttlNanos = ttl != null ? ttl.toNanos() : Long.MAX_VALUE;
+        this.nanoClock = nanoClock;
+        this.corpora = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ProductCorpus> eldest) {
+                return size() > maxProducts;
+            }
+        };
+    }
+
+    /**
+     * Return the corpus for a product, loading it first if needed. A corpus
+     * older than the time-to-live is replaced by a freshly loaded one.
+     *
+     * @param productId product id
+     * @param loader    populates an empty corpus, typically from the database
+     * @return the loaded corpus
+     */
+    public ProductCorpus corpusFor(Long productId, Consumer<ProductCorpus> loader) {
+        ProductCorpus corpus;
+        long now = nanoClock.getAsLong();
+        synchronized (corpora) {
+            corpus = corpora.get(productId);
+            if (corpus == null || isExpired(corpus, now)) {
+                corpus = new ProductCorpus(productId);
+                corpora.put(productId, corpus);
+            }
+        }
+        corpus.loadIfNecessary(loader, now);
+        return corpus;
+    }
+
+    /**
+     * Index a created or updated review if its product is loaded.
+     */
+    public void put(Long productId, Long reviewId, String text) {
+        ProductCorpus corpus = find(productId);
+        if (corpus != null)
+            corpus.put(reviewId, text);
+    }
+
+    /**
+     * Drop a deleted review if its product is loaded.
+     */
+    public void remove(Long productId, Long reviewId) {
+        ProductCorpus corpus = find(productId);
+        if (corpus != null)
+            corpus.remove(reviewId);
+    }
+
+    /**
+     * Forget a product's corpus; it is reloaded on next use.
+     */
+    public void evict(Long productId) {
+        synchronized (corpora) {
+            corpora.remove(productId);
+        }
+    }
+
+    /**
+     * @param productId product id
+     * @return true if the product's corpus is cached
+     */
+    public boolean contains(Long productId) {
+        return find(productId) != null;
+    }
+
+    /**
+     * @return number of products currently cached
+     */
+    public int size() {
+        synchronized (corpora) {
+            return corpora.size();
+        }
+    }
+
+    private boolean isExpired(ProductCorpus corpus, long now) {
+        return corpus.isLoaded() && now - corpus.getLoadedAt() >= ttlNanos;
+    }
+
+    private ProductCorpus find(Long productId) {
+        if (productId == null)
+            return null;
+        synchronized (corpora) {
+            return corpora.get(productId);
+        }
+    }
+}
@@ -31,6 +31,68 @@ public interface SimilarityCalculator {
      */
     double similarity(String a, String b);
 
+    /**
+     * Threshold-aware variant of {@link #similarity(String, String)} for callers
+     * that only care about scores of at least {@code minUseful}, such as the
+     * best score seen so far during an evaluation.
+     *
+     * If the similarity is at least {@code minUseful} it is returned exactly;
+     * otherwise any value below {@code minUseful} may be returned, which lets
+     * implementations abandon the comparison early. The default computes the
+     * exact score.
+     *
+     * @param a         first text
+     * @param b         second text
+     * @param minUseful lowest score the caller is interested in
+     * @return the exact similarity, or a value below {@code minUseful}
+     */
+    default double similarity(String a, String b, double minUseful) {
+        return similarity(a, b);
+    }
+
+    /**
+     * Prepare a query for scoring against many indexed documents.
+     *
+     * The default implementation simply delegates to
+     * {@link #similarity(String, String)} for every document. Calculators that
+     * can reuse the query's or the document's cached {@link TermVector} should
+     * override it. Prepared scores may also use the corpus statistics carried
+     * by the query (e.g. corpus-wide IDF), so they need not match
+     * {@link #similarity(String, String)} for the same two texts; they must
+     * stay within [0.0, 1.0], and be 1.0 for identical texts whenever
+     * {@link #similarity(String, String)} is.
+     *
+     * @param query the tokenized query
+     * @return a thread-safe scorer for the query
+     */
+    default QueryScorer prepare(CorpusQuery query) {
+        return new QueryScorer() {
+            @Override
+            public double score(CorpusDocument document) {
+                return similarity(query.getText(), document.getText());
+            }
+
+            @Override
+            public double score(CorpusDocument document, double minUseful) {
+                return similarity(query.getText(), document.getText(), minUseful);
+            }
+        };
+    }
+
+    /**
+     * Upper bound on the similarity of two texts that share no index term
+     * (given the query has at least one term). Used to skip documents that the
+     * corpus' inverted index does not return as candidates.
+     *
+     * The default of 1.0 means the calculator gives no such guarantee and every
+     * document must be scored.
+     *
+     * @return bound in [0.0, 1.0]
+     */
+    default double disjointUpperBound() {
+        return 1.0;
+    }
+
     /**
      * Convenience default that normalizes nulls to empty strings and clamps the
      * result to the [0.0, 1.0] range. Implementations can call this helper from
@@ -0,0 +1,55 @@
+package nik.kalomiris.review_service.similarity;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps terms to dense int ids so that {@link TermVector}s can be stored as
+ * sorted primitive arrays and compared with a merge over ids instead of
+ * string-keyed map lookups.
+ *
+ * Ids are only meaningful within the dictionary that assigned them: vectors
+ * built against different dictionaries must not be compared. Each
+ * {@link ProductCorpus} owns one, so the vocabulary is released together with
+ * the corpus.
+ *
+ * Thread-safe; lookups of known terms do not lock.
+ */
+public final class TermDictionary {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    /**
+     * @param term a term
+     * @return the id of the term, assigning the next free id if it is new
+     */
+    public int intern(String term) {
+        Integer id = ids.get(term);
+        if (id != null)
+            return id;
+        synchronized (this) {
+            id = ids.get(term);
+            if (id == null) {
+                id = ids.size();
+                ids.put(term, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * @param term a term
+     * @return the id of the term, or -1 if it has never been interned
+     */
+    public int find(String term) {
+        Integer id = ids.get(term);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * @return number of distinct terms; every assigned id is below this value
+     */
+    public int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,88 @@
+package nik.kalomiris.review_service.similarity;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits a text into indexable terms in a single pass over its characters.
+ *
+ * A term is a maximal run of letters and digits (Unicode categories L and N)
+ * of the lower-cased text. Terms shorter than two characters and common
+ * English stop words are skipped, unless every word is asked for. Equivalent
+ * to replacing every run of other characters with a space and splitting on
+ * whitespace, without the regex and the intermediate strings.
+ */
+final class TermScanner {
+
+    // Common English stop words to ignore (minimal set for better similarity)
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from",
+            "has", "he", "in", "is", "it", "its", "of", "on", "that", "the",
+            "to", "was", "will", "with"));
+
+    private static final int MIN_TERM_LENGTH = 2;
+
+    private final String text;
+    private final boolean allWords;
+    private int position;
+
+    TermScanner(String text) {
+        this(text, false);
+    }
+
+    /**
+     * @param allWords true to return every run of letters and digits, short
+     *                 ones and stop words included
+     */
+    TermScanner(String text, boolean allWords) {
+        this.text = text == null ? "" : text.toLowerCase(Locale.ROOT);
+        this.allWords = allWords;
+    }
+
+    /**
+     * @return the next indexable term, or null at the end of the text
+     */
+    String next() {
+        int length = text.length();
+        while (position < length) {
+            // Skip separators
+            int codePoint = text.codePointAt(position);
+            if (!isTermCharacter(codePoint)) {
+                position += Character.charCount(codePoint);
+                continue;
+            }
+
+            int start = position;
+            do {
+                position += Character.charCount(codePoint);
+                if (position >= length)
+                    break;
+                codePoint = text.codePointAt(position);
+            } while (isTermCharacter(codePoint));
+
+            if (!allWords && position - start < MIN_TERM_LENGTH)
+                continue;
+            String term = text.substring(start, position);
+            if (allWords || !STOP_WORDS.contains(term))
+                return term;
+        }
+        return null;
+    }
+
+    private static boolean isTermCharacter(int codePoint) {
+        if (codePoint < 0x80) {
+            // ASCII fast path
+            return (codePoint >= 'a' && codePoint <= 'z')
+                    || (codePoint >= '0' && codePoint <= '9')
+                    || (codePoint >= 'A' && codePoint <= 'Z');
+        }
+        if (Character.isLetter(codePoint))
+            return true;
+        int type = Character.getType(codePoint);
+        return type == Character.DECIMAL_DIGIT_NUMBER
+                || type == Character.LETTER_NUMBER
+                || type == Character.OTHER_NUMBER;
+    }
+}
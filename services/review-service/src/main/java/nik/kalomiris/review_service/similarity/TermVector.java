@@ -0,0 +1,74 @@
+package nik.kalomiris.review_service.similarity;
+
+/**
+ * Pre-tokenized term vector of a single document.
+ *
+ * Holds the log-scaled term frequencies (1 + ln(count)) of the document as a
+ * sparse vector: term ids of a {@link TermDictionary} in ascending order and
+ * the matching weights in a parallel array. Two vectors built against the same
+ * dictionary are compared with a single merge over their ids. The squared L2
+ * norm is cached so repeated comparisons never have to recompute it.
+ *
+ * Instances are immutable and safe to share between threads.
+ */
+public final class TermVector {
+
+    static final TermVector EMPTY = new TermVector(new int[0], new float[0]);
+
+    private final int[] termIds;
+    private final float[] weights;
+    private final double squaredNorm;
+
+    /**
+     * @param termIds term ids in strictly ascending order (not copied)
+     * @param weights log-scaled term frequency of each id (not copied)
+     */
+    TermVector(int[] termIds, float[] weights) {
+        this.termIds = termIds;
+        this.weights = weights;
+        double norm = 0.0;
+        for (float weight : weights) {
+            norm += (double) weight * weight;
+        }
+        this.squaredNorm = norm;
+    }
+
+    /**
+     * @return sum of the squared log-scaled term frequencies
+     */
+    public double getSquaredNorm() {
+        return squaredNorm;
+    }
+
+    /**
+     * @param index position in the vector, below {@link #size()}
+     * @return the term id at that position
+     */
+    public int termId(int index) {
+        return termIds[index];
+    }
+
+    /**
+     * @param index position in the vector, below {@link #size()}
+     * @return the log-scaled frequency of the term at that position
+     */
+    public float weight(int index) {
+        return weights[index];
+    }
+
+    public int size() {
+        return termIds.length;
+    }
+
+    public boolean isEmpty() {
+        return termIds.length == 0;
+    }
+
+    int[] termIds() {
+        return termIds;
+    }
+
+    float[] weights() {
+        return weights;
+    }
+}
@@ -1,14 +1,11 @@
 package nik.kalomiris.review_service.similarity;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
-import java.util.StringTokenizer;
+import java.util.function.ToIntFunction;
 
 /**
  * TF-IDF + Cosine similarity calculator with full IDF computation.
@@ -25,16 +22,31 @@ import java.util.StringTokenizer;
  * - TF-IDF: tf * idf for each term
  * - Similarity: cosine of TF-IDF vectors
  *
+ * {@link #similarity(String, String)} computes IDF over just the two compared
+ * texts. The batch paths, {@link #prepare(CorpusQuery)} and
+ * {@link #scoreAgainst(String, List)}, compute it once over the whole corpus
+ * (plus the query), so terms shared by most reviews of a product carry less
+ * weight than distinctive ones.
+ *
+ * Texts are tokenized by {@link TermScanner} into {@link TermVector}s: sorted
+ * term ids of a {@link TermDictionary} with primitive weights, compared by a
+ * merge over the ids. Scoring a prepared query against an indexed document
+ * allocates nothing.
+ *
  * Performance: O(V) per document where V is vocabulary size.
- * For batch comparisons (1 new vs N existing), precompute IDF once.
+ * For batch comparisons (1 new vs N existing), use {@link #prepare(CorpusQuery)}
+ * against pre-tokenized {@link TermVector}s (see {@link ProductCorpus}) so each
+ * document is tokenized only once.
  */
 public class TfidfCosineSimilarityCalculator implements SimilarityCalculator {
 
-    // Common English stop words to ignore (minimal set for better similarity)
-    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
-            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from",
-            "has", "he", "in", "is", "it", "its", "of", "on", "that", "the",
-            "to", "was", "will", "with"));
+    // Pairwise IDF over the two compared documents: ln(3/3) + 1 = 1 for terms
+    // present in both, ln(3/2) + 1 for terms present in only one of them.
+    private static final double PAIRWISE_UNIQUE_IDF = Math.log(3.0 / 2.0) + 1.0;
+    private static final double PAIRWISE_UNIQUE_IDF_SQUARED = PAIRWISE_UNIQUE_IDF * PAIRWISE_UNIQUE_IDF;
+
+    // Term ids of the text being vectorized, reused per thread.
+    private static final ThreadLocal<int[]> TERM_ID_SCRATCH = ThreadLocal.withInitial(() -> new int[64]);
 
     public TfidfCosineSimilarityCalculator() {
         // Stateless calculator - no initialization needed
@@ -55,161 +67,338 @@ public class TfidfCosineSimilarityCalculator implements SimilarityCalculator {
             return 1.0;
 
         // For pairwise comparison, compute IDF across both documents
-        List<String> docs = Arrays.asList(a, b);
-        Map<String, Double> idf = computeIdf(docs);
-
-        Map<String, Integer> countsA = tokenizeAndCount(a);
-        Map<String, Integer> countsB = tokenizeAndCount(b);
-
-        Map<String, Double> vectorA = tfidfVector(countsA, idf);
-        Map<String, Double> vectorB = tfidfVector(countsB, idf);
-
-        return cosineSimilarity(vectorA, vectorB);
+        TermDictionary dictionary = new TermDictionary();
+        return pairwiseSimilarity(vectorize(a, dictionary), vectorize(b, dictionary));
     }
 
     /**
-     * Tokenize text and count term occurrences.
-     * Applies normalization, stop-word removal, and minimum token length filter.
+     * Scores against corpus documents with corpus-level IDF: the document
+     * frequencies of the query's {@link CorpusStatistics} are turned into IDF
+     * weights once and the query's TF-IDF vector is built once, after which
+     * each document costs a single merge over its cached {@link TermVector}.
      *
-     * @param text input text
-     * @return map of term -> count
+     * Terms common across the product's reviews therefore weigh less than
+     * rare ones. With a single other review in the corpus the statistics are
+     * the pairwise ones and the score matches {@link #similarity(String, String)}.
      */
-    Map<String, Integer> tokenizeAndCount(String text) {
-        Map<String, Integer> counts = new HashMap<>();
-        if (text == null || text.isEmpty())
-            return counts;
-
-        String normalized = normalize(text);
-        StringTokenizer st = new StringTokenizer(normalized);
-
-        while (st.hasMoreTokens()) {
-            String token = st.nextToken();
-
-            // Filter: min length 2, skip stop words
-            if (token.length() < 2 || STOP_WORDS.contains(token)) {
-                continue;
+    @Override
+    public QueryScorer prepare(CorpusQuery query) {
+        CorpusScorer scorer = new CorpusScorer(query.getText(), query.getVector(), query.getStatistics());
+        return new QueryScorer() {
+            @Override
+            public double score(CorpusDocument document) {
+                return scorer.score(document.getText(), document.getVector());
             }
 
-            counts.put(token, counts.getOrDefault(token, 0) + 1);
-        }
-
-        return counts;
+            @Override
+            public double upperBound(CorpusDocument document) {
+                return scorer.upperBound(document.getVector());
+            }
+        };
     }
 
     /**
-     * Compute IDF (inverse document frequency) for all terms in the corpus.
-     * Uses smoothed IDF formula: ln((N + 1) / (df + 1)) + 1
+     * Score one query against a whole corpus in a single batch.
+     *
+     * Document frequencies are computed once over the corpus plus the query,
+     * the query is vectorized once, and every document is then scored in one
+     * pass. Unlike N calls to {@link #similarity(String, String)}, IDF
+     * reflects how common each term is across the corpus.
      *
-     * @param documents collection of document texts
-     * @return map of term -> idf score
+     * @param query  query text (null is treated as "")
+     * @param corpus texts to score the query against (null entries are
+     *               treated as "")
+     * @return one score in [0, 1] per corpus entry, in the same order
      */
-    Map<String, Double> computeIdf(Collection<String> documents) {
-        Map<String, Double> idf = new HashMap<>();
-        if (documents == null || documents.isEmpty())
-            return idf;
-
-        int numDocs = documents.size();
-        Map<String, Integer> documentFrequency = new HashMap<>();
-
-        // Count in how many documents each term appears
-        for (String doc : documents) {
-            Map<String, Integer> counts = tokenizeAndCount(doc);
-            for (String term : counts.keySet()) {
-                documentFrequency.put(term, documentFrequency.getOrDefault(term, 0) + 1);
+    public double[] scoreAgainst(String query, List<String> corpus) {
+        String queryText = query == null ? "" : query;
+        TermDictionary dictionary = new TermDictionary();
+        TermVector queryVector = vectorize(queryText, dictionary);
+        List<TermVector> vectors = new ArrayList<>(corpus.size());
+        for (String text : corpus) {
+            vectors.add(vectorize(text, dictionary));
+        }
+
+        int[] documentFrequency = new int[dictionary.size()];
+        for (TermVector vector : vectors) {
+            for (int termId : vector.termIds()) {
+                documentFrequency[termId]++;
             }
         }
 
-        // Compute IDF: ln((N + 1) / (df + 1)) + 1
-        for (Map.Entry<String, Integer> entry : documentFrequency.entrySet()) {
-            String term = entry.getKey();
-            int df = entry.getValue();
-            double idfScore = Math.log((numDocs + 1.0) / (df + 1.0)) + 1.0;
-            idf.put(term, idfScore);
+        CorpusScorer scorer = new CorpusScorer(queryText, queryVector,
+                CorpusStatistics.of(corpus.size() + 1, documentFrequency, queryVector.termIds()));
+        double[] scores = new double[corpus.size()];
+        for (int i = 0; i < scores.length; i++) {
+            String text = corpus.get(i);
+            scores[i] = scorer.score(text == null ? "" : text, vectors.get(i));
         }
+        return scores;
+    }
 
-        return idf;
+    /**
+     * Documents sharing no term with a non-empty query have a zero dot product.
+     */
+    @Override
+    public double disjointUpperBound() {
+        return 0.0;
     }
 
     /**
-     * Build TF-IDF vector for a document given term counts and IDF map.
-     * TF uses log scaling: 1 + ln(count) for count > 0
+     * Tokenize a text once into a reusable {@link TermVector}.
      *
-     * @param termCounts map of term -> raw count
-     * @param idf        map of term -> idf score
-     * @return map of term -> tfidf weight
+     * @param text       input text (null is treated as "")
+     * @param dictionary dictionary the text's terms are interned in; only
+     *                   vectors of the same dictionary can be compared
+     * @return log-scaled term vector of the text
      */
-    Map<String, Double> tfidfVector(Map<String, Integer> termCounts, Map<String, Double> idf) {
-        Map<String, Double> vector = new HashMap<>();
-
-        for (Map.Entry<String, Integer> entry : termCounts.entrySet()) {
-            String term = entry.getKey();
-            int count = entry.getValue();
-
-            // Log-scaled TF: 1 + ln(count)
-            double tf = 1.0 + Math.log(count);
+    public TermVector vectorize(String text, TermDictionary dictionary) {
+        return vectorize(text, dictionary::intern);
+    }
 
-            // Get IDF (default to 1.0 if term not in IDF map)
-            double idfScore = idf.getOrDefault(term, 1.0);
+    /**
+     * Tokenize a query text against a dictionary without adding its terms to
+     * it, so queries never grow the vocabulary of a corpus.
+     *
+     * Terms the dictionary does not know are given transient negative ids,
+     * one per distinct term of this text. No indexed document carries such an
+     * id, so they only count towards the query's own norm.
+     *
+     * @param text       input text (null is treated as "")
+     * @param dictionary dictionary the known terms are looked up in
+     * @return log-scaled term vector of the text
+     */
+    public TermVector vectorizeQuery(String text, TermDictionary dictionary) {
+        Map<String, Integer> unknownTerms = new HashMap<>();
+        return vectorize(text, term -> {
+            int termId = dictionary.find(term);
+            return termId >= 0 ? termId : unknownTerms.computeIfAbsent(term, t -> -1 - unknownTerms.size());
+        });
+    }
 
-            vector.put(term, tf * idfScore);
+    private TermVector vectorize(String text, ToIntFunction<String> termIdOf) {
+        if (text == null || text.isEmpty())
+            return TermVector.EMPTY;
+
+        int[] buffer = TERM_ID_SCRATCH.get();
+        int count = 0;
+        TermScanner scanner = new TermScanner(text);
+        for (String term = scanner.next(); term != null; term = scanner.next()) {
+            if (count == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                TERM_ID_SCRATCH.set(buffer);
+            }
+            buffer[count++] = termIdOf.applyAsInt(term);
+        }
+        if (count == 0)
+            return TermVector.EMPTY;
+
+        // Sort the ids so equal terms are adjacent, then run-length count them
+        Arrays.sort(buffer, 0, count);
+        int distinct = 1;
+        for (int i = 1; i < count; i++) {
+            if (buffer[i] != buffer[i - 1])
+                distinct++;
         }
 
-        return vector;
+        int[] termIds = new int[distinct];
+        float[] weights = new float[distinct];
+        int slot = 0;
+        int runStart = 0;
+        for (int i = 1; i <= count; i++) {
+            if (i == count || buffer[i] != buffer[runStart]) {
+                termIds[slot] = buffer[runStart];
+                // Log-scaled TF: 1 + ln(count)
+                weights[slot] = (float) (1.0 + Math.log(i - runStart));
+                slot++;
+                runStart = i;
+            }
+        }
+        return new TermVector(termIds, weights);
     }
 
     /**
-     * Compute cosine similarity between two TF-IDF vectors.
+     * Pairwise TF-IDF cosine similarity of two pre-tokenized documents built
+     * against the same {@link TermDictionary}.
+     *
+     * Produces the same score as {@link #similarity(String, String)} on the
+     * underlying texts without building a two-document IDF table: shared terms
+     * have IDF 1, so the dot product only needs the shared terms, and each norm
+     * follows from the cached log-TF norm minus the shared part.
      *
-     * @param v1 first vector
-     * @param v2 second vector
+     * @param a first document vector
+     * @param b second document vector
      * @return cosine similarity in [0, 1]
      */
-    double cosineSimilarity(Map<String, Double> v1, Map<String, Double> v2) {
-        if (v1.isEmpty() && v2.isEmpty())
+    public double pairwiseSimilarity(TermVector a, TermVector b) {
+        if (a.isEmpty() && b.isEmpty())
             return 1.0;
-        if (v1.isEmpty() || v2.isEmpty())
+        if (a.isEmpty() || b.isEmpty())
             return 0.0;
 
+        int[] idsA = a.termIds();
+        int[] idsB = b.termIds();
+        float[] weightsA = a.weights();
+        float[] weightsB = b.weights();
+
         double dotProduct = 0.0;
-        double norm1 = 0.0;
-        double norm2 = 0.0;
-
-        // Compute dot product and norm of v1
-        for (Map.Entry<String, Double> entry : v1.entrySet()) {
-            String term = entry.getKey();
-            double weight1 = entry.getValue();
-            norm1 += weight1 * weight1;
-
-            Double weight2 = v2.get(term);
-            if (weight2 != null) {
-                dotProduct += weight1 * weight2;
+        double sharedA = 0.0;
+        double sharedB = 0.0;
+        int i = 0;
+        int j = 0;
+        while (i < idsA.length && j < idsB.length) {
+            if (idsA[i] == idsB[j]) {
+                double weightA = weightsA[i++];
+                double weightB = weightsB[j++];
+                dotProduct += weightA * weightB;
+                sharedA += weightA * weightA;
+                sharedB += weightB * weightB;
+            } else if (idsA[i] < idsB[j]) {
+                i++;
+            } else {
+                j++;
             }
         }
 
-        // Compute norm of v2
-        for (double weight : v2.values()) {
-            norm2 += weight * weight;
-        }
-
-        double denominator = Math.sqrt(norm1) * Math.sqrt(norm2);
+        double normA = pairwiseSquaredNorm(a.getSquaredNorm(), sharedA);
+        double normB = pairwiseSquaredNorm(b.getSquaredNorm(), sharedB);
+        double denominator = Math.sqrt(normA) * Math.sqrt(normB);
         if (denominator == 0.0)
             return 0.0;
 
-        double raw = dotProduct / denominator;
-        return SimilarityCalculator.clamp(raw);
+        return SimilarityCalculator.clamp(dotProduct / denominator);
+    }
+
+    // Squared TF-IDF norm under pairwise IDF, given the squared log-TF norm of
+    // the whole document and of its shared terms.
+    private static double pairwiseSquaredNorm(double squaredNorm, double sharedSquaredNorm) {
+        return PAIRWISE_UNIQUE_IDF_SQUARED * squaredNorm - (PAIRWISE_UNIQUE_IDF_SQUARED - 1.0) * sharedSquaredNorm;
     }
 
     /**
-     * Normalize text: lowercase and replace non-alphanumeric with spaces.
+     * Query side of a corpus-level comparison: the query's IDF and TF-IDF
+     * weights, computed once. The IDF of the other terms of a document is
+     * derived from the statistics as the document is scored; it only depends
+     * on the document frequency, so the values of the most common (small)
+     * frequencies are tabulated up front.
      *
-     * @param text input text
-     * @return normalized text
+     * The upper bound needs no merge: a document can share at most as many
+     * terms with the query as it has, and by Cauchy-Schwarz the cosine is at
+     * most the norm of the shared query weights over the query norm, so the
+     * largest weights of the query terms known to the corpus bound it.
      */
-    private String normalize(String text) {
-        if (text == null)
-            return "";
-        return text.toLowerCase(Locale.ROOT)
-                .replaceAll("[^\\p{L}\\p{N}]+", " ")
-                .trim();
+    private static final class CorpusScorer {
+
+        private static final int IDF_TABLE_SIZE = 64;
+        // Absorbs rounding differences between the bound and the score
+        private static final double BOUND_SLACK = 1e-9;
+
+        private final String text;
+        private final CorpusStatistics statistics;
+        private final int documentCount;
+        private final double unseenIdf;
+        private final double[] idfByFrequency;
+        private final int[] queryTermIds;
+        private final double[] queryIdf;
+        private final double[] queryWeights;
+        private final double queryNorm;
+        // Sum of the k largest squared weights of the query terms a document
+        // can share (those known to the corpus), for k = 0..number of them
+        private final double[] topSharedSquaredNorm;
+
+        CorpusScorer(String text, TermVector queryVector, CorpusStatistics statistics) {
+            this.text = text;
+            this.statistics = statistics;
+            this.documentCount = statistics.getDocumentCount();
+            // A document indexed after the statistics were taken may carry
+            // terms they do not know about: treat those as unique to it.
+            this.unseenIdf = smoothedIdf(documentCount, 1);
+            this.idfByFrequency = new double[Math.min(documentCount + 1, IDF_TABLE_SIZE)];
+            for (int df = 1; df < idfByFrequency.length; df++) {
+                idfByFrequency[df] = smoothedIdf(documentCount, df);
+            }
+
+            this.queryTermIds = queryVector.termIds();
+            this.queryIdf = new double[queryTermIds.length];
+            this.queryWeights = new double[queryTermIds.length];
+            double norm = 0.0;
+            for (int i = 0; i < queryTermIds.length; i++) {
+                queryIdf[i] = idf(statistics.documentFrequency(queryTermIds[i]));
+                double weight = queryVector.weights()[i] * queryIdf[i];
+                queryWeights[i] = weight;
+                norm += weight * weight;
+            }
+            this.queryNorm = norm;
+
+            double[] shareable = new double[queryTermIds.length];
+            int shareableCount = 0;
+            for (int i = 0; i < queryTermIds.length; i++) {
+                if (queryTermIds[i] >= 0)
+                    shareable[shareableCount++] = queryWeights[i] * queryWeights[i];
+            }
+            Arrays.sort(shareable, 0, shareableCount);
+            this.topSharedSquaredNorm = new double[shareableCount + 1];
+            for (int k = 1; k <= shareableCount; k++) {
+                topSharedSquaredNorm[k] = topSharedSquaredNorm[k - 1] + shareable[shareableCount - k];
+            }
+        }
+
+        double upperBound(TermVector document) {
+            if (queryTermIds.length == 0)
+                return 1.0;
+            if (document.isEmpty())
+                return 0.0;
+            int shareable = topSharedSquaredNorm.length - 1;
+            if (document.size() >= queryTermIds.length && shareable == queryTermIds.length)
+                return 1.0;
+            double shared = topSharedSquaredNorm[Math.min(shareable, document.size())];
+            return Math.min(1.0, Math.sqrt(shared / queryNorm) + BOUND_SLACK);
+        }
+
+        double score(String documentText, TermVector document) {
+            if (text.equals(documentText))
+                return 1.0;
+            if (queryTermIds.length == 0 && document.isEmpty())
+                return 1.0;
+            if (queryTermIds.length == 0 || document.isEmpty())
+                return 0.0;
+
+            int[] termIds = document.termIds();
+            float[] weights = document.weights();
+            double dotProduct = 0.0;
+            double documentNorm = 0.0;
+            int q = 0;
+            for (int i = 0; i < termIds.length; i++) {
+                int termId = termIds[i];
+                while (q < queryTermIds.length && queryTermIds[q] < termId)
+                    q++;
+                double weight;
+                if (q < queryTermIds.length && queryTermIds[q] == termId) {
+                    weight = weights[i] * queryIdf[q];
+                    dotProduct += weight * queryWeights[q];
+                } else {
+                    // Not a query term, so the query is not among its documents
+                    weight = weights[i] * idf(statistics.indexedFrequency(termId));
+                }
+                documentNorm += weight * weight;
+            }
+
+            double denominator = Math.sqrt(queryNorm) * Math.sqrt(documentNorm);
+            if (denominator == 0.0)
+                return 0.0;
+            return SimilarityCalculator.clamp(dotProduct / denominator);
+        }
+
+        private double idf(int documentFrequency) {
+            if (documentFrequency <= 0)
+                return unseenIdf;
+            if (documentFrequency < idfByFrequency.length)
+                return idfByFrequency[documentFrequency];
+            return smoothedIdf(documentCount, documentFrequency);
+        }
+    }
+
+    private static double smoothedIdf(int numDocs, int df) {
+        return Math.log((numDocs + 1.0) / (df + 1.0)) + 1.0;
     }
 }
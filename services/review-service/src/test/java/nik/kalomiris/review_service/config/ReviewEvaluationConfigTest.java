@@ -58,6 +58,25 @@ class ReviewEvaluationConfigTest {
                                 "Max comparisons should be 1000");
         }
 
+        @Test
+        void testParallelThresholdIsBelowMaxComparisons() {
+                assertEquals(500, config.getParallel().getThreshold(),
+                                "Parallel threshold should be 500");
+                assertTrue(config.isParallelThresholdValid(),
+                                "Parallel threshold should not exceed max comparisons");
+        }
+
+        @Test
+        void testUnreachableParallelThresholdIsInvalid() {
+                ReviewEvaluationConfig unreachable = new ReviewEvaluationConfig();
+                unreachable.setMaxComparisons(1000);
+                unreachable.getParallel().setThreshold(2000);
+                assertFalse(unreachable.isParallelThresholdValid(),
+                                "Parallel threshold above max comparisons should be invalid");
+                assertFalse(unreachable.isValid(),
+                                "Overall configuration should be invalid");
+        }
+
         @Test
         void testCacheConfiguration() {
                 assertNotNull(config.getCache(), "Cache configuration should not be null");
@@ -0,0 +1,37 @@
+package nik.kalomiris.review_service.evaluation;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the evaluation result cache.
+ */
+class EvaluationCacheTests {
+
+    @Test
+    void textsWithTheSameHashDoNotShareAnEntry() {
+        // Given: two texts of the same length and the same hash code
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        EvaluationCache cache = new EvaluationCache(Duration.ofMinutes(1), 100);
+        EvaluationCache.Entry entry = new EvaluationCache.Entry(3L, 10L, 0.9, 2L, 2);
+
+        // When: a result is cached for one of them
+        cache.put(1L, 0L, "Aa", entry);
+
+        // Then: it is only returned for that text
+        assertSame(entry, cache.get(1L, 0L, "Aa"));
+        assertNull(cache.get(1L, 0L, "BB"));
+    }
+
+    @Test
+    void entriesAreScopedToProductAndGeneration() {
+        EvaluationCache cache = new EvaluationCache(Duration.ofMinutes(1), 100);
+        cache.put(1L, 0L, "Great product", new EvaluationCache.Entry(3L, 10L, 0.9, 2L, 2));
+
+        assertNull(cache.get(2L, 0L, "Great product"));
+        assertNull(cache.get(1L, 1L, "Great product"));
+    }
+}
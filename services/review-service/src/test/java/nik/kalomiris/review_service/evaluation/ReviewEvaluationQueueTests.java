@@ -0,0 +1,85 @@
+package nik.kalomiris.review_service.evaluation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the asynchronous evaluation queue.
+ */
+class ReviewEvaluationQueueTests {
+
+    private ReviewEvaluationQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    void queuedReviewsOfAProductAreEvaluatedInBatchesInSubmissionOrder() throws InterruptedException {
+        queue = new ReviewEvaluationQueue(1, 100, 3);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(7);
+        List<List<Long>> batches = Collections.synchronizedList(new ArrayList<>());
+        queue.setHandler((productId, reviewIds) -> {
+            if (productId == 0L) {
+                // Hold the only worker until the product 1 reviews are queued
+                started.countDown();
+                await(release);
+            } else {
+                batches.add(reviewIds);
+            }
+            reviewIds.forEach(id -> done.countDown());
+        });
+
+        assertTrue(queue.submit(0L, 100L));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (long id = 1; id <= 6; id++) {
+            assertTrue(queue.submit(1L, id));
+        }
+        assertEquals(6, queue.getPendingCount());
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(List.of(1L, 2L, 3L), List.of(4L, 5L, 6L)), batches);
+        assertEquals(0, queue.getPendingCount());
+    }
+
+    @Test
+    void submitReturnsFalseWhenTheQueueIsFull() throws InterruptedException {
+        queue = new ReviewEvaluationQueue(1, 2, 10);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        queue.setHandler((productId, reviewIds) -> {
+            started.countDown();
+            await(release);
+        });
+
+        // The first review is taken by the worker, the next two fill the queue
+        assertTrue(queue.submit(1L, 1L));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(queue.submit(1L, 2L));
+        assertTrue(queue.submit(2L, 3L));
+        assertFalse(queue.submit(3L, 4L));
+        release.countDown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -4,13 +4,19 @@ import nik.kalomiris.logging_client.LogPublisher;
 import nik.kalomiris.review_service.config.ReviewEvaluationConfig;
 import nik.kalomiris.review_service.review.Review;
 import nik.kalomiris.review_service.review.ReviewStatus;
+import nik.kalomiris.review_service.similarity.CompositeSimilarityCalculator;
 import nik.kalomiris.review_service.similarity.EvaluationResult;
+import nik.kalomiris.review_service.similarity.LevenshteinSimilarityCalculator;
+import nik.kalomiris.review_service.similarity.ProductCorpus;
 import nik.kalomiris.review_service.similarity.SimilarityCalculator;
+import nik.kalomiris.review_service.similarity.TfidfCosineSimilarityCalculator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -31,7 +37,8 @@ import static org.mockito.Mockito.*;
  */
 class ReviewEvaluationServiceTests {
 
-    @Mock
+    // Real default methods (e.g. prepare) delegate to the stubbed similarity()
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
     private SimilarityCalculator similarityCalculator;
 
     @Mock
@@ -130,7 +137,7 @@ class ReviewEvaluationServiceTests {
     void evaluateWithHighSimilarity_returnsRejected() {
         // Given: high similarity (>= 0.85)
         Review newReview = createReview(1L, "Excellent product");
-        Review existing = createReview(2L, "Excellent product");
+        Review existing = createReview(2L, "Excellent product overall");
         when(similarityCalculator.similarity(anyString(), anyString())).thenReturn(0.95);
 
         // When
@@ -251,6 +258,232 @@ class ReviewEvaluationServiceTests {
         assertEquals(ReviewStatus.FOR_MODERATION, result.getStatus());
     }
 
+    @Test
+    void evaluateAgainstCorpusSkipsTheReviewItself() {
+        // Given: a corpus that already contains the saved review
+        Review newReview = createReview(1L, "Test review");
+        ProductCorpus corpus = new ProductCorpus(1L);
+        corpus.put(1L, "Test review");
+        corpus.put(2L, "Other review");
+        when(similarityCalculator.similarity(anyString(), anyString())).thenReturn(0.4);
+
+        // When
+        EvaluationResult result = service.evaluate(newReview, corpus);
+
+        // Then: only review 2 is compared
+        verify(similarityCalculator, times(1)).similarity("Test review", "Other review");
+        assertEquals(2L, result.getMostSimilarReviewId());
+        assertEquals(ReviewStatus.APPROVED, result.getStatus());
+    }
+
+    @Test
+    void evaluateScoresOnlyCandidatesThatCanReachApprovedThreshold() {
+        // Given: texts sharing no term cannot score above 0.3
+        when(similarityCalculator.disjointUpperBound()).thenReturn(0.3);
+        when(similarityCalculator.similarity(anyString(), anyString())).thenReturn(0.7);
+        Review newReview = createReview(1L, "battery life is great");
+        Review unrelated = createReview(2L, "shipping was slow");
+        Review related = createReview(3L, "great battery");
+
+        // When
+        EvaluationResult result = service.evaluate(newReview, List.of(unrelated, related));
+
+        // Then: the review without shared vocabulary is never scored
+        verify(similarityCalculator, never()).similarity(anyString(), eq("shipping was slow"));
+        verify(similarityCalculator).similarity("battery life is great", "great battery");
+        assertEquals(3L, result.getMostSimilarReviewId());
+        assertEquals(ReviewStatus.FOR_MODERATION, result.getStatus());
+    }
+
+    @Test
+    void parallelEvaluationMatchesSerialEvaluation() {
+        // Given: a comparison set split across a pool in several leaf chunks
+        SimilarityCalculator realCalculator = new CompositeSimilarityCalculator(
+                new TfidfCosineSimilarityCalculator(), new LevenshteinSimilarityCalculator(), 0.7, 0.3);
+        when(config.getMaxComparisons()).thenReturn(5000);
+        EvaluationPool pool = new EvaluationPool(4, 1);
+        ReviewEvaluationService serialService = new ReviewEvaluationService(realCalculator, config, logPublisher);
+        ReviewEvaluationService parallelService = new ReviewEvaluationService(realCalculator, config, logPublisher, pool);
+        String[] words = { "great", "battery", "screen", "shipping", "fast", "value", "quality", "recommend" };
+        List<Review> existing = new ArrayList<>();
+        for (long i = 2; i <= 2000; i++) {
+            existing.add(createReview(i,
+                    words[(int) (i % 8)] + " " + words[(int) (i / 8 % 8)] + " " + words[(int) (i / 64 % 8)] + " review"));
+        }
+        Review newReview = createReview(1L, "great battery and fast shipping");
+
+        try {
+            // When
+            EvaluationResult serial = serialService.evaluate(newReview, existing);
+            EvaluationResult parallel = parallelService.evaluate(newReview, existing);
+
+            // Then: same best match below the moderation threshold
+            assertEquals(serial.getStatus(), parallel.getStatus());
+            assertEquals(serial.getSimilarityScore(), parallel.getSimilarityScore(), 1e-12);
+            assertEquals(serial.getMostSimilarReviewId(), parallel.getMostSimilarReviewId());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void parallelEvaluationStopsOnceModerationThresholdIsReached() {
+        // Given: every review is a near duplicate
+        when(similarityCalculator.similarity(anyString(), anyString())).thenReturn(0.9);
+        EvaluationPool pool = new EvaluationPool(2, 1);
+        ReviewEvaluationService parallelService = new ReviewEvaluationService(similarityCalculator, config, logPublisher, pool);
+        List<Review> existing = new ArrayList<>();
+        for (long i = 2; i <= 1000; i++) {
+            existing.add(createReview(i, "Review number " + i));
+        }
+
+        try {
+            // When
+            EvaluationResult result = parallelService.evaluate(createReview(1L, "New review"), existing);
+
+            // Then: rejected without scoring every chunk to completion
+            assertEquals(ReviewStatus.REJECTED, result.getStatus());
+            assertEquals(0.9, result.getSimilarityScore(), 1e-9);
+            verify(similarityCalculator, atMost(2 * MaxSimilaritySearch.LEAF_SIZE)).similarity(anyString(), anyString());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void cachedEvaluationOnlyScoresReviewsAddedSince() {
+        // Given: a product with two unrelated reviews and an evaluation cache
+        when(similarityCalculator.similarity(anyString(), anyString())).thenReturn(0.2);
+        when(similarityCalculator.similarity("Review text", "Newer review")).thenReturn(0.7);
+        EvaluationCache cache = new EvaluationCache(Duration.ofMinutes(1), 100);
+        ReviewEvaluationService cachedService = new ReviewEvaluationService(similarityCalculator, config,
+                logPublisher, null, cache);
+        ProductCorpus corpus = new ProductCorpus(1L);
+        corpus.put(2L, "Other comment");
+        corpus.put(3L, "Another comment");
+
+        Review review = createReview(10L, "Review text");
+        corpus.put(10L, "Review text");
+        EvaluationResult firstResult = cachedService.evaluate(review, corpus);
+        assertEquals(ReviewStatus.APPROVED, firstResult.getStatus());
+
+        // When: the review is evaluated again after another review was added
+        clearInvocations(similarityCalculator);
+        corpus.put(11L, "Newer review");
+        EvaluationResult secondResult = cachedService.evaluate(review, corpus);
+
+        // Then: only the new review is scored, the others come from the cache
+        assertEquals(ReviewStatus.FOR_MODERATION, secondResult.getStatus());
+        assertEquals(11L, secondResult.getMostSimilarReviewId());
+        verify(similarityCalculator, times(1)).similarity(anyString(), anyString());
+
+        // And: removing a review invalidates the cached results
+        clearInvocations(similarityCalculator);
+        corpus.remove(2L);
+        cachedService.evaluate(review, corpus);
+        verify(similarityCalculator, times(2)).similarity(anyString(), anyString());
+    }
+
+    @Test
+    void evaluateRejectsExactCopiesScoringOnlyTheCopy() {
+        // Given: an existing review with the same normalized text
+        String text = "Amazing product, best purchase ever!";
+        String copy = "amazing product - best purchase EVER";
+        when(similarityCalculator.similarity(text, copy)).thenReturn(0.95);
+        Review newReview = createReview(1L, text);
+        Review existing = createReview(2L, copy);
+        Review other = createReview(3L, "Battery died after a week");
+
+        // When
+        EvaluationResult result = service.evaluate(newReview, List.of(other, existing));
+
+        // Then: rejected as a copy, no other review is scored
+        assertEquals(ReviewStatus.REJECTED, result.getStatus());
+        assertEquals(0.95, result.getSimilarityScore(), 1e-9);
+        assertEquals(2L, result.getMostSimilarReviewId());
+        assertTrue(result.getEvaluationReason().contains("Duplicate"));
+        verify(similarityCalculator, times(1)).similarity(anyString(), anyString());
+    }
+
+    @Test
+    void evaluateScoresCopiesBelowTheModerationThresholdAsUsual() {
+        // Given: a review with the same normalized text that the calculator
+        // does not rate as a duplicate
+        when(similarityCalculator.similarity("Ok!", "ok")).thenReturn(0.3);
+
+        // When
+        EvaluationResult result = service.evaluate(createReview(1L, "Ok!"), List.of(createReview(2L, "ok")));
+
+        // Then: the calculator's score decides, and the copy is scored once
+        assertEquals(ReviewStatus.APPROVED, result.getStatus());
+        assertEquals(0.3, result.getSimilarityScore(), 1e-9);
+        assertEquals(2L, result.getMostSimilarReviewId());
+        verify(similarityCalculator, times(1)).similarity(anyString(), anyString());
+    }
+
+    @Test
+    void evaluateScoresNearCopiesFirst() {
+        // Given: a near copy (SimHash within a few bits) at the end of the corpus
+        when(similarityCalculator.similarity(anyString(), anyString())).thenReturn(0.1);
+        String text = "This blender is amazing, crushes ice in seconds and cleans up easily, would buy again";
+        String nearCopy = "This blender is great, crushes ice in seconds and cleans up easily, would buy again";
+        when(similarityCalculator.similarity(text, nearCopy)).thenReturn(0.9);
+        List<Review> existing = new ArrayList<>();
+        for (long i = 2; i <= 50; i++) {
+            existing.add(createReview(i, "Unrelated comment number " + i));
+        }
+        existing.add(createReview(51L, nearCopy));
+
+        // When
+        EvaluationResult result = service.evaluate(createReview(1L, text), existing);
+
+        // Then: rejected after scoring only the near copy
+        assertEquals(ReviewStatus.REJECTED, result.getStatus());
+        assertEquals(51L, result.getMostSimilarReviewId());
+        verify(similarityCalculator, times(1)).similarity(anyString(), anyString());
+    }
+
+    @Test
+    void evaluateScoresAtMostMaxComparisonsNearCopiesFirst() {
+        // Given: more near copies than max comparisons, none close enough to reject
+        when(config.getMaxComparisons()).thenReturn(2);
+        String text = "This blender is amazing, crushes ice in seconds and cleans up easily, would buy again";
+        String nearCopy = "This blender is great, crushes ice in seconds and cleans up easily, would buy again";
+        when(similarityCalculator.similarity(text, nearCopy)).thenReturn(0.7);
+        List<Review> existing = new ArrayList<>();
+        for (long i = 2; i <= 6; i++) {
+            existing.add(createReview(i, nearCopy));
+        }
+
+        // When
+        EvaluationResult result = service.evaluate(createReview(1L, text), existing);
+
+        // Then: 2 near copies scored first, which exhausts the comparisons
+        assertEquals(ReviewStatus.FOR_MODERATION, result.getStatus());
+        assertTrue(result.getEvaluationReason().contains("compared: 2"));
+        verify(similarityCalculator, times(2)).similarity(anyString(), anyString());
+    }
+
+    @Test
+    void evaluateDoesNotScoreNearCopiesAgain() {
+        // Given: a near copy that is similar but not a duplicate, among others
+        when(similarityCalculator.similarity(anyString(), anyString())).thenReturn(0.1);
+        String text = "This blender is amazing, crushes ice in seconds and cleans up easily, would buy again";
+        String nearCopy = "This blender is great, crushes ice in seconds and cleans up easily, would buy again";
+        when(similarityCalculator.similarity(text, nearCopy)).thenReturn(0.7);
+        List<Review> existing = List.of(createReview(2L, "Unrelated comment"), createReview(3L, nearCopy),
+                createReview(4L, "Another unrelated comment"));
+
+        // When
+        EvaluationResult result = service.evaluate(createReview(1L, text), existing);
+
+        // Then: every review is scored exactly once and the near copy is the match
+        assertEquals(ReviewStatus.FOR_MODERATION, result.getStatus());
+        assertEquals(3L, result.getMostSimilarReviewId());
+        verify(similarityCalculator, times(1)).similarity(text, nearCopy);
+        verify(similarityCalculator, times(3)).similarity(anyString(), anyString());
+    }
+
     // Helper methods
 
     private Review createReview(Long id, String comment) {
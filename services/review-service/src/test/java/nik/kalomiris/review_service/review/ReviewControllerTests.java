@@ -50,6 +50,48 @@ class ReviewControllerTests {
                 .andExpect(jsonPath("$.comment").value("Great product!"));
     }
 
+    @Test
+    void shouldAcceptReviewPendingEvaluation() throws Exception {
+        Review review = new Review();
+        review.setId(1L);
+        review.setProductId(1L);
+        review.setRating(5);
+        review.setComment("Great product!");
+        review.setStatus(ReviewStatus.PENDING);
+
+        Mockito.when(reviewService.createReview(Mockito.any(Review.class))).thenReturn(review);
+
+        mockMvc.perform(post("/api/reviews")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(review)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(1L))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    @Test
+    void shouldGetEvaluationStatus() throws Exception {
+        Review review = new Review();
+        review.setId(1L);
+        review.setProductId(1L);
+        review.setStatus(ReviewStatus.APPROVED);
+        review.setSimilarityScore(0.25);
+        review.setEvaluationReason("Unique content");
+
+        Mockito.when(reviewService.getReviewById(1L)).thenReturn(Optional.of(review));
+        Mockito.when(reviewService.getReviewById(2L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/reviews/1/evaluation"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reviewId").value(1L))
+                .andExpect(jsonPath("$.status").value("APPROVED"))
+                .andExpect(jsonPath("$.pending").value(false))
+                .andExpect(jsonPath("$.similarityScore").value(0.25));
+
+        mockMvc.perform(get("/api/reviews/2/evaluation"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void shouldGetAllReviews() throws Exception {
         Review review1 = new Review();
@@ -0,0 +1,65 @@
+package nik.kalomiris.review_service.review;
+
+import nik.kalomiris.review_service.similarity.ContentFingerprint;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the startup fingerprinting of reviews stored without one.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(ReviewFingerprintBackfill.class)
+class ReviewFingerprintBackfillTests {
+
+    @Autowired
+    private ReviewFingerprintBackfill backfill;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void backfill_fingerprintsReviewsStoredWithoutOne() {
+        // Given: reviews stored before fingerprints existed
+        Review first = persist("Great product!");
+        Review second = persist("Terrible customer service");
+        Review noWords = persist("!!");
+        jdbcTemplate.update("UPDATE reviews SET content_fingerprint = NULL");
+
+        // When: the backfill runs
+        int filled = backfill.backfill();
+
+        // Then: reviews with words get the fingerprint they would get when saved
+        assertEquals(2, filled);
+        assertEquals(ContentFingerprint.fingerprint("Great product!"), fingerprintOf(first));
+        assertEquals(ContentFingerprint.fingerprint("Terrible customer service"), fingerprintOf(second));
+        assertNull(fingerprintOf(noWords));
+
+        // And: a second run has nothing left to do
+        assertEquals(0, backfill.backfill());
+    }
+
+    private Review persist(String comment) {
+        Review review = new Review();
+        review.setProductId(1L);
+        review.setComment(comment);
+        review.setRating(5);
+        review.setStatus(ReviewStatus.APPROVED);
+        return entityManager.persistAndFlush(review);
+    }
+
+    private Long fingerprintOf(Review review) {
+        return jdbcTemplate.queryForObject("SELECT content_fingerprint FROM reviews WHERE id = ?", Long.class,
+                review.getId());
+    }
+}
@@ -220,9 +220,77 @@ class ReviewRepositoryTests {
         assertEquals(2, updated.getDownvotes());
     }
 
+    @Test
+    void claimForEvaluation_letsOneInstanceClaimAPendingReview() {
+        Review pending = entityManager.persistFlushFind(createReview(1L, ReviewStatus.PENDING, "New review", 4));
+        Instant now = Instant.now();
+        Instant staleBefore = now.minusSeconds(600);
+
+        assertEquals(1, reviewRepository.claimForEvaluation(pending.getId(), "instance-a", now, staleBefore));
+        // Claimed recently by another instance, or not PENDING: no claim
+        assertEquals(0, reviewRepository.claimForEvaluation(pending.getId(), "instance-b", now, staleBefore));
+        assertEquals(0, reviewRepository.claimForEvaluation(review1.getId(), "instance-b", now, staleBefore));
+        assertTrue(reviewRepository.findUnclaimedPending(staleBefore).isEmpty());
+        // An abandoned claim may be taken over
+        assertEquals(1, reviewRepository.claimForEvaluation(pending.getId(), "instance-b", now, now.plusSeconds(1)));
+        // The claimant may renew its own claim
+        assertEquals(1, reviewRepository.claimForEvaluation(pending.getId(), "instance-b", now, staleBefore));
+    }
+
+    @Test
+    void completeEvaluation_onlyUpdatesReviewsStillClaimedAndPending() {
+        Review pending = entityManager.persistFlushFind(createReview(1L, ReviewStatus.PENDING, "New review", 4));
+        Instant now = Instant.now();
+        reviewRepository.claimForEvaluation(pending.getId(), "instance-a", now, now.minusSeconds(600));
+
+        // Not the claimant: no update
+        assertEquals(0, reviewRepository.completeEvaluation(pending.getId(), "instance-b", ReviewStatus.APPROVED,
+                0.1, null, "Unique content", now));
+
+        // Moderated in the meantime: the moderation is kept
+        entityManager.clear();
+        Review moderated = reviewRepository.findById(pending.getId()).orElseThrow();
+        moderated.setStatus(ReviewStatus.REJECTED);
+        entityManager.flush();
+        assertEquals(0, reviewRepository.completeEvaluation(pending.getId(), "instance-a", ReviewStatus.APPROVED,
+                0.1, null, "Unique content", now));
+        entityManager.clear();
+        assertEquals(ReviewStatus.REJECTED, reviewRepository.findById(pending.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void completeEvaluation_storesTheResultOfTheClaimant() {
+        Review pending = entityManager.persistFlushFind(createReview(1L, ReviewStatus.PENDING, "New review", 4));
+        Instant now = Instant.now();
+        reviewRepository.claimForEvaluation(pending.getId(), "instance-a", now, now.minusSeconds(600));
+
+        assertEquals(1, reviewRepository.completeEvaluation(pending.getId(), "instance-a", ReviewStatus.FOR_MODERATION,
+                0.8, review1.getId(), "Similar content", now));
+        entityManager.clear();
+
+        Review evaluated = reviewRepository.findById(pending.getId()).orElseThrow();
+        assertEquals(ReviewStatus.FOR_MODERATION, evaluated.getStatus());
+        assertEquals(0.8, evaluated.getSimilarityScore());
+        assertEquals(review1.getId(), evaluated.getMostSimilarReviewId());
+        assertEquals("Similar content", evaluated.getEvaluationReason());
+    }
+
+    @Test
+    void releaseEvaluationClaim_letsAnotherInstanceClaimTheReview() {
+        Review pending = entityManager.persistFlushFind(createReview(1L, ReviewStatus.PENDING, "New review", 4));
+        Instant now = Instant.now();
+        Instant staleBefore = now.minusSeconds(600);
+        reviewRepository.claimForEvaluation(pending.getId(), "instance-a", now, staleBefore);
+
+        assertEquals(0, reviewRepository.releaseEvaluationClaim(pending.getId(), "instance-b"));
+        assertEquals(1, reviewRepository.releaseEvaluationClaim(pending.getId(), "instance-a"));
+        assertEquals(1, reviewRepository.claimForEvaluation(pending.getId(), "instance-b", now, staleBefore));
+    }
+
     /**
      * Helper method to create a test Review entity.
      */
+
     private Review createReview(Long productId, ReviewStatus status, String comment, int rating) {
         Review review = new Review();
         review.setProductId(productId);
@@ -2,8 +2,11 @@ package nik.kalomiris.review_service.review;
 
 import nik.kalomiris.logging_client.LogMessage;
 import nik.kalomiris.logging_client.LogPublisher;
+import nik.kalomiris.review_service.evaluation.ReviewEvaluationQueue;
 import nik.kalomiris.review_service.evaluation.ReviewEvaluationService;
 import nik.kalomiris.review_service.similarity.EvaluationResult;
+import nik.kalomiris.review_service.similarity.ProductCorpus;
+import nik.kalomiris.review_service.similarity.ReviewCorpusIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,6 +17,7 @@ import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -289,6 +293,220 @@ class ReviewServiceTests {
         verify(logPublisher).publish(any(LogMessage.class));
     }
 
+    @Test
+    void createReviewWithCorpusIndexLoadsProductReviewsOnce() {
+        // Given: a service backed by the corpus index
+        ReviewService indexedService = new ReviewService(reviewRepository, logPublisher, evaluationService, null,
+                new ReviewCorpusIndex(10));
+        Review existingReview = createReview(1L, 1L, "Good product");
+
+        EvaluationResult evaluationResult = EvaluationResult.builder()
+                .reviewId(2L)
+                .productId(1L)
+                .similarityScore(0.3)
+                .mostSimilarReviewId(1L)
+                .evaluationReason("Unique content")
+                .evaluatedAt(Instant.now())
+                .status(ReviewStatus.APPROVED)
+                .build();
+
+        when(reviewRepository.findByProductId(1L)).thenReturn(List.of(existingReview));
+        when(evaluationService.evaluate(any(Review.class), any(ProductCorpus.class))).thenReturn(evaluationResult);
+        when(reviewRepository.save(any(Review.class))).thenAnswer(invocation -> {
+            Review saved = invocation.getArgument(0);
+            saved.setId(2L);
+            return saved;
+        });
+
+        // When: two reviews are submitted for the same product
+        indexedService.createReview(createReview(null, 1L, "Great product!"));
+        indexedService.createReview(createReview(null, 1L, "Another review"));
+
+        // Then: existing reviews are loaded only once and never re-fetched per submission
+        verify(reviewRepository, times(1)).findByProductId(1L);
+        verify(reviewRepository, never()).findByProductIdAndIdNot(anyLong(), anyLong());
+        verify(evaluationService, times(2)).evaluate(any(Review.class), any(ProductCorpus.class));
+    }
+
+    @Test
+    void createReviewWithEvaluationQueueStoresPendingReviewAndQueuesIt() {
+        // Given: a service evaluating reviews asynchronously
+        ReviewEvaluationQueue evaluationQueue = mock(ReviewEvaluationQueue.class);
+        ReviewService asyncService = new ReviewService(reviewRepository, logPublisher, evaluationService, null,
+                null, evaluationQueue);
+        when(evaluationQueue.submit(1L, 1L)).thenReturn(true);
+        when(reviewRepository.save(any(Review.class))).thenAnswer(invocation -> {
+            Review saved = invocation.getArgument(0);
+            saved.setId(1L);
+            return saved;
+        });
+
+        // When: creating the review
+        Review result = asyncService.createReview(createReview(null, 1L, "Great product!"));
+
+        // Then: the review is stored once as PENDING and left to the queue
+        assertEquals(ReviewStatus.PENDING, result.getStatus());
+        assertNull(result.getEvaluatedAt());
+        verify(reviewRepository, times(1)).save(any(Review.class));
+        verify(evaluationQueue).submit(1L, 1L);
+        verifyNoInteractions(evaluationService);
+    }
+
+    @Test
+    void createReviewEvaluatesSynchronouslyWhenEvaluationQueueIsFull() {
+        // Given: a full evaluation queue
+        ReviewEvaluationQueue evaluationQueue = mock(ReviewEvaluationQueue.class);
+        ReviewService asyncService = new ReviewService(reviewRepository, logPublisher, evaluationService, null,
+                null, evaluationQueue);
+        EvaluationResult evaluationResult = EvaluationResult.builder()
+                .reviewId(1L)
+                .productId(1L)
+                .similarityScore(0.0)
+                .evaluationReason("No existing reviews to compare")
+                .evaluatedAt(Instant.now())
+                .status(ReviewStatus.APPROVED)
+                .build();
+        when(evaluationQueue.submit(1L, 1L)).thenReturn(false);
+        when(reviewRepository.findByProductIdAndIdNot(1L, 1L)).thenReturn(Collections.emptyList());
+        when(evaluationService.evaluate(any(Review.class), anyList())).thenReturn(evaluationResult);
+        when(reviewRepository.save(any(Review.class))).thenAnswer(invocation -> {
+            Review saved = invocation.getArgument(0);
+            saved.setId(1L);
+            return saved;
+        });
+
+        // When: creating the review
+        Review result = asyncService.createReview(createReview(null, 1L, "Great product!"));
+
+        // Then: the review is evaluated during the request
+        assertEquals(ReviewStatus.APPROVED, result.getStatus());
+        verify(reviewRepository, times(2)).save(any(Review.class));
+    }
+
+    @Test
+    void evaluatePendingReviewsSkipsReviewsModeratedInTheMeantime() {
+        // Given: one pending review and one already moderated
+        Review pending = createReview(1L, 1L, "Great product!");
+        pending.setStatus(ReviewStatus.PENDING);
+        Review moderated = createReview(2L, 1L, "Great product too!");
+
+        EvaluationResult evaluationResult = approved(0.2);
+        when(reviewRepository.claimForEvaluation(eq(1L), anyString(), any(Instant.class), any(Instant.class)))
+                .thenReturn(1);
+        when(reviewRepository.claimForEvaluation(eq(2L), anyString(), any(Instant.class), any(Instant.class)))
+                .thenReturn(0);
+        when(reviewRepository.findById(1L)).thenReturn(Optional.of(pending));
+        when(reviewRepository.findByProductIdAndIdNot(1L, 1L)).thenReturn(List.of(moderated));
+        when(evaluationService.evaluate(pending, List.of(moderated))).thenReturn(evaluationResult);
+        when(reviewRepository.completeEvaluation(eq(1L), anyString(), eq(ReviewStatus.APPROVED), eq(0.2), any(),
+                eq("Unique content"), any(Instant.class))).thenReturn(1);
+
+        // When: the queued batch is evaluated
+        reviewService.evaluatePendingReviews(1L, List.of(2L, 1L));
+
+        // Then: only the pending review is evaluated and updated
+        assertEquals(ReviewStatus.APPROVED, pending.getStatus());
+        assertEquals(0.2, pending.getSimilarityScore());
+        verify(evaluationService, times(1)).evaluate(any(Review.class), anyList());
+        verify(reviewRepository, never()).findById(2L);
+        verify(reviewRepository, never()).save(any(Review.class));
+    }
+
+    @Test
+    void evaluatePendingReviewsDoesNotOverwriteAModerationMadeDuringTheEvaluation() {
+        // Given: a pending review that is moderated while it is being evaluated
+        Review pending = createReview(1L, 1L, "Great product!");
+        pending.setStatus(ReviewStatus.PENDING);
+        when(reviewRepository.claimForEvaluation(eq(1L), anyString(), any(Instant.class), any(Instant.class)))
+                .thenReturn(1);
+        when(reviewRepository.findById(1L)).thenReturn(Optional.of(pending));
+        when(reviewRepository.findByProductIdAndIdNot(1L, 1L)).thenReturn(Collections.emptyList());
+        when(evaluationService.evaluate(pending, Collections.emptyList())).thenReturn(approved(0.0));
+        when(reviewRepository.completeEvaluation(eq(1L), anyString(), any(ReviewStatus.class), any(), any(), any(),
+                any(Instant.class))).thenReturn(0);
+
+        // When: the evaluation completes
+        reviewService.evaluatePendingReviews(1L, List.of(1L));
+
+        // Then: the guarded update leaves the moderation in place and nothing is published
+        verify(reviewRepository, never()).save(any(Review.class));
+        verifyNoInteractions(logPublisher);
+    }
+
+    @Test
+    void evaluatePendingReviewsSkipsReviewsClaimedByAnotherInstance() {
+        // Given: a pending review another instance already claimed
+        when(reviewRepository.claimForEvaluation(eq(1L), anyString(), any(Instant.class), any(Instant.class)))
+                .thenReturn(0);
+
+        // When: this instance drains the same review
+        reviewService.evaluatePendingReviews(1L, List.of(1L));
+
+        // Then: it is neither loaded, evaluated nor updated a second time
+        verifyNoInteractions(evaluationService);
+        verify(reviewRepository, never()).findById(anyLong());
+        verify(reviewRepository, never()).completeEvaluation(anyLong(), anyString(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void evaluatePendingReviewsRequeuesFailedEvaluationsAndThenReleasesTheClaim() {
+        // Given: a pending review whose evaluation keeps failing
+        ReviewEvaluationQueue evaluationQueue = mock(ReviewEvaluationQueue.class);
+        ReviewService asyncService = new ReviewService(reviewRepository, logPublisher, evaluationService, null, null,
+                evaluationQueue);
+        Review pending = createReview(1L, 1L, "Great product!");
+        pending.setStatus(ReviewStatus.PENDING);
+        when(reviewRepository.claimForEvaluation(eq(1L), anyString(), any(Instant.class), any(Instant.class)))
+                .thenReturn(1);
+        when(reviewRepository.findById(1L)).thenReturn(Optional.of(pending));
+        when(reviewRepository.findByProductIdAndIdNot(1L, 1L)).thenThrow(new IllegalStateException("db down"));
+        when(evaluationQueue.submit(1L, 1L)).thenReturn(true);
+
+        // When: every attempt fails
+        asyncService.evaluatePendingReviews(1L, List.of(1L));
+        asyncService.evaluatePendingReviews(1L, List.of(1L));
+        asyncService.evaluatePendingReviews(1L, List.of(1L));
+
+        // Then: the review is queued again twice, then its claim is released
+        verify(evaluationQueue, times(2)).submit(1L, 1L);
+        verify(reviewRepository, times(1)).releaseEvaluationClaim(eq(1L), anyString());
+        verify(reviewRepository, never()).completeEvaluation(anyLong(), anyString(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void createReviewRejectsCopiesFoundThroughTheFingerprintIndex() {
+        // Given: an existing review of the product with the same normalized text
+        Review copy = createReview(1L, 1L, "great product!");
+        EvaluationResult evaluationResult = EvaluationResult.builder()
+                .reviewId(2L)
+                .productId(1L)
+                .similarityScore(1.0)
+                .mostSimilarReviewId(1L)
+                .evaluationReason("Duplicate detected (copy of review 1, similarity: 0.95)")
+                .evaluatedAt(Instant.now())
+                .status(ReviewStatus.REJECTED)
+                .build();
+        when(reviewRepository.save(any(Review.class))).thenAnswer(invocation -> {
+            Review saved = invocation.getArgument(0);
+            saved.setId(2L);
+            saved.updateContentFingerprint(); // @PrePersist
+            return saved;
+        });
+        when(reviewRepository.findFirstByProductIdAndContentFingerprintAndIdNotOrderByIdAsc(eq(1L), anyLong(), eq(2L)))
+                .thenReturn(Optional.of(copy));
+        when(evaluationService.evaluateExactDuplicate(any(Review.class), eq(1L), eq("great product!")))
+                .thenReturn(evaluationResult);
+
+        // When
+        Review result = reviewService.createReview(createReview(null, 1L, "Great product"));
+
+        // Then: rejected without loading the product's reviews
+        assertEquals(ReviewStatus.REJECTED, result.getStatus());
+        assertEquals(1L, result.getMostSimilarReviewId());
+        verify(reviewRepository, never()).findByProductIdAndIdNot(anyLong(), anyLong());
+        verify(evaluationService, never()).evaluate(any(Review.class), anyList());
+    }
+
     /**
      * Helper method to create a Review instance for testing.
      */
@@ -301,4 +519,15 @@ class ReviewServiceTests {
         review.setStatus(ReviewStatus.APPROVED);
         return review;
     }
+
+    private static EvaluationResult approved(double similarityScore) {
+        return EvaluationResult.builder()
+                .reviewId(1L)
+                .productId(1L)
+                .similarityScore(similarityScore)
+                .evaluationReason("Unique content")
+                .evaluatedAt(Instant.now())
+                .status(ReviewStatus.APPROVED)
+                .build();
+    }
 }
@@ -0,0 +1,70 @@
+package nik.kalomiris.review_service.review;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the startup migration of the review status check constraint.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(ReviewStatusCheckMigration.class)
+class ReviewStatusCheckMigrationTests {
+
+    @Autowired
+    private ReviewStatusCheckMigration migration;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void migrate_replacesAConstraintCreatedBeforePendingExisted() {
+        // Given: a reviews table whose status check predates PENDING
+        Review review = new Review();
+        review.setProductId(1L);
+        review.setComment("Great product!");
+        review.setRating(5);
+        review.setStatus(ReviewStatus.APPROVED);
+        entityManager.persistAndFlush(review);
+        for (Map<String, Object> check : jdbcTemplate.queryForList(ReviewStatusCheckMigration.FIND_CHECKS_SQL)) {
+            if (String.valueOf(check.get("check_clause")).contains("'APPROVED'")) {
+                jdbcTemplate.execute("ALTER TABLE reviews DROP CONSTRAINT \"" + check.get("constraint_name") + "\"");
+            }
+        }
+        jdbcTemplate.execute("ALTER TABLE reviews ADD CONSTRAINT reviews_status_check "
+                + "CHECK (status IN ('APPROVED', 'FOR_MODERATION', 'REJECTED'))");
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "UPDATE reviews SET status = 'PENDING' WHERE id = ?", review.getId()));
+
+        // When: the migration runs
+        migration.migrate();
+
+        // Then: PENDING is accepted, and unknown values still are not
+        assertEquals(1, jdbcTemplate.update("UPDATE reviews SET status = 'PENDING' WHERE id = ?", review.getId()));
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "UPDATE reviews SET status = 'UNKNOWN' WHERE id = ?", review.getId()));
+    }
+
+    @Test
+    void isStale_recognizesConstraintsMissingAStatus() {
+        // PostgreSQL renders the in-list as an array comparison
+        assertTrue(ReviewStatusCheckMigration.isStale("((status)::text = ANY ((ARRAY['APPROVED'::character varying, "
+                + "'FOR_MODERATION'::character varying, 'REJECTED'::character varying])::text[]))"));
+        assertFalse(ReviewStatusCheckMigration.isStale(ReviewStatusCheckMigration.checkClause()));
+        // Constraints on other columns are left alone
+        assertFalse(ReviewStatusCheckMigration.isStale("rating >= 1"));
+    }
+}
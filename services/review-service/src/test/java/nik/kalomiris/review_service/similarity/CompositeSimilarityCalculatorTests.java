@@ -92,5 +92,33 @@ class CompositeSimilarityCalculatorTests {
             }
         }
     }
-}
 
+    @Test
+    void thresholdAwareSimilarityIsExactWhenUseful() {
+        SimilarityCalculator c1 = new TfidfCosineSimilarityCalculator();
+        SimilarityCalculator c2 = new LevenshteinSimilarityCalculator();
+        CompositeSimilarityCalculator composite = new CompositeSimilarityCalculator(c1, c2, 0.7, 0.3);
+
+        String[] texts = {
+            "Great product, highly recommend it to everyone!",
+            "Great product, I highly recommend this item!",
+            "Terrible quality",
+            "Fast shipping excellent service"
+        };
+        double[] floors = { 0.0, 0.25, 0.5, 0.65, 0.8, 1.0 };
+
+        for (String t1 : texts) {
+            for (String t2 : texts) {
+                double exact = composite.similarity(t1, t2);
+                for (double floor : floors) {
+                    double bounded = composite.similarity(t1, t2, floor);
+                    if (exact >= floor) {
+                        assertEquals(exact, bounded, 1e-12);
+                    } else {
+                        assertTrue(bounded < floor, "Pruned pair must score below " + floor + ", got: " + bounded);
+                    }
+                }
+            }
+        }
+    }
+}
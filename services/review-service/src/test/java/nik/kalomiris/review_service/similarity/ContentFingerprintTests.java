@@ -0,0 +1,55 @@
+package nik.kalomiris.review_service.similarity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ContentFingerprint}.
+ */
+class ContentFingerprintTests {
+
+    @Test
+    void fingerprintIgnoresCaseAndPunctuation() {
+        Long fingerprint = ContentFingerprint.fingerprint("Amazing product, best purchase ever!");
+
+        assertEquals(fingerprint, ContentFingerprint.fingerprint("amazing   PRODUCT - best purchase ever"));
+    }
+
+    @Test
+    void fingerprintKeepsStopWordsAndShortWords() {
+        assertNotEquals(ContentFingerprint.fingerprint("Amazing product, best purchase ever"),
+                ContentFingerprint.fingerprint("Amazing product, the best purchase ever"));
+        assertNotEquals(ContentFingerprint.fingerprint("It is great"), ContentFingerprint.fingerprint("great"));
+        assertNotEquals(ContentFingerprint.fingerprint("5 stars"), ContentFingerprint.fingerprint("stars"));
+    }
+
+    @Test
+    void fingerprintDependsOnTermsAndTheirOrder() {
+        assertNotEquals(ContentFingerprint.fingerprint("amazing product"), ContentFingerprint.fingerprint("product amazing"));
+        assertNotEquals(ContentFingerprint.fingerprint("ab cd"), ContentFingerprint.fingerprint("abc d"));
+        assertNotEquals(ContentFingerprint.fingerprint("great product"), ContentFingerprint.fingerprint("great price"));
+    }
+
+    @Test
+    void textsWithoutTermsHaveNoFingerprint() {
+        assertNull(ContentFingerprint.fingerprint(null));
+        assertNull(ContentFingerprint.fingerprint("!! - ?"));
+        assertNull(ContentFingerprint.simHash("the"));
+    }
+
+    @Test
+    void simHashKeepsNearCopiesWithinFewBits() {
+        String text = "This blender is amazing, crushes ice in seconds and cleans up easily, would buy again";
+        String nearCopy = "This blender is great, crushes ice in seconds and cleans up easily, would buy again";
+        String unrelated = "Battery died after a week and support never answered";
+
+        int nearDistance = ContentFingerprint.hammingDistance(
+                ContentFingerprint.simHash(text), ContentFingerprint.simHash(nearCopy));
+        int unrelatedDistance = ContentFingerprint.hammingDistance(
+                ContentFingerprint.simHash(text), ContentFingerprint.simHash(unrelated));
+
+        assertTrue(nearDistance <= 5, "near copy distance was " + nearDistance);
+        assertTrue(unrelatedDistance > 10, "unrelated distance was " + unrelatedDistance);
+    }
+}
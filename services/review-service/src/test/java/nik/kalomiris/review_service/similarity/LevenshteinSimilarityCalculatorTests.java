@@ -2,6 +2,8 @@ package nik.kalomiris.review_service.similarity;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -160,4 +162,81 @@ class LevenshteinSimilarityCalculatorTests {
         assertTrue(elapsed < 10_000_000, // 10ms
                 "Similarity should compute quickly, took: " + elapsed / 1_000_000 + "ms");
     }
+
+    @Test
+    void boundedDistanceMatchesFullDistanceWithinBudget() {
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            String s = randomText(random, random.nextInt(20));
+            String t = randomText(random, random.nextInt(20));
+            int exact = fullDistance(s, t);
+            for (int budget = 0; budget <= 20; budget++) {
+                int bounded = calc.boundedDistance(s, t, budget);
+                if (exact <= budget) {
+                    assertEquals(exact, bounded, "distance of '" + s + "' and '" + t + "'");
+                } else {
+                    assertEquals(budget + 1, bounded, "distance of '" + s + "' and '" + t + "'");
+                }
+            }
+        }
+    }
+
+    @Test
+    void thresholdAwareSimilarityIsExactWhenUseful() {
+        String[] texts = {
+            "Great product highly recommend",
+            "Great product I highly recommend",
+            "Terrible product broke immediately",
+            "kitten",
+            "sitting",
+            ""
+        };
+        double[] floors = { 0.0, 0.3, 0.5, 0.8, 0.95, 1.0 };
+
+        for (String a : texts) {
+            for (String b : texts) {
+                double exact = calc.similarity(a, b);
+                for (double floor : floors) {
+                    double bounded = calc.similarity(a, b, floor);
+                    if (exact >= floor) {
+                        assertEquals(exact, bounded, 1e-12);
+                    } else {
+                        assertTrue(bounded < floor, "Pruned pair must score below " + floor + ", got: " + bounded);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void thresholdAwareSimilarityAbandonsPairsThatDifferTooMuchInLength() {
+        // 10 vs 30 characters: at least 20 edits, so similarity <= 1/3
+        assertEquals(0.0, calc.similarity("abcdefghij", "abcdefghij" + "x".repeat(20), 0.5), 1e-9);
+        assertEquals(1.0 / 3.0, LevenshteinSimilarityCalculator.lengthUpperBound("abcdefghij",
+                "abcdefghij" + "x".repeat(20)), 1e-9);
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(3)));
+        }
+        return sb.toString();
+    }
+
+    // Reference implementation: unbanded DP over the full table
+    private static int fullDistance(String s, String t) {
+        int[][] d = new int[s.length() + 1][t.length() + 1];
+        for (int i = 0; i <= s.length(); i++)
+            d[i][0] = i;
+        for (int j = 0; j <= t.length(); j++)
+            d[0][j] = j;
+        for (int i = 1; i <= s.length(); i++) {
+            for (int j = 1; j <= t.length(); j++) {
+                int cost = s.charAt(i - 1) == t.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+            }
+        }
+        return d[s.length()][t.length()];
+    }
 }
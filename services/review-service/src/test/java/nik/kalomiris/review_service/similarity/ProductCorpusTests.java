@@ -0,0 +1,204 @@
+package nik.kalomiris.review_service.similarity;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ProductCorpus} and {@link ReviewCorpusIndex}.
+ * Validates incremental indexing, document frequencies, eviction and expiry.
+ */
+class ProductCorpusTests {
+
+    @Test
+    void putIndexesDocumentsInInsertionOrder() {
+        ProductCorpus corpus = new ProductCorpus(1L);
+        corpus.put(2L, "hello world");
+        corpus.put(1L, "hello there");
+
+        List<CorpusDocument> documents = corpus.documents();
+        assertEquals(2, documents.size());
+        assertEquals(2L, documents.get(0).getReviewId());
+        assertEquals(1L, documents.get(1).getReviewId());
+        assertEquals(2, corpus.documentFrequency("hello"));
+        assertEquals(1, corpus.documentFrequency("world"));
+    }
+
+    @Test
+    void updatingDocumentAdjustsFrequencies() {
+        ProductCorpus corpus = new ProductCorpus(1L);
+        corpus.put(1L, "hello world");
+        corpus.put(1L, "goodbye world");
+
+        assertEquals(1, corpus.size());
+        assertEquals(0, corpus.documentFrequency("hello"));
+        assertEquals(1, corpus.documentFrequency("goodbye"));
+        assertEquals("goodbye world", corpus.documents().get(0).getText());
+    }
+
+    @Test
+    void generationChangesOnReplaceAndRemoveButNotOnAppend() {
+        ProductCorpus corpus = new ProductCorpus(1L);
+        corpus.put(1L, "hello world");
+        long generation = corpus.getGeneration();
+        long mark = corpus.getAppendMark();
+
+        corpus.put(2L, "hello there");
+        corpus.put(1L, "hello world");
+        assertEquals(generation, corpus.getGeneration());
+        assertEquals(List.of(2L), corpus.documentsAddedSince(mark).stream().map(CorpusDocument::getReviewId).toList());
+
+        corpus.put(1L, "goodbye world");
+        long replaced = corpus.getGeneration();
+        assertNotEquals(generation, replaced);
+        corpus.remove(2L);
+        assertNotEquals(replaced, corpus.getGeneration());
+        assertNotEquals(new ProductCorpus(1L).getGeneration(), corpus.getGeneration());
+    }
+
+    @Test
+    void findExactDuplicateMatchesNormalizedTextOfOtherReviews() {
+        ProductCorpus corpus = new ProductCorpus(1L);
+        corpus.put(1L, "Hello World");
+        corpus.put(2L, "hello, world!");
+        corpus.put(3L, "goodbye world");
+        Long fingerprint = ContentFingerprint.fingerprint("HELLO world");
+
+        assertEquals(1L, corpus.findExactDuplicate(null, fingerprint));
+        assertEquals(2L, corpus.findExactDuplicate(1L, fingerprint));
+        corpus.remove(1L);
+        corpus.remove(2L);
+        assertNull(corpus.findExactDuplicate(null, fingerprint));
+    }
+
+    @Test
+    void removeAndEmptyTextDropDocuments() {
+        ProductCorpus corpus = new ProductCorpus(1L);
+        corpus.put(1L, "hello world");
+        corpus.put(2L, "hello there");
+
+        assertTrue(corpus.remove(1L));
+        assertFalse(corpus.remove(1L));
+        corpus.put(2L, null);
+
+        assertEquals(0, corpus.size());
+        assertEquals(0, corpus.documentFrequency("hello"));
+    }
+
+    @Test
+    void candidatesShareAtLeastOneTermWithQuery() {
+        ProductCorpus corpus = new ProductCorpus(1L);
+        corpus.put(1L, "great battery life");
+        corpus.put(2L, "terrible customer service");
+        corpus.put(3L, "battery died quickly");
+        corpus.put(1L, "great screen");
+
+        List<CorpusDocument> candidates = corpus.candidates(corpus.query("The battery is great"));
+
+        assertEquals(2, candidates.size());
+        assertEquals(1L, candidates.get(0).getReviewId(), "updated review keeps its position");
+        assertEquals(3L, candidates.get(1).getReviewId());
+        assertTrue(corpus.candidates(corpus.query("shipping was slow")).isEmpty());
+    }
+
+    @Test
+    void queryStatisticsAreASnapshotAndNewTermsAreNotIndexed() {
+        ProductCorpus corpus = new ProductCorpus(1L);
+        corpus.put(1L, "great battery");
+        CorpusQuery query = corpus.query("great shipping");
+        int greatId = query.getVector().termId(1);
+        int shippingId = query.getVector().termId(0);
+
+        corpus.put(2L, "great screen");
+        corpus.put(3L, "shipping was fast");
+
+        CorpusStatistics statistics = query.getStatistics();
+        assertEquals(2, statistics.getDocumentCount());
+        assertEquals(2, statistics.documentFrequency(greatId), "indexed review plus the query");
+        assertEquals(1, statistics.documentFrequency(shippingId), "only the query");
+        assertTrue(shippingId < 0, "new query terms are not added to the dictionary");
+        assertEquals(3, corpus.documentFrequency("great"));
+        assertEquals(List.of(1L, 2L), corpus.candidates(query).stream().map(CorpusDocument::getReviewId).toList());
+    }
+
+    @Test
+    void indexLoadsCorpusOnceAndIgnoresUnloadedProducts() {
+        ReviewCorpusIndex index = new ReviewCorpusIndex(10);
+        index.put(1L, 5L, "ignored, product not loaded");
+
+        int[] loads = { 0 };
+        ProductCorpus corpus = index.corpusFor(1L, c -> {
+            loads[0]++;
+            c.put(1L, "hello world");
+        });
+        index.corpusFor(1L, c -> loads[0]++);
+        index.put(1L, 2L, "hello there");
+
+        assertEquals(1, loads[0]);
+        assertEquals(2, corpus.size());
+    }
+
+    @Test
+    void indexEvictsLeastRecentlyUsedProduct() {
+        ReviewCorpusIndex index = new ReviewCorpusIndex(2);
+        index.corpusFor(1L, c -> c.put(1L, "one"));
+        index.corpusFor(2L, c -> c.put(2L, "two"));
+        index.corpusFor(1L, c -> fail("product 1 should still be cached"));
+        index.corpusFor(3L, c -> c.put(3L, "three"));
+
+        assertEquals(2, index.size());
+        int[] reloads = { 0 };
+        index.corpusFor(2L, c -> reloads[0]++);
+        assertEquals(1, reloads[0], "product 2 should have been evicted");
+    }
+
+    @Test
+    void indexReloadsCorpusOlderThanTheTimeToLive() {
+        long[] now = { 0 };
+        ReviewCorpusIndex index = new ReviewCorpusIndex(10, Duration.ofMinutes(5), () -> now[0]);
+        ProductCorpus first = index.corpusFor(1L, c -> c.put(1L, "one"));
+
+        now[0] += Duration.ofMinutes(4).toNanos();
+        assertSame(first, index.corpusFor(1L, c -> fail("corpus should still be fresh")));
+
+        // Reviews written by another instance show up once the corpus expires
+        now[0] += Duration.ofMinutes(1).toNanos();
+        ProductCorpus reloaded = index.corpusFor(1L, c -> {
+            c.put(1L, "one");
+            c.put(2L, "two");
+        });
+        assertNotSame(first, reloaded);
+        assertEquals(2, reloaded.size());
+    }
+
+    @Test
+    void loadDoesNotRestoreReviewsChangedWhileLoading() {
+        ReviewCorpusIndex index = new ReviewCorpusIndex(10);
+        ProductCorpus corpus = index.corpusFor(1L, c -> {
+            // The loader read reviews 1 and 2, then both change before it indexes them
+            Thread writer = new Thread(() -> {
+                index.remove(1L, 1L);
+                index.put(1L, 2L, "updated text");
+            });
+            writer.start();
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            c.put(1L, "deleted review");
+            c.put(2L, "stale text");
+            c.put(3L, "unchanged review");
+        });
+
+        assertFalse(corpus.contains(1L));
+        assertEquals("updated text", corpus.document(2L).getText());
+        assertTrue(corpus.contains(3L));
+        // Once loaded, updates apply as usual
+        corpus.put(1L, "recreated review");
+        assertTrue(corpus.contains(1L));
+    }
+}
@@ -2,7 +2,9 @@ package nik.kalomiris.review_service.similarity;
 
 import org.junit.jupiter.api.Test;
 
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -61,69 +63,49 @@ class TfidfCosineSimilarityCalculatorTests {
     }
 
     @Test
-    void tokenizeAndCountBasic() {
-        Map<String, Integer> counts = calc.tokenizeAndCount("hello world hello");
-        assertEquals(2, counts.get("hello"), "hello should appear twice");
-        assertEquals(1, counts.get("world"), "world should appear once");
+    void vectorizeCountsTerms() {
+        assertTermCounts(Map.of("hello", 2, "world", 1), "hello world hello");
     }
 
     @Test
-    void tokenizeAndCountIgnoresStopWords() {
-        Map<String, Integer> counts = calc.tokenizeAndCount("the quick brown fox");
-        assertEquals(null, counts.get("the"), "Stop word 'the' should be filtered");
-        assertEquals(1, counts.get("quick"));
-        assertEquals(1, counts.get("brown"));
+    void vectorizeIgnoresStopWords() {
+        assertTermCounts(Map.of("quick", 1, "brown", 1, "fox", 1), "the quick brown fox");
     }
 
     @Test
-    void idfComputationForSimpleCorpus() {
-        var docs = Arrays.asList("hello world", "hello there", "goodbye world");
-        Map<String, Double> idf = calc.computeIdf(docs);
+    void rareSharedTermsWeighMoreThanCommonOnes() {
+        ProductCorpus corpus = new ProductCorpus(1L);
+        corpus.put(1L, "hello world");
+        corpus.put(2L, "hello there");
+        corpus.put(3L, "goodbye world");
 
-        // 'hello' appears in 2/3 docs, 'world' in 2/3, 'there' in 1/3, 'goodbye' in 1/3
-        // IDF = ln((N+1)/(df+1)) + 1
-        // hello: ln(4/3) + 1 ≈ 1.288
-        // world: ln(4/3) + 1 ≈ 1.288
-        // there: ln(4/2) + 1 ≈ 1.693
-        // goodbye: ln(4/2) + 1 ≈ 1.693
+        QueryScorer scorer = calc.prepare(corpus.query("hello goodbye"));
 
-        assertTrue(idf.get("hello") < idf.get("there"),
-                "Common term 'hello' should have lower IDF than rare term 'there'");
-        assertTrue(idf.get("world") < idf.get("goodbye"),
-                "Common term 'world' should have lower IDF than rare term 'goodbye'");
+        // 'hello' is in 3 of the 4 documents (with the query), 'goodbye' in 2
+        assertTrue(scorer.score(corpus.document(3L)) > scorer.score(corpus.document(1L)),
+                "Sharing the rare term 'goodbye' should score higher than sharing the common term 'hello'");
     }
 
     @Test
-    void tfidfVectorComputesCorrectly() {
-        Map<String, Integer> counts = Map.of("hello", 3, "world", 1);
-        Map<String, Double> idf = Map.of("hello", 1.5, "world", 2.0);
+    void corpusScoreUsesLogScaledTfAndSmoothedIdf() {
+        double[] scores = calc.scoreAgainst("hello hello hello world", List.of("hello"));
 
-        Map<String, Double> vector = calc.tfidfVector(counts, idf);
-
-        // TF(hello) = 1 + ln(3) ≈ 2.0986
-        // TF-IDF(hello) = 2.0986 * 1.5 ≈ 3.148
-        assertTrue(vector.get("hello") > 3.0 && vector.get("hello") < 3.2,
-                "TF-IDF for 'hello' should be ~3.148, got: " + vector.get("hello"));
-
-        // TF(world) = 1 + ln(1) = 1.0
-        // TF-IDF(world) = 1.0 * 2.0 = 2.0
-        assertEquals(2.0, vector.get("world"), 0.01,
-                "TF-IDF for 'world' should be 2.0");
+        // N = 2: IDF(hello) = ln(3/3) + 1 = 1, IDF(world) = ln(3/2) + 1
+        double hello = 1.0 + Math.log(3);
+        double world = Math.log(1.5) + 1.0;
+        assertEquals(hello / Math.sqrt(hello * hello + world * world), scores[0], 1e-9);
     }
 
     @Test
-    void cosineSimilarityOfIdenticalVectorsIsOne() {
-        Map<String, Double> v = Map.of("hello", 1.0, "world", 2.0);
-        double sim = calc.cosineSimilarity(v, v);
-        assertEquals(1.0, sim, 1e-9, "Cosine of identical vectors should be 1.0");
+    void documentsWithTheSameTermsScoreOne() {
+        double[] scores = calc.scoreAgainst("Hello, world", List.of("world hello"));
+        assertEquals(1.0, scores[0], 1e-9, "Cosine of identical vectors should be 1.0");
     }
 
     @Test
-    void cosineSimilarityOfOrthogonalVectorsIsZero() {
-        Map<String, Double> v1 = Map.of("hello", 1.0);
-        Map<String, Double> v2 = Map.of("world", 1.0);
-        double sim = calc.cosineSimilarity(v1, v2);
-        assertEquals(0.0, sim, 1e-9, "Cosine of orthogonal vectors should be 0.0");
+    void documentsWithoutSharedTermsScoreZero() {
+        double[] scores = calc.scoreAgainst("hello", List.of("world"));
+        assertEquals(0.0, scores[0], 1e-9, "Cosine of orthogonal vectors should be 0.0");
     }
 
     @Test
@@ -135,6 +117,150 @@ class TfidfCosineSimilarityCalculatorTests {
         assertTrue(s > 0.7, "Special characters should be normalized, got: " + s);
     }
 
+    @Test
+    void vectorizeMatchesRegexNormalization() {
+        String[] texts = {
+                "Great product!!! 5/5 stars!!!",
+                "  leading and trailing  ",
+                "Ünïcödé café naïve ½ x² ٣٤ İstanbul",
+                "snake_case, kebab-case & e-mail@example.com",
+                "a b c dd ee THE The the" };
+        for (String text : texts) {
+            Map<String, Integer> expected = new HashMap<>();
+            String normalized = text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+            for (String token : normalized.split("\\s+")) {
+                if (token.length() >= 2 && !List.of("the", "and").contains(token))
+                    expected.merge(token, 1, Integer::sum);
+            }
+            assertTermCounts(expected, text);
+        }
+    }
+
+    @Test
+    void vectorizeProducesSortedTermIdsWithLogScaledWeights() {
+        TermDictionary dictionary = new TermDictionary();
+        calc.vectorize("world", dictionary);
+
+        TermVector vector = calc.vectorize("hello world hello", dictionary);
+
+        assertEquals(2, vector.size());
+        assertEquals(dictionary.find("world"), vector.termId(0));
+        assertEquals(dictionary.find("hello"), vector.termId(1));
+        assertEquals(1.0f, vector.weight(0), 1e-6);
+        assertEquals((float) (1.0 + Math.log(2)), vector.weight(1), 1e-6);
+        assertTrue(calc.vectorize("the a", dictionary).isEmpty());
+    }
+
+    @Test
+    void vectorizeQueryDoesNotInternUnknownTerms() {
+        TermDictionary dictionary = new TermDictionary();
+        calc.vectorize("world", dictionary);
+
+        TermVector vector = calc.vectorizeQuery("hello world hello shipping", dictionary);
+
+        assertEquals(1, dictionary.size(), "query terms must not be added to the dictionary");
+        assertEquals(3, vector.size());
+        assertTrue(vector.termId(0) < 0 && vector.termId(1) < 0, "unknown terms get transient negative ids");
+        assertEquals(dictionary.find("world"), vector.termId(2));
+        assertEquals(1.0f, vector.weight(2), 1e-6);
+    }
+
+    @Test
+    void vectorSimilarityMatchesPairwiseSimilarity() {
+        String[] texts = {
+                "Great product, highly recommend it to everyone!",
+                "Great product, I highly recommend this item!",
+                "hello hello world",
+                "the a",
+                "" };
+        TermDictionary dictionary = new TermDictionary();
+        for (String a : texts) {
+            for (String b : texts) {
+                if (a.equals(b))
+                    continue;
+                assertEquals(calc.similarity(a, b),
+                        calc.pairwiseSimilarity(calc.vectorize(a, dictionary), calc.vectorize(b, dictionary)), 1e-9,
+                        "Vector path must match pairwise similarity for '" + a + "' vs '" + b + "'");
+            }
+        }
+    }
+
+    @Test
+    void preparedQueryScoresCorpusDocuments() {
+        ProductCorpus corpus = new ProductCorpus(1L);
+        corpus.put(1L, "excellent product");
+        corpus.put(2L, "the excellent product is a great product");
+
+        QueryScorer scorer = calc.prepare(corpus.query("excellent product"));
+        List<CorpusDocument> documents = corpus.documents();
+
+        assertEquals(1.0, scorer.score(documents.get(0)), 1e-9);
+        double[] batch = calc.scoreAgainst("excellent product",
+                List.of("excellent product", "the excellent product is a great product"));
+        assertEquals(batch[1], scorer.score(documents.get(1)), 1e-9);
+    }
+
+    @Test
+    void preparedQueryWithNewTermsMatchesBatchScoring() {
+        ProductCorpus corpus = new ProductCorpus(1L);
+        corpus.put(1L, "excellent product");
+        corpus.put(2L, "fast shipping, great product");
+
+        QueryScorer scorer = calc.prepare(corpus.query("excellent value, slow delivery"));
+        double[] batch = calc.scoreAgainst("excellent value, slow delivery",
+                List.of("excellent product", "fast shipping, great product"));
+
+        List<CorpusDocument> documents = corpus.documents();
+        assertEquals(batch[0], scorer.score(documents.get(0)), 1e-9);
+        assertEquals(batch[1], scorer.score(documents.get(1)), 1e-9);
+    }
+
+    @Test
+    void upperBoundIsAtLeastTheScoreAndPrunesShortDocuments() {
+        ProductCorpus corpus = new ProductCorpus(1L);
+        corpus.put(1L, "battery");
+        corpus.put(2L, "great battery life, fast charging and bright screen");
+        corpus.put(3L, "screen");
+        corpus.put(4L, "great battery life, fast charging and bright screen");
+
+        QueryScorer scorer = calc.prepare(corpus.query("great battery life, fast charging and bright screen"));
+
+        for (CorpusDocument document : corpus.documents()) {
+            assertTrue(scorer.upperBound(document) >= scorer.score(document),
+                    "Bound must not be below the score of review " + document.getReviewId());
+        }
+        assertTrue(scorer.upperBound(corpus.document(1L)) < 1.0,
+                "A single-term review cannot match a long query");
+        assertEquals(1.0, scorer.upperBound(corpus.document(4L)), 1e-9);
+    }
+
+    @Test
+    void scoreAgainstSingleDocumentMatchesPairwiseSimilarity() {
+        String query = "Great product, I highly recommend this item!";
+        String document = "Great product, highly recommend it to everyone!";
+
+        double[] scores = calc.scoreAgainst(query, List.of(document));
+
+        assertEquals(1, scores.length);
+        assertEquals(calc.similarity(query, document), scores[0], 1e-9);
+    }
+
+    @Test
+    void scoreAgainstWeighsCorpusWideTermsLess() {
+        String query = "great battery";
+        List<String> corpus = List.of("great screen", "great sound", "great battery life", "", "great battery");
+
+        double[] scores = calc.scoreAgainst(query, corpus);
+
+        assertEquals(corpus.size(), scores.length);
+        // "great" is in almost every review, so sharing only it counts for less
+        assertTrue(scores[0] < calc.similarity(query, "great screen"),
+                "Corpus IDF should down-weight common terms, got: " + scores[0]);
+        assertTrue(scores[2] > scores[0], "Sharing a rare term should score higher");
+        assertEquals(0.0, scores[3], 1e-9);
+        assertEquals(1.0, scores[4], 1e-9);
+    }
+
     @Test
     void performanceWithLargeText() {
         // Generate a reasonably large review (simulate real review text)
@@ -152,4 +278,21 @@ class TfidfCosineSimilarityCalculatorTests {
         assertTrue(elapsed < 50_000_000, // 50ms
                 "Similarity should compute in < 50ms for ~200 words, took: " + elapsed / 1_000_000 + "ms");
     }
+
+    // Vectorizes the text and checks it holds exactly the given terms, each
+    // weighted by its log-scaled count
+    private void assertTermCounts(Map<String, Integer> expected, String text) {
+        TermDictionary dictionary = new TermDictionary();
+        TermVector vector = calc.vectorize(text, dictionary);
+        assertEquals(expected.size(), vector.size(), "Terms of '" + text + "'");
+        for (int i = 0; i < vector.size(); i++) {
+            int termId = vector.termId(i);
+            String term = expected.keySet().stream()
+                    .filter(t -> dictionary.find(t) == termId)
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError("Unexpected term in '" + text + "'"));
+            assertEquals((float) (1.0 + Math.log(expected.get(term))), vector.weight(i), 1e-6,
+                    "Weight of '" + term + "' in '" + text + "'");
+        }
+    }
 }